@@ -0,0 +1,10 @@
+-- Checkout reservation against the single inventory row of one product.
+-- pg_sleep stands in for the rest of the order transaction (order and item inserts)
+-- while the row lock is held.
+\set qty 1
+BEGIN;
+UPDATE inventory
+   SET quantity_in_stock = quantity_in_stock - :qty, updated_at = now()
+ WHERE product_id = :product_id AND quantity_in_stock >= :qty;
+SELECT pg_sleep(0.002);
+COMMIT;
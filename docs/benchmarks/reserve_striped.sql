@@ -0,0 +1,11 @@
+-- Checkout reservation against a striped product: one random stripe is locked per transaction.
+-- pg_sleep stands in for the rest of the order transaction while the stripe lock is held.
+\set qty 1
+\set stripe random(0, :stripes - 1)
+BEGIN;
+UPDATE inventory_stripes
+   SET quantity = quantity - :qty
+ WHERE inventory_id = (SELECT inventory_id FROM inventory WHERE product_id = :product_id)
+   AND stripe_index = :stripe AND quantity >= :qty;
+SELECT pg_sleep(0.002);
+COMMIT;
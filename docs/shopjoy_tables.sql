@@ -53,7 +53,26 @@ CREATE TABLE inventory (
     reorder_level INTEGER DEFAULT 10,
     warehouse_location VARCHAR(100),
     last_restocked TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    stripe_count INTEGER NOT NULL DEFAULT 0,
+    reserved_quantity INTEGER NOT NULL DEFAULT 0 CHECK (reserved_quantity >= 0),
+    stock_version BIGINT NOT NULL DEFAULT 0
+);
+
+-- ============================================
+-- INVENTORY STRIPES TABLE
+-- ============================================
+-- Stock of hot products split over several rows; the product's stock is the sum of its stripes.
+-- version and updated_at are bumped by single-stripe reservations; held is set while the product has stock holds
+CREATE TABLE inventory_stripes (
+    stripe_id SERIAL PRIMARY KEY,
+    inventory_id INTEGER NOT NULL REFERENCES inventory(inventory_id) ON DELETE CASCADE,
+    stripe_index INTEGER NOT NULL,
+    quantity INTEGER NOT NULL DEFAULT 0 CHECK (quantity >= 0),
+    version BIGINT NOT NULL DEFAULT 0,
+    held BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(inventory_id, stripe_index)
 );
 
 -- ============================================
@@ -70,7 +89,8 @@ CREATE TABLE orders (
     payment_status VARCHAR(20) DEFAULT 'UNPAID' CHECK (payment_status IN ('UNPAID', 'PAID', 'REFUNDED')),
     notes TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 -- ============================================
@@ -119,6 +139,22 @@ CREATE TABLE addresses (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- ============================================
+-- STOCK HOLDS TABLE
+-- ============================================
+-- Time-limited stock holds taken when checkout begins; active quantities are summed
+-- incrementally into inventory.reserved_quantity
+CREATE TABLE stock_holds (
+    hold_id SERIAL PRIMARY KEY,
+    product_id INTEGER NOT NULL REFERENCES products(product_id) ON DELETE CASCADE,
+    user_id INTEGER NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE'
+        CHECK (status IN ('ACTIVE', 'CONVERTED', 'RELEASED', 'EXPIRED')),
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 -- ============================================
 -- CART ITEMS TABLE
 -- ============================================
@@ -131,6 +167,35 @@ CREATE TABLE cart_items (
     UNIQUE(user_id, product_id)
 );
 
+-- ============================================
+-- SALES ROLLUPS TABLE
+-- ============================================
+-- Hourly and daily order totals per product, category, status and payment status,
+-- maintained incrementally from the deltas order writes record in sales_rollup_deltas
+CREATE TABLE sales_rollups (
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('HOUR', 'DAY')),
+    dimension VARCHAR(20) NOT NULL CHECK (dimension IN ('PRODUCT', 'CATEGORY', 'STATUS', 'PAYMENT_STATUS')),
+    bucket_start TIMESTAMP NOT NULL,
+    dimension_key VARCHAR(50) NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    units_sold BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularity, dimension, bucket_start, dimension_key)
+);
+
+-- Signed changes to sales_rollups, appended by order transactions and merged into
+-- the rollups after they commit, so concurrent orders never update the same row
+CREATE TABLE sales_rollup_deltas (
+    delta_id BIGSERIAL PRIMARY KEY,
+    granularity VARCHAR(10) NOT NULL,
+    dimension VARCHAR(20) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    dimension_key VARCHAR(50) NOT NULL,
+    order_count BIGINT NOT NULL,
+    units_sold BIGINT NOT NULL,
+    revenue DECIMAL(14, 2) NOT NULL
+);
+
 
 -- ============================================
 -- USERS TABLE INDEXES
@@ -139,6 +204,14 @@ CREATE TABLE cart_items (
 CREATE INDEX idx_users_user_type ON users(user_type);
 CREATE INDEX idx_users_created_at ON users(created_at);
 
+-- Admin order search matches users case-insensitively: exact email lookups and
+-- substring matches on names and email (trigram indexes serve leading-wildcard LIKE)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_users_email_lower ON users(lower(email));
+CREATE INDEX idx_users_first_name_trgm ON users USING GIN(lower(first_name) gin_trgm_ops);
+CREATE INDEX idx_users_last_name_trgm ON users USING GIN(lower(last_name) gin_trgm_ops);
+CREATE INDEX idx_users_email_trgm ON users USING GIN(lower(email) gin_trgm_ops);
+
 -- ============================================
 -- CATEGORIES TABLE INDEXES
 -- ============================================
@@ -158,6 +231,9 @@ CREATE INDEX idx_products_created_at ON products(created_at);
 -- Composite index for common product listing queries
 CREATE INDEX idx_products_active_category ON products(is_active, category_id);
 
+-- Per-category product pages in product ID order (GraphQL Category.productConnection)
+CREATE INDEX idx_products_category_product ON products(category_id, product_id);
+
 -- Full-text search on product name and description (PostgreSQL specific)
 CREATE INDEX idx_products_search ON products USING GIN(to_tsvector('english', product_name || ' ' || COALESCE(description, '')));
 
@@ -168,6 +244,14 @@ CREATE INDEX idx_products_search ON products USING GIN(to_tsvector('english', pr
 CREATE INDEX idx_inventory_quantity ON inventory(quantity_in_stock);
 CREATE INDEX idx_inventory_low_stock ON inventory(quantity_in_stock, reorder_level) 
     WHERE quantity_in_stock <= reorder_level;
+-- (inventory_id, stripe_index) on inventory_stripes already has a unique index from UNIQUE constraint
+
+-- ============================================
+-- STOCK HOLDS TABLE INDEXES
+-- ============================================
+-- Sweeper scans active holds by expiry; checkout looks up a user's active holds
+CREATE INDEX idx_stock_holds_active_expiry ON stock_holds(expires_at) WHERE status = 'ACTIVE';
+CREATE INDEX idx_stock_holds_user_active ON stock_holds(user_id) WHERE status = 'ACTIVE';
 
 -- ============================================
 -- ORDERS TABLE INDEXES
@@ -182,6 +266,10 @@ CREATE INDEX idx_orders_created_at ON orders(created_at);
 CREATE INDEX idx_orders_user_status ON orders(user_id, status);
 CREATE INDEX idx_orders_user_date ON orders(user_id, order_date DESC);
 
+-- Admin order search: case-insensitive substring matches on address and notes
+CREATE INDEX idx_orders_shipping_address_trgm ON orders USING GIN(lower(shipping_address) gin_trgm_ops);
+CREATE INDEX idx_orders_notes_trgm ON orders USING GIN(lower(notes) gin_trgm_ops);
+
 -- ============================================
 -- ORDER_ITEMS TABLE INDEXES
 -- ============================================
@@ -191,6 +279,14 @@ CREATE INDEX idx_order_items_product_id ON order_items(product_id);
 -- Composite for order details retrieval
 CREATE INDEX idx_order_items_order_product ON order_items(order_id, product_id);
 
+-- ============================================
+-- SALES ROLLUPS TABLE INDEXES
+-- ============================================
+-- Range reads use the primary key (granularity, dimension, bucket_start, dimension_key);
+-- the backfill deletes by bucket_start alone
+CREATE INDEX idx_sales_rollups_bucket_start ON sales_rollups(bucket_start);
+CREATE INDEX idx_sales_rollup_deltas_bucket_start ON sales_rollup_deltas(bucket_start);
+
 -- ============================================
 -- REVIEWS TABLE INDEXES
 -- ============================================
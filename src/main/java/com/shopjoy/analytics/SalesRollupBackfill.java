@@ -0,0 +1,84 @@
+package com.shopjoy.analytics;
+
+import com.shopjoy.config.SalesRollupProperties;
+import com.shopjoy.repository.OrderRepository;
+import com.shopjoy.repository.SalesRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Rebuilds sales rollups from the order history.
+ *
+ * Each day is rebuilt in its own transaction that first locks the delta and rollup tables
+ * against writes, which waits for orders that have already recorded deltas to commit. The day's
+ * deltas are then dropped, since the rebuild counts their orders. Orders committing meanwhile
+ * wait for the lock before their deltas are written, so an order is either counted by the
+ * rebuild or added afterwards, never both.
+ */
+@Slf4j
+@Component
+public class SalesRollupBackfill {
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderRepository orderRepository;
+    private final SalesRollupProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public SalesRollupBackfill(SalesRollupRepository salesRollupRepository,
+                               OrderRepository orderRepository,
+                               SalesRollupProperties properties,
+                               PlatformTransactionManager transactionManager) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.orderRepository = orderRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Fills an empty rollup table from the whole order history once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!properties.isBackfillOnStartup()) {
+            return;
+        }
+        try {
+            if (salesRollupRepository.count() > 0) {
+                return;
+            }
+            orderRepository.findFirstOrderDate().ifPresent(first -> {
+                long rows = backfill(first.toLocalDate(), LocalDate.now());
+                log.info("Backfilled {} sales rollup rows from {}", rows, first.toLocalDate());
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to backfill sales rollups: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the rollups of every day in a date range.
+     *
+     * @param from the first day
+     * @param to   the last day, inclusive
+     * @return the number of rollup rows written
+     */
+    public long backfill(LocalDate from, LocalDate to) {
+        long rows = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDate current = day;
+            rows += transactionTemplate.execute(_ -> {
+                salesRollupRepository.lockForRebuild();
+                salesRollupRepository.deleteDeltas(current.atStartOfDay(), current.plusDays(1).atStartOfDay());
+                salesRollupRepository.deleteBuckets(current.atStartOfDay(), current.plusDays(1).atStartOfDay());
+                return salesRollupRepository.rebuildBuckets(current.atStartOfDay(), current.plusDays(1).atStartOfDay());
+            });
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,54 @@
+package com.shopjoy.analytics;
+
+import com.shopjoy.config.SalesRollupProperties;
+import com.shopjoy.repository.SalesRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Periodically merges the deltas recorded by order transactions into the sales rollups.
+ *
+ * Each batch runs in its own short transaction outside any order transaction, so only
+ * compactions wait on the shared hourly and daily rows. Batches are taken with FOR UPDATE SKIP
+ * LOCKED, so several application instances can compact concurrently; every delta is merged
+ * exactly once because it is deleted in the statement that merges it.
+ */
+@Slf4j
+@Component
+public class SalesRollupCompactor {
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final SalesRollupProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public SalesRollupCompactor(SalesRollupRepository salesRollupRepository,
+                                SalesRollupProperties properties,
+                                PlatformTransactionManager transactionManager) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.rollups.compact-interval:5s}",
+            initialDelayString = "${app.analytics.rollups.compact-interval:5s}")
+    public void compact() {
+        int batchSize = properties.getCompactBatchSize();
+        long total = 0;
+        try {
+            int written;
+            do {
+                written = transactionTemplate.execute(_ -> salesRollupRepository.compactDeltas(batchSize));
+                total += written;
+            } while (written > 0);
+        } catch (RuntimeException e) {
+            log.warn("Sales rollup compaction failed after writing {} rollup rows: {}", total, e.getMessage());
+            return;
+        }
+        if (total > 0) {
+            log.debug("Merged order deltas into {} sales rollup rows", total);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.shopjoy.analytics;
+
+import com.shopjoy.entity.OrderStatus;
+import com.shopjoy.entity.RollupDimension;
+import com.shopjoy.event.OrderPaymentStatusChangedEvent;
+import com.shopjoy.event.OrderPlacedEvent;
+import com.shopjoy.event.OrderRemovedEvent;
+import com.shopjoy.event.OrderStatusChangedEvent;
+import com.shopjoy.repository.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Records the sales rollup changes of order writes.
+ *
+ * Order events are collected per transaction and recorded as deltas just before it commits, so
+ * they commit or roll back together with the orders. Deltas are only ever inserted, never
+ * merged into shared rollup rows here, so concurrent orders do not conflict on the hourly and
+ * daily rows; {@link SalesRollupCompactor} merges them after commit. Collecting first lets a bulk
+ * transition of thousands of orders be recorded with one statement per status move instead of
+ * one per order. Without a transaction, changes are recorded immediately.
+ */
+@Component
+@RequiredArgsConstructor
+public class SalesRollupRecorder {
+
+    /**
+     * A move of orders between two values of the status or payment status dimension.
+     */
+    private record Move(RollupDimension dimension, String from, String to) {
+    }
+
+    /**
+     * The rollup changes of one transaction that have not been applied yet.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+        final Set<Integer> placed = new LinkedHashSet<>();
+        final Set<Integer> cancelled = new LinkedHashSet<>();
+        final Map<Move, Set<Integer>> moves = new LinkedHashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            apply(this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SalesRollupRecorder.this);
+        }
+    }
+
+    private final SalesRollupRepository salesRollupRepository;
+
+    @EventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        record(changes -> changes.placed.add(event.orderId()));
+    }
+
+    /**
+     * Status moves of an order placed in the same transaction are skipped, since its placement is
+     * counted under the status it has at commit.
+     */
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.previousStatus() == event.status()) {
+            return;
+        }
+        record(changes -> {
+            if (event.status() == OrderStatus.CANCELLED) {
+                changes.cancelled.add(event.orderId());
+            }
+            if (!changes.placed.contains(event.orderId())) {
+                changes.moves.computeIfAbsent(new Move(RollupDimension.STATUS, event.previousStatus().name(),
+                        event.status().name()), _ -> new LinkedHashSet<>()).add(event.orderId());
+            }
+        });
+    }
+
+    @EventListener
+    public void onOrderPaymentStatusChanged(OrderPaymentStatusChangedEvent event) {
+        if (event.previousPaymentStatus() == event.paymentStatus()) {
+            return;
+        }
+        record(changes -> {
+            if (!changes.placed.contains(event.orderId())) {
+                changes.moves.computeIfAbsent(new Move(RollupDimension.PAYMENT_STATUS,
+                        event.previousPaymentStatus().name(), event.paymentStatus().name()),
+                        _ -> new LinkedHashSet<>()).add(event.orderId());
+            }
+        });
+    }
+
+    /**
+     * Subtracts an order right away, while its rows still exist. Only pending orders are deleted
+     * or have their items replaced, so the order always counts towards product and category sales.
+     */
+    @EventListener
+    public void onOrderRemoved(OrderRemovedEvent event) {
+        PendingChanges changes = currentChanges();
+        if (changes != null) {
+            if (changes.placed.remove(event.orderId())) {
+                return;
+            }
+            apply(changes);
+        }
+        Integer[] orderIds = {event.orderId()};
+        salesRollupRepository.addSales(orderIds, -1);
+        salesRollupRepository.addStatuses(orderIds, -1);
+    }
+
+    private void record(Consumer<PendingChanges> change) {
+        PendingChanges changes = currentChanges();
+        if (changes == null) {
+            changes = new PendingChanges();
+            change.accept(changes);
+            apply(changes);
+            return;
+        }
+        change.accept(changes);
+    }
+
+    /**
+     * Gets the pending changes of the current transaction, or null without a transaction.
+     */
+    private PendingChanges currentChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        return changes;
+    }
+
+    /**
+     * Writes and clears the pending changes. An order placed and cancelled in the same
+     * transaction never counts towards product and category sales.
+     */
+    private void apply(PendingChanges changes) {
+        Set<Integer> sold = new LinkedHashSet<>(changes.placed);
+        sold.removeAll(changes.cancelled);
+        Set<Integer> unsold = new LinkedHashSet<>(changes.cancelled);
+        unsold.removeAll(changes.placed);
+
+        if (!sold.isEmpty()) {
+            salesRollupRepository.addSales(sold.toArray(Integer[]::new), 1);
+        }
+        if (!unsold.isEmpty()) {
+            salesRollupRepository.addSales(unsold.toArray(Integer[]::new), -1);
+        }
+        if (!changes.placed.isEmpty()) {
+            salesRollupRepository.addStatuses(changes.placed.toArray(Integer[]::new), 1);
+        }
+        changes.moves.forEach((move, orderIds) -> salesRollupRepository.moveOrders(
+                orderIds.toArray(Integer[]::new), move.dimension().name(), move.from(), move.to()));
+
+        changes.placed.clear();
+        changes.cancelled.clear();
+        changes.moves.clear();
+    }
+}
@@ -0,0 +1,125 @@
+package com.shopjoy.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.shopjoy.dto.response.CategoryResponse;
+import com.shopjoy.dto.response.OrderItemResponse;
+import com.shopjoy.dto.response.OrderResponse;
+import com.shopjoy.dto.response.ProductResponse;
+import org.springframework.data.domain.Page;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Caffeine weigher that estimates the retained heap size of a cache entry in bytes.
+ *
+ * Estimates assume a 64-bit JVM with compressed oops (12-byte object headers, 4-byte references)
+ * and compact Latin-1 strings. They are deliberately approximate: the goal is that a cached
+ * catalogue list weighs proportionally more than a single product, not byte-exact accounting.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_HEADER = 16;
+    private static final int BOXED_VALUE = 16;
+    private static final int DATE_TIME = 72;
+    private static final int CACHE_ENTRY_OVERHEAD = 64;
+    private static final int DEFAULT_VALUE = 256;
+    private static final int PRODUCT_SHALLOW = align(OBJECT_HEADER + 10 * REFERENCE + 2 * 4 + 2 * 8 + 1);
+    private static final int ORDER_SHALLOW = align(OBJECT_HEADER + 10 * REFERENCE + 8);
+    private static final int ORDER_ITEM_SHALLOW = align(OBJECT_HEADER + 5 * REFERENCE + 4 + 2 * 8);
+    private static final int CATEGORY_SHALLOW = align(OBJECT_HEADER + 4 * REFERENCE);
+    private static final int PAGE_SHALLOW = 96;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = CACHE_ENTRY_OVERHEAD + estimate(key) + estimate(value);
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Estimates the retained size of a cached key or value.
+     */
+    public static long estimate(Object value) {
+        return switch (value) {
+            case null -> 0;
+            case ProductResponse product -> estimateProduct(product);
+            case OrderResponse order -> estimateOrder(order);
+            case OrderItemResponse item -> estimateOrderItem(item);
+            case CategoryResponse category -> CATEGORY_SHALLOW + BOXED_VALUE
+                    + estimateString(category.getCategoryName())
+                    + estimateString(category.getDescription())
+                    + estimateDateTime(category.getCreatedAt());
+            case Page<?> page -> PAGE_SHALLOW + estimateCollection(page.getContent());
+            case Collection<?> collection -> estimateCollection(collection);
+            case Map<?, ?> map -> estimateMap(map);
+            case String text -> estimateString(text);
+            case Number _, Boolean _ -> BOXED_VALUE;
+            default -> DEFAULT_VALUE;
+        };
+    }
+
+    private static long estimateProduct(ProductResponse product) {
+        return PRODUCT_SHALLOW
+                + 2L * BOXED_VALUE
+                + estimateString(product.getProductName())
+                + estimateString(product.getDescription())
+                + estimateString(product.getCategoryName())
+                + estimateString(product.getSku())
+                + estimateString(product.getBrand())
+                + estimateString(product.getImageUrl())
+                + estimateDateTime(product.getCreatedAt())
+                + estimateDateTime(product.getUpdatedAt());
+    }
+
+    private static long estimateOrder(OrderResponse order) {
+        return ORDER_SHALLOW
+                + 2L * BOXED_VALUE
+                + estimateString(order.getUserName())
+                + estimateString(order.getShippingAddress())
+                + estimateString(order.getPaymentMethod())
+                + estimateString(order.getNotes())
+                + estimateDateTime(order.getOrderDate())
+                + estimateDateTime(order.getCreatedAt())
+                + estimateCollection(order.getOrderItems());
+    }
+
+    private static long estimateOrderItem(OrderItemResponse item) {
+        return ORDER_ITEM_SHALLOW
+                + 2L * BOXED_VALUE
+                + estimateString(item.getProductName())
+                + estimateString(item.getCategoryName());
+    }
+
+    private static long estimateCollection(Collection<?> collection) {
+        if (collection == null) {
+            return 0;
+        }
+        long bytes = OBJECT_HEADER + 8 + align(ARRAY_HEADER + (long) REFERENCE * collection.size());
+        for (Object element : collection) {
+            bytes += estimate(element);
+        }
+        return bytes;
+    }
+
+    private static long estimateMap(Map<?, ?> map) {
+        long bytes = 48 + align(ARRAY_HEADER + (long) REFERENCE * map.size() * 2);
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            bytes += 32 + estimate(entry.getKey()) + estimate(entry.getValue());
+        }
+        return bytes;
+    }
+
+    private static long estimateString(String text) {
+        return text == null ? 0 : 24 + align(ARRAY_HEADER + text.length());
+    }
+
+    private static long estimateDateTime(Object dateTime) {
+        return dateTime == null ? 0 : DATE_TIME;
+    }
+
+    private static int align(long bytes) {
+        return (int) ((bytes + 7) & ~7L);
+    }
+}
@@ -0,0 +1,237 @@
+package com.shopjoy.cache;
+
+import com.shopjoy.dto.response.CategoryResponse;
+import com.shopjoy.dto.response.ProductResponse;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding for the cache keys and values stored in a cache snapshot.
+ *
+ * Values are written field by field with {@link DataOutputStream} and read back from a
+ * (memory-mapped) {@link ByteBuffer}, so restoring a snapshot needs neither Java serialization
+ * nor JSON parsing. Only the key and value shapes produced by the catalogue services are
+ * supported; anything else is skipped when the snapshot is written.
+ */
+public final class CacheSnapshotCodec {
+
+    private static final byte KEY_EMPTY = 0;
+    private static final byte KEY_INTEGER = 1;
+    private static final byte KEY_INTEGER_LIST = 2;
+    private static final byte KEY_STRING = 3;
+
+    private static final byte VALUE_PRODUCT = 1;
+    private static final byte VALUE_CATEGORY = 2;
+    private static final byte VALUE_LIST = 3;
+
+    private CacheSnapshotCodec() {
+    }
+
+    /**
+     * Checks whether a cache entry can be written to a snapshot.
+     */
+    public static boolean isSupported(Object key, Object value) {
+        return isSupportedKey(key) && isSupportedValue(value);
+    }
+
+    private static boolean isSupportedKey(Object key) {
+        if (SimpleKey.EMPTY.equals(key) || key instanceof Integer || key instanceof String) {
+            return true;
+        }
+        return key instanceof List<?> list && list.stream().allMatch(Integer.class::isInstance);
+    }
+
+    private static boolean isSupportedValue(Object value) {
+        if (value instanceof ProductResponse || value instanceof CategoryResponse) {
+            return true;
+        }
+        return value instanceof List<?> list
+                && list.stream().allMatch(e -> e instanceof ProductResponse || e instanceof CategoryResponse);
+    }
+
+    public static void writeKey(DataOutputStream out, Object key) throws IOException {
+        switch (key) {
+            case Integer id -> {
+                out.writeByte(KEY_INTEGER);
+                out.writeInt(id);
+            }
+            case String text -> {
+                out.writeByte(KEY_STRING);
+                writeString(out, text);
+            }
+            case List<?> ids -> {
+                out.writeByte(KEY_INTEGER_LIST);
+                out.writeInt(ids.size());
+                for (Object id : ids) {
+                    out.writeInt((Integer) id);
+                }
+            }
+            default -> out.writeByte(KEY_EMPTY);
+        }
+    }
+
+    public static Object readKey(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        return switch (tag) {
+            case KEY_INTEGER -> buffer.getInt();
+            case KEY_STRING -> readString(buffer);
+            case KEY_INTEGER_LIST -> {
+                int size = buffer.getInt();
+                List<Integer> ids = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    ids.add(buffer.getInt());
+                }
+                yield ids;
+            }
+            case KEY_EMPTY -> SimpleKey.EMPTY;
+            default -> throw new IllegalStateException("Unknown snapshot key tag: " + tag);
+        };
+    }
+
+    public static void writeValue(DataOutputStream out, Object value) throws IOException {
+        switch (value) {
+            case ProductResponse product -> {
+                out.writeByte(VALUE_PRODUCT);
+                writeProduct(out, product);
+            }
+            case CategoryResponse category -> {
+                out.writeByte(VALUE_CATEGORY);
+                writeCategory(out, category);
+            }
+            case List<?> list -> {
+                out.writeByte(VALUE_LIST);
+                out.writeInt(list.size());
+                for (Object element : list) {
+                    writeValue(out, element);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unsupported snapshot value: " + value.getClass().getName());
+        }
+    }
+
+    public static Object readValue(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        return switch (tag) {
+            case VALUE_PRODUCT -> readProduct(buffer);
+            case VALUE_CATEGORY -> readCategory(buffer);
+            case VALUE_LIST -> {
+                int size = buffer.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(buffer));
+                }
+                yield list;
+            }
+            default -> throw new IllegalStateException("Unknown snapshot value tag: " + tag);
+        };
+    }
+
+    private static void writeProduct(DataOutputStream out, ProductResponse product) throws IOException {
+        writeNullableInt(out, product.getId());
+        writeString(out, product.getProductName());
+        writeString(out, product.getDescription());
+        writeNullableInt(out, product.getCategoryId());
+        writeString(out, product.getCategoryName());
+        out.writeInt(product.getStockQuantity());
+        out.writeInt(product.getReorderLevel());
+        out.writeDouble(product.getPrice());
+        out.writeDouble(product.getCostPrice());
+        writeString(out, product.getSku());
+        writeString(out, product.getBrand());
+        writeString(out, product.getImageUrl());
+        out.writeBoolean(product.isActive());
+        writeDateTime(out, product.getCreatedAt());
+        writeDateTime(out, product.getUpdatedAt());
+    }
+
+    private static ProductResponse readProduct(ByteBuffer buffer) {
+        ProductResponse product = new ProductResponse();
+        product.setId(readNullableInt(buffer));
+        product.setProductName(readString(buffer));
+        product.setDescription(readString(buffer));
+        product.setCategoryId(readNullableInt(buffer));
+        product.setCategoryName(readString(buffer));
+        product.setStockQuantity(buffer.getInt());
+        product.setReorderLevel(buffer.getInt());
+        product.setPrice(buffer.getDouble());
+        product.setCostPrice(buffer.getDouble());
+        product.setSku(readString(buffer));
+        product.setBrand(readString(buffer));
+        product.setImageUrl(readString(buffer));
+        product.setActive(buffer.get() != 0);
+        product.setCreatedAt(readDateTime(buffer));
+        product.setUpdatedAt(readDateTime(buffer));
+        return product;
+    }
+
+    private static void writeCategory(DataOutputStream out, CategoryResponse category) throws IOException {
+        writeNullableInt(out, category.getId());
+        writeString(out, category.getCategoryName());
+        writeString(out, category.getDescription());
+        writeDateTime(out, category.getCreatedAt());
+    }
+
+    private static CategoryResponse readCategory(ByteBuffer buffer) {
+        return new CategoryResponse(
+                readNullableInt(buffer),
+                readString(buffer),
+                readString(buffer),
+                readDateTime(buffer));
+    }
+
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableInt(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readNullableInt(ByteBuffer buffer) {
+        return buffer.get() != 0 ? buffer.getInt() : null;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(ByteBuffer buffer) {
+        if (buffer.get() == 0) {
+            return null;
+        }
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,366 @@
+package com.shopjoy.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.shopjoy.config.CacheSnapshotProperties;
+import com.shopjoy.entity.Category;
+import com.shopjoy.repository.CategoryRepository;
+import com.shopjoy.repository.InventoryRepository;
+import com.shopjoy.repository.InventoryStripeRepository;
+import com.shopjoy.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Persists the hot catalogue caches to a binary snapshot file and restores them on startup,
+ * so a restarted node does not have to rebuild its working set from the database.
+ *
+ * Snapshot lifecycle:
+ * - Written periodically (app.cache.snapshot.interval) and on shutdown
+ * - Written to a temporary file and atomically moved into place
+ * - Read back through a memory-mapped file when the application is ready
+ * - Discarded when older than app.cache.snapshot.max-age or when the catalogue watermark
+ *   (latest product/inventory/stripe update, product count, category fingerprint) no longer matches
+ * - Restored without replacing entries loaded meanwhile, and cleared again when the watermark
+ *   changed while restoring
+ *
+ * Independently of the snapshot, the time from startup until the snapshot caches reach the
+ * configured hit rate is tracked, so cold and warm restarts can be compared.
+ */
+@Slf4j
+@Component
+public class CacheSnapshotManager {
+
+    private static final int MAGIC = 0x534A4353;
+    private static final short FORMAT_VERSION = 2;
+
+    private final CacheManager cacheManager;
+    private final CacheSnapshotProperties properties;
+    private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryStripeRepository stripeRepository;
+    private final CategoryRepository categoryRepository;
+
+    private final long startedAt = System.currentTimeMillis();
+
+    private volatile String restoreStatus = "PENDING";
+    private volatile int restoredEntries;
+    private volatile long restoreMillis;
+    private volatile Instant lastWriteAt;
+    private volatile int lastWriteEntries;
+    private volatile long lastWriteBytes;
+    private volatile long lastWriteMillis;
+    private volatile long baselineHits;
+    private volatile long baselineRequests;
+    private volatile Long warmAfterMillis;
+
+    public CacheSnapshotManager(CacheManager cacheManager,
+                                CacheSnapshotProperties properties,
+                                ProductRepository productRepository,
+                                InventoryRepository inventoryRepository,
+                                InventoryStripeRepository stripeRepository,
+                                CategoryRepository categoryRepository) {
+        this.cacheManager = cacheManager;
+        this.properties = properties;
+        this.productRepository = productRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.stripeRepository = stripeRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * Restores the snapshot caches once the application is ready to serve requests.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreSnapshot() {
+        try {
+            if (!properties.isEnabled()) {
+                restoreStatus = "DISABLED";
+                return;
+            }
+            Path source = Path.of(properties.getPath());
+            if (!Files.isReadable(source)) {
+                restoreStatus = "MISSING";
+                log.info("No cache snapshot found at {}, starting with cold caches", source.toAbsolutePath());
+                return;
+            }
+            restoreFrom(source);
+        } catch (IOException | RuntimeException e) {
+            restoreStatus = "FAILED";
+            log.warn("Failed to restore cache snapshot: {}", e.getMessage());
+        } finally {
+            long[] totals = hitTotals();
+            baselineHits = totals[0];
+            baselineRequests = totals[1];
+        }
+    }
+
+    private void restoreFrom(Path source) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION) {
+                restoreStatus = "INCOMPATIBLE";
+                log.warn("Ignoring cache snapshot {} with unknown format", source);
+                return;
+            }
+
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - buffer.getLong());
+            if (age.compareTo(properties.getMaxAge()) > 0) {
+                restoreStatus = "STALE";
+                log.info("Ignoring cache snapshot older than {} (age {})", properties.getMaxAge(), age);
+                return;
+            }
+
+            Watermark stored = Watermark.read(buffer);
+            Watermark current = currentWatermark();
+            if (!stored.equals(current)) {
+                restoreStatus = "WATERMARK_MISMATCH";
+                log.info("Ignoring cache snapshot, catalogue changed since it was written ({} -> {})", stored, current);
+                return;
+            }
+
+            int restored = 0;
+            List<Cache> restoredCaches = new ArrayList<>();
+            int sections = buffer.getInt();
+            for (int i = 0; i < sections; i++) {
+                String cacheName = CacheSnapshotCodec.readString(buffer);
+                int entries = buffer.getInt();
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache != null) {
+                    restoredCaches.add(cache);
+                }
+                for (int j = 0; j < entries; j++) {
+                    Object key = CacheSnapshotCodec.readKey(buffer);
+                    Object value = CacheSnapshotCodec.readValue(buffer);
+                    if (cache != null && cache.putIfAbsent(key, value) == null) {
+                        restored++;
+                    }
+                }
+            }
+
+            // Requests are already being served: a write committed while restoring may have evicted
+            // before the snapshot entries went in, so check again and drop them if anything changed.
+            Watermark after = currentWatermark();
+            if (!stored.equals(after)) {
+                restoredCaches.forEach(Cache::clear);
+                restoreStatus = "WATERMARK_MISMATCH";
+                log.info("Discarded restored cache entries, catalogue changed while restoring ({} -> {})",
+                        stored, after);
+                return;
+            }
+
+            restoredEntries = restored;
+            restoreMillis = (System.nanoTime() - start) / 1_000_000;
+            restoreStatus = "RESTORED";
+            log.info("Restored {} cache entries from snapshot in {} ms", restored, restoreMillis);
+        }
+    }
+
+    /**
+     * Periodically writes the snapshot while the application is running.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.snapshot.interval:10m}",
+               initialDelayString = "${app.cache.snapshot.interval:10m}")
+    public void writePeriodicSnapshot() {
+        if (properties.isEnabled()) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Writes a final snapshot before the application context shuts down.
+     */
+    @PreDestroy
+    public void writeShutdownSnapshot() {
+        if (properties.isEnabled()) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Writes the configured caches to the snapshot file.
+     *
+     * @return the number of cache entries written
+     */
+    public synchronized int writeSnapshot() {
+        long start = System.nanoTime();
+        Path target = Path.of(properties.getPath()).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(target.getParent());
+            Watermark watermark = currentWatermark();
+            List<CaffeineCache> caches = snapshotCaches();
+            int written = 0;
+
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                watermark.write(out);
+                out.writeInt(caches.size());
+                for (CaffeineCache cache : caches) {
+                    written += writeSection(out, cache);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            lastWriteAt = Instant.now();
+            lastWriteEntries = written;
+            lastWriteBytes = Files.size(target);
+            lastWriteMillis = (System.nanoTime() - start) / 1_000_000;
+            log.debug("Wrote {} cache entries ({} bytes) to {} in {} ms",
+                    written, lastWriteBytes, target, lastWriteMillis);
+            return written;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write cache snapshot to {}: {}", target, e.getMessage());
+            return 0;
+        }
+    }
+
+    private int writeSection(DataOutputStream out, CaffeineCache cache) throws IOException {
+        List<Map.Entry<Object, Object>> entries = cache.getNativeCache().asMap().entrySet().stream()
+                .filter(entry -> CacheSnapshotCodec.isSupported(entry.getKey(), entry.getValue()))
+                .toList();
+
+        CacheSnapshotCodec.writeString(out, cache.getName());
+        out.writeInt(entries.size());
+        for (Map.Entry<Object, Object> entry : entries) {
+            CacheSnapshotCodec.writeKey(out, entry.getKey());
+            CacheSnapshotCodec.writeValue(out, entry.getValue());
+        }
+        return entries.size();
+    }
+
+    /**
+     * Records how long the snapshot caches took to reach the configured hit rate after startup.
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void trackWarmup() {
+        if (warmAfterMillis != null || "PENDING".equals(restoreStatus)) {
+            return;
+        }
+        long[] totals = hitTotals();
+        long requests = totals[1] - baselineRequests;
+        if (requests < properties.getWarmMinRequests()) {
+            return;
+        }
+        double hitRate = (double) (totals[0] - baselineHits) / requests;
+        if (hitRate >= properties.getWarmHitRate()) {
+            warmAfterMillis = System.currentTimeMillis() - startedAt;
+            log.info("Snapshot caches reached {}% hit rate {} ms after startup (restore status: {})",
+                    Math.round(properties.getWarmHitRate() * 100), warmAfterMillis, restoreStatus);
+        }
+    }
+
+    /**
+     * Gets the snapshot and warm-up statistics.
+     */
+    public Map<String, Object> getSnapshotStats() {
+        long[] totals = hitTotals();
+        long requests = totals[1] - baselineRequests;
+        double hitRate = requests > 0 ? (double) (totals[0] - baselineHits) / requests * 100 : 0;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("path", Path.of(properties.getPath()).toAbsolutePath().toString());
+        stats.put("caches", properties.getCaches());
+        stats.put("restoreStatus", restoreStatus);
+        stats.put("restoredEntries", restoredEntries);
+        stats.put("restoreMs", restoreMillis);
+        stats.put("lastWriteAt", lastWriteAt);
+        stats.put("lastWriteEntries", lastWriteEntries);
+        stats.put("lastWriteBytes", lastWriteBytes);
+        stats.put("lastWriteMs", lastWriteMillis);
+        stats.put("hitRateSinceStartup", String.format("%.2f%%", hitRate));
+        stats.put("warmHitRateTarget", String.format("%.0f%%", properties.getWarmHitRate() * 100));
+        stats.put("msToWarmHitRate", warmAfterMillis);
+        return stats;
+    }
+
+    private List<CaffeineCache> snapshotCaches() {
+        List<CaffeineCache> caches = new ArrayList<>();
+        for (String name : properties.getCaches()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                caches.add(cache);
+            }
+        }
+        return caches;
+    }
+
+    private long[] hitTotals() {
+        long hits = 0;
+        long requests = 0;
+        for (CaffeineCache cache : snapshotCaches()) {
+            CacheStats stats = cache.getNativeCache().stats();
+            hits += stats.hitCount();
+            requests += stats.requestCount();
+        }
+        return new long[] { hits, requests };
+    }
+
+    private Watermark currentWatermark() {
+        int categoryFingerprint = 1;
+        for (Category category : categoryRepository.findAll()) {
+            categoryFingerprint = 31 * categoryFingerprint
+                    + Objects.hash(category.getId(), category.getCategoryName(), category.getDescription());
+        }
+        return new Watermark(
+                toEpochMillis(productRepository.findLatestUpdatedAt()),
+                toEpochMillis(inventoryRepository.findLatestUpdatedAt()),
+                toEpochMillis(stripeRepository.findLatestUpdatedAt()),
+                productRepository.count(),
+                categoryFingerprint);
+    }
+
+    private static long toEpochMillis(LocalDateTime value) {
+        return value != null ? value.toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+    }
+
+    /**
+     * Catalogue state a snapshot was taken against.
+     */
+    private record Watermark(long productsUpdatedAt, long inventoryUpdatedAt, long stripesUpdatedAt,
+                             long productCount, int categoryFingerprint) {
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeLong(productsUpdatedAt);
+            out.writeLong(inventoryUpdatedAt);
+            out.writeLong(stripesUpdatedAt);
+            out.writeLong(productCount);
+            out.writeInt(categoryFingerprint);
+        }
+
+        static Watermark read(ByteBuffer buffer) {
+            return new Watermark(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getInt());
+        }
+    }
+}
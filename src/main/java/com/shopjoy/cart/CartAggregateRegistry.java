@@ -0,0 +1,148 @@
+package com.shopjoy.cart;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.shopjoy.config.CartAggregateProperties;
+import com.shopjoy.event.CartChangedEvent;
+import com.shopjoy.event.ProductChangedEvent;
+import com.shopjoy.repository.CartItemRepository;
+import com.shopjoy.repository.CartItemRepository.CartLineQuantity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps item count and subtotal per user so the cart badge and total never read the cart table.
+ *
+ * A user's aggregate is loaded with one small query on first read and then maintained from
+ * {@link CartChangedEvent} after the cart write commits; product price changes are applied from
+ * {@link ProductChangedEvent}. Events carry the absolute line quantity rather than a delta, so
+ * applying one to an aggregate that was loaded after the commit is harmless. Loads and updates
+ * for the same user are serialized by the underlying map.
+ *
+ * Events only reach the instance that made the change, so with several instances an aggregate
+ * can miss changes made elsewhere. Every aggregate is therefore reloaded a fixed time after it
+ * was loaded, however often it is read or updated, which bounds how stale another instance's
+ * badge and total can be.
+ */
+@Component
+public class CartAggregateRegistry {
+
+    /**
+     * The quantity and unit price per product in one cart, with precomputed totals.
+     */
+    private record CartAggregate(Map<Integer, Line> lines, int itemCount, BigDecimal subtotal) {
+
+        static CartAggregate of(Map<Integer, Line> lines) {
+            int itemCount = 0;
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (Line line : lines.values()) {
+                itemCount += line.quantity();
+                subtotal = subtotal.add(line.unitPrice().multiply(BigDecimal.valueOf(line.quantity())));
+            }
+            return new CartAggregate(Map.copyOf(lines), itemCount, subtotal);
+        }
+
+        CartAggregate withLine(Integer productId, int quantity, BigDecimal unitPrice) {
+            Map<Integer, Line> updated = new HashMap<>(lines);
+            if (quantity > 0) {
+                updated.put(productId, new Line(quantity, unitPrice));
+            } else {
+                updated.remove(productId);
+            }
+            return of(updated);
+        }
+    }
+
+    private record Line(int quantity, BigDecimal unitPrice) {
+    }
+
+    private final CartItemRepository cartItemRepository;
+    private final Cache<Integer, CartAggregate> aggregates;
+
+    public CartAggregateRegistry(CartItemRepository cartItemRepository, CartAggregateProperties properties) {
+        this.cartItemRepository = cartItemRepository;
+        long ttlNanos = properties.getMaxStaleness().toNanos();
+        this.aggregates = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxCarts())
+                .expireAfter(new Expiry<Integer, CartAggregate>() {
+                    @Override
+                    public long expireAfterCreate(Integer userId, CartAggregate aggregate, long currentTime) {
+                        return ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Integer userId, CartAggregate aggregate, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Integer userId, CartAggregate aggregate, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Gets the number of units in a user's cart.
+     */
+    public int getItemCount(Integer userId) {
+        return aggregate(userId).itemCount();
+    }
+
+    /**
+     * Gets the value of a user's cart at current product prices.
+     */
+    public BigDecimal getSubtotal(Integer userId) {
+        return aggregate(userId).subtotal();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartChanged(CartChangedEvent event) {
+        if (event.isCleared()) {
+            aggregates.asMap().computeIfPresent(event.userId(), (_, _) -> CartAggregate.of(Map.of()));
+            return;
+        }
+        aggregates.asMap().computeIfPresent(event.userId(), (_, aggregate) -> {
+            Line current = aggregate.lines().get(event.productId());
+            BigDecimal unitPrice = event.unitPrice() != null || current == null
+                    ? event.unitPrice()
+                    : current.unitPrice();
+            return aggregate.withLine(event.productId(), event.quantity(), unitPrice);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Integer productId = event.productId();
+        aggregates.asMap().replaceAll((_, aggregate) -> {
+            Line line = aggregate.lines().get(productId);
+            if (line == null) {
+                return aggregate;
+            }
+            return event.isDeleted()
+                    ? aggregate.withLine(productId, 0, null)
+                    : aggregate.withLine(productId, line.quantity(), BigDecimal.valueOf(event.product().getPrice()));
+        });
+    }
+
+    private CartAggregate aggregate(Integer userId) {
+        return aggregates.get(userId, this::load);
+    }
+
+    private CartAggregate load(Integer userId) {
+        Map<Integer, Line> lines = new HashMap<>();
+        for (CartLineQuantity line : cartItemRepository.findLineQuantitiesByUserId(userId)) {
+            lines.merge(line.getProductId(), new Line(line.getQuantity(), line.getPrice()),
+                    (a, b) -> new Line(a.quantity() + b.quantity(), a.unitPrice()));
+        }
+        return CartAggregate.of(lines);
+    }
+}
@@ -0,0 +1,223 @@
+package com.shopjoy.cart;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only journal of cart changes that have not reached the database yet.
+ *
+ * Every change is written as one text line and forced to disk before it is applied in memory, so
+ * a node that crashes, or loses power, can replay it on the next start. Appenders that arrive while
+ * a force is running are covered together by the next one (group commit), so concurrent changes
+ * share one fsync instead of queueing for one each.
+ *
+ * A flush first rotates the active file to a pending file and deletes the pending file once the
+ * flushed carts are committed; if the flush fails the pending file stays and the next rotation
+ * appends to it. Records carry absolute quantities, so replaying a record that was already flushed
+ * is harmless.
+ *
+ * Line format: {@code L,userId,productId,quantity,addedAtEpochMilli} for a line change (quantity 0
+ * removes the line) and {@code C,userId} for a cleared cart. A final line without its newline was
+ * torn by a crash and is ignored.
+ *
+ * Locking: {@code forceLock} is always taken before the journal's own monitor.
+ */
+final class CartJournal implements AutoCloseable {
+
+    /**
+     * One journaled change.
+     *
+     * @param userId    the cart owner
+     * @param productId the product, or null when the cart was cleared
+     * @param quantity  the line quantity after the change
+     * @param addedAt   when the line was added, in epoch milliseconds
+     */
+    record Entry(int userId, Integer productId, int quantity, long addedAt) {
+
+        boolean isClear() {
+            return productId == null;
+        }
+    }
+
+    private final Path active;
+    private final Path pending;
+    private final Object forceLock = new Object();
+    private FileChannel channel;
+    /**
+     * Bytes appended since the journal was created, across rotations. Guarded by this.
+     */
+    private long written;
+    /**
+     * Value of {@code written} covered by the last force. Guarded by forceLock.
+     */
+    private long forced;
+
+    CartJournal(Path active) {
+        this.active = active;
+        this.pending = active.resolveSibling(active.getFileName() + ".pending");
+    }
+
+    /**
+     * Reads every entry left by a previous run, pending file first.
+     */
+    synchronized List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Path file : List.of(pending, active)) {
+            if (!Files.exists(file)) {
+                continue;
+            }
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            int start = 0;
+            for (int end = content.indexOf('\n'); end >= 0; end = content.indexOf('\n', start)) {
+                Entry entry = parse(content.substring(start, end));
+                if (entry != null) {
+                    entries.add(entry);
+                }
+                start = end + 1;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Deletes both journal files and opens an empty active file.
+     */
+    void reset() throws IOException {
+        synchronized (forceLock) {
+            synchronized (this) {
+                closeChannel();
+                Files.createDirectories(active.toAbsolutePath().getParent());
+                Files.deleteIfExists(pending);
+                Files.deleteIfExists(active);
+                open();
+                forced = written;
+            }
+        }
+    }
+
+    void appendLine(int userId, int productId, int quantity, long addedAt) throws IOException {
+        sync(write("L," + userId + "," + productId + "," + quantity + "," + addedAt + "\n"));
+    }
+
+    void appendClear(int userId) throws IOException {
+        sync(write("C," + userId + "\n"));
+    }
+
+    /**
+     * Moves the active file's entries to the pending file and starts a new active file.
+     */
+    void rotate() throws IOException {
+        synchronized (forceLock) {
+            synchronized (this) {
+                channel.force(false);
+                forced = written;
+                closeChannel();
+                if (Files.exists(pending)) {
+                    try (FileChannel pendingChannel = FileChannel.open(pending, StandardOpenOption.WRITE,
+                            StandardOpenOption.APPEND)) {
+                        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(active));
+                        while (buffer.hasRemaining()) {
+                            pendingChannel.write(buffer);
+                        }
+                        pendingChannel.force(false);
+                    }
+                    Files.delete(active);
+                } else {
+                    Files.move(active, pending, StandardCopyOption.ATOMIC_MOVE);
+                }
+                open();
+            }
+        }
+    }
+
+    /**
+     * Drops the pending entries after they were committed to the database.
+     */
+    synchronized void commit() throws IOException {
+        Files.deleteIfExists(pending);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (forceLock) {
+            synchronized (this) {
+                if (channel != null) {
+                    channel.force(false);
+                    forced = written;
+                }
+                closeChannel();
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(active, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Appends a line to the active file.
+     *
+     * @return the journal position after the line, to pass to {@link #sync}
+     */
+    private synchronized long write(String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        return written;
+    }
+
+    /**
+     * Returns once everything up to the position is on disk. The caller that gets the force lock
+     * forces all lines written so far, which covers the callers waiting behind it.
+     */
+    private void sync(long position) throws IOException {
+        synchronized (forceLock) {
+            if (forced >= position) {
+                return;
+            }
+            FileChannel toForce;
+            long upTo;
+            synchronized (this) {
+                toForce = channel;
+                upTo = written;
+            }
+            toForce.force(false);
+            forced = upTo;
+        }
+    }
+
+    /**
+     * Parses one line, or returns null for a line torn by a crash.
+     */
+    private static Entry parse(String line) {
+        String[] fields = line.split(",");
+        try {
+            if (fields.length == 2 && fields[0].equals("C")) {
+                return new Entry(Integer.parseInt(fields[1]), null, 0, 0);
+            }
+            if (fields.length == 5 && fields[0].equals("L")) {
+                return new Entry(Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                        Integer.parseInt(fields[3]), Long.parseLong(fields[4]));
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return null;
+    }
+}
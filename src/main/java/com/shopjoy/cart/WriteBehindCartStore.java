@@ -0,0 +1,543 @@
+package com.shopjoy.cart;
+
+import com.shopjoy.cart.CartJournal.Entry;
+import com.shopjoy.config.WriteBehindCartProperties;
+import com.shopjoy.event.ProductChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Keeps active carts in memory and writes them to {@code cart_items} in batches.
+ *
+ * Cart writes change the in-memory cart and append one journal line; no database transaction is
+ * involved. Changed lines are coalesced per user and product and flushed on an interval, when a
+ * user starts checkout ({@link #flush(Integer)}) and on shutdown. Flushes upsert the current
+ * quantity of each changed line (or delete it) with one JDBC batch per statement, skipping lines
+ * whose user or product no longer exists.
+ *
+ * Lines added since the last flush have negative ids until the flush assigns the database id;
+ * the negative id stays valid for the life of the line. Carts that have been flushed and not
+ * touched for app.cart.write-behind.idle-timeout are dropped and reloaded on the next access.
+ *
+ * Single instance only. Each instance serves carts from its own memory and journals to its own
+ * file, so with several instances behind a load balancer a user's requests would read and
+ * overwrite different copies of the cart, and a flush from one instance silently replaces lines
+ * written by another. Run one instance, or route every user to the same instance (sticky
+ * sessions) and give each instance its own journal path.
+ *
+ * Only active when app.cart.write-behind.enabled is true, and refuses to start unless
+ * app.cart.write-behind.single-instance is true as well, acknowledging the above.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.cart.write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindCartStore {
+
+    private static final String UPSERT_SQL = "INSERT INTO cart_items (user_id, product_id, quantity, added_at) "
+            + "SELECT ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM users WHERE user_id = ?) "
+            + "AND EXISTS (SELECT 1 FROM products WHERE product_id = ?) "
+            + "ON CONFLICT (user_id, product_id) DO UPDATE SET quantity = EXCLUDED.quantity";
+    private static final String DELETE_SQL = "DELETE FROM cart_items WHERE user_id = ? AND product_id = ?";
+    private static final String CLEAR_SQL = "DELETE FROM cart_items WHERE user_id = ?";
+    private static final String LOAD_SQL = "SELECT cart_item_id, product_id, quantity, added_at FROM cart_items "
+            + "WHERE user_id = ? ORDER BY added_at, cart_item_id";
+
+    /**
+     * A cart line as seen by callers.
+     *
+     * @param cartItemId the database id, or a negative id until the line is first flushed
+     * @param userId     the cart owner
+     * @param productId  the product
+     * @param quantity   the quantity
+     * @param addedAt    when the line was added
+     */
+    public record CartLine(Integer cartItemId, Integer userId, Integer productId, int quantity, LocalDateTime addedAt) {
+    }
+
+    /**
+     * A line write collected by a flush.
+     */
+    private record LineWrite(int userId, int productId, int quantity, LocalDateTime addedAt) {
+    }
+
+    /**
+     * A mutable cart line, guarded by its cart's monitor.
+     */
+    private static final class Line {
+        int cartItemId;
+        int aliasId;
+        int quantity;
+        final LocalDateTime addedAt;
+
+        Line(int cartItemId, int quantity, LocalDateTime addedAt) {
+            this.cartItemId = cartItemId;
+            this.quantity = quantity;
+            this.addedAt = addedAt;
+        }
+    }
+
+    /**
+     * One user's cart. All fields are guarded by the instance monitor.
+     */
+    private static final class UserCart {
+        final Map<Integer, Line> lines = new LinkedHashMap<>();
+        final Set<Integer> dirty = new HashSet<>();
+        long lastAccess = System.nanoTime();
+        boolean evicted;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBehindCartProperties properties;
+    private final CartJournal journal;
+
+    private final Map<Integer, UserCart> carts = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> itemOwners = new ConcurrentHashMap<>();
+    private final Set<Integer> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger syntheticIds = new AtomicInteger();
+
+    public WriteBehindCartStore(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                WriteBehindCartProperties properties) {
+        if (!properties.isSingleInstance()) {
+            throw new IllegalStateException("app.cart.write-behind.enabled requires "
+                    + "app.cart.write-behind.single-instance=true: carts are kept in the memory of one instance, "
+                    + "so every user must be served by the same instance");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        // Flushes commit on their own, also when checkout asks for one inside its transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+        this.journal = new CartJournal(Path.of(properties.getJournalPath()).toAbsolutePath());
+    }
+
+    /**
+     * Replays changes journaled by a previous run that never reached the database, then starts
+     * a new journal. Startup fails if the replay fails, since the journal would otherwise be lost.
+     */
+    @PostConstruct
+    public void replayJournal() {
+        try {
+            List<Entry> entries = journal.readAll();
+            if (!entries.isEmpty()) {
+                applyJournal(entries);
+                log.info("Replayed {} journaled cart changes", entries.size());
+            }
+            journal.reset();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay cart journal " + properties.getJournalPath(), e);
+        }
+    }
+
+    /**
+     * Gets a user's cart lines in the order they were added.
+     */
+    public List<CartLine> getLines(Integer userId) {
+        return withCart(userId, cart -> cart.lines.entrySet().stream()
+                .map(entry -> toCartLine(userId, entry.getKey(), entry.getValue()))
+                .toList());
+    }
+
+    /**
+     * Finds the line for a product in a user's cart.
+     */
+    public Optional<CartLine> findLine(Integer userId, Integer productId) {
+        return withCart(userId, cart -> Optional.ofNullable(cart.lines.get(productId))
+                .map(line -> toCartLine(userId, productId, line)));
+    }
+
+    /**
+     * Finds a line by its id, database or negative.
+     */
+    public Optional<CartLine> findLine(Integer cartItemId) {
+        return Optional.ofNullable(owner(cartItemId))
+                .flatMap(userId -> withCart(userId, cart -> cart.lines.entrySet().stream()
+                        .filter(entry -> hasId(entry.getValue(), cartItemId))
+                        .findFirst()
+                        .map(entry -> toCartLine(userId, entry.getKey(), entry.getValue()))));
+    }
+
+    /**
+     * Sets the quantity of a product in a user's cart, adding the line if needed.
+     *
+     * @return the line after the change
+     */
+    public CartLine setQuantity(Integer userId, Integer productId, int quantity) {
+        return withCart(userId, cart -> {
+            Line line = cart.lines.get(productId);
+            LocalDateTime addedAt = line != null ? line.addedAt : LocalDateTime.now();
+            markDirty(userId);
+            append(() -> journal.appendLine(userId, productId, quantity, toEpochMilli(addedAt)));
+            if (line == null) {
+                line = new Line(syntheticIds.decrementAndGet(), quantity, addedAt);
+                cart.lines.put(productId, line);
+                itemOwners.put(line.cartItemId, userId);
+            } else {
+                line.quantity = quantity;
+            }
+            cart.dirty.add(productId);
+            return toCartLine(userId, productId, line);
+        });
+    }
+
+    /**
+     * Removes a line by its id, database or negative.
+     *
+     * @return the removed line, or empty if there is no such line
+     */
+    public Optional<CartLine> removeLine(Integer cartItemId) {
+        Integer userId = owner(cartItemId);
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return withCart(userId, cart -> {
+            for (Map.Entry<Integer, Line> entry : cart.lines.entrySet()) {
+                if (hasId(entry.getValue(), cartItemId)) {
+                    Integer productId = entry.getKey();
+                    Line line = entry.getValue();
+                    markDirty(userId);
+                    append(() -> journal.appendLine(userId, productId, 0, toEpochMilli(line.addedAt)));
+                    cart.lines.remove(productId);
+                    forgetIds(line);
+                    cart.dirty.add(productId);
+                    return Optional.of(toCartLine(userId, productId, line));
+                }
+            }
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * Removes every line from a user's cart.
+     */
+    public void clear(Integer userId) {
+        withCart(userId, cart -> {
+            markDirty(userId);
+            append(() -> journal.appendClear(userId));
+            cart.lines.values().forEach(this::forgetIds);
+            cart.dirty.addAll(cart.lines.keySet());
+            cart.lines.clear();
+            return null;
+        });
+    }
+
+    /**
+     * Flushes every changed cart and drops idle ones.
+     */
+    @Scheduled(fixedDelayString = "${app.cart.write-behind.flush-interval:2s}",
+            initialDelayString = "${app.cart.write-behind.flush-interval:2s}")
+    public synchronized void flush() {
+        try {
+            journal.rotate();
+        } catch (IOException e) {
+            log.warn("Failed to rotate cart journal, skipping flush: {}", e.getMessage());
+            return;
+        }
+        if (flushUsers(new ArrayList<>(dirtyUsers))) {
+            try {
+                journal.commit();
+            } catch (IOException e) {
+                log.warn("Failed to truncate cart journal: {}", e.getMessage());
+            }
+        }
+        evictIdle();
+    }
+
+    /**
+     * Flushes one user's cart, so database readers such as checkout see it.
+     * The journal is left alone; replaying its records for this user again is harmless.
+     */
+    public synchronized void flush(Integer userId) {
+        if (dirtyUsers.contains(userId) && !flushUsers(List.of(userId))) {
+            throw new IllegalStateException("Failed to save cart for user " + userId);
+        }
+    }
+
+    /**
+     * Writes all changed carts before the application shuts down. Anything that cannot be
+     * written stays in the journal for the next start.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        flush();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Failed to close cart journal: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drops lines of a deleted product; the database rows are removed by the foreign key cascade.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!event.isDeleted()) {
+            return;
+        }
+        carts.values().forEach(cart -> {
+            synchronized (cart) {
+                Line line = cart.lines.remove(event.productId());
+                if (line != null) {
+                    forgetIds(line);
+                }
+                cart.dirty.remove(event.productId());
+            }
+        });
+    }
+
+    /**
+     * Writes the changed lines of the given users in one transaction.
+     *
+     * @return whether the write committed; on failure the lines are marked changed again
+     */
+    private boolean flushUsers(List<Integer> userIds) {
+        List<LineWrite> upserts = new ArrayList<>();
+        List<LineWrite> deletes = new ArrayList<>();
+        Map<Integer, Set<Integer>> drained = new HashMap<>();
+        for (Integer userId : userIds) {
+            dirtyUsers.remove(userId);
+            UserCart cart = carts.get(userId);
+            if (cart == null) {
+                continue;
+            }
+            synchronized (cart) {
+                for (Integer productId : cart.dirty) {
+                    Line line = cart.lines.get(productId);
+                    if (line != null) {
+                        upserts.add(new LineWrite(userId, productId, line.quantity, line.addedAt));
+                    } else {
+                        deletes.add(new LineWrite(userId, productId, 0, null));
+                    }
+                }
+                drained.put(userId, new HashSet<>(cart.dirty));
+                cart.dirty.clear();
+            }
+        }
+        if (drained.isEmpty()) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(_ -> {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, upserts, properties.getBatchSize(), (ps, write) -> {
+                    ps.setInt(1, write.userId());
+                    ps.setInt(2, write.productId());
+                    ps.setInt(3, write.quantity());
+                    ps.setTimestamp(4, Timestamp.valueOf(write.addedAt()));
+                    ps.setInt(5, write.userId());
+                    ps.setInt(6, write.productId());
+                });
+                jdbcTemplate.batchUpdate(DELETE_SQL, deletes, properties.getBatchSize(), (ps, write) -> {
+                    ps.setInt(1, write.userId());
+                    ps.setInt(2, write.productId());
+                });
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} carts, will retry: {}", drained.size(), e.getMessage());
+            drained.forEach((userId, productIds) -> {
+                UserCart cart = carts.get(userId);
+                if (cart != null) {
+                    synchronized (cart) {
+                        cart.dirty.addAll(productIds);
+                    }
+                    dirtyUsers.add(userId);
+                }
+            });
+            return false;
+        }
+
+        assignDatabaseIds(upserts);
+        log.debug("Flushed {} cart line writes for {} users in {} ms",
+                upserts.size() + deletes.size(), drained.size(), (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    /**
+     * Replaces the negative ids of newly written lines with their database ids.
+     */
+    private void assignDatabaseIds(List<LineWrite> upserts) {
+        Set<Integer> usersWithNewLines = new HashSet<>();
+        for (LineWrite write : upserts) {
+            UserCart cart = carts.get(write.userId());
+            if (cart == null) {
+                continue;
+            }
+            synchronized (cart) {
+                Line line = cart.lines.get(write.productId());
+                if (line != null && line.cartItemId < 0) {
+                    usersWithNewLines.add(write.userId());
+                }
+            }
+        }
+        for (Integer userId : usersWithNewLines) {
+            Map<Integer, Integer> idsByProduct = new HashMap<>();
+            jdbcTemplate.query("SELECT cart_item_id, product_id FROM cart_items WHERE user_id = ?",
+                    (RowCallbackHandler) rs -> idsByProduct.put(rs.getInt("product_id"), rs.getInt("cart_item_id")),
+                    userId);
+            UserCart cart = carts.get(userId);
+            if (cart == null) {
+                continue;
+            }
+            synchronized (cart) {
+                cart.lines.forEach((productId, line) -> {
+                    Integer databaseId = idsByProduct.get(productId);
+                    if (line.cartItemId < 0 && databaseId != null) {
+                        line.aliasId = line.cartItemId;
+                        line.cartItemId = databaseId;
+                        itemOwners.put(databaseId, userId);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Drops carts that have no pending changes and have not been used for the idle timeout.
+     */
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        carts.forEach((userId, cart) -> {
+            synchronized (cart) {
+                if (cart.dirty.isEmpty() && !dirtyUsers.contains(userId) && cart.lastAccess - cutoff < 0) {
+                    cart.evicted = true;
+                    cart.lines.values().forEach(this::forgetIds);
+                    carts.remove(userId, cart);
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies journaled changes straight to the database, in journal order.
+     */
+    private void applyJournal(List<Entry> entries) {
+        transactionTemplate.executeWithoutResult(_ -> {
+            for (Entry entry : entries) {
+                if (entry.isClear()) {
+                    jdbcTemplate.update(CLEAR_SQL, entry.userId());
+                } else if (entry.quantity() > 0) {
+                    jdbcTemplate.update(UPSERT_SQL, entry.userId(), entry.productId(), entry.quantity(),
+                            Timestamp.from(Instant.ofEpochMilli(entry.addedAt())), entry.userId(), entry.productId());
+                } else {
+                    jdbcTemplate.update(DELETE_SQL, entry.userId(), entry.productId());
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs an action on a user's cart under its monitor, loading the cart if needed.
+     */
+    private <T> T withCart(Integer userId, Function<UserCart, T> action) {
+        while (true) {
+            UserCart cart = carts.computeIfAbsent(userId, this::load);
+            synchronized (cart) {
+                if (!cart.evicted) {
+                    cart.lastAccess = System.nanoTime();
+                    return action.apply(cart);
+                }
+            }
+        }
+    }
+
+    private UserCart load(Integer userId) {
+        UserCart cart = new UserCart();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            Line line = new Line(rs.getInt("cart_item_id"), rs.getInt("quantity"),
+                    rs.getTimestamp("added_at").toLocalDateTime());
+            cart.lines.put(rs.getInt("product_id"), line);
+            itemOwners.put(line.cartItemId, userId);
+        }, userId);
+        return cart;
+    }
+
+    /**
+     * Marks a user as changed. Called before the journal write, so a flush that rotated the
+     * journal past this change is guaranteed to see the user and wait for the change to finish.
+     */
+    private void markDirty(Integer userId) {
+        dirtyUsers.add(userId);
+    }
+
+    private void append(JournalWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal cart change", e);
+        }
+    }
+
+    private void forgetIds(Line line) {
+        itemOwners.remove(line.cartItemId);
+        if (line.aliasId != 0) {
+            itemOwners.remove(line.aliasId);
+        }
+    }
+
+    /**
+     * Finds the user owning a line, falling back to the database for carts not in memory.
+     */
+    private Integer owner(Integer cartItemId) {
+        if (cartItemId == null) {
+            return null;
+        }
+        Integer userId = itemOwners.get(cartItemId);
+        if (userId != null || cartItemId < 0) {
+            return userId;
+        }
+        return jdbcTemplate.query("SELECT user_id FROM cart_items WHERE cart_item_id = ?",
+                        (rs, _) -> rs.getInt("user_id"), cartItemId)
+                .stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static boolean hasId(Line line, int cartItemId) {
+        return line.cartItemId == cartItemId || (line.aliasId != 0 && line.aliasId == cartItemId);
+    }
+
+    private static CartLine toCartLine(Integer userId, Integer productId, Line line) {
+        return new CartLine(line.cartItemId, userId, productId, line.quantity, line.addedAt);
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @FunctionalInterface
+    private interface JournalWrite {
+        void run() throws IOException;
+    }
+}
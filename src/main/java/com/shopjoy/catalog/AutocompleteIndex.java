@@ -0,0 +1,263 @@
+package com.shopjoy.catalog;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable prefix index over product names, brands and category names for typeahead.
+ *
+ * Every indexed phrase is stored once per word start ("apple iphone 15" is reachable from "apple",
+ * "iphone" and "15") as a normalized key in one sorted array, with the suggestion target, display
+ * label and popularity weight in parallel arrays. This is the flattened form of a compact trie:
+ * a prefix lookup is a binary search for the first matching key followed by a scan of the
+ * contiguous range that shares the prefix, keeping only the best {@code limit} targets in a
+ * fixed-size array. Lookups therefore allocate only that array and the result list.
+ *
+ * Instances are never modified: product writes merge the changed terms into a new index.
+ */
+public final class AutocompleteIndex {
+
+    /**
+     * Maximum number of word starts indexed per phrase.
+     */
+    private static final int MAX_WORD_STARTS = 8;
+
+    private static final AutocompleteIndex EMPTY =
+            new AutocompleteIndex(new String[0], new byte[0], new int[0], new String[0], new long[0]);
+
+    /**
+     * What a suggestion points at.
+     */
+    public enum SuggestionType { PRODUCT, BRAND, CATEGORY }
+
+    /**
+     * One indexable key before it is packed into the sorted arrays.
+     *
+     * @param key    the normalized key
+     * @param type   the suggestion type
+     * @param refId  the product or category id, or the brand id
+     * @param label  the text shown to the user
+     * @param weight the popularity weight
+     */
+    public record Term(String key, SuggestionType type, int refId, String label, long weight) {
+    }
+
+    /**
+     * A suggestion returned from a lookup.
+     *
+     * @param type   the suggestion type
+     * @param refId  the product or category id, or the brand id
+     * @param label  the text shown to the user
+     * @param weight the popularity weight
+     */
+    public record Suggestion(SuggestionType type, int refId, String label, long weight) {
+    }
+
+    private static final SuggestionType[] TYPES = SuggestionType.values();
+    private static final byte PRODUCT = (byte) SuggestionType.PRODUCT.ordinal();
+
+    private final String[] keys;
+    private final byte[] types;
+    private final int[] refIds;
+    private final String[] labels;
+    private final long[] weights;
+
+    private AutocompleteIndex(String[] keys, byte[] types, int[] refIds, String[] labels, long[] weights) {
+        this.keys = keys;
+        this.types = types;
+        this.refIds = refIds;
+        this.labels = labels;
+        this.weights = weights;
+    }
+
+    /**
+     * Gets an index without entries.
+     */
+    public static AutocompleteIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds an index from unsorted terms.
+     */
+    public static AutocompleteIndex of(List<Term> terms) {
+        List<Term> sorted = new ArrayList<>(terms);
+        sorted.sort(Comparator.comparing(Term::key));
+        return pack(sorted);
+    }
+
+    /**
+     * Replaces the terms of one product and all brand and category terms.
+     *
+     * Product terms of other products are kept as they are; brand and category terms carry
+     * aggregated weights, so callers pass the complete, recomputed set, which is small.
+     *
+     * @param productId    the changed product
+     * @param productTerms the product's new terms, empty when it was deleted or deactivated
+     * @param groupTerms   every brand and category term
+     * @return the new index
+     */
+    public AutocompleteIndex withProduct(int productId, List<Term> productTerms, List<Term> groupTerms) {
+        List<Term> added = new ArrayList<>(productTerms.size() + groupTerms.size());
+        added.addAll(productTerms);
+        added.addAll(groupTerms);
+        added.sort(Comparator.comparing(Term::key));
+
+        List<Term> merged = new ArrayList<>(keys.length + added.size());
+        int next = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (types[i] != PRODUCT || refIds[i] == productId) {
+                continue;
+            }
+            while (next < added.size() && added.get(next).key().compareTo(keys[i]) < 0) {
+                merged.add(added.get(next++));
+            }
+            merged.add(new Term(keys[i], TYPES[types[i]], refIds[i], labels[i], weights[i]));
+        }
+        while (next < added.size()) {
+            merged.add(added.get(next++));
+        }
+        return pack(merged);
+    }
+
+    /**
+     * Finds the most popular suggestions whose indexed phrase has a word starting with the prefix.
+     *
+     * @param prefix the text typed so far
+     * @param limit  maximum number of suggestions
+     * @return suggestions ordered by weight, then alphabetically
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int[] top = new int[limit];
+        int size = 0;
+        for (int i = lowerBound(normalized); i < keys.length && keys[i].startsWith(normalized); i++) {
+            size = offer(top, size, i);
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>(size);
+        for (int j = 0; j < size; j++) {
+            int i = top[j];
+            suggestions.add(new Suggestion(TYPES[types[i]], refIds[i], labels[i], weights[i]));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Gets the number of indexed keys.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Builds the terms for a phrase, one per word start.
+     *
+     * @param phrase the product name, brand or category name
+     * @param type   the suggestion type
+     * @param refId  the product or category id, or the brand id
+     * @param weight the popularity weight
+     * @return the terms, empty for a blank phrase
+     */
+    public static List<Term> terms(String phrase, SuggestionType type, int refId, long weight) {
+        String normalized = normalize(phrase);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        String label = phrase.strip();
+        List<Term> terms = new ArrayList<>();
+        terms.add(new Term(normalized, type, refId, label, weight));
+        for (int i = normalized.indexOf(' '); i >= 0 && terms.size() < MAX_WORD_STARTS; i = normalized.indexOf(' ', i + 1)) {
+            terms.add(new Term(normalized.substring(i + 1), type, refId, label, weight));
+        }
+        return terms;
+    }
+
+    /**
+     * Normalizes text for indexing and lookup: lower case, trimmed, single spaces.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.strip().toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(lower.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Offers an entry to the top-k array, which is kept ordered best first and holds each target once.
+     */
+    private int offer(int[] top, int size, int candidate) {
+        for (int j = 0; j < size; j++) {
+            if (types[top[j]] == types[candidate] && refIds[top[j]] == refIds[candidate]) {
+                return size;
+            }
+        }
+        int position;
+        if (size < top.length) {
+            position = size++;
+        } else if (weights[candidate] > weights[top[size - 1]]) {
+            position = size - 1;
+        } else {
+            return size;
+        }
+        while (position > 0 && weights[candidate] > weights[top[position - 1]]) {
+            top[position] = top[position - 1];
+            position--;
+        }
+        top[position] = candidate;
+        return size;
+    }
+
+    private static AutocompleteIndex pack(List<Term> sorted) {
+        int n = sorted.size();
+        String[] keys = new String[n];
+        byte[] types = new byte[n];
+        int[] refIds = new int[n];
+        String[] labels = new String[n];
+        long[] weights = new long[n];
+        for (int i = 0; i < n; i++) {
+            Term term = sorted.get(i);
+            keys[i] = term.key();
+            types[i] = (byte) term.type().ordinal();
+            refIds[i] = term.refId();
+            labels[i] = term.label();
+            weights[i] = term.weight();
+        }
+        return new AutocompleteIndex(keys, types, refIds, labels, weights);
+    }
+}
@@ -0,0 +1,207 @@
+package com.shopjoy.catalog;
+
+import com.shopjoy.catalog.AutocompleteIndex.Suggestion;
+import com.shopjoy.catalog.AutocompleteIndex.SuggestionType;
+import com.shopjoy.catalog.AutocompleteIndex.Term;
+import com.shopjoy.dto.response.ProductResponse;
+import com.shopjoy.entity.Product;
+import com.shopjoy.event.CategoryChangedEvent;
+import com.shopjoy.event.ProductChangedEvent;
+import com.shopjoy.repository.OrderItemRepository;
+import com.shopjoy.repository.OrderItemRepository.ProductSales;
+import com.shopjoy.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Holds the current {@link AutocompleteIndex} and keeps it in step with product and category writes.
+ *
+ * The index is built from the database once the application is ready. Product writes are applied
+ * incrementally from {@link ProductChangedEvent}: only the changed product's terms are replaced,
+ * plus the small set of brand and category terms whose aggregated popularity may have moved.
+ * A {@link CategoryChangedEvent} renames the terms of many products and rebuilds the index.
+ * The index is also rebuilt from the database periodically, which reloads popularity (units
+ * ordered per product, which changes with every order and does not need to be exact for ranking)
+ * and picks up writes committed on other instances.
+ *
+ * Brand suggestions carry an id assigned per normalized brand name on first sight, so the same
+ * brand keeps its id across rebuilds.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AutocompleteIndexManager {
+
+    /**
+     * The indexed attributes of a product.
+     */
+    private record IndexedProduct(String name, String brand, Integer categoryId, String categoryName, boolean active) {
+
+        static IndexedProduct of(ProductResponse product) {
+            return new IndexedProduct(product.getProductName(), product.getBrand(), product.getCategoryId(),
+                    product.getCategoryName(), product.isActive());
+        }
+
+        static IndexedProduct of(Product product) {
+            return new IndexedProduct(product.getProductName(), product.getBrand(), product.getCategory().getId(),
+                    product.getCategory().getCategoryName(), product.isActive());
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    private final Map<Integer, IndexedProduct> products = new HashMap<>();
+    private final Map<String, Integer> brandIds = new HashMap<>();
+    private Map<Integer, Long> popularity = Map.of();
+    private volatile AutocompleteIndex index;
+
+    /**
+     * Builds the initial index once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Failed to build autocomplete index, suggestions are unavailable: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the index and popularity weights from the database.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        Map<Integer, IndexedProduct> loaded = new HashMap<>();
+        for (Product product : productRepository.findAllWithInventory()) {
+            loaded.put(product.getId(), IndexedProduct.of(product));
+        }
+        products.clear();
+        products.putAll(loaded);
+        popularity = loadPopularity();
+        index = buildIndex();
+        log.info("Built autocomplete index with {} keys for {} products in {} ms",
+                index.size(), products.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Rebuilds the index from the database so suggestions follow recent orders and writes made on
+     * other instances.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.autocomplete.rebuild-interval:15m}",
+            initialDelayString = "${app.catalog.autocomplete.rebuild-interval:15m}")
+    public void refresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild autocomplete index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Gets suggestions for a prefix, or none while the index has not been built yet.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        AutocompleteIndex current = index;
+        return current == null ? List.of() : current.suggest(prefix, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (index == null) {
+            return;
+        }
+        int productId = event.productId();
+        if (event.isDeleted()) {
+            products.remove(productId);
+        } else {
+            products.put(productId, IndexedProduct.of(event.product()));
+        }
+        index = index.withProduct(productId, productTerms(productId, products.get(productId)), groupTerms());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (index == null) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild autocomplete index after category {} changed: {}",
+                    event.categoryId(), e.getMessage());
+        }
+    }
+
+    private Map<Integer, Long> loadPopularity() {
+        Map<Integer, Long> loaded = new HashMap<>();
+        for (ProductSales sales : orderItemRepository.sumQuantityByProduct()) {
+            loaded.put(sales.getProductId(), sales.getQuantity());
+        }
+        return loaded;
+    }
+
+    private AutocompleteIndex buildIndex() {
+        List<Term> terms = new ArrayList<>();
+        products.forEach((id, product) -> terms.addAll(productTerms(id, product)));
+        terms.addAll(groupTerms());
+        return AutocompleteIndex.of(terms);
+    }
+
+    private List<Term> productTerms(int productId, IndexedProduct product) {
+        if (product == null || !product.active()) {
+            return List.of();
+        }
+        return AutocompleteIndex.terms(product.name(), SuggestionType.PRODUCT, productId,
+                popularity.getOrDefault(productId, 0L));
+    }
+
+    /**
+     * Builds brand and category terms weighted by the summed popularity of their active products.
+     */
+    private List<Term> groupTerms() {
+        Map<String, String> brandLabels = new TreeMap<>();
+        Map<String, Long> brandWeights = new HashMap<>();
+        Map<Integer, String> categoryLabels = new HashMap<>();
+        Map<Integer, Long> categoryWeights = new HashMap<>();
+        products.forEach((id, product) -> {
+            if (!product.active()) {
+                return;
+            }
+            long weight = popularity.getOrDefault(id, 0L);
+            if (product.brand() != null && !product.brand().isBlank()) {
+                String brandKey = product.brand().strip().toLowerCase(Locale.ROOT);
+                brandLabels.putIfAbsent(brandKey, product.brand());
+                brandWeights.merge(brandKey, weight, Long::sum);
+            }
+            if (product.categoryId() != null) {
+                categoryLabels.putIfAbsent(product.categoryId(), product.categoryName());
+                categoryWeights.merge(product.categoryId(), weight, Long::sum);
+            }
+        });
+
+        List<Term> terms = new ArrayList<>();
+        for (Map.Entry<String, String> brand : brandLabels.entrySet()) {
+            int brandId = brandIds.computeIfAbsent(brand.getKey(), _ -> brandIds.size());
+            terms.addAll(AutocompleteIndex.terms(brand.getValue(), SuggestionType.BRAND, brandId,
+                    brandWeights.get(brand.getKey())));
+        }
+        categoryLabels.forEach((categoryId, name) ->
+                terms.addAll(AutocompleteIndex.terms(name, SuggestionType.CATEGORY, categoryId,
+                        categoryWeights.get(categoryId))));
+        return terms;
+    }
+}
@@ -0,0 +1,518 @@
+package com.shopjoy.catalog;
+
+import com.shopjoy.dto.filter.ProductFilter;
+import com.shopjoy.dto.response.FacetCountResponse;
+import com.shopjoy.dto.response.ProductFacetsResponse;
+import com.shopjoy.dto.response.ProductResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, column-oriented snapshot of the product catalogue.
+ *
+ * Rows are stored in product id order. Filterable attributes are kept in primitive columns
+ * (category ids, price in cents, stock, dictionary-encoded brands, an active bitset) so filters
+ * run as tight loops over arrays, and pre-sorted permutations over the rows answer the supported
+ * sort orders (price, createdAt, name) without sorting per request.
+ *
+ * Per-value bitmaps (category, brand, price bucket, in stock) back the facet counts: each facet
+ * is counted by intersecting its value bitmaps with the rows matching every other active filter.
+ *
+ * Instances are never modified: every change produces a new snapshot with a higher version,
+ * sharing the columns that did not change.
+ */
+public final class CatalogSnapshot {
+
+    private static final int NO_VALUE = -1;
+    private static final long[] PRICE_BUCKET_BOUNDS = {0, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000};
+
+    /**
+     * Filter dimensions that have facet counts.
+     */
+    private enum Facet { CATEGORY, BRAND, PRICE, AVAILABILITY }
+
+    /**
+     * Per-value bitmaps over row positions.
+     */
+    private record FacetBitmaps(Map<Integer, BitSet> categories, Map<Integer, String> categoryNames,
+                                BitSet[] brands, String[] brandNames, BitSet[] priceBuckets, BitSet inStock) {
+    }
+
+    private final long version;
+    private final ProductResponse[] rows;
+    private final Map<Integer, Integer> positions;
+    private final int[] categoryIds;
+    private final long[] priceCents;
+    private final BitSet active;
+    private final int[] stock;
+    private final int[] brandCodes;
+    private final Map<String, Integer> brandDictionary;
+    private final String[] names;
+    private final String[] descriptions;
+    private final int[] byId;
+    private final int[] byPrice;
+    private final int[] byCreatedAt;
+    private final int[] byName;
+    private final FacetBitmaps bitmaps;
+
+    private CatalogSnapshot(long version, ProductResponse[] rows, Map<Integer, Integer> positions,
+                            int[] categoryIds, long[] priceCents, BitSet active, int[] stock,
+                            int[] brandCodes, Map<String, Integer> brandDictionary,
+                            String[] names, String[] descriptions,
+                            int[] byId, int[] byPrice, int[] byCreatedAt, int[] byName,
+                            FacetBitmaps bitmaps) {
+        this.version = version;
+        this.rows = rows;
+        this.positions = positions;
+        this.categoryIds = categoryIds;
+        this.priceCents = priceCents;
+        this.active = active;
+        this.stock = stock;
+        this.brandCodes = brandCodes;
+        this.brandDictionary = brandDictionary;
+        this.names = names;
+        this.descriptions = descriptions;
+        this.byId = byId;
+        this.byPrice = byPrice;
+        this.byCreatedAt = byCreatedAt;
+        this.byName = byName;
+        this.bitmaps = bitmaps;
+    }
+
+    /**
+     * Builds a snapshot from product rows.
+     */
+    public static CatalogSnapshot of(long version, Collection<ProductResponse> products) {
+        ProductResponse[] rows = products.stream()
+                .sorted(Comparator.comparing(ProductResponse::getId))
+                .toArray(ProductResponse[]::new);
+        int n = rows.length;
+
+        Map<Integer, Integer> positions = new HashMap<>(n * 2);
+        int[] categoryIds = new int[n];
+        long[] priceCents = new long[n];
+        BitSet active = new BitSet(n);
+        int[] stock = new int[n];
+        int[] brandCodes = new int[n];
+        Map<String, Integer> brandDictionary = new HashMap<>();
+        String[] names = new String[n];
+        String[] descriptions = new String[n];
+        long[] createdAt = new long[n];
+
+        for (int i = 0; i < n; i++) {
+            ProductResponse row = rows[i];
+            positions.put(row.getId(), i);
+            categoryIds[i] = row.getCategoryId() != null ? row.getCategoryId() : NO_VALUE;
+            priceCents[i] = toCents(row.getPrice(), RoundingMode.HALF_UP);
+            active.set(i, row.isActive());
+            stock[i] = row.getStockQuantity();
+            brandCodes[i] = row.getBrand() != null
+                    ? brandDictionary.computeIfAbsent(row.getBrand(), _ -> brandDictionary.size())
+                    : NO_VALUE;
+            names[i] = normalize(row.getProductName());
+            descriptions[i] = normalize(row.getDescription());
+            createdAt[i] = row.getCreatedAt() != null
+                    ? row.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli()
+                    : Long.MIN_VALUE;
+        }
+
+        return new CatalogSnapshot(version, rows, positions, categoryIds, priceCents, active, stock,
+                brandCodes, brandDictionary, names, descriptions,
+                IntStream.range(0, n).toArray(),
+                sortedBy(n, (a, b) -> Long.compare(priceCents[a], priceCents[b])),
+                sortedBy(n, (a, b) -> Long.compare(createdAt[a], createdAt[b])),
+                sortedBy(n, (a, b) -> names[a].compareTo(names[b])),
+                buildBitmaps(rows, categoryIds, priceCents, stock, brandCodes, brandDictionary));
+    }
+
+    private static FacetBitmaps buildBitmaps(ProductResponse[] rows, int[] categoryIds, long[] priceCents,
+                                             int[] stock, int[] brandCodes, Map<String, Integer> brandDictionary) {
+        int n = rows.length;
+        Map<Integer, BitSet> categories = new HashMap<>();
+        Map<Integer, String> categoryNames = new HashMap<>();
+        String[] brandNames = new String[brandDictionary.size()];
+        brandDictionary.forEach((brand, code) -> brandNames[code] = brand);
+        BitSet[] brands = new BitSet[brandNames.length];
+        BitSet[] priceBuckets = new BitSet[PRICE_BUCKET_BOUNDS.length];
+        BitSet inStock = new BitSet(n);
+        for (int b = 0; b < brands.length; b++) {
+            brands[b] = new BitSet(n);
+        }
+        for (int b = 0; b < priceBuckets.length; b++) {
+            priceBuckets[b] = new BitSet(n);
+        }
+
+        for (int i = 0; i < n; i++) {
+            if (categoryIds[i] != NO_VALUE) {
+                categories.computeIfAbsent(categoryIds[i], _ -> new BitSet(n)).set(i);
+                categoryNames.putIfAbsent(categoryIds[i], rows[i].getCategoryName());
+            }
+            if (brandCodes[i] != NO_VALUE) {
+                brands[brandCodes[i]].set(i);
+            }
+            priceBuckets[priceBucket(priceCents[i])].set(i);
+            inStock.set(i, stock[i] > 0);
+        }
+        return new FacetBitmaps(categories, categoryNames, brands, brandNames, priceBuckets, inStock);
+    }
+
+    /**
+     * Returns a snapshot with the given product inserted or replaced.
+     */
+    public CatalogSnapshot withProduct(ProductResponse product) {
+        Map<Integer, ProductResponse> updated = new HashMap<>(rows.length * 2);
+        for (ProductResponse row : rows) {
+            updated.put(row.getId(), row);
+        }
+        updated.put(product.getId(), product);
+        return of(version + 1, updated.values());
+    }
+
+    /**
+     * Returns a snapshot without the given product.
+     */
+    public CatalogSnapshot withoutProduct(Integer productId) {
+        if (!positions.containsKey(productId)) {
+            return this;
+        }
+        List<ProductResponse> remaining = new ArrayList<>(rows.length);
+        for (ProductResponse row : rows) {
+            if (!row.getId().equals(productId)) {
+                remaining.add(row);
+            }
+        }
+        return of(version + 1, remaining);
+    }
+
+    /**
+     * Returns a snapshot with a new stock level for one product. Only the stock column and the
+     * affected row are copied; every other column and the sort permutations are shared.
+     */
+    public CatalogSnapshot withStock(Integer productId, int quantity, int reorderLevel) {
+        Integer position = positions.get(productId);
+        if (position == null) {
+            return this;
+        }
+        int[] newStock = stock.clone();
+        newStock[position] = quantity;
+
+        ProductResponse[] newRows = rows.clone();
+        ProductResponse row = copyOf(rows[position]);
+        row.setStockQuantity(quantity);
+        row.setReorderLevel(reorderLevel);
+        newRows[position] = row;
+
+        FacetBitmaps newBitmaps = bitmaps;
+        if ((stock[position] > 0) != (quantity > 0)) {
+            BitSet inStock = (BitSet) bitmaps.inStock().clone();
+            inStock.set(position, quantity > 0);
+            newBitmaps = new FacetBitmaps(bitmaps.categories(), bitmaps.categoryNames(),
+                    bitmaps.brands(), bitmaps.brandNames(), bitmaps.priceBuckets(), inStock);
+        }
+
+        return new CatalogSnapshot(version + 1, newRows, positions, categoryIds, priceCents, active, newStock,
+                brandCodes, brandDictionary, names, descriptions, byId, byPrice, byCreatedAt, byName, newBitmaps);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Answers a filtered, sorted page query.
+     *
+     * @return the page, or empty when the requested sort order has no pre-sorted permutation
+     */
+    public Optional<Page<ProductResponse>> query(ProductFilter filter, Pageable pageable) {
+        Optional<int[]> permutation = permutationFor(pageable.getSort());
+        if (permutation.isEmpty()) {
+            return Optional.empty();
+        }
+        boolean descending = pageable.getSort().stream().anyMatch(Sort.Order::isDescending);
+        BitSet matches = match(filter);
+        int total = matches.cardinality();
+
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : total;
+        List<ProductResponse> content = new ArrayList<>(Math.min(limit, total));
+
+        int[] order = permutation.get();
+        int n = rows.length;
+        long seen = 0;
+        for (int k = 0; k < n && content.size() < limit; k++) {
+            int position = order[descending ? n - 1 - k : k];
+            if (matches.get(position) && seen++ >= offset) {
+                content.add(rows[position]);
+            }
+        }
+        return Optional.of(new PageImpl<>(content, pageable, total));
+    }
+
+    /**
+     * Gets the products whose price lies within the range, ordered by price.
+     */
+    public List<ProductResponse> findByPriceRange(double minPrice, double maxPrice) {
+        long min = toCents(minPrice, RoundingMode.CEILING);
+        long max = toCents(maxPrice, RoundingMode.FLOOR);
+        List<ProductResponse> result = new ArrayList<>();
+        for (int k = lowerBound(min); k < byPrice.length && priceCents[byPrice[k]] <= max; k++) {
+            result.add(rows[byPrice[k]]);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the products of a category, ordered by id.
+     */
+    public List<ProductResponse> findByCategory(int categoryId) {
+        List<ProductResponse> result = new ArrayList<>();
+        for (int i = 0; i < categoryIds.length; i++) {
+            if (categoryIds[i] == categoryId) {
+                result.add(rows[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the active products, ordered by id.
+     */
+    public List<ProductResponse> findActive() {
+        List<ProductResponse> result = new ArrayList<>(active.cardinality());
+        for (int i = active.nextSetBit(0); i >= 0; i = active.nextSetBit(i + 1)) {
+            result.add(rows[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the products per category, brand, price range and stock status.
+     *
+     * Each dimension is counted against the rows matching every active filter except its own,
+     * so the sidebar shows how many products each alternative value would return.
+     */
+    public ProductFacetsResponse facets(ProductFilter filter) {
+        BitSet scratch = new BitSet(rows.length);
+
+        BitSet base = match(filter, Facet.CATEGORY);
+        List<FacetCountResponse> categories = new ArrayList<>();
+        bitmaps.categories().forEach((categoryId, bitmap) -> {
+            long count = intersectionCount(base, bitmap, scratch);
+            if (count > 0) {
+                categories.add(new FacetCountResponse(
+                        String.valueOf(categoryId), bitmaps.categoryNames().get(categoryId), count));
+            }
+        });
+
+        BitSet brandBase = match(filter, Facet.BRAND);
+        List<FacetCountResponse> brands = new ArrayList<>();
+        for (int code = 0; code < bitmaps.brands().length; code++) {
+            long count = intersectionCount(brandBase, bitmaps.brands()[code], scratch);
+            if (count > 0) {
+                String brand = bitmaps.brandNames()[code];
+                brands.add(new FacetCountResponse(brand, brand, count));
+            }
+        }
+
+        BitSet priceBase = match(filter, Facet.PRICE);
+        List<FacetCountResponse> priceRanges = new ArrayList<>();
+        for (int bucket = 0; bucket < PRICE_BUCKET_BOUNDS.length; bucket++) {
+            long count = intersectionCount(priceBase, bitmaps.priceBuckets()[bucket], scratch);
+            priceRanges.add(priceRangeFacet(bucket, count));
+        }
+
+        BitSet availabilityBase = match(filter, Facet.AVAILABILITY);
+        long inStock = intersectionCount(availabilityBase, bitmaps.inStock(), scratch);
+        List<FacetCountResponse> availability = List.of(
+                new FacetCountResponse("true", "In stock", inStock),
+                new FacetCountResponse("false", "Out of stock", availabilityBase.cardinality() - inStock));
+
+        Comparator<FacetCountResponse> byCount = Comparator.comparingLong(FacetCountResponse::getCount).reversed();
+        categories.sort(byCount);
+        brands.sort(byCount);
+        return new ProductFacetsResponse(categories, brands, priceRanges, availability);
+    }
+
+    /**
+     * Evaluates a filter against the columns.
+     *
+     * @return a bitset with one bit per row position that matches every filter criterion
+     */
+    public BitSet match(ProductFilter filter) {
+        return match(filter, null);
+    }
+
+    private BitSet match(ProductFilter filter, Facet excluded) {
+        int n = rows.length;
+        BitSet matches = new BitSet(n);
+        matches.set(0, n);
+
+        if (filter.getCategoryId() != null && excluded != Facet.CATEGORY) {
+            BitSet category = bitmaps.categories().get(filter.getCategoryId());
+            if (category != null) {
+                matches.and(category);
+            } else {
+                matches.clear();
+            }
+        }
+        if (filter.getMinPrice() != null && excluded != Facet.PRICE) {
+            long min = toCents(filter.getMinPrice(), RoundingMode.CEILING);
+            for (int i = 0; i < n; i++) {
+                if (priceCents[i] < min) {
+                    matches.clear(i);
+                }
+            }
+        }
+        if (filter.getMaxPrice() != null && excluded != Facet.PRICE) {
+            long max = toCents(filter.getMaxPrice(), RoundingMode.FLOOR);
+            for (int i = 0; i < n; i++) {
+                if (priceCents[i] > max) {
+                    matches.clear(i);
+                }
+            }
+        }
+        if (filter.getBrand() != null && excluded != Facet.BRAND) {
+            int brandCode = brandDictionary.getOrDefault(filter.getBrand(), NO_VALUE);
+            if (brandCode != NO_VALUE) {
+                matches.and(bitmaps.brands()[brandCode]);
+            } else {
+                matches.clear();
+            }
+        }
+        if (filter.getActive() != null) {
+            if (filter.getActive()) {
+                matches.and(active);
+            } else {
+                matches.andNot(active);
+            }
+        }
+        if (filter.getInStock() != null && excluded != Facet.AVAILABILITY) {
+            if (filter.getInStock()) {
+                matches.and(bitmaps.inStock());
+            } else {
+                matches.andNot(bitmaps.inStock());
+            }
+        }
+        if (filter.getMinStock() != null) {
+            int minStock = filter.getMinStock();
+            for (int i = 0; i < n; i++) {
+                if (stock[i] < minStock) {
+                    matches.clear(i);
+                }
+            }
+        }
+        if (filter.getMaxStock() != null) {
+            int maxStock = filter.getMaxStock();
+            for (int i = 0; i < n; i++) {
+                if (stock[i] > maxStock) {
+                    matches.clear(i);
+                }
+            }
+        }
+        if (filter.getSearchTerm() != null && !filter.getSearchTerm().isEmpty()) {
+            String term = normalize(filter.getSearchTerm());
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                if (!names[i].contains(term) && !descriptions[i].contains(term)) {
+                    matches.clear(i);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private Optional<int[]> permutationFor(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty()) {
+            return Optional.of(byId);
+        }
+        if (orders.size() > 1) {
+            return Optional.empty();
+        }
+        return switch (orders.getFirst().getProperty()) {
+            case "id" -> Optional.of(byId);
+            case "price" -> Optional.of(byPrice);
+            case "createdAt" -> Optional.of(byCreatedAt);
+            case "productName", "name" -> Optional.of(byName);
+            default -> Optional.empty();
+        };
+    }
+
+    private static long intersectionCount(BitSet base, BitSet values, BitSet scratch) {
+        scratch.clear();
+        scratch.or(base);
+        scratch.and(values);
+        return scratch.cardinality();
+    }
+
+    private static int priceBucket(long cents) {
+        int bucket = 0;
+        while (bucket + 1 < PRICE_BUCKET_BOUNDS.length && cents >= PRICE_BUCKET_BOUNDS[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static FacetCountResponse priceRangeFacet(int bucket, long count) {
+        long lower = PRICE_BUCKET_BOUNDS[bucket];
+        boolean last = bucket + 1 == PRICE_BUCKET_BOUNDS.length;
+        if (last) {
+            return new FacetCountResponse(lower / 100 + "+", "$" + lower / 100 + " and above", count, lower / 100.0, null);
+        }
+        long upper = PRICE_BUCKET_BOUNDS[bucket + 1];
+        return new FacetCountResponse(lower / 100 + "-" + upper / 100, "$" + lower / 100 + " - $" + upper / 100,
+                count, lower / 100.0, (upper - 1) / 100.0);
+    }
+
+    private int lowerBound(long cents) {
+        int low = 0;
+        int high = byPrice.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (priceCents[byPrice[mid]] < cents) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int[] sortedBy(int n, Comparator<Integer> comparator) {
+        return IntStream.range(0, n).boxed().sorted(comparator).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static long toCents(double amount, RoundingMode roundingMode) {
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    private static String normalize(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static ProductResponse copyOf(ProductResponse row) {
+        return new ProductResponse(row.getId(), row.getProductName(), row.getDescription(),
+                row.getCategoryId(), row.getCategoryName(), row.getStockQuantity(), row.getReorderLevel(),
+                row.getPrice(), row.getCostPrice(), row.getSku(), row.getBrand(), row.getImageUrl(),
+                row.isActive(), row.getCreatedAt(), row.getUpdatedAt());
+    }
+}
@@ -0,0 +1,158 @@
+package com.shopjoy.catalog;
+
+import com.shopjoy.dto.mapper.ProductMapperStruct;
+import com.shopjoy.dto.response.ProductResponse;
+import com.shopjoy.event.CategoryChangedEvent;
+import com.shopjoy.event.ProductChangedEvent;
+import com.shopjoy.event.StockChangedEvent;
+import com.shopjoy.repository.InventoryRepository;
+import com.shopjoy.repository.InventoryRepository.StockVersion;
+import com.shopjoy.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Holds the current {@link CatalogSnapshot} and keeps it in step with product, inventory and
+ * category writes.
+ *
+ * The snapshot is built from the database once the application is ready and then patched
+ * copy-on-write from {@link ProductChangedEvent} and {@link StockChangedEvent} after the
+ * publishing transaction commits. Stock events that are not newer than the stock version already
+ * applied are ignored, so out-of-order delivery cannot bring back an older level. Category
+ * changes rename rows of many products at once and rebuild the snapshot instead. Writes committed
+ * on other instances publish no event here; a periodic rebuild
+ * (app.catalog.snapshot.rebuild-interval) picks them up.
+ *
+ * Readers always see a complete, immutable snapshot; until the first build finishes
+ * {@link #current()} is empty and callers fall back to the database.
+ */
+@Slf4j
+@Component
+public class CatalogSnapshotManager {
+
+    private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
+    private final ProductMapperStruct productMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Integer, Long> stockVersions = new HashMap<>();
+    private volatile CatalogSnapshot snapshot;
+
+    public CatalogSnapshotManager(ProductRepository productRepository,
+                                  InventoryRepository inventoryRepository,
+                                  ProductMapperStruct productMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.productMapper = productMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Builds the initial snapshot once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Failed to build catalogue snapshot, product queries will use the database: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot periodically so writes made on other instances show up.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.snapshot.rebuild-interval:5m}",
+            initialDelayString = "${app.catalog.snapshot.rebuild-interval:5m}")
+    public void refresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild catalogue snapshot, keeping v{}: {}",
+                    snapshot != null ? snapshot.getVersion() : 0, e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot from the database.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        Map<Integer, Long> versions = new HashMap<>();
+        List<ProductResponse> products = transactionTemplate.execute(_ -> {
+            for (StockVersion version : inventoryRepository.findStockVersions()) {
+                versions.put(version.getProductId(), version.getVersion());
+            }
+            return productRepository.findAllWithInventory().stream()
+                    .map(productMapper::toProductResponse)
+                    .toList();
+        });
+        long version = snapshot != null ? snapshot.getVersion() + 1 : 1;
+        snapshot = CatalogSnapshot.of(version, products);
+        stockVersions.clear();
+        stockVersions.putAll(versions);
+        log.info("Built catalogue snapshot v{} with {} products in {} ms",
+                version, products.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Gets the current snapshot, or empty while it has not been built yet.
+     */
+    public Optional<CatalogSnapshot> current() {
+        return Optional.ofNullable(snapshot);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (snapshot == null) {
+            return;
+        }
+        if (event.isDeleted()) {
+            stockVersions.remove(event.productId());
+        }
+        snapshot = event.isDeleted()
+                ? snapshot.withoutProduct(event.productId())
+                : snapshot.withProduct(event.product());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        if (snapshot == null) {
+            return;
+        }
+        Long applied = stockVersions.get(event.productId());
+        if (applied != null && event.version() <= applied) {
+            return;
+        }
+        stockVersions.put(event.productId(), event.version());
+        snapshot = snapshot.withStock(event.productId(), event.quantity(), event.reorderLevel());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild catalogue snapshot after category {} changed: {}",
+                    event.categoryId(), e.getMessage());
+        }
+    }
+}
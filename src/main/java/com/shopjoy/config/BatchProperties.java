@@ -0,0 +1,37 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the REST batch endpoint.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.batch")
+public class BatchProperties {
+
+    /**
+     * Maximum number of operations in one batch.
+     * Can be overridden with app.batch.max-operations property.
+     */
+    private int maxOperations = 20;
+
+    /**
+     * Maximum number of operations of one batch running at the same time, which bounds the
+     * database connections a batch can hold.
+     * Can be overridden with app.batch.max-concurrency property.
+     */
+    private int maxConcurrency = 4;
+
+    /**
+     * Time after which GETs that have not finished, and operations that have not started, are
+     * reported as 504. A write that has started is always waited for.
+     * Can be overridden with app.batch.timeout property.
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,81 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties for cache TTLs and memory budgets.
+ * Defined under app.cache.managers in application.yml, one entry per cache manager.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheBudgetProperties {
+
+    /**
+     * Cache manager settings keyed by manager (primary, medium, short).
+     */
+    private Map<String, ManagerBudget> managers = new LinkedHashMap<>();
+
+    /**
+     * Gets the settings of a cache manager, falling back to defaults when not configured.
+     */
+    public ManagerBudget manager(String name) {
+        return managers.getOrDefault(name, new ManagerBudget());
+    }
+
+    @Data
+    public static class ManagerBudget {
+
+        /**
+         * Default time-to-live for caches of this manager.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * Total estimated heap budget for all caches of this manager.
+         * Caches without a max-size override share what is left of it equally.
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(16);
+
+        /**
+         * Names of the caches managed by this manager.
+         */
+        private List<String> caches = new ArrayList<>();
+
+        /**
+         * Per-cache TTL and budget overrides keyed by cache name.
+         */
+        private Map<String, CacheBudget> overrides = new LinkedHashMap<>();
+
+        /**
+         * Gets the time-to-live of one of this manager's caches.
+         */
+        public Duration ttl(String cacheName) {
+            CacheBudget override = overrides.get(cacheName);
+            return override != null && override.getTtl() != null ? override.getTtl() : ttl;
+        }
+    }
+
+    @Data
+    public static class CacheBudget {
+
+        /**
+         * Time-to-live override; the manager ttl is used when not set.
+         */
+        private Duration ttl;
+
+        /**
+         * Heap budget override; a share of the manager budget is used when not set.
+         */
+        private DataSize maxSize;
+    }
+}
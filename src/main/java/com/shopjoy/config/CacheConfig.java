@@ -1,81 +1,105 @@
 package com.shopjoy.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shopjoy.cache.CacheEntryWeigher;
+import com.shopjoy.config.CacheBudgetProperties.CacheBudget;
+import com.shopjoy.config.CacheBudgetProperties.ManagerBudget;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.util.unit.DataSize;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Cache Configuration using Caffeine.
- * 
+ *
  * Caching Strategy:
  * - SHORT TTL (2 min): Frequently changing data (inventory, cart, stock levels)
  * - MEDIUM TTL (10 min): Moderately changing data (orders, reviews)
  * - LONG TTL (30 min): Relatively stable data (products, categories, users, addresses)
- * 
+ *
+ * Caches are bounded by estimated heap size rather than entry count: every entry is weighed by
+ * {@link CacheEntryWeigher}, each cache manager has a byte budget, and cache names, TTLs and
+ * budgets are configured under app.cache.managers in application.yml.
+ *
  * Cache eviction is handled via @CacheEvict annotations on write operations.
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    private static final DataSize MIN_CACHE_SIZE = DataSize.ofKilobytes(256);
+
+    private final CacheBudgetProperties budgetProperties;
+    private final CacheEntryWeigher weigher = new CacheEntryWeigher();
+
+    public CacheConfig(CacheBudgetProperties budgetProperties) {
+        this.budgetProperties = budgetProperties;
+    }
+
     /**
      * Primary cache manager for long-lived data (Products, Categories, Users).
-     * TTL: 30 minutes, Max size: 1000 entries.
+     * TTL and budget: app.cache.managers.primary (30 minutes, 64MB by default).
      */
     @Bean
     @Primary
     public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-            "products", "product", "activeProducts", "productsByCategory", "productsCount",
-            "categories", "category", "topLevelCategories", "subcategories",
-            "users", "userProfile", "userProfileEmail", "userProfileUsername", "usersByIds"
-        );
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-            .expireAfterWrite(30, TimeUnit.MINUTES)
-            .maximumSize(1000)
-            .recordStats());
-        return cacheManager;
+        return buildCacheManager(budgetProperties.manager("primary"));
     }
 
     /**
      * Cache manager for medium-lived data (Orders, Reviews).
-     * TTL: 10 minutes, Max size: 500 entries.
+     * TTL and budget: app.cache.managers.medium (10 minutes, 32MB by default).
      */
     @Bean
     public CacheManager mediumCacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-            "orders", "order", "ordersByUser", "ordersByStatus", "pendingOrders",
-            "reviews", "review", "reviewsByProduct", "reviewsByUser", "productRating",
-            "addresses", "address", "addressesByUser", "defaultAddress"
-        );
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-            .expireAfterWrite(10, TimeUnit.MINUTES)
-            .maximumSize(500)
-            .recordStats());
-        return cacheManager;
+        return buildCacheManager(budgetProperties.manager("medium"));
     }
 
     /**
      * Cache manager for short-lived data (Inventory, Cart).
-     * TTL: 2 minutes, Max size: 500 entries.
+     * TTL and budget: app.cache.managers.short (2 minutes, 16MB by default).
      * Short TTL because stock levels change frequently.
      */
     @Bean
     public CacheManager shortCacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager( 
-            "inventory", "inventoryByProduct", "lowStock", "outOfStock",
-            "cart", "cartItems", "cartTotal", "cartCount"
-        );
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-            .expireAfterWrite(2, TimeUnit.MINUTES)
-            .maximumSize(500)
-            .recordStats());
+        return buildCacheManager(budgetProperties.manager("short"));
+    }
+
+    private CaffeineCacheManager buildCacheManager(ManagerBudget manager) {
+        List<String> cacheNames = manager.getCaches();
+        Map<String, CacheBudget> overrides = manager.getOverrides();
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(cacheNames.toArray(String[]::new));
+
+        long sharedBytes = manager.getMaxSize().toBytes();
+        int sharedCaches = 0;
+        for (String name : cacheNames) {
+            CacheBudget override = overrides.get(name);
+            if (override != null && override.getMaxSize() != null) {
+                sharedBytes -= override.getMaxSize().toBytes();
+            } else {
+                sharedCaches++;
+            }
+        }
+        long shareBytes = Math.max(MIN_CACHE_SIZE.toBytes(), sharedBytes / Math.max(1, sharedCaches));
+
+        for (String name : cacheNames) {
+            CacheBudget override = overrides.get(name);
+            Duration ttl = manager.ttl(name);
+            long maxBytes = override != null && override.getMaxSize() != null ? override.getMaxSize().toBytes() : shareBytes;
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxBytes)
+                .weigher(weigher)
+                .recordStats()
+                .build());
+        }
         return cacheManager;
     }
 }
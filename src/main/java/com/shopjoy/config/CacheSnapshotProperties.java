@@ -0,0 +1,61 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for persisting hot caches across restarts.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache.snapshot")
+public class CacheSnapshotProperties {
+
+    /**
+     * Whether cache snapshots are written and restored.
+     * Can be enabled with app.cache.snapshot.enabled=true.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Location of the snapshot file.
+     * Can be overridden with app.cache.snapshot.path property.
+     */
+    private String path = "data/cache-snapshot.bin";
+
+    /**
+     * Snapshots older than this are ignored on startup.
+     * Can be overridden with app.cache.snapshot.max-age property.
+     */
+    private Duration maxAge = Duration.ofHours(6);
+
+    /**
+     * Interval between periodic snapshots while the application is running.
+     * Can be overridden with app.cache.snapshot.interval property.
+     */
+    private Duration interval = Duration.ofMinutes(10);
+
+    /**
+     * Names of the primary caches included in the snapshot.
+     * Can be overridden with app.cache.snapshot.caches property.
+     */
+    private List<String> caches = new ArrayList<>(List.of("products", "product", "categories", "productsByCategory"));
+
+    /**
+     * Hit rate (0-1) at which the snapshot caches are considered warm after startup.
+     * Can be overridden with app.cache.snapshot.warm-hit-rate property.
+     */
+    private double warmHitRate = 0.9;
+
+    /**
+     * Minimum number of cache requests before the warm hit rate is evaluated.
+     * Can be overridden with app.cache.snapshot.warm-min-requests property.
+     */
+    private long warmMinRequests = 50;
+}
@@ -0,0 +1,30 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-memory per-user cart aggregates.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cart.aggregates")
+public class CartAggregateProperties {
+
+    /**
+     * Maximum number of carts kept in memory.
+     * Can be overridden with app.cart.aggregates.max-carts property.
+     */
+    private long maxCarts = 100_000;
+
+    /**
+     * How long a cart stays in memory after it was loaded, which bounds how long changes made
+     * on other instances go unnoticed.
+     * Can be overridden with app.cart.aggregates.max-staleness property.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(30);
+}
@@ -0,0 +1,37 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for ETag and conditional GET support on catalogue endpoints.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.http.conditional-get")
+public class ConditionalGetProperties {
+
+    /**
+     * Whether versioned endpoints send validators and answer conditional requests with 304.
+     * Can be overridden with app.http.conditional-get.enabled property.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long clients may reuse a response without revalidating it. Zero makes clients
+     * revalidate on every use, which costs a 304 round trip but never shows stale data.
+     * Can be overridden with app.http.conditional-get.max-age property.
+     */
+    private Duration maxAge = Duration.ZERO;
+
+    /**
+     * How often the database is checked for catalogue writes committed on other instances.
+     * Bounds how long those writes can go unnoticed by ETags and Last-Modified.
+     * Can be overridden with app.http.conditional-get.version-refresh property.
+     */
+    private Duration versionRefresh = Duration.ofSeconds(10);
+}
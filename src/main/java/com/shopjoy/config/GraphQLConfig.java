@@ -1,10 +1,20 @@
 package com.shopjoy.config;
 
+import com.shopjoy.graphql.incremental.IncrementalDeliveryHandler;
+import com.shopjoy.graphql.persisted.PersistedDocumentProvider;
 import graphql.schema.*;
 import org.jspecify.annotations.NonNull;
+import org.springframework.boot.graphql.autoconfigure.GraphQlSourceBuilderCustomizer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+import org.springframework.web.servlet.function.RequestPredicates;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -45,5 +55,25 @@ public class GraphQLConfig {
                         })
                         .build());
     }
-}
 
+    /**
+     * Serves parsed documents from the persisted query cache instead of parsing every request.
+     */
+    @Bean
+    public GraphQlSourceBuilderCustomizer persistedDocumentCustomizer(PersistedDocumentProvider persistedDocumentProvider) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(persistedDocumentProvider));
+    }
+
+    /**
+     * Routes GraphQL requests that accept multipart/mixed to incremental delivery, ahead of the
+     * default GraphQL endpoint which answers everything else.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public RouterFunction<ServerResponse> incrementalDeliveryRouterFunction(IncrementalDeliveryHandler handler,
+                                                                            @Value("${spring.graphql.http.path:/graphql}") String path) {
+        return RouterFunctions.route(
+                RequestPredicates.POST(path).and(IncrementalDeliveryHandler::acceptsMultipart),
+                handler::handleRequest);
+    }
+}
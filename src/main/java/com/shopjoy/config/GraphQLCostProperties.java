@@ -0,0 +1,92 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for GraphQL query cost analysis and per-client budgets.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.graphql.cost")
+public class GraphQLCostProperties {
+
+    /**
+     * Whether queries are analysed and limited before execution.
+     * Can be overridden with app.graphql.cost.enabled property.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum field nesting depth of a query.
+     * Can be overridden with app.graphql.cost.max-depth property.
+     */
+    private int maxDepth = 8;
+
+    /**
+     * Maximum cost of a single query.
+     * Can be overridden with app.graphql.cost.max-cost property.
+     */
+    private long maxCost = 5_000;
+
+    /**
+     * Maximum value of a size, limit or first argument.
+     * Can be overridden with app.graphql.cost.max-page-size property.
+     */
+    private int maxPageSize = 100;
+
+    /**
+     * Page size assumed when a paginated field is queried without a size argument.
+     * Can be overridden with app.graphql.cost.default-page-size property.
+     */
+    private int defaultPageSize = 20;
+
+    /**
+     * Number of items assumed for list fields that take no page size argument.
+     * Can be overridden with app.graphql.cost.default-list-size property.
+     */
+    private int defaultListSize = 20;
+
+    /**
+     * Number of items assumed per list field, keyed by Type.field, e.g. Category.products.
+     * Can be overridden with app.graphql.cost.list-sizes[Type.field] property.
+     */
+    private Map<String, Integer> listSizes = new HashMap<>();
+
+    /**
+     * Weight per field, keyed by Type.field. Object fields weigh 1 and scalar fields 0 by default.
+     * Can be overridden with app.graphql.cost.field-weights[Type.field] property.
+     */
+    private Map<String, Integer> fieldWeights = new HashMap<>();
+
+    /**
+     * Cost a single client may spend per budget window, refilled continuously.
+     * Can be overridden with app.graphql.cost.client-budget property.
+     */
+    private long clientBudget = 100_000;
+
+    /**
+     * Window over which a client's budget refills completely.
+     * Can be overridden with app.graphql.cost.budget-window property.
+     */
+    private Duration budgetWindow = Duration.ofMinutes(1);
+
+    /**
+     * Maximum number of clients whose budgets are tracked.
+     * Can be overridden with app.graphql.cost.max-clients property.
+     */
+    private long maxClients = 10_000;
+
+    /**
+     * Request header naming the client in logs. Budgets are kept per remote address, since the
+     * header is not authenticated.
+     * Can be overridden with app.graphql.cost.client-id-header property.
+     */
+    private String clientIdHeader = "X-Client-Id";
+}
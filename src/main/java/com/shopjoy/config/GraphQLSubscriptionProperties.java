@@ -0,0 +1,28 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for GraphQL subscriptions.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.graphql.subscriptions")
+public class GraphQLSubscriptionProperties {
+
+    /**
+     * Maximum number of events buffered for a subscriber that reads slower than they are
+     * published. The oldest events are dropped once the buffer is full.
+     * Can be overridden with app.graphql.subscriptions.buffer-size property.
+     */
+    private int bufferSize = 64;
+
+    /**
+     * Maximum number of active subscriptions on one WebSocket connection.
+     * Can be overridden with app.graphql.subscriptions.max-per-connection property.
+     */
+    private int maxPerConnection = 20;
+}
@@ -0,0 +1,27 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for bulk order status transitions.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.orders.bulk")
+public class OrderBulkProperties {
+
+    /**
+     * Maximum number of order IDs moved by one UPDATE statement.
+     * Can be overridden with app.orders.bulk.chunk-size property.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Maximum number of order IDs accepted in one bulk request.
+     * Can be overridden with app.orders.bulk.max-orders property.
+     */
+    private int maxOrders = 10_000;
+}
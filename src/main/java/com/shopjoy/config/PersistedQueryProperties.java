@@ -0,0 +1,35 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for persisted GraphQL queries and the parsed-document cache.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.graphql.persisted-queries")
+public class PersistedQueryProperties {
+
+    /**
+     * Maximum number of parsed and validated documents kept in memory.
+     * Can be overridden with app.graphql.persisted-queries.max-documents property.
+     */
+    private long maxDocuments = 1_000;
+
+    /**
+     * Location of the build-time persisted query manifest, in Apollo manifest format.
+     * A missing manifest leaves the registry empty.
+     * Can be overridden with app.graphql.persisted-queries.manifest-location property.
+     */
+    private String manifestLocation = "classpath:graphql/persisted-query-manifest.json";
+
+    /**
+     * Whether queries outside the manifest are executed. When false, only manifest queries run
+     * and clients cannot register new queries by hash.
+     * Can be overridden with app.graphql.persisted-queries.allow-arbitrary-queries property.
+     */
+    private boolean allowArbitraryQueries = true;
+}
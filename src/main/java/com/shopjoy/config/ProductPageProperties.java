@@ -0,0 +1,31 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the product page aggregate.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.product-page")
+public class ProductPageProperties {
+
+    /**
+     * Deadline for the whole page; the request fails when the product or its category is not
+     * loaded by then.
+     * Can be overridden with app.product-page.timeout property.
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /**
+     * Time budget of each optional part (reviews, average rating, inventory); a part that
+     * exceeds it is left out of the page instead of delaying it.
+     * Can be overridden with app.product-page.optional-part-budget property.
+     */
+    private Duration optionalPartBudget = Duration.ofMillis(300);
+}
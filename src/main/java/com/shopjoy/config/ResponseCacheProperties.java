@@ -0,0 +1,28 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration properties for the serialized response cache of the catalogue list endpoints.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.http.response-cache")
+public class ResponseCacheProperties {
+
+    /**
+     * Whether serialized responses of versioned endpoints are cached.
+     * Can be overridden with app.http.response-cache.enabled property.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Memory budget for cached responses, counting both the identity and the gzip form.
+     * Can be overridden with app.http.response-cache.max-size property.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+}
@@ -0,0 +1,42 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the sales rollups behind the analytics endpoints.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.analytics.rollups")
+public class SalesRollupProperties {
+
+    /**
+     * Whether an empty rollup table is filled from the order history on startup.
+     * Can be overridden with app.analytics.rollups.backfill-on-startup property.
+     */
+    private boolean backfillOnStartup = true;
+
+    /**
+     * Longest time range that can be read or summed from hourly buckets.
+     * Can be overridden with app.analytics.rollups.max-hourly-range property.
+     */
+    private Duration maxHourlyRange = Duration.ofDays(31);
+
+    /**
+     * Delay between merges of recorded order deltas into the rollups, and so how far the
+     * rollups may lag behind committed orders.
+     * Can be overridden with app.analytics.rollups.compact-interval property.
+     */
+    private Duration compactInterval = Duration.ofSeconds(5);
+
+    /**
+     * Most deltas merged per transaction.
+     * Can be overridden with app.analytics.rollups.compact-batch-size property.
+     */
+    private int compactBatchSize = 5000;
+}
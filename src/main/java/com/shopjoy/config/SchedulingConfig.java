@@ -0,0 +1,13 @@
+package com.shopjoy.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables Spring's scheduled task execution for background jobs
+ * such as periodic cache snapshots.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,35 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for checkout stock holds.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.inventory.holds")
+public class StockHoldProperties {
+
+    /**
+     * How long stock stays held after checkout begins.
+     * Can be overridden with app.inventory.holds.ttl property.
+     */
+    private Duration ttl = Duration.ofMinutes(15);
+
+    /**
+     * Interval between sweeps for expired holds.
+     * Can be overridden with app.inventory.holds.sweep-interval property.
+     */
+    private Duration sweepInterval = Duration.ofSeconds(30);
+
+    /**
+     * Maximum number of holds expired per sweeper transaction.
+     * Can be overridden with app.inventory.holds.sweep-batch-size property.
+     */
+    private int sweepBatchSize = 200;
+}
@@ -0,0 +1,24 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-memory low-stock and out-of-stock sets.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.inventory.stock-levels")
+public class StockLevelProperties {
+
+    /**
+     * Interval between reconciles of the stock levels against the database, which pick up
+     * writes committed on other instances.
+     * Can be overridden with app.inventory.stock-levels.reconcile-interval property.
+     */
+    private Duration reconcileInterval = Duration.ofMinutes(1);
+}
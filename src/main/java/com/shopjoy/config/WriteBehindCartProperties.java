@@ -0,0 +1,55 @@
+package com.shopjoy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the write-behind cart store.
+ * These properties can be overridden in application.properties or environment variables.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cart.write-behind")
+public class WriteBehindCartProperties {
+
+    /**
+     * Whether carts are kept in memory and written to the database in batches.
+     * Can be enabled with app.cart.write-behind.enabled=true.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Acknowledges that carts are only correct when every user is served by the same instance:
+     * a single instance, or sticky sessions with one journal path per instance. The store
+     * refuses to start without it.
+     * Can be enabled with app.cart.write-behind.single-instance=true.
+     */
+    private boolean singleInstance = false;
+
+    /**
+     * Interval between flushes of changed carts to the database.
+     * Can be overridden with app.cart.write-behind.flush-interval property.
+     */
+    private Duration flushInterval = Duration.ofSeconds(2);
+
+    /**
+     * Maximum number of cart line writes per JDBC batch.
+     * Can be overridden with app.cart.write-behind.batch-size property.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Location of the append-only journal of cart changes not yet flushed.
+     * Can be overridden with app.cart.write-behind.journal-path property.
+     */
+    private String journalPath = "data/cart-journal.log";
+
+    /**
+     * Carts untouched for this long are dropped from memory once they are flushed.
+     * Can be overridden with app.cart.write-behind.idle-timeout property.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,110 @@
+package com.shopjoy.controller;
+
+import com.shopjoy.dto.response.ApiResponse;
+import com.shopjoy.dto.response.SalesRollupResponse;
+import com.shopjoy.dto.response.SalesTotalResponse;
+import com.shopjoy.entity.RollupDimension;
+import com.shopjoy.entity.RollupGranularity;
+import com.shopjoy.service.SalesAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The type Analytics controller.
+ * Serves dashboard figures from the sales rollups instead of scanning orders.
+ */
+@Tag(name = "Sales Analytics", description = "APIs for revenue, order counts and units sold per product, category, status and payment status")
+@RestController
+@RequestMapping("/api/v1/analytics")
+public class AnalyticsController {
+
+        private final SalesAnalyticsService salesAnalyticsService;
+
+        /**
+         * Instantiates a new Analytics controller.
+         *
+         * @param salesAnalyticsService the sales analytics service
+         */
+        public AnalyticsController(SalesAnalyticsService salesAnalyticsService) {
+                this.salesAnalyticsService = salesAnalyticsService;
+        }
+
+        /**
+         * Gets sales rollup buckets.
+         *
+         * @param granularity  the granularity
+         * @param dimension    the dimension
+         * @param from         the from
+         * @param to           the to
+         * @param key          the dimension key
+         * @return the response entity
+         */
+        @Operation(summary = "Get sales rollups", description = "Returns hourly or daily order totals for one dimension in a time range")
+        @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Rollups retrieved successfully", content = @Content(mediaType = "application/json")),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid time range", content = @Content(mediaType = "application/json"))
+        })
+        @GetMapping("/sales/rollups")
+        public ResponseEntity<ApiResponse<List<SalesRollupResponse>>> getSalesRollups(
+                        @Parameter(description = "Bucket size", example = "DAY") @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+                        @Parameter(description = "Dimension to group by", required = true, example = "PRODUCT") @RequestParam RollupDimension dimension,
+                        @Parameter(description = "Start of the range, inclusive", required = true, example = "2026-03-01T00:00:00") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                        @Parameter(description = "End of the range, exclusive", required = true, example = "2026-04-01T00:00:00") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                        @Parameter(description = "Dimension value to filter by", example = "42") @RequestParam(required = false) String key) {
+                List<SalesRollupResponse> response = salesAnalyticsService.getSalesRollups(granularity, dimension, from, to, key);
+                return ResponseEntity.ok(ApiResponse.success(response, "Sales rollups retrieved successfully"));
+        }
+
+        /**
+         * Gets sales totals per dimension value.
+         *
+         * @param dimension the dimension
+         * @param from      the from
+         * @param to        the to
+         * @param limit     the limit
+         * @return the response entity
+         */
+        @Operation(summary = "Get sales totals", description = "Returns order totals per dimension value over a time range, highest revenue first")
+        @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Totals retrieved successfully", content = @Content(mediaType = "application/json")),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid time range or limit", content = @Content(mediaType = "application/json"))
+        })
+        @GetMapping("/sales/totals")
+        public ResponseEntity<ApiResponse<List<SalesTotalResponse>>> getSalesTotals(
+                        @Parameter(description = "Dimension to group by", required = true, example = "CATEGORY") @RequestParam RollupDimension dimension,
+                        @Parameter(description = "Start of the range, inclusive", required = true, example = "2026-03-01T00:00:00") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                        @Parameter(description = "End of the range, exclusive", required = true, example = "2026-04-01T00:00:00") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                        @Parameter(description = "Maximum number of values", example = "10") @RequestParam(defaultValue = "10") int limit) {
+                List<SalesTotalResponse> response = salesAnalyticsService.getSalesTotals(dimension, from, to, limit);
+                return ResponseEntity.ok(ApiResponse.success(response, "Sales totals retrieved successfully"));
+        }
+
+        /**
+         * Rebuilds sales rollups from the order history.
+         *
+         * @param from the from
+         * @param to   the to
+         * @return the response entity
+         */
+        @Operation(summary = "Backfill sales rollups", description = "Rebuilds the rollups of every day in a date range from the orders")
+        @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Rollups rebuilt successfully", content = @Content(mediaType = "application/json")),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid date range", content = @Content(mediaType = "application/json"))
+        })
+        @PostMapping("/sales/rollups/backfill")
+        public ResponseEntity<ApiResponse<Long>> backfillRollups(
+                        @Parameter(description = "First day", required = true, example = "2026-01-01") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                        @Parameter(description = "Last day, inclusive", required = true, example = "2026-03-31") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+                long rows = salesAnalyticsService.backfillRollups(from, to);
+                return ResponseEntity.ok(ApiResponse.success(rows, "Sales rollups rebuilt successfully"));
+        }
+}
@@ -0,0 +1,77 @@
+package com.shopjoy.controller;
+
+import com.shopjoy.dto.request.BatchRequest;
+import com.shopjoy.dto.response.ApiResponse;
+import com.shopjoy.dto.response.BatchResponse;
+import com.shopjoy.exception.ValidationException;
+import com.shopjoy.web.batch.BatchDispatcher;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * The type Batch controller.
+ */
+@Tag(name = "Batch", description = "APIs for executing several REST calls in one round trip")
+@RestController
+@RequestMapping("/api/v1/batch")
+public class BatchController {
+
+    private final BatchDispatcher batchDispatcher;
+
+    /**
+     * Instantiates a new Batch controller.
+     *
+     * @param batchDispatcher the batch dispatcher
+     */
+    public BatchController(BatchDispatcher batchDispatcher) {
+        this.batchDispatcher = batchDispatcher;
+    }
+
+    /**
+     * Execute batch response entity.
+     *
+     * @param request         the request
+     * @param servletRequest  the servlet request
+     * @param servletResponse the servlet response
+     * @return the response entity
+     */
+    @Operation(
+            summary = "Execute a batch of REST calls",
+            description = "Executes up to app.batch.max-operations calls against /api/v1 endpoints. Consecutive GETs run " +
+                    "concurrently, other calls run in order. Each result carries the status and body the call would " +
+                    "have returned on its own"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Batch executed; see each result for its status",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BatchResponse.class)
+                    )
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid batch, too many operations, or an operation targeting the batch endpoint",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @PostMapping
+    public ResponseEntity<ApiResponse<BatchResponse>> executeBatch(
+            @Valid @RequestBody BatchRequest request,
+            HttpServletRequest servletRequest,
+            HttpServletResponse servletResponse) {
+        if (servletRequest.getAttribute(BatchDispatcher.BATCH_OPERATION_ATTRIBUTE) != null) {
+            throw new ValidationException("path", "a batch operation must not target the batch endpoint");
+        }
+        BatchResponse response = batchDispatcher.execute(request.getOperations(), servletRequest, servletResponse);
+        return ResponseEntity.ok(ApiResponse.success(response, "Batch executed successfully"));
+    }
+}
@@ -1,9 +1,13 @@
 package com.shopjoy.controller;
 
 import com.shopjoy.dto.request.AddToCartRequest;
+import com.shopjoy.dto.request.BulkAddToCartRequest;
 import com.shopjoy.dto.response.ApiResponse;
 import com.shopjoy.dto.response.CartItemResponse;
+import com.shopjoy.dto.response.CartSummaryResponse;
+import com.shopjoy.dto.response.StockHoldResponse;
 import com.shopjoy.service.CartService;
+import com.shopjoy.service.StockHoldService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -25,14 +29,17 @@ import java.util.List;
 public class CartController {
 
     private final CartService cartService;
+    private final StockHoldService stockHoldService;
 
     /**
      * Instantiates a new Cart controller.
      *
-     * @param cartService the cart service
+     * @param cartService      the cart service
+     * @param stockHoldService the stock hold service
      */
-    public CartController(CartService cartService) {
+    public CartController(CartService cartService, StockHoldService stockHoldService) {
         this.cartService = cartService;
+        this.stockHoldService = stockHoldService;
     }
 
     /**
@@ -73,6 +80,43 @@ public class CartController {
                 .body(ApiResponse.success(response, "Item added to cart successfully"));
     }
 
+    /**
+     * Adds many items to the cart at once.
+     *
+     * @param request the request
+     * @return the affected cart items
+     */
+    @Operation(
+            summary = "Add items to cart in bulk",
+            description = "Adds many products to the user's cart in one request, e.g. to re-order a past order or merge a guest cart. "
+                    + "All products and stock are validated before any item is written; quantities are added to the cart "
+                    + "unless replaceQuantities is set"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "201",
+                    description = "Items added to cart successfully",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request or insufficient stock",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Product not found",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @PostMapping("/items/bulk")
+    public ResponseEntity<ApiResponse<List<CartItemResponse>>> addToCartBulk(
+            @Valid @RequestBody BulkAddToCartRequest request) {
+        List<CartItemResponse> response = cartService.addToCartBulk(request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(response, "Items added to cart successfully"));
+    }
+
     /**
      * Update cart item quantity response entity.
      *
@@ -204,6 +248,86 @@ public class CartController {
         return ResponseEntity.ok(ApiResponse.success(null, "Cart cleared successfully"));
     }
 
+    /**
+     * Begin checkout response entity.
+     *
+     * @param userId the user id
+     * @return the response entity
+     */
+    @Operation(
+            summary = "Begin checkout",
+            description = "Holds stock for every item in the user's cart for a limited time, so the order cannot fail for lack of stock. Holds are converted when the order is created and expire automatically otherwise"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Stock held successfully",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Cart is empty or stock is insufficient",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @PostMapping("/user/{userId}/checkout")
+    public ResponseEntity<ApiResponse<List<StockHoldResponse>>> beginCheckout(
+            @Parameter(description = "User unique identifier", required = true, example = "1")
+            @PathVariable Integer userId) {
+        List<StockHoldResponse> response = stockHoldService.holdCart(userId);
+        return ResponseEntity.ok(ApiResponse.success(response, "Stock held successfully"));
+    }
+
+    /**
+     * Cancel checkout response entity.
+     *
+     * @param userId the user id
+     * @return the response entity
+     */
+    @Operation(
+            summary = "Cancel checkout",
+            description = "Releases the stock held for the user's checkout"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Stock holds released successfully",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @DeleteMapping("/user/{userId}/checkout")
+    public ResponseEntity<ApiResponse<Integer>> cancelCheckout(
+            @Parameter(description = "User unique identifier", required = true, example = "1")
+            @PathVariable Integer userId) {
+        int released = stockHoldService.releaseHolds(userId);
+        return ResponseEntity.ok(ApiResponse.success(released, "Stock holds released successfully"));
+    }
+
+    /**
+     * Gets cart summary.
+     *
+     * @param userId the user id
+     * @return the cart summary
+     */
+    @Operation(
+            summary = "Get cart summary",
+            description = "Returns the cart items with item count, subtotal and stock status per item in one call"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Cart summary retrieved successfully",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<ApiResponse<CartSummaryResponse>> getCartSummary(
+            @Parameter(description = "User unique identifier", required = true, example = "1")
+            @PathVariable Integer userId) {
+        CartSummaryResponse response = cartService.getCartSummary(userId);
+        return ResponseEntity.ok(ApiResponse.success(response, "Cart summary retrieved successfully"));
+    }
+
     /**
      * Gets cart total.
      *
@@ -1,15 +1,21 @@
 package com.shopjoy.controller;
 
+import com.shopjoy.dto.request.StockAvailabilityRequest;
 import com.shopjoy.dto.response.ApiResponse;
 import com.shopjoy.dto.response.InventoryResponse;
+import com.shopjoy.dto.response.StockAvailabilityResponse;
+import com.shopjoy.inventory.StockLevelRegistry;
 import com.shopjoy.service.InventoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -22,14 +28,17 @@ import java.util.List;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final StockLevelRegistry stockLevelRegistry;
 
     /**
      * Instantiates a new Inventory controller.
      *
-     * @param inventoryService the inventory service
+     * @param inventoryService   the inventory service
+     * @param stockLevelRegistry the stock level registry
      */
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, StockLevelRegistry stockLevelRegistry) {
         this.inventoryService = inventoryService;
+        this.stockLevelRegistry = stockLevelRegistry;
     }
 
     /**
@@ -90,6 +99,35 @@ public class InventoryController {
         return ResponseEntity.ok(ApiResponse.success(response, "Batch inventory retrieved successfully"));
     }
 
+    /**
+     * Checks availability of requested quantities for multiple products in batch.
+     *
+     * @param request the requested quantity per product
+     * @return availability and shortfall per product
+     */
+    @Operation(
+            summary = "Check stock availability in batch",
+            description = "Checks whether the requested quantities of several products are available, with the available quantity and shortfall per product"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Availability checked successfully",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid product IDs or quantities",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @PostMapping("/products/batch/availability")
+    public ResponseEntity<ApiResponse<StockAvailabilityResponse>> checkAvailabilityBatch(
+            @Valid @RequestBody StockAvailabilityRequest request) {
+        StockAvailabilityResponse response = inventoryService.checkAvailability(request.getItems());
+        return ResponseEntity.ok(ApiResponse.success(response, "Stock availability checked successfully"));
+    }
+
     /**
      * Is product in stock response entity.
      *
@@ -337,6 +375,101 @@ public class InventoryController {
         return ResponseEntity.ok(ApiResponse.success(null, "Stock released successfully"));
     }
 
+    /**
+     * Stripe inventory response entity.
+     *
+     * @param productId the product id
+     * @param stripes   the number of stripes
+     * @return the response entity
+     */
+    @Operation(
+            summary = "Stripe product stock",
+            description = "Admin switch for hot products: spreads the stock over several rows so concurrent reservations do not queue on a single row lock. Reported stock levels are unchanged"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Stock striped successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = InventoryResponse.class)
+                    )
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Product not found",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid stripe count",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @PutMapping("/product/{productId}/stripes")
+    public ResponseEntity<ApiResponse<InventoryResponse>> stripeInventory(
+            @Parameter(description = "Product unique identifier", required = true, example = "1")
+            @PathVariable Integer productId,
+            @Parameter(description = "Number of stripes (2-64)", required = true, example = "8")
+            @RequestParam Integer stripes) {
+        InventoryResponse response = inventoryService.stripeInventory(productId, stripes);
+        return ResponseEntity.ok(ApiResponse.success(response, "Stock striped successfully"));
+    }
+
+    /**
+     * Unstripe inventory response entity.
+     *
+     * @param productId the product id
+     * @return the response entity
+     */
+    @Operation(
+            summary = "Unstripe product stock",
+            description = "Folds a striped product's stock back into its single inventory row"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Stock unstriped successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = InventoryResponse.class)
+                    )
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Product not found",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @DeleteMapping("/product/{productId}/stripes")
+    public ResponseEntity<ApiResponse<InventoryResponse>> unstripeInventory(
+            @Parameter(description = "Product unique identifier", required = true, example = "1")
+            @PathVariable Integer productId) {
+        InventoryResponse response = inventoryService.unstripeInventory(productId);
+        return ResponseEntity.ok(ApiResponse.success(response, "Stock unstriped successfully"));
+    }
+
+    /**
+     * Stream stock alerts.
+     *
+     * @return the event stream
+     */
+    @Operation(
+            summary = "Stream stock alerts",
+            description = "Server-Sent Events stream for dashboards. Starts with a 'snapshot' event holding the current low-stock and out-of-stock products, then pushes LOW_STOCK, STOCK_RECOVERED, OUT_OF_STOCK and BACK_IN_STOCK events as products cross those thresholds"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Stock alert stream opened",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            )
+    })
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockAlerts() {
+        return stockLevelRegistry.subscribe();
+    }
+
     /**
      * Gets low stock products.
      *
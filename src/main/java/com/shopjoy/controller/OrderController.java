@@ -1,7 +1,9 @@
 package com.shopjoy.controller;
 
+import com.shopjoy.dto.request.BulkOrderStatusRequest;
 import com.shopjoy.dto.request.CreateOrderRequest;
 import com.shopjoy.dto.response.ApiResponse;
+import com.shopjoy.dto.response.BulkOrderStatusResponse;
 import com.shopjoy.dto.response.OrderResponse;
 import com.shopjoy.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,7 +19,7 @@ import org.springframework.web.bind.annotation.*;
 /**
  * The type Order controller.
  * Note: Most order operations (queries, status updates) use GraphQL.
- * This controller only handles order creation and payment processing.
+ * This controller handles order creation, payment processing and bulk status transitions.
  */
 @Tag(name = "Order Management", description = "APIs for order creation and payment processing")
 @RestController
@@ -74,4 +76,23 @@ public class OrderController {
                 OrderResponse response = orderService.processPayment(id, transactionId);
                 return ResponseEntity.ok(ApiResponse.success(response, "Payment processed successfully"));
         }
+
+        /**
+         * Move many orders to the same status.
+         *
+         * @param request the request
+         * @return the response entity
+         */
+        @Operation(summary = "Bulk update order status", description = "Moves many orders to PROCESSING, SHIPPED or DELIVERED and reports the outcome per order")
+        @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Bulk transition applied", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkOrderStatusResponse.class))),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid target status or too many orders", content = @Content(mediaType = "application/json"))
+        })
+        @PatchMapping("/status")
+        public ResponseEntity<ApiResponse<BulkOrderStatusResponse>> updateOrderStatusBulk(
+                        @Valid @RequestBody BulkOrderStatusRequest request) {
+                BulkOrderStatusResponse response = orderService.updateOrderStatusBulk(request);
+                return ResponseEntity.ok(ApiResponse.success(response,
+                                response.getUpdatedCount() + " of " + response.getResults().size() + " orders updated"));
+        }
 }
@@ -1,6 +1,7 @@
 package com.shopjoy.controller;
 
 import com.shopjoy.aspect.PerformanceMetricsCollector;
+import com.shopjoy.cache.CacheSnapshotManager;
 import com.shopjoy.dto.response.ApiResponse;
 import com.shopjoy.util.CacheMetricsCollector;
 import io.swagger.v3.oas.annotations.Operation;
@@ -8,6 +9,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -22,6 +24,7 @@ public class PerformanceController {
 
     private final PerformanceMetricsCollector metricsCollector;
     private final CacheMetricsCollector cacheMetricsCollector;
+    private final CacheSnapshotManager cacheSnapshotManager;
 
     @Operation(summary = "Get all performance metrics")
     @GetMapping("/metrics")
@@ -40,6 +43,19 @@ public class PerformanceController {
     public ResponseEntity<ApiResponse<Map<String, Object>>> getCacheDetails() {
         return ResponseEntity.ok(ApiResponse.success(cacheMetricsCollector.getAllCacheStats(), "Detailed cache stats retrieved successfully"));
     }
+
+    @Operation(summary = "Get cache snapshot and warm-up statistics")
+    @GetMapping("/cache/snapshot")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCacheSnapshotStats() {
+        return ResponseEntity.ok(ApiResponse.success(cacheSnapshotManager.getSnapshotStats(), "Cache snapshot stats retrieved successfully"));
+    }
+
+    @Operation(summary = "Write a cache snapshot now")
+    @PostMapping("/cache/snapshot")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> writeCacheSnapshot() {
+        cacheSnapshotManager.writeSnapshot();
+        return ResponseEntity.ok(ApiResponse.success(cacheSnapshotManager.getSnapshotStats(), "Cache snapshot written successfully"));
+    }
     
     @Operation(summary = "Get optimization health")
     @GetMapping("/health")
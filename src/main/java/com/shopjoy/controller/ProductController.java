@@ -4,7 +4,11 @@ import com.shopjoy.dto.filter.ProductFilter;
 import com.shopjoy.dto.request.CreateProductRequest;
 import com.shopjoy.dto.request.UpdateProductRequest;
 import com.shopjoy.dto.response.ApiResponse;
+import com.shopjoy.dto.response.AutocompleteSuggestionResponse;
+import com.shopjoy.dto.response.FacetedProductPageResponse;
+import com.shopjoy.dto.response.ProductPageResponse;
 import com.shopjoy.dto.response.ProductResponse;
+import com.shopjoy.service.ProductPageService;
 import com.shopjoy.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -37,14 +41,17 @@ import java.util.List;
 public class ProductController {
 
         private final ProductService productService;
+        private final ProductPageService productPageService;
 
         /**
          * Instantiates a new Product controller.
          *
          * @param productService               the product service
+         * @param productPageService           the product page service
          */
-        public ProductController(ProductService productService) {
+        public ProductController(ProductService productService, ProductPageService productPageService) {
                 this.productService = productService;
+                this.productPageService = productPageService;
         }
 
 
@@ -89,6 +96,25 @@ public class ProductController {
                 return ResponseEntity.ok(ApiResponse.success(response, "Product retrieved successfully"));
         }
 
+        /**
+         * Gets the product detail page.
+         *
+         * @param id the id
+         * @return the product page
+         */
+        @Operation(summary = "Get product detail page", description = "Retrieves the product with its category, inventory, reviews and average rating in one request. The parts are loaded in parallel; inventory, reviews and rating are left out and listed in missingParts when they exceed their time budget")
+        @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Product page retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductPageResponse.class))),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found", content = @Content(mediaType = "application/json")),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "504", description = "Product could not be loaded within the page deadline", content = @Content(mediaType = "application/json"))
+        })
+        @GetMapping("/{id}/page")
+        public ResponseEntity<ApiResponse<ProductPageResponse>> getProductPage(
+                        @Parameter(description = "Product unique identifier", required = true, example = "1") @PathVariable @Positive(message = "Product ID must be positive") Integer id) {
+                ProductPageResponse response = productPageService.getProductPage(id);
+                return ResponseEntity.ok(ApiResponse.success(response, "Product page retrieved successfully"));
+        }
+
         /**
          * Gets all products.
          *
@@ -154,6 +180,25 @@ public class ProductController {
                 return ResponseEntity.ok(ApiResponse.success(response, "Products search completed successfully"));
         }
 
+        /**
+         * Gets typeahead suggestions.
+         *
+         * @param q     the text typed so far
+         * @param limit the maximum number of suggestions
+         * @return the suggestions
+         */
+        @Operation(summary = "Autocomplete product names, brands and categories", description = "Returns typeahead suggestions whose words start with the given text, ranked by popularity. Served from an in-memory index, so it is safe to call on every keystroke")
+        @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully", content = @Content(mediaType = "application/json"))
+        })
+        @GetMapping("/autocomplete")
+        public ResponseEntity<ApiResponse<List<AutocompleteSuggestionResponse>>> autocomplete(
+                        @Parameter(description = "Text typed so far", required = true, example = "lap") @RequestParam String q,
+                        @Parameter(description = "Maximum number of suggestions", example = "8") @RequestParam(defaultValue = "8") @Min(value = 1, message = "Limit must be at least 1") @Max(value = 20, message = "Limit cannot exceed 20") int limit) {
+                List<AutocompleteSuggestionResponse> response = productService.autocomplete(q, limit);
+                return ResponseEntity.ok(ApiResponse.success(response, "Suggestions retrieved successfully"));
+        }
+
         /**
          * Gets products by price range.
          *
@@ -385,6 +430,7 @@ public class ProductController {
                         @Parameter(description = "Minimum stock quantity", example = "10") @RequestParam(required = false) Integer minStock,
                         @Parameter(description = "Maximum stock quantity", example = "100") @RequestParam(required = false) Integer maxStock,
                         @Parameter(description = "Filter by active status", example = "true") @RequestParam(required = false) Boolean isActive,
+                        @Parameter(description = "Brand filter", example = "Dell") @RequestParam(required = false) String brand,
                         @Parameter(description = "Page number (0-indexed)", example = "0") @RequestParam(defaultValue = "0") int page,
                         @Parameter(description = "Page size", example = "10") @RequestParam(defaultValue = "10") int size,
                         @Parameter(description = "Field to sort by", example = "id") @RequestParam(defaultValue = "id") String sortBy,
@@ -399,6 +445,7 @@ public class ProductController {
                 filter.setMinStock(minStock);
                 filter.setMaxStock(maxStock);
                 filter.setActive(isActive);
+                filter.setBrand(brand);
 
                 Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
                 Pageable pageable = PageRequest.of(page, size, sort);
@@ -408,6 +455,56 @@ public class ProductController {
                 return ResponseEntity.ok(ApiResponse.success(response, "Filtered products retrieved successfully"));
         }
 
+        /**
+         * Gets filtered products together with facet counts.
+         *
+         * @param minPrice      the min price
+         * @param maxPrice      the max price
+         * @param categoryId    the category id
+         * @param brand         the brand
+         * @param searchTerm    the search term
+         * @param inStock       the in stock
+         * @param isActive      the is active
+         * @param page          the page
+         * @param size          the size
+         * @param sortBy        the sort by
+         * @param sortDirection the sort direction
+         * @return the filtered products and facet counts
+         */
+        @Operation(summary = "Get filtered products with facet counts", description = "Retrieves a page of filtered products plus counts per category, brand, price range and stock status for the filter sidebar, in a single request")
+        @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Filtered products and facets retrieved successfully", content = @Content(mediaType = "application/json")),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid filter parameters", content = @Content(mediaType = "application/json"))
+        })
+        @GetMapping("/filter/faceted")
+        public ResponseEntity<ApiResponse<FacetedProductPageResponse>> getProductsWithFacets(
+                        @Parameter(description = "Minimum price filter", example = "100.00") @RequestParam(required = false) Double minPrice,
+                        @Parameter(description = "Maximum price filter", example = "1000.00") @RequestParam(required = false) Double maxPrice,
+                        @Parameter(description = "Category ID filter", example = "1") @RequestParam(required = false) Integer categoryId,
+                        @Parameter(description = "Brand filter", example = "Dell") @RequestParam(required = false) String brand,
+                        @Parameter(description = "Search term for product name or description", example = "Laptop") @RequestParam(required = false) String searchTerm,
+                        @Parameter(description = "Filter by stock availability", example = "true") @RequestParam(required = false) Boolean inStock,
+                        @Parameter(description = "Filter by active status", example = "true") @RequestParam(required = false) Boolean isActive,
+                        @Parameter(description = "Page number (0-indexed)", example = "0") @RequestParam(defaultValue = "0") @Min(value = 0, message = "Page number cannot be negative") int page,
+                        @Parameter(description = "Page size", example = "10") @RequestParam(defaultValue = "10") @Min(value = 1, message = "Page size must be at least 1") @Max(value = 100, message = "Page size cannot exceed 100") int size,
+                        @Parameter(description = "Field to sort by", example = "id") @RequestParam(defaultValue = "id") String sortBy,
+                        @Parameter(description = "Sort direction (ASC or DESC)", example = "ASC") @RequestParam(defaultValue = "ASC") String sortDirection) {
+
+                ProductFilter filter = ProductFilter.builder()
+                                .minPrice(minPrice)
+                                .maxPrice(maxPrice)
+                                .categoryId(categoryId)
+                                .brand(brand)
+                                .searchTerm(searchTerm)
+                                .inStock(inStock)
+                                .active(isActive)
+                                .build();
+
+                Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(sortDirection), sortBy));
+                FacetedProductPageResponse response = productService.getProductsWithFacets(filter, pageable);
+                return ResponseEntity.ok(ApiResponse.success(response, "Filtered products and facets retrieved successfully"));
+        }
+
         @Operation(summary = "Get recently added products", description = "Retrieves a list of newest products added to the catalog")
         @GetMapping("/new-arrivals")
         public ResponseEntity<ApiResponse<List<ProductResponse>>> getNewArrivals(
@@ -24,6 +24,8 @@ public interface CartItemMapperStruct {
     @Mapping(target = "productId", source = "cartItem.product.id")
     @Mapping(target = "productName", source = "cartItem.product.productName")
     @Mapping(target = "productPrice", source = "cartItem.product.price")
+    @Mapping(target = "available", ignore = true)
+    @Mapping(target = "shortfall", ignore = true)
     CartItemResponse toCartItemResponse(CartItem cartItem);
 
     /**
@@ -34,5 +36,7 @@ public interface CartItemMapperStruct {
     @Mapping(target = "productId", source = "cartItem.product.id")
     @Mapping(target = "productName", source = "productName")
     @Mapping(target = "productPrice", source = "price")
+    @Mapping(target = "available", ignore = true)
+    @Mapping(target = "shortfall", ignore = true)
     CartItemResponse toCartItemResponse(CartItem cartItem, String productName, double price);
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ public interface InventoryMapperStruct {
     @Mapping(target = "productId", source = "inventory.product.id")
     @Mapping(target = "productName", source = "inventory.product.productName")
     @Mapping(target = "stockQuantity", source = "inventory.quantityInStock")
+    @Mapping(target = "reservedQuantity", source = "inventory.reservedQuantity")
     InventoryResponse toInventoryResponse(Inventory inventory);
 
     /**
@@ -31,5 +32,6 @@ public interface InventoryMapperStruct {
     @Mapping(target = "productId", source = "inventory.product.id")
     @Mapping(target = "productName", source = "productName")
     @Mapping(target = "stockQuantity", source = "inventory.quantityInStock")
+    @Mapping(target = "reservedQuantity", source = "inventory.reservedQuantity")
     InventoryResponse toInventoryResponse(Inventory inventory, String productName);
 }
\ No newline at end of file
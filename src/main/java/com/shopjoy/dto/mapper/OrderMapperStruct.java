@@ -35,6 +35,7 @@ public interface OrderMapperStruct {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "orderItems", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Order toOrder(CreateOrderRequest request);
 
     /**
@@ -0,0 +1,43 @@
+package com.shopjoy.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import tools.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+/**
+ * Request DTO for one REST call inside a batch.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperationRequest {
+
+    /**
+     * Client-chosen id echoed in the result, defaults to the operation's position.
+     */
+    private String id;
+
+    @NotBlank(message = "Method is required")
+    @Pattern(regexp = "GET|POST|PUT|PATCH|DELETE", message = "Method must be GET, POST, PUT, PATCH or DELETE")
+    private String method;
+
+    @NotBlank(message = "Path is required")
+    @Pattern(regexp = "/api/v1/.*", message = "Path must start with /api/v1/")
+    private String path;
+
+    /**
+     * Extra request headers, e.g. Accept-Language; the batch request's own headers apply otherwise.
+     */
+    private Map<String, String> headers;
+
+    private JsonNode body;
+}
@@ -0,0 +1,59 @@
+package com.shopjoy.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Request DTO for adding many items to a cart at once, e.g. re-ordering or merging a guest cart.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAddToCartRequest {
+
+    @NotNull(message = "User ID is required")
+    @Positive(message = "User ID must be positive")
+    private Integer userId;
+
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 100, message = "Cannot add more than 100 items at once")
+    private List<@Valid Item> items;
+
+    /**
+     * Whether item quantities replace the quantities already in the cart instead of adding to them.
+     */
+    private boolean replaceQuantities;
+
+    /**
+     * One product and quantity to add.
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotNull(message = "Product ID is required")
+        @Positive(message = "Product ID must be positive")
+        private Integer productId;
+
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be at least 1")
+        @Max(value = 999, message = "Quantity cannot exceed 999")
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,30 @@
+package com.shopjoy.dto.request;
+
+import com.shopjoy.entity.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Request DTO for moving many orders to the same status, e.g. shipping a warehouse batch.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusRequest {
+
+    @NotEmpty(message = "At least one order ID is required")
+    private List<@NotNull @Positive Integer> orderIds;
+
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+}
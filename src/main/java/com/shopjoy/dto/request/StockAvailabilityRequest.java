@@ -0,0 +1,29 @@
+package com.shopjoy.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * Request DTO for checking stock availability of several products at once.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAvailabilityRequest {
+
+    @NotEmpty(message = "At least one item is required")
+    private Map<@NotNull @Positive(message = "Product ID must be positive") Integer,
+            @NotNull @Min(value = 1, message = "Quantity must be at least 1") Integer> items;
+
+}
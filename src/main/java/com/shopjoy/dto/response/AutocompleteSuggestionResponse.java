@@ -0,0 +1,30 @@
+package com.shopjoy.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "Typeahead suggestion for a product, brand or category")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompleteSuggestionResponse {
+
+    @Schema(description = "Suggested text", example = "Dell XPS 15 Laptop")
+    private String text;
+
+    @Schema(description = "What the suggestion refers to", example = "PRODUCT", allowableValues = {"PRODUCT", "BRAND", "CATEGORY"})
+    private String type;
+
+    @Schema(description = "Product id for product suggestions", example = "1")
+    private Integer productId;
+
+    @Schema(description = "Category id for category suggestions", example = "1")
+    private Integer categoryId;
+
+    @Schema(description = "Popularity used for ranking (units ordered)", example = "120")
+    private long popularity;
+}
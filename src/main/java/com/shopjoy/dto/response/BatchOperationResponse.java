@@ -0,0 +1,28 @@
+package com.shopjoy.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import tools.jackson.databind.JsonNode;
+
+@Schema(description = "Result of one operation of a batch")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperationResponse {
+
+    @Schema(description = "Operation id, as sent or the operation's position", example = "product")
+    private String id;
+
+    @Schema(description = "HTTP status of the operation", example = "200")
+    private int status;
+
+    @Schema(description = "Time spent executing the operation in milliseconds", example = "4.2")
+    private double durationMs;
+
+    @Schema(description = "Response body of the operation, as it would have been returned on its own")
+    private JsonNode body;
+}
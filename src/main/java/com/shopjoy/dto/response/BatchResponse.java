@@ -0,0 +1,23 @@
+package com.shopjoy.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "Results of a batch, in the order of its operations")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse {
+
+    @Schema(description = "Per-operation results")
+    private List<BatchOperationResponse> results;
+
+    @Schema(description = "Time spent executing the whole batch in milliseconds", example = "11.8")
+    private double durationMs;
+}
@@ -0,0 +1,27 @@
+package com.shopjoy.dto.response;
+
+import com.shopjoy.entity.OrderStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "Outcome of moving many orders to the same status")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusResponse {
+
+    @Schema(description = "The requested status", example = "SHIPPED")
+    private OrderStatus status;
+
+    @Schema(description = "Number of orders moved to the requested status", example = "120")
+    private int updatedCount;
+
+    @Schema(description = "Outcome per order, in request order")
+    private List<BulkOrderStatusResultResponse> results;
+}
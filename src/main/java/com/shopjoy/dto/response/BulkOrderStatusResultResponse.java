@@ -0,0 +1,34 @@
+package com.shopjoy.dto.response;
+
+import com.shopjoy.entity.OrderStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "Outcome of a bulk status transition for one order")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusResultResponse {
+
+    /**
+     * What happened to one order of a bulk transition.
+     */
+    public enum Outcome {
+        UPDATED,
+        NOT_FOUND,
+        INVALID_TRANSITION
+    }
+
+    @Schema(description = "Order ID", example = "1")
+    private Integer orderId;
+
+    @Schema(description = "Outcome of the transition", example = "UPDATED")
+    private Outcome outcome;
+
+    @Schema(description = "Status of the order after the request, null when the order was not found", example = "SHIPPED")
+    private OrderStatus status;
+}
@@ -24,4 +24,14 @@ public class CartItemResponse {
     private int quantity;
     private LocalDateTime addedAt;
 
+    /**
+     * Whether the cart quantity is currently available, set when the cart is listed.
+     */
+    private Boolean available;
+
+    /**
+     * Units missing to fulfil the cart quantity, set when the cart is listed.
+     */
+    private Integer shortfall;
+
 }
@@ -0,0 +1,32 @@
+package com.shopjoy.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "A user's cart with totals and stock status")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSummaryResponse {
+
+    @Schema(description = "Cart owner", example = "1")
+    private Integer userId;
+
+    @Schema(description = "Cart items with their stock status")
+    private List<CartItemResponse> items;
+
+    @Schema(description = "Total number of units in the cart", example = "3")
+    private int itemCount;
+
+    @Schema(description = "Cart value at current product prices", example = "149.97")
+    private double subtotal;
+
+    @Schema(description = "Whether every cart quantity is currently available", example = "true")
+    private boolean allAvailable;
+}
@@ -0,0 +1,34 @@
+package com.shopjoy.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "Number of matching products for one facet value")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountResponse {
+
+    @Schema(description = "Facet value to filter by", example = "1")
+    private String value;
+
+    @Schema(description = "Display label", example = "Electronics")
+    private String label;
+
+    @Schema(description = "Number of products matching the other active filters and this value", example = "42")
+    private long count;
+
+    @Schema(description = "Lower price bound of a price range facet", example = "100.00")
+    private Double min;
+
+    @Schema(description = "Upper price bound of a price range facet", example = "249.99")
+    private Double max;
+
+    public FacetCountResponse(String value, String label, long count) {
+        this(value, label, count, null, null);
+    }
+}
@@ -0,0 +1,22 @@
+package com.shopjoy.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Page;
+
+@Schema(description = "Page of filtered products together with facet counts")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedProductPageResponse {
+
+    @Schema(description = "Matching products for the requested page")
+    private Page<ProductResponse> products;
+
+    @Schema(description = "Facet counts for the active filter")
+    private ProductFacetsResponse facets;
+}
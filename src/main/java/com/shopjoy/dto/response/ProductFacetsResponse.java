@@ -0,0 +1,33 @@
+package com.shopjoy.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "Facet counts for the product filter sidebar")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetsResponse {
+
+    @Schema(description = "Counts per category")
+    private List<FacetCountResponse> categories;
+
+    @Schema(description = "Counts per brand")
+    private List<FacetCountResponse> brands;
+
+    @Schema(description = "Counts per price range")
+    private List<FacetCountResponse> priceRanges;
+
+    @Schema(description = "Counts of in-stock and out-of-stock products")
+    private List<FacetCountResponse> availability;
+
+    public static ProductFacetsResponse empty() {
+        return new ProductFacetsResponse(List.of(), List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,35 @@
+package com.shopjoy.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "Everything a product detail page shows, loaded in one request")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageResponse {
+
+    @Schema(description = "The product")
+    private ProductResponse product;
+
+    @Schema(description = "Category of the product")
+    private CategoryResponse category;
+
+    @Schema(description = "Inventory of the product, absent when it could not be loaded in time")
+    private InventoryResponse inventory;
+
+    @Schema(description = "Reviews of the product, absent when they could not be loaded in time")
+    private List<ReviewResponse> reviews;
+
+    @Schema(description = "Average review rating, absent when it could not be loaded in time", example = "4.3")
+    private Double averageRating;
+
+    @Schema(description = "Parts left out because they failed or exceeded their time budget", example = "[\"reviews\"]")
+    private List<String> missingParts;
+}
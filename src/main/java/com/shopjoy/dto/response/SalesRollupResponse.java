@@ -0,0 +1,40 @@
+package com.shopjoy.dto.response;
+
+import com.shopjoy.entity.RollupDimension;
+import com.shopjoy.entity.RollupGranularity;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Order totals of one time bucket and one dimension value")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupResponse {
+
+    @Schema(description = "Bucket size", example = "DAY")
+    private RollupGranularity granularity;
+
+    @Schema(description = "Start of the bucket", example = "2026-03-01T00:00:00")
+    private LocalDateTime bucketStart;
+
+    @Schema(description = "Dimension the totals are grouped by", example = "PRODUCT")
+    private RollupDimension dimension;
+
+    @Schema(description = "Dimension value: product ID, category ID, order status or payment status", example = "42")
+    private String key;
+
+    @Schema(description = "Number of orders", example = "12")
+    private long orderCount;
+
+    @Schema(description = "Units ordered", example = "30")
+    private long unitsSold;
+
+    @Schema(description = "Revenue", example = "1499.70")
+    private double revenue;
+}
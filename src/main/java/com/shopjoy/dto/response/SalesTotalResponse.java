@@ -0,0 +1,31 @@
+package com.shopjoy.dto.response;
+
+import com.shopjoy.entity.RollupDimension;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "Order totals of one dimension value over a time range")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesTotalResponse {
+
+    @Schema(description = "Dimension the totals are grouped by", example = "CATEGORY")
+    private RollupDimension dimension;
+
+    @Schema(description = "Dimension value: product ID, category ID, order status or payment status", example = "3")
+    private String key;
+
+    @Schema(description = "Number of orders", example = "250")
+    private long orderCount;
+
+    @Schema(description = "Units ordered", example = "610")
+    private long unitsSold;
+
+    @Schema(description = "Revenue", example = "24310.50")
+    private double revenue;
+}
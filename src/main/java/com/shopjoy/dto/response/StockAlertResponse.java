@@ -0,0 +1,38 @@
+package com.shopjoy.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Stock level crossing a low-stock or out-of-stock threshold")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertResponse {
+
+    @Schema(description = "Alert type", example = "LOW_STOCK", allowableValues = {"LOW_STOCK", "STOCK_RECOVERED", "OUT_OF_STOCK", "BACK_IN_STOCK"})
+    private String alert;
+
+    @Schema(description = "Product unique identifier", example = "1")
+    private Integer productId;
+
+    @Schema(description = "Product name", example = "Dell XPS 15 Laptop")
+    private String productName;
+
+    @Schema(description = "Quantity before the change", example = "12")
+    private int previousQuantity;
+
+    @Schema(description = "Quantity after the change", example = "8")
+    private int quantity;
+
+    @Schema(description = "Reorder level threshold", example = "10")
+    private int reorderLevel;
+
+    @Schema(description = "When the threshold was crossed", example = "2024-01-20T10:30:00")
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,30 @@
+package com.shopjoy.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "Stock availability of one requested product")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAvailabilityLineResponse {
+
+    @Schema(description = "Product unique identifier", example = "1")
+    private Integer productId;
+
+    @Schema(description = "Requested quantity", example = "3")
+    private int requestedQuantity;
+
+    @Schema(description = "Quantity available to sell (stock minus checkout holds)", example = "2")
+    private int availableQuantity;
+
+    @Schema(description = "Whether the requested quantity is available", example = "false")
+    private boolean available;
+
+    @Schema(description = "How many units are missing, 0 when available", example = "1")
+    private int shortfall;
+}
@@ -0,0 +1,36 @@
+package com.shopjoy.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "Stock availability of several products")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAvailabilityResponse {
+
+    @Schema(description = "Whether every requested quantity is available", example = "true")
+    private boolean allAvailable;
+
+    @Schema(description = "Availability per product, ordered by product ID")
+    private List<StockAvailabilityLineResponse> lines;
+
+    /**
+     * Gets the line for a product.
+     *
+     * @param productId the product id
+     * @return the line, or null when the product was not requested
+     */
+    public StockAvailabilityLineResponse lineFor(Integer productId) {
+        return lines.stream()
+                .filter(line -> line.getProductId().equals(productId))
+                .findFirst()
+                .orElse(null);
+    }
+}
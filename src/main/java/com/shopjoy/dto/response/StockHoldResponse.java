@@ -0,0 +1,32 @@
+package com.shopjoy.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Stock held for a user's checkout")
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHoldResponse {
+
+    @Schema(description = "Hold unique identifier", example = "1")
+    private Integer holdId;
+
+    @Schema(description = "Held product", example = "1")
+    private Integer productId;
+
+    @Schema(description = "Held quantity", example = "2")
+    private int quantity;
+
+    @Schema(description = "Hold status", example = "ACTIVE")
+    private String status;
+
+    @Schema(description = "When the hold lapses unless the order is placed", example = "2024-01-20T10:45:00")
+    private LocalDateTime expiresAt;
+}
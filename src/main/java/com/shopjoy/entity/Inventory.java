@@ -3,6 +3,7 @@ package com.shopjoy.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Formula;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -48,6 +49,56 @@ public class Inventory implements Serializable {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Quantity held by active {@link StockHold}s, maintained as holds are created, converted,
+     * released and expired.
+     */
+    @Column(name = "reserved_quantity", nullable = false)
+    private int reservedQuantity;
+
+    /**
+     * Number of {@link InventoryStripe} rows holding this product's stock, or 0 when the stock
+     * is held in quantity_in_stock.
+     */
+    @Column(name = "stripe_count", nullable = false)
+    private int stripeCount;
+
+    /**
+     * Bumped by every stock change that locks this row. Single-stripe reservations bump their
+     * stripe's version instead; the stock version of a product is the sum of both.
+     */
+    @Column(name = "stock_version", nullable = false)
+    private long stockVersion;
+
+    /**
+     * Sum of the stripe quantities, loaded with the row.
+     */
+    @Formula("(SELECT COALESCE(SUM(s.quantity), 0) FROM inventory_stripes s WHERE s.inventory_id = inventory_id)")
+    private int stripedQuantity;
+
+    /**
+     * Gets the stock on hand: the sum of the stripes for a striped product,
+     * otherwise quantity_in_stock.
+     *
+     * @return the quantity in stock
+     */
+    public int getQuantityInStock() {
+        return stripeCount > 0 ? stripedQuantity : quantityInStock;
+    }
+
+    /**
+     * Gets the stock that is neither sold nor held for another checkout.
+     *
+     * @return the available quantity
+     */
+    public int getAvailableQuantity() {
+        return Math.max(0, getQuantityInStock() - reservedQuantity);
+    }
+
+    public boolean isStriped() {
+        return stripeCount > 0;
+    }
+
     @PrePersist
     protected void onCreate() {
         updatedAt = LocalDateTime.now();
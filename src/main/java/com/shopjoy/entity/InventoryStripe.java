@@ -0,0 +1,46 @@
+package com.shopjoy.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * One slice of a striped product's stock.
+ *
+ * Hot products can spread their stock over several stripe rows so concurrent reservations lock
+ * different rows instead of queueing on the single inventory row. The product's stock is the sum
+ * of its stripes.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "inventory_stripes",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"inventory_id", "stripe_index"}))
+public class InventoryStripe implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "stripe_id")
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Inventory inventory;
+
+    @Column(name = "stripe_index", nullable = false)
+    private int stripeIndex;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+}
@@ -1,9 +1,43 @@
 package com.shopjoy.entity;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,
     PROCESSING,
     SHIPPED,
     DELIVERED,
-    CANCELLED
+    CANCELLED;
+
+    /**
+     * Order workflow: the statuses each status can be entered from.
+     * PENDING -> PROCESSING -> SHIPPED -> DELIVERED, and CANCELLED from PENDING or PROCESSING.
+     * PENDING is only the initial status and cannot be entered again.
+     */
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(PROCESSING, EnumSet.of(PENDING));
+        TRANSITIONS.put(SHIPPED, EnumSet.of(PROCESSING));
+        TRANSITIONS.put(DELIVERED, EnumSet.of(SHIPPED));
+        TRANSITIONS.put(CANCELLED, EnumSet.of(PENDING, PROCESSING));
+    }
+
+    /**
+     * Gets the statuses an order may be in to move to this status.
+     */
+    public Set<OrderStatus> allowedSources() {
+        return Set.copyOf(TRANSITIONS.get(this));
+    }
+
+    /**
+     * Checks whether an order in the given status may move to this status.
+     */
+    public boolean canTransitionFrom(OrderStatus current) {
+        return TRANSITIONS.get(this).contains(current);
+    }
 }
@@ -0,0 +1,8 @@
+package com.shopjoy.entity;
+
+public enum RollupDimension {
+    PRODUCT,
+    CATEGORY,
+    STATUS,
+    PAYMENT_STATUS
+}
@@ -0,0 +1,71 @@
+package com.shopjoy.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated order totals for one time bucket and one dimension value, e.g. the units and
+ * revenue of product 42 between 10:00 and 11:00.
+ *
+ * Product and category rollups count orders that are not cancelled. Status and payment status
+ * rollups count every order under its current status, so an order moves between their keys as it
+ * progresses. Orders are bucketed by their order date.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "sales_rollups")
+public class SalesRollup implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The composite key of a rollup row.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "granularity", length = 10, nullable = false)
+        private RollupGranularity granularity;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "dimension", length = 20, nullable = false)
+        private RollupDimension dimension;
+
+        @Column(name = "bucket_start", nullable = false)
+        private LocalDateTime bucketStart;
+
+        @Column(name = "dimension_key", length = 50, nullable = false)
+        private String dimensionKey;
+    }
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "units_sold", nullable = false)
+    private long unitsSold;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+}
@@ -0,0 +1,8 @@
+package com.shopjoy.entity;
+
+public enum StockHoldStatus {
+    ACTIVE,
+    CONVERTED,
+    RELEASED,
+    EXPIRED
+}
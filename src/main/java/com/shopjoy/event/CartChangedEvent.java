@@ -0,0 +1,31 @@
+package com.shopjoy.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by the cart write paths whenever a cart line is added, changed or removed, or the
+ * cart is cleared.
+ *
+ * @param userId    the cart owner
+ * @param productId the product of the changed line, or null when the whole cart was cleared
+ * @param quantity  the line quantity after the change, 0 when the line was removed
+ * @param unitPrice the product's unit price, or null when the line was removed or the cart cleared
+ */
+public record CartChangedEvent(Integer userId, Integer productId, int quantity, BigDecimal unitPrice) {
+
+    public static CartChangedEvent lineChanged(Integer userId, Integer productId, int quantity, BigDecimal unitPrice) {
+        return new CartChangedEvent(userId, productId, quantity, unitPrice);
+    }
+
+    public static CartChangedEvent lineRemoved(Integer userId, Integer productId) {
+        return new CartChangedEvent(userId, productId, 0, null);
+    }
+
+    public static CartChangedEvent cleared(Integer userId) {
+        return new CartChangedEvent(userId, null, 0, null);
+    }
+
+    public boolean isCleared() {
+        return productId == null;
+    }
+}
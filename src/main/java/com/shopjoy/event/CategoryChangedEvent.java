@@ -0,0 +1,9 @@
+package com.shopjoy.event;
+
+/**
+ * Published by the category write paths after a category is created, updated or deleted.
+ *
+ * @param categoryId the category id
+ */
+public record CategoryChangedEvent(Integer categoryId) {
+}
@@ -0,0 +1,14 @@
+package com.shopjoy.event;
+
+import com.shopjoy.entity.PaymentStatus;
+
+/**
+ * Published by the order write paths whenever an order moves to a new payment status.
+ *
+ * @param orderId               the order id
+ * @param previousPaymentStatus the payment status before the change
+ * @param paymentStatus         the payment status after the change
+ */
+public record OrderPaymentStatusChangedEvent(Integer orderId, PaymentStatus previousPaymentStatus,
+                                             PaymentStatus paymentStatus) {
+}
@@ -0,0 +1,10 @@
+package com.shopjoy.event;
+
+/**
+ * Published once an order and its items have been written, both for a new order and after the
+ * items of an existing order were replaced.
+ *
+ * @param orderId the order id
+ */
+public record OrderPlacedEvent(Integer orderId) {
+}
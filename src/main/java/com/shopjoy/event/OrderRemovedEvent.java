@@ -0,0 +1,10 @@
+package com.shopjoy.event;
+
+/**
+ * Published before an order is deleted or its items are replaced, while its current rows can
+ * still be read.
+ *
+ * @param orderId the order id
+ */
+public record OrderRemovedEvent(Integer orderId) {
+}
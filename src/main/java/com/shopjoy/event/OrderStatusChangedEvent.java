@@ -0,0 +1,13 @@
+package com.shopjoy.event;
+
+import com.shopjoy.entity.OrderStatus;
+
+/**
+ * Published by the order write paths whenever an order moves to a new status.
+ *
+ * @param orderId        the order id
+ * @param previousStatus the status before the change
+ * @param status         the status after the change
+ */
+public record OrderStatusChangedEvent(Integer orderId, OrderStatus previousStatus, OrderStatus status) {
+}
@@ -0,0 +1,24 @@
+package com.shopjoy.event;
+
+import com.shopjoy.dto.response.ProductResponse;
+
+/**
+ * Published by the product write paths after a product is created, updated or deleted.
+ *
+ * @param productId the product id
+ * @param product   the product state after the change, or null when the product was deleted
+ */
+public record ProductChangedEvent(Integer productId, ProductResponse product) {
+
+    public static ProductChangedEvent updated(ProductResponse product) {
+        return new ProductChangedEvent(product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(Integer productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
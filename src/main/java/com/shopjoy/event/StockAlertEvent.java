@@ -0,0 +1,12 @@
+package com.shopjoy.event;
+
+import com.shopjoy.dto.response.StockAlertResponse;
+
+/**
+ * Published by the stock level registry whenever a product crosses the low-stock or
+ * out-of-stock threshold, after the stock write committed.
+ *
+ * @param alert the threshold crossing
+ */
+public record StockAlertEvent(StockAlertResponse alert) {
+}
@@ -0,0 +1,17 @@
+package com.shopjoy.event;
+
+/**
+ * Published by the inventory write paths whenever the stock level of a product changes.
+ *
+ * Events can reach listeners out of order; a listener keeping the level of a product should
+ * ignore an event whose version is not above the one it holds.
+ *
+ * @param productId        the product id
+ * @param previousQuantity the quantity in stock before the change
+ * @param quantity         the quantity in stock after the change
+ * @param reorderLevel     the reorder level after the change
+ * @param version          the stock version of the product after the change, increasing with every change
+ */
+public record StockChangedEvent(Integer productId, int previousQuantity, int quantity, int reorderLevel,
+                                long version) {
+}
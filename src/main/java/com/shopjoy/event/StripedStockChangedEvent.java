@@ -0,0 +1,13 @@
+package com.shopjoy.event;
+
+/**
+ * Published inside the transaction when a reservation or release changed a single stripe of a
+ * striped product without locking its inventory row. The transaction cannot see the stripes
+ * other transactions are changing at the same time, so the level is read again after commit and
+ * published as a {@link StockChangedEvent} by {@code StripedStockPublisher}.
+ *
+ * @param productId the product id
+ * @param delta     the change made to the stock, negative for a reservation
+ */
+public record StripedStockChangedEvent(Integer productId, int delta) {
+}
@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -257,6 +258,25 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
     }
     
+    /**
+     * Handles ServiceTimeoutException - when a request misses its deadline.
+     * Returns 504 Gateway Timeout.
+     * Example: The product of a product page could not be loaded in time
+     */
+    @ExceptionHandler(ServiceTimeoutException.class)
+    public ResponseEntity<ApiResponse<Object>> handleServiceTimeout(ServiceTimeoutException ex) {
+        logger.warn("Service timeout: {}", ex.getMessage());
+
+        ErrorDetail error = new ErrorDetail(
+                ex.getMessage(),
+                ex.getErrorCode()
+        );
+
+        ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), error);
+
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(response);
+    }
+
     /**
      * Handles general BusinessException - business rule violations.
      * Returns 400 Bad Request.
@@ -383,6 +403,26 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(response);
     }
     
+    /**
+     * Handles writes that lost a race with a concurrent change to the same row.
+     * Returns 409 Conflict; the client can reload and retry.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<Object>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        logger.warn("Concurrent modification: {}", ex.getMessage());
+        
+        String message = "The resource was modified concurrently. Please reload and try again.";
+        
+        ErrorDetail error = new ErrorDetail(
+                message,
+                "CONCURRENT_MODIFICATION"
+        );
+        
+        ApiResponse<Object> response = ApiResponse.error(message, error);
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+    
     /**
      * Handles general database/JDBC errors.
      * Returns 500 Internal Server Error.
@@ -0,0 +1,16 @@
+package com.shopjoy.exception;
+
+/**
+ * Exception thrown when a request cannot be answered within its deadline.
+ * Example: The product of a product page could not be loaded in time.
+ */
+public class ServiceTimeoutException extends BusinessException {
+
+    public ServiceTimeoutException(String message) {
+        super(message, "SERVICE_TIMEOUT");
+    }
+
+    public ServiceTimeoutException(String message, Throwable cause) {
+        super(message, "SERVICE_TIMEOUT", cause);
+    }
+}
@@ -0,0 +1,67 @@
+package com.shopjoy.graphql.cost;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shopjoy.config.GraphQLCostProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks how much query cost each client may still spend.
+ *
+ * Each client has a bucket holding at most one window's budget that refills continuously at
+ * budget / window, so spending is limited over any rolling window rather than per calendar
+ * minute. Buckets of idle clients are dropped; a returning client starts with a full budget.
+ */
+@Component
+public class ClientCostBudgets {
+
+    /**
+     * One client's remaining budget. Guarded by the instance monitor.
+     */
+    private static final class Bucket {
+        double available;
+        long refilledAt;
+
+        Bucket(double available, long refilledAt) {
+            this.available = available;
+            this.refilledAt = refilledAt;
+        }
+    }
+
+    private final GraphQLCostProperties properties;
+    private final Cache<String, Bucket> buckets;
+
+    public ClientCostBudgets(GraphQLCostProperties properties) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getBudgetWindow().multipliedBy(2))
+                .build();
+    }
+
+    /**
+     * Spends a query's cost from a client's budget if enough is left.
+     *
+     * @param clientId the client
+     * @param cost     the query cost
+     * @return the budget left after spending, or -1 when the budget is insufficient and nothing was spent
+     */
+    public long trySpend(String clientId, long cost) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(clientId, _ -> new Bucket(properties.getClientBudget(), now));
+        synchronized (bucket) {
+            refill(bucket, now);
+            if (bucket.available < cost) {
+                return -1;
+            }
+            bucket.available -= cost;
+            return (long) bucket.available;
+        }
+    }
+
+    private void refill(Bucket bucket, long now) {
+        double perNano = (double) properties.getClientBudget() / properties.getBudgetWindow().toNanos();
+        bucket.available = Math.min(properties.getClientBudget(), bucket.available + (now - bucket.refilledAt) * perNano);
+        bucket.refilledAt = now;
+    }
+}
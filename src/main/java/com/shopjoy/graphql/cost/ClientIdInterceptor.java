@@ -0,0 +1,55 @@
+package com.shopjoy.graphql.cost;
+
+import com.shopjoy.config.GraphQLCostProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Puts the calling client's identity into the GraphQL context, for per-client cost budgets.
+ *
+ * Budgets are keyed by the remote address. The configured header is chosen by the caller and
+ * not authenticated, so it only names the client in logs; keying budgets by it would let a
+ * client reset its budget by changing the header, or spend another client's budget.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClientIdInterceptor implements WebGraphQlInterceptor {
+
+    /**
+     * The GraphQL context key holding the client id budgets are kept under.
+     */
+    public static final String CLIENT_ID = "clientId";
+
+    /**
+     * The GraphQL context key holding the name the client gave itself, if any.
+     */
+    public static final String CLIENT_NAME = "clientName";
+
+    private final GraphQLCostProperties properties;
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        Map<String, Object> context = new HashMap<>();
+        context.put(CLIENT_ID, clientId(request));
+        String name = request.getHeaders().getFirst(properties.getClientIdHeader());
+        if (StringUtils.hasText(name)) {
+            context.put(CLIENT_NAME, name.strip());
+        }
+        request.configureExecutionInput((_, builder) -> builder.graphQLContext(context).build());
+        return chain.next(request);
+    }
+
+    private static String clientId(WebGraphQlRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null ? "address:" + remoteAddress.getHostString() : "anonymous";
+    }
+}
@@ -0,0 +1,142 @@
+package com.shopjoy.graphql.cost;
+
+import com.shopjoy.config.GraphQLCostProperties;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.ExecutionContext;
+import graphql.schema.GraphQLCompositeType;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLTypeUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the static cost of a GraphQL operation from its document, before any resolver runs.
+ *
+ * A field costs its weight plus its children's cost times a multiplier. Paginated fields multiply
+ * by their size, limit or first argument, other list fields by an assumed list size, and the item
+ * lists inside connection types by one, since their parent field already counted the page. So
+ * {@code products(size: 50) { products { category { name } } }} costs 1 + 50 * (1 + 1) = 101.
+ * Introspection fields are free and do not count towards depth.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCostAnalyzer {
+
+    private static final List<String> PAGE_SIZE_ARGUMENTS = List.of("size", "limit", "first");
+
+    /**
+     * The static cost figures of one operation.
+     *
+     * @param cost         the total cost
+     * @param depth        the deepest field nesting
+     * @param maxPageSize  the largest page size argument, 0 when there is none
+     */
+    public record QueryCost(long cost, int depth, int maxPageSize) {
+    }
+
+    private final GraphQLCostProperties properties;
+
+    public QueryCost analyze(ExecutionContext context) {
+        QueryTraverser traverser = QueryTraverser.newQueryTraverser()
+                .schema(context.getGraphQLSchema())
+                .document(context.getDocument())
+                .operationName(context.getOperationDefinition().getName())
+                .coercedVariables(context.getCoercedVariables())
+                .build();
+
+        Map<QueryVisitorFieldEnvironment, Long> childCosts = new HashMap<>();
+        int[] maxDepth = {0};
+        int[] maxPageSize = {0};
+        traverser.visitPostOrder(new QueryVisitorStub() {
+            @Override
+            public void visitField(QueryVisitorFieldEnvironment env) {
+                int depth = depth(env);
+                if (depth < 0) {
+                    return;
+                }
+                maxDepth[0] = Math.max(maxDepth[0], depth);
+
+                Integer pageSize = pageSize(env);
+                if (pageSize != null) {
+                    maxPageSize[0] = Math.max(maxPageSize[0], pageSize);
+                }
+                long cost = saturatedAdd(weight(env),
+                        saturatedMultiply(multiplier(env, pageSize), childCosts.getOrDefault(env, 0L)));
+                childCosts.merge(env.getParentEnvironment(), cost, QueryCostAnalyzer::saturatedAdd);
+            }
+        });
+        return new QueryCost(childCosts.getOrDefault(null, 0L), maxDepth[0], maxPageSize[0]);
+    }
+
+    /**
+     * Gets the nesting depth of a field, or -1 for introspection fields and their children.
+     */
+    private static int depth(QueryVisitorFieldEnvironment env) {
+        int depth = 0;
+        for (QueryVisitorFieldEnvironment current = env; current != null; current = current.getParentEnvironment()) {
+            if (current.getField().getName().startsWith("__")) {
+                return -1;
+            }
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Gets the page size a paginated field was queried with, or the default when the argument
+     * was omitted; null for fields that are not paginated.
+     */
+    private Integer pageSize(QueryVisitorFieldEnvironment env) {
+        GraphQLFieldDefinition definition = env.getFieldDefinition();
+        for (String argument : PAGE_SIZE_ARGUMENTS) {
+            if (definition.getArgument(argument) != null) {
+                Object value = env.getArguments().get(argument);
+                return value instanceof Number number ? Math.max(number.intValue(), 0) : properties.getDefaultPageSize();
+            }
+        }
+        return null;
+    }
+
+    private long weight(QueryVisitorFieldEnvironment env) {
+        Integer weight = properties.getFieldWeights().get(coordinate(env));
+        if (weight != null) {
+            return weight;
+        }
+        return GraphQLTypeUtil.unwrapAll(env.getFieldDefinition().getType()) instanceof GraphQLCompositeType ? 1 : 0;
+    }
+
+    private long multiplier(QueryVisitorFieldEnvironment env, Integer pageSize) {
+        if (pageSize != null) {
+            return pageSize;
+        }
+        if (!GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()))) {
+            return 1;
+        }
+        if (env.getFieldsContainer().getName().endsWith("Connection")) {
+            return 1;
+        }
+        return properties.getListSizes().getOrDefault(coordinate(env), properties.getDefaultListSize());
+    }
+
+    private static String coordinate(QueryVisitorFieldEnvironment env) {
+        return env.getFieldsContainer().getName() + "." + env.getField().getName();
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        if (a != 0 && b > Long.MAX_VALUE / a) {
+            return Long.MAX_VALUE;
+        }
+        return a * b;
+    }
+}
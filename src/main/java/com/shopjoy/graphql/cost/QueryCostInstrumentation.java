@@ -0,0 +1,130 @@
+package com.shopjoy.graphql.cost;
+
+import com.shopjoy.config.GraphQLCostProperties;
+import com.shopjoy.graphql.cost.QueryCostAnalyzer.QueryCost;
+import graphql.ExecutionResult;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.incremental.IncrementalExecutionResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Rejects GraphQL operations that are too deep, too expensive, ask for too large pages, or exceed
+ * their client's rolling budget, before any resolver runs.
+ *
+ * Accepted operations report their cost in the {@code cost} response extension. Costs are
+ * recorded in the {@code graphql.query.cost} summary and rejections in the
+ * {@code graphql.query.rejected} counter, tagged with the reason.
+ */
+@Slf4j
+@Component
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+
+    /**
+     * The cost of the current operation, set once it was accepted.
+     */
+    private static final class CostState implements InstrumentationState {
+        volatile QueryCost cost;
+        volatile long budgetRemaining;
+    }
+
+    private final QueryCostAnalyzer analyzer;
+    private final ClientCostBudgets budgets;
+    private final GraphQLCostProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary costSummary;
+
+    public QueryCostInstrumentation(QueryCostAnalyzer analyzer,
+                                    ClientCostBudgets budgets,
+                                    GraphQLCostProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.analyzer = analyzer;
+        this.budgets = budgets;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.costSummary = DistributionSummary.builder("graphql.query.cost")
+                .description("Static cost of accepted GraphQL operations")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<InstrumentationState> createStateAsync(InstrumentationCreateStateParameters parameters) {
+        return CompletableFuture.completedFuture(new CostState());
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        if (!properties.isEnabled()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        ExecutionContext context = parameters.getExecutionContext();
+        QueryCost cost = analyzer.analyze(context);
+
+        if (cost.depth() > properties.getMaxDepth()) {
+            throw reject("depth", "Query depth " + cost.depth() + " exceeds the maximum of " + properties.getMaxDepth());
+        }
+        if (cost.maxPageSize() > properties.getMaxPageSize()) {
+            throw reject("page_size", "Page size " + cost.maxPageSize() + " exceeds the maximum of " + properties.getMaxPageSize());
+        }
+        if (cost.cost() > properties.getMaxCost()) {
+            throw reject("cost", "Query cost " + cost.cost() + " exceeds the maximum of " + properties.getMaxCost());
+        }
+
+        String clientId = context.getGraphQLContext().getOrDefault(ClientIdInterceptor.CLIENT_ID, "anonymous");
+        long remaining = budgets.trySpend(clientId, cost.cost());
+        if (remaining < 0) {
+            log.debug("GraphQL budget exhausted for {} ({}) by a query of cost {}", clientId,
+                    context.getGraphQLContext().getOrDefault(ClientIdInterceptor.CLIENT_NAME, "unnamed"), cost.cost());
+            throw reject("budget", "Query cost " + cost.cost() + " exceeds the remaining budget of this client, retry later");
+        }
+
+        costSummary.record(cost.cost());
+        if (state instanceof CostState costState) {
+            costState.cost = cost;
+            costState.budgetRemaining = remaining;
+        }
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                        InstrumentationExecutionParameters parameters,
+                                                                        InstrumentationState state) {
+        // transform() would drop the deferred payloads of an incremental result
+        if (!(state instanceof CostState costState) || costState.cost == null
+                || executionResult instanceof IncrementalExecutionResult) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        Map<String, Object> cost = new LinkedHashMap<>();
+        cost.put("requested", costState.cost.cost());
+        cost.put("maximum", properties.getMaxCost());
+        cost.put("depth", costState.cost.depth());
+        cost.put("budgetRemaining", costState.budgetRemaining);
+        return CompletableFuture.completedFuture(executionResult.transform(builder -> builder.addExtension("cost", cost)));
+    }
+
+    private AbortExecutionException reject(String reason, String message) {
+        Counter.builder("graphql.query.rejected")
+                .description("GraphQL operations rejected by cost analysis")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return new AbortExecutionException(message);
+    }
+}
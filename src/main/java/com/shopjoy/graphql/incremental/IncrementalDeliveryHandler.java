@@ -0,0 +1,121 @@
+package com.shopjoy.graphql.incremental;
+
+import graphql.ExperimentalApi;
+import graphql.incremental.DelayedIncrementalPartialResult;
+import graphql.incremental.IncrementalExecutionResult;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.server.support.SerializableGraphQlRequest;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.publisher.Flux;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Serves GraphQL requests that accept {@code multipart/mixed} with incremental delivery, so
+ * fragments marked with {@code @defer} follow the initial result as they resolve.
+ *
+ * Incremental execution is only enabled for these requests; plain JSON requests keep getting one
+ * complete result. Each payload is written as a JSON part and flushed right away, in the format
+ * of the GraphQL incremental delivery over HTTP proposal that Apollo and Relay clients read.
+ */
+@Component
+@RequiredArgsConstructor
+public class IncrementalDeliveryHandler {
+
+    public static final MediaType MULTIPART_MIXED = MediaType.parseMediaType("multipart/mixed");
+
+    private static final String DEFER_SPEC = "20220824";
+    private static final byte[] PART_START = "\r\n---\r\nContent-Type: application/json; charset=utf-8\r\n\r\n"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] END = "\r\n-----\r\n".getBytes(StandardCharsets.UTF_8);
+
+    private final WebGraphQlHandler webGraphQlHandler;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Whether the client asked for multipart/mixed explicitly; wildcards do not count, since
+     * clients sending them may not read multipart responses.
+     */
+    public static boolean acceptsMultipart(ServerRequest request) {
+        return request.headers().accept().stream()
+                .anyMatch(type -> MULTIPART_MIXED.getType().equals(type.getType())
+                        && MULTIPART_MIXED.getSubtype().equals(type.getSubtype()));
+    }
+
+    public ServerResponse handleRequest(ServerRequest serverRequest) throws Exception {
+        WebGraphQlRequest request = new WebGraphQlRequest(
+                serverRequest.uri(), serverRequest.headers().asHttpHeaders(), cookies(serverRequest),
+                serverRequest.remoteAddress().orElse(null), serverRequest.attributes(),
+                serverRequest.body(SerializableGraphQlRequest.class),
+                ObjectUtils.identityToString(serverRequest.servletRequest()),
+                serverRequest.servletRequest().getLocale());
+        request.configureExecutionInput((_, builder) -> builder
+                .graphQLContext(Map.of(ExperimentalApi.ENABLE_INCREMENTAL_SUPPORT, true))
+                .build());
+
+        return ServerResponse.async(webGraphQlHandler.handleRequest(request).map(this::toServerResponse));
+    }
+
+    private ServerResponse toServerResponse(WebGraphQlResponse response) {
+        if (!(response.getExecutionResult() instanceof IncrementalExecutionResult incremental)) {
+            return ServerResponse.ok()
+                    .headers(headers -> headers.putAll(response.getResponseHeaders()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(response.toMap());
+        }
+        MediaType contentType = new MediaType(MULTIPART_MIXED, Map.of("boundary", "\"-\"", "deferSpec", DEFER_SPEC));
+        return ServerResponse.ok()
+                .headers(headers -> headers.putAll(response.getResponseHeaders()))
+                .contentType(contentType)
+                .build((_, servletResponse) -> {
+                    writeParts(servletResponse, response.toMap(), incremental);
+                    return null;
+                });
+    }
+
+    /**
+     * Writes the initial result, then each deferred payload as soon as it is published. Closing
+     * the stream cancels the remaining payloads when the client goes away.
+     */
+    private void writeParts(HttpServletResponse servletResponse, Map<String, Object> initial,
+                            IncrementalExecutionResult incremental) throws IOException {
+        OutputStream out = servletResponse.getOutputStream();
+        writePart(out, initial);
+        try (Stream<DelayedIncrementalPartialResult> parts = Flux.from(incremental.getIncrementalItemPublisher()).toStream()) {
+            for (DelayedIncrementalPartialResult part : (Iterable<DelayedIncrementalPartialResult>) parts::iterator) {
+                writePart(out, part.toSpecification());
+            }
+        }
+        out.write(END);
+        out.flush();
+    }
+
+    private void writePart(OutputStream out, Map<String, Object> payload) throws IOException {
+        out.write(PART_START);
+        out.write(jsonMapper.writeValueAsBytes(payload));
+        out.flush();
+    }
+
+    private static MultiValueMap<String, HttpCookie> cookies(ServerRequest serverRequest) {
+        MultiValueMap<String, HttpCookie> cookies = new LinkedMultiValueMap<>();
+        serverRequest.cookies().forEach((name, values) ->
+                values.forEach(cookie -> cookies.add(name, new HttpCookie(name, cookie.getValue()))));
+        return cookies;
+    }
+}
@@ -0,0 +1,15 @@
+package com.shopjoy.graphql.input;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record CartItemInput(
+    @NotNull(message = "Product ID is required")
+    Long productId,
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    @Max(value = 999, message = "Quantity cannot exceed 999")
+    Integer quantity
+) {}
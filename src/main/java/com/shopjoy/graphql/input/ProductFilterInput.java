@@ -0,0 +1,11 @@
+package com.shopjoy.graphql.input;
+
+public record ProductFilterInput(
+    String searchTerm,
+    Integer categoryId,
+    String brand,
+    Double minPrice,
+    Double maxPrice,
+    Boolean active,
+    Boolean inStock
+) {}
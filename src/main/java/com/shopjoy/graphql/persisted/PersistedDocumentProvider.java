@@ -0,0 +1,176 @@
+package com.shopjoy.graphql.persisted;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shopjoy.config.PersistedQueryProperties;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Serves parsed and validated GraphQL documents from a bounded cache keyed by query hash, and
+ * implements automatic persisted queries (APQ).
+ *
+ * A request either carries the query text, whose SHA-256 hash becomes the cache key, or only the
+ * hash in the {@code persistedQuery} extension. A hash-only request is answered from the cache or
+ * the build-time {@link PersistedQueryRegistry}; otherwise it gets a PersistedQueryNotFound error,
+ * and the client retries with the text, which registers the query. When arbitrary queries are not
+ * allowed, only registry queries are executed.
+ *
+ * Parse and validate time is recorded in the {@code graphql.documents.parse} timer, and the time
+ * saved by cache hits, based on each document's own parse time, in the
+ * {@code graphql.documents.parse.saved} counter.
+ */
+@Component
+public class PersistedDocumentProvider implements PreparsedDocumentProvider {
+
+    /**
+     * A cached document with the time it took to parse and validate it.
+     */
+    private record CachedDocument(PreparsedDocumentEntry entry, long parseNanos) {
+    }
+
+    private final PersistedQueryRegistry registry;
+    private final PersistedQueryProperties properties;
+    private final Cache<String, CachedDocument> documents;
+    private final MeterRegistry meterRegistry;
+    private final Timer parseTimer;
+    private final Counter savedSeconds;
+    private final Counter hits;
+    private final Counter misses;
+
+    public PersistedDocumentProvider(PersistedQueryRegistry registry,
+                                     PersistedQueryProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.properties = properties;
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxDocuments())
+                .build();
+        this.meterRegistry = meterRegistry;
+        this.parseTimer = Timer.builder("graphql.documents.parse")
+                .description("Time spent parsing and validating GraphQL documents")
+                .register(meterRegistry);
+        this.savedSeconds = Counter.builder("graphql.documents.parse.saved")
+                .description("Parse and validate time saved by the document cache")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.hits = Counter.builder("graphql.documents").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("graphql.documents").tag("result", "miss").register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        String query = executionInput.getQuery();
+        boolean hasQuery = StringUtils.hasText(query) && !PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query);
+        String requestedHash = requestedHash(executionInput);
+
+        if (!hasQuery) {
+            if (requestedHash == null) {
+                return reject("no_query", "A query or a persisted query hash is required");
+            }
+            CachedDocument cached = documents.getIfPresent(requestedHash);
+            if (cached != null) {
+                return hit(cached);
+            }
+            String registered = registry.find(requestedHash);
+            if (registered == null) {
+                rejected("not_found");
+                return CompletableFuture.completedFuture(new PreparsedDocumentEntry(new PersistedQueryNotFound(requestedHash)));
+            }
+            return parse(requestedHash, executionInput.transform(builder -> builder.query(registered)), parseAndValidateFunction);
+        }
+
+        String hash = sha256(query);
+        if (requestedHash != null && !requestedHash.equalsIgnoreCase(hash)) {
+            return reject("hash_mismatch", "The persisted query hash does not match the query");
+        }
+        if (!properties.isAllowArbitraryQueries() && !registry.contains(hash)) {
+            return reject("not_persisted", "Only persisted queries are allowed");
+        }
+        CachedDocument cached = documents.getIfPresent(hash);
+        if (cached != null) {
+            return hit(cached);
+        }
+        return parse(hash, executionInput, parseAndValidateFunction);
+    }
+
+    /**
+     * Computes the lower-case hex SHA-256 hash of a query, as APQ clients do.
+     */
+    static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private CompletableFuture<PreparsedDocumentEntry> hit(CachedDocument cached) {
+        hits.increment();
+        savedSeconds.increment(cached.parseNanos() / 1_000_000_000.0);
+        return CompletableFuture.completedFuture(cached.entry());
+    }
+
+    /**
+     * Parses and validates a query, caching it unless it has errors.
+     */
+    private CompletableFuture<PreparsedDocumentEntry> parse(String hash, ExecutionInput executionInput,
+                                                            Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        misses.increment();
+        long start = System.nanoTime();
+        PreparsedDocumentEntry entry = parseAndValidateFunction.apply(executionInput);
+        long parseNanos = System.nanoTime() - start;
+        parseTimer.record(parseNanos, TimeUnit.NANOSECONDS);
+        if (!entry.hasErrors()) {
+            documents.put(hash, new CachedDocument(entry, parseNanos));
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    private CompletableFuture<PreparsedDocumentEntry> reject(String reason, String message) {
+        rejected(reason);
+        return CompletableFuture.completedFuture(new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                .message(message)
+                .errorType(ErrorType.BAD_REQUEST)
+                .build()));
+    }
+
+    private void rejected(String reason) {
+        Counter.builder("graphql.documents.rejected")
+                .description("GraphQL requests rejected by persisted query checks")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String requestedHash(ExecutionInput executionInput) {
+        Map<String, Object> extensions = executionInput.getExtensions();
+        if (extensions != null && extensions.get("persistedQuery") instanceof Map<?, ?> persistedQuery
+                && persistedQuery.get("sha256Hash") instanceof String hash && StringUtils.hasText(hash)) {
+            return hash.toLowerCase(Locale.ROOT);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.shopjoy.graphql.persisted;
+
+import com.shopjoy.config.PersistedQueryProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The queries the frontend build declared up front, keyed by the SHA-256 hash of their text.
+ *
+ * The manifest uses the Apollo persisted query manifest format:
+ * {@code {"format": "apollo-persisted-query-manifest", "version": 1, "operations": [{"id": "<sha256>", "name": "...", "body": "..."}]}}.
+ */
+@Slf4j
+@Component
+public class PersistedQueryRegistry {
+
+    private final Map<String, String> queries;
+
+    public PersistedQueryRegistry(PersistedQueryProperties properties, ResourceLoader resourceLoader) throws IOException {
+        this.queries = load(resourceLoader.getResource(properties.getManifestLocation()));
+    }
+
+    /**
+     * Gets the text of a registered query, or null when the hash is not registered.
+     */
+    public String find(String sha256Hash) {
+        return queries.get(sha256Hash);
+    }
+
+    public boolean contains(String sha256Hash) {
+        return queries.containsKey(sha256Hash);
+    }
+
+    private static Map<String, String> load(Resource manifest) throws IOException {
+        if (!manifest.exists()) {
+            log.info("No persisted query manifest at {}", manifest.getDescription());
+            return Map.of();
+        }
+        Map<String, String> loaded = new HashMap<>();
+        try (InputStream in = manifest.getInputStream()) {
+            JsonNode root = JsonMapper.builder().build().readTree(in);
+            for (JsonNode operation : root.path("operations")) {
+                String body = operation.path("body").asString();
+                String id = operation.path("id").asString();
+                String hash = PersistedDocumentProvider.sha256(body);
+                if (!hash.equals(id)) {
+                    throw new IllegalStateException("Persisted query " + operation.path("name").asString()
+                            + " has id " + id + " but its body hashes to " + hash);
+                }
+                loaded.put(hash, body);
+            }
+        }
+        log.info("Loaded {} persisted queries from {}", loaded.size(), manifest.getDescription());
+        return Map.copyOf(loaded);
+    }
+}
@@ -2,21 +2,52 @@ package com.shopjoy.graphql.resolver.field;
 
 import com.shopjoy.dto.response.CategoryResponse;
 import com.shopjoy.dto.response.ProductResponse;
+import com.shopjoy.exception.ValidationException;
+import com.shopjoy.graphql.type.CategoryProductConnection;
+import com.shopjoy.graphql.type.CursorPageInfo;
+import com.shopjoy.graphql.type.ProductEdge;
 import com.shopjoy.service.ProductService;
+import org.dataloader.DataLoader;
+import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Controller
 public class CategoryFieldResolver {
 
+    private static final int DEFAULT_FIRST = 20;
+    private static final String CURSOR_PREFIX = "product:";
+
+    /**
+     * One category's page of products, as requested by one productConnection field.
+     */
+    record CategoryProductsKey(Integer categoryId, int first, Integer afterProductId) {
+    }
+
+    /**
+     * The page arguments shared by the categories loaded with one query.
+     */
+    private record PageWindow(int first, Integer afterProductId) {
+    }
+
     private final ProductService productService;
 
-    public CategoryFieldResolver(ProductService productService) {
+    public CategoryFieldResolver(ProductService productService, BatchLoaderRegistry batchLoaderRegistry) {
         this.productService = productService;
+        batchLoaderRegistry.forTypePair(CategoryProductsKey.class, CategoryProductConnection.class)
+                .registerMappedBatchLoader((keys, _) -> Mono.fromCallable(() -> loadProductConnections(keys)));
     }
 
     @BatchMapping(typeName = "Category", field = "products")
@@ -27,7 +58,7 @@ public class CategoryFieldResolver {
                 .collect(Collectors.toList());
 
         List<ProductResponse> allProducts = productService.getProductsByCategories(categoryIds);
-        
+
         Map<Integer, List<ProductResponse>> productsByCategory = allProducts.stream()
                 .collect(Collectors.groupingBy(ProductResponse::getCategoryId));
 
@@ -37,4 +68,70 @@ public class CategoryFieldResolver {
                         category -> productsByCategory.getOrDefault(category.getId(), java.util.Collections.emptyList())
                 ));
     }
+
+    /**
+     * Resolves a page of a category's products. The fields of all categories in a response are
+     * batched into one DataLoader call, so listing many categories costs one windowed query that
+     * returns at most first + 1 products per category.
+     */
+    @SchemaMapping(typeName = "Category", field = "productConnection")
+    public CompletableFuture<CategoryProductConnection> productConnection(CategoryResponse category,
+                                                                          @Argument Integer first,
+                                                                          @Argument String after,
+                                                                          DataLoader<CategoryProductsKey, CategoryProductConnection> loader) {
+        int pageSize = first != null ? first : DEFAULT_FIRST;
+        if (pageSize < 0) {
+            throw new ValidationException("first", "must not be negative");
+        }
+        return loader.load(new CategoryProductsKey(category.getId(), pageSize, decodeCursor(after)));
+    }
+
+    private Map<CategoryProductsKey, CategoryProductConnection> loadProductConnections(Set<CategoryProductsKey> keys) {
+        Map<PageWindow, List<CategoryProductsKey>> keysByWindow = keys.stream()
+                .collect(Collectors.groupingBy(key -> new PageWindow(key.first(), key.afterProductId())));
+
+        Map<CategoryProductsKey, CategoryProductConnection> connections = new HashMap<>();
+        keysByWindow.forEach((window, windowKeys) -> {
+            List<Integer> categoryIds = windowKeys.stream().map(CategoryProductsKey::categoryId).distinct().toList();
+            Map<Integer, List<ProductResponse>> pages = productService.getProductPagesByCategories(
+                    categoryIds, window.afterProductId(), window.first() + 1);
+            for (CategoryProductsKey key : windowKeys) {
+                connections.put(key, toConnection(pages.getOrDefault(key.categoryId(), List.of()), key.first()));
+            }
+        });
+        return connections;
+    }
+
+    /**
+     * Builds a connection from a page fetched with one extra product, whose presence tells
+     * that there is a next page.
+     */
+    private static CategoryProductConnection toConnection(List<ProductResponse> products, int first) {
+        List<ProductEdge> edges = products.stream()
+                .limit(first)
+                .map(product -> new ProductEdge(encodeCursor(product.getId()), product))
+                .toList();
+        String endCursor = edges.isEmpty() ? null : edges.getLast().cursor();
+        return new CategoryProductConnection(edges, new CursorPageInfo(products.size() > first, endCursor));
+    }
+
+    private static String encodeCursor(Integer productId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + productId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Integer decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                return Integer.valueOf(decoded.substring(CURSOR_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // falls through to the validation error below
+        }
+        throw new ValidationException("after", "must be a cursor returned by productConnection");
+    }
 }
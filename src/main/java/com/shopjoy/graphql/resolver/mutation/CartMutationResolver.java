@@ -0,0 +1,38 @@
+package com.shopjoy.graphql.resolver.mutation;
+
+import com.shopjoy.dto.request.BulkAddToCartRequest;
+import com.shopjoy.dto.response.CartItemResponse;
+import com.shopjoy.graphql.input.CartItemInput;
+import com.shopjoy.service.CartService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.MutationMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+
+@Controller
+@AllArgsConstructor
+public class CartMutationResolver {
+
+    private final CartService cartService;
+
+    @MutationMapping
+    public List<CartItemResponse> addToCartBulk(
+            @Argument Long userId,
+            @Argument @Valid @NotEmpty @Size(max = 100) List<CartItemInput> items,
+            @Argument Boolean replaceQuantities) {
+        List<BulkAddToCartRequest.Item> requestItems = items.stream()
+                .map(item -> new BulkAddToCartRequest.Item(item.productId().intValue(), item.quantity()))
+                .toList();
+        BulkAddToCartRequest request = BulkAddToCartRequest.builder()
+                .userId(userId.intValue())
+                .items(requestItems)
+                .replaceQuantities(Boolean.TRUE.equals(replaceQuantities))
+                .build();
+        return cartService.addToCartBulk(request);
+    }
+}
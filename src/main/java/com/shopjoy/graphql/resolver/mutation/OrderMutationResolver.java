@@ -1,6 +1,8 @@
 package com.shopjoy.graphql.resolver.mutation;
 
 import com.shopjoy.dto.mapper.GraphQLMapperStruct;
+import com.shopjoy.dto.request.BulkOrderStatusRequest;
+import com.shopjoy.dto.response.BulkOrderStatusResponse;
 import com.shopjoy.dto.response.OrderResponse;
 import com.shopjoy.entity.OrderStatus;
 import com.shopjoy.graphql.input.UpdateOrderInput;
@@ -11,6 +13,8 @@ import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.stereotype.Controller;
 
+import java.util.List;
+
 @Controller
 @AllArgsConstructor
 public class OrderMutationResolver {
@@ -35,4 +39,13 @@ public class OrderMutationResolver {
         OrderStatus orderStatus = OrderStatus.valueOf(status);
         return orderService.updateOrderStatus(id.intValue(), orderStatus);
     }
+
+    @MutationMapping
+    public BulkOrderStatusResponse updateOrderStatusBulk(@Argument List<Long> ids, @Argument String status) {
+        var request = BulkOrderStatusRequest.builder()
+                .orderIds(ids.stream().map(Long::intValue).toList())
+                .status(OrderStatus.valueOf(status))
+                .build();
+        return orderService.updateOrderStatusBulk(request);
+    }
 }
@@ -0,0 +1,43 @@
+package com.shopjoy.graphql.resolver.query;
+
+import com.shopjoy.dto.response.SalesRollupResponse;
+import com.shopjoy.dto.response.SalesTotalResponse;
+import com.shopjoy.entity.RollupDimension;
+import com.shopjoy.entity.RollupGranularity;
+import com.shopjoy.service.SalesAnalyticsService;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Controller
+public class AnalyticsQueryResolver {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    public AnalyticsQueryResolver(SalesAnalyticsService salesAnalyticsService) {
+        this.salesAnalyticsService = salesAnalyticsService;
+    }
+
+    @QueryMapping
+    public List<SalesRollupResponse> salesRollups(
+            @Argument String granularity,
+            @Argument String dimension,
+            @Argument LocalDateTime from,
+            @Argument LocalDateTime to,
+            @Argument String key) {
+        RollupGranularity rollupGranularity = granularity != null ? RollupGranularity.valueOf(granularity) : RollupGranularity.DAY;
+        return salesAnalyticsService.getSalesRollups(rollupGranularity, RollupDimension.valueOf(dimension), from, to, key);
+    }
+
+    @QueryMapping
+    public List<SalesTotalResponse> salesTotals(
+            @Argument String dimension,
+            @Argument LocalDateTime from,
+            @Argument LocalDateTime to,
+            @Argument Integer limit) {
+        return salesAnalyticsService.getSalesTotals(RollupDimension.valueOf(dimension), from, to, limit != null ? limit : 10);
+    }
+}
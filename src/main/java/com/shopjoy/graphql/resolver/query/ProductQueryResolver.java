@@ -1,9 +1,16 @@
 package com.shopjoy.graphql.resolver.query;
 
+import com.shopjoy.dto.filter.ProductFilter;
+import com.shopjoy.dto.response.FacetedProductPageResponse;
+import com.shopjoy.dto.response.ProductFacetsResponse;
+import com.shopjoy.dto.response.ProductPageResponse;
 import com.shopjoy.dto.response.ProductResponse;
+import com.shopjoy.graphql.input.ProductFilterInput;
 import com.shopjoy.graphql.type.PageInfo;
 import com.shopjoy.graphql.type.ProductConnection;
+import com.shopjoy.service.ProductPageService;
 import com.shopjoy.service.ProductService;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -12,13 +19,18 @@ import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 @Controller
 public class ProductQueryResolver {
 
     private final ProductService productService;
+    private final ProductPageService productPageService;
 
-    public ProductQueryResolver(ProductService productService) {
+    public ProductQueryResolver(ProductService productService, ProductPageService productPageService) {
         this.productService = productService;
+        this.productPageService = productPageService;
     }
 
     @QueryMapping
@@ -26,7 +38,9 @@ public class ProductQueryResolver {
             @Argument Integer page,
             @Argument Integer size,
             @Argument String sortBy,
-            @Argument String sortDirection) {
+            @Argument String sortDirection,
+            @Argument ProductFilterInput filter,
+            DataFetchingFieldSelectionSet selectionSet) {
         int pageNum = page != null ? page : 0;
         int pageSize = size != null ? size : 20;
         String sort = sortBy != null ? sortBy : "id";
@@ -35,13 +49,35 @@ public class ProductQueryResolver {
         // Create Pageable object and call correct service method
         Sort sortObj = Sort.by(Sort.Direction.fromString(direction), sort);
         Pageable pageable = PageRequest.of(pageNum, pageSize, sortObj);
-        
-        Page<ProductResponse> productsPage = productService.getProductsWithFilters(
-                null,
-                pageable,
-                sort,
-                direction
-        );
+
+        ProductFilter productFilter = null;
+        if (filter != null) {
+            productFilter = ProductFilter.builder()
+                    .searchTerm(filter.searchTerm())
+                    .categoryId(filter.categoryId())
+                    .brand(filter.brand())
+                    .minPrice(filter.minPrice())
+                    .maxPrice(filter.maxPrice())
+                    .active(filter.active())
+                    .inStock(filter.inStock())
+                    .build();
+        }
+
+        // Facets are only computed when the client selects them
+        Page<ProductResponse> productsPage;
+        ProductFacetsResponse facets = null;
+        if (selectionSet.contains("facets")) {
+            FacetedProductPageResponse faceted = productService.getProductsWithFacets(productFilter, pageable);
+            productsPage = faceted.getProducts();
+            facets = faceted.getFacets();
+        } else {
+            productsPage = productService.getProductsWithFilters(
+                    productFilter,
+                    pageable,
+                    sort,
+                    direction
+            );
+        }
 
         PageInfo pageInfo = new PageInfo(
                 pageNum,
@@ -49,6 +85,18 @@ public class ProductQueryResolver {
                 productsPage.getTotalElements(),
                 productsPage.getTotalPages());
 
-        return new ProductConnection(productsPage.getContent(), pageInfo);
+        return new ProductConnection(productsPage.getContent(), pageInfo, facets);
+    }
+
+    @QueryMapping
+    public ProductPageResponse productPage(@Argument Integer id, DataFetchingFieldSelectionSet selectionSet) {
+        // Optional parts are only loaded when the client selects them
+        Set<ProductPageService.Part> parts = EnumSet.noneOf(ProductPageService.Part.class);
+        for (ProductPageService.Part part : ProductPageService.Part.values()) {
+            if (selectionSet.contains(part.fieldName())) {
+                parts.add(part);
+            }
+        }
+        return productPageService.getProductPage(id, parts);
     }
 }
@@ -0,0 +1,36 @@
+package com.shopjoy.graphql.resolver.subscription;
+
+import com.shopjoy.dto.response.StockAlertResponse;
+import com.shopjoy.graphql.subscription.ConnectionIdInterceptor;
+import com.shopjoy.graphql.subscription.SubscriptionHub;
+import com.shopjoy.graphql.type.StockLevelUpdate;
+import com.shopjoy.service.InventoryService;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.ContextValue;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+
+@Controller
+public class InventorySubscriptionResolver {
+
+    private final InventoryService inventoryService;
+    private final SubscriptionHub subscriptionHub;
+
+    public InventorySubscriptionResolver(InventoryService inventoryService, SubscriptionHub subscriptionHub) {
+        this.inventoryService = inventoryService;
+        this.subscriptionHub = subscriptionHub;
+    }
+
+    @SubscriptionMapping
+    public Flux<StockLevelUpdate> stockLevelChanged(@Argument Integer productId,
+                                                    @ContextValue(name = ConnectionIdInterceptor.CONNECTION_ID) String connectionId) {
+        inventoryService.getInventoryByProduct(productId);
+        return subscriptionHub.stockLevelChanged(connectionId, productId);
+    }
+
+    @SubscriptionMapping
+    public Flux<StockAlertResponse> lowStockAlert(@ContextValue(name = ConnectionIdInterceptor.CONNECTION_ID) String connectionId) {
+        return subscriptionHub.stockAlerts(connectionId);
+    }
+}
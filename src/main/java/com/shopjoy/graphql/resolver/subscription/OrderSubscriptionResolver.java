@@ -0,0 +1,30 @@
+package com.shopjoy.graphql.resolver.subscription;
+
+import com.shopjoy.graphql.subscription.ConnectionIdInterceptor;
+import com.shopjoy.graphql.subscription.SubscriptionHub;
+import com.shopjoy.graphql.type.OrderStatusUpdate;
+import com.shopjoy.service.OrderService;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.ContextValue;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+
+@Controller
+public class OrderSubscriptionResolver {
+
+    private final OrderService orderService;
+    private final SubscriptionHub subscriptionHub;
+
+    public OrderSubscriptionResolver(OrderService orderService, SubscriptionHub subscriptionHub) {
+        this.orderService = orderService;
+        this.subscriptionHub = subscriptionHub;
+    }
+
+    @SubscriptionMapping
+    public Flux<OrderStatusUpdate> orderStatusChanged(@Argument Integer orderId,
+                                                      @ContextValue(name = ConnectionIdInterceptor.CONNECTION_ID) String connectionId) {
+        orderService.getOrderById(orderId);
+        return subscriptionHub.orderStatusChanged(connectionId, orderId);
+    }
+}
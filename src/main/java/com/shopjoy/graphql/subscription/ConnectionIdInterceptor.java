@@ -0,0 +1,33 @@
+package com.shopjoy.graphql.subscription;
+
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.server.WebSocketGraphQlInterceptor;
+import org.springframework.graphql.server.WebSocketGraphQlRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ObjectUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Puts the id of the transport connection into the GraphQL context, so subscriptions can be
+ * counted per WebSocket connection. Requests over HTTP count as a connection of their own.
+ */
+@Component
+public class ConnectionIdInterceptor implements WebSocketGraphQlInterceptor {
+
+    /**
+     * The GraphQL context key holding the connection id.
+     */
+    public static final String CONNECTION_ID = "connectionId";
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        String connectionId = request instanceof WebSocketGraphQlRequest webSocketRequest
+                ? "ws:" + webSocketRequest.getSessionInfo().getId()
+                : "http:" + ObjectUtils.getIdentityHexString(request);
+        request.configureExecutionInput((_, builder) -> builder.graphQLContext(Map.of(CONNECTION_ID, connectionId)).build());
+        return chain.next(request);
+    }
+}
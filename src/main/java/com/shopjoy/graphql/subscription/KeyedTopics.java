@@ -0,0 +1,51 @@
+package com.shopjoy.graphql.subscription;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One multicast sink per key, created by the first subscriber and dropped with the last one.
+ *
+ * Publishing looks up the key's sink, so an event only reaches the subscribers of its own key,
+ * however many subscribers other keys have. Sinks hold no buffer of their own: each subscriber
+ * bounds its backlog downstream.
+ *
+ * @param <K> the key type, e.g. an order id
+ * @param <V> the event type
+ */
+class KeyedTopics<K, V> {
+
+    private static final Sinks.EmitFailureHandler RETRY_CONCURRENT_EMITS =
+            Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100));
+
+    private record Topic<V>(Sinks.Many<V> sink, AtomicInteger subscribers) {
+    }
+
+    private final Map<K, Topic<V>> topics = new ConcurrentHashMap<>();
+
+    Flux<V> subscribe(K key) {
+        return Flux.defer(() -> {
+            Topic<V> topic = topics.compute(key, (_, existing) -> {
+                Topic<V> current = existing != null ? existing
+                        : new Topic<>(Sinks.many().multicast().directBestEffort(), new AtomicInteger());
+                current.subscribers().incrementAndGet();
+                return current;
+            });
+            return topic.sink().asFlux()
+                    .doFinally(_ -> topics.computeIfPresent(key,
+                            (_, current) -> current.subscribers().decrementAndGet() == 0 ? null : current));
+        });
+    }
+
+    void publish(K key, V event) {
+        Topic<V> topic = topics.get(key);
+        if (topic != null) {
+            topic.sink().emitNext(event, RETRY_CONCURRENT_EMITS);
+        }
+    }
+}
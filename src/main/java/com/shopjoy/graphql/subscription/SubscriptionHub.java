@@ -0,0 +1,115 @@
+package com.shopjoy.graphql.subscription;
+
+import com.shopjoy.config.GraphQLSubscriptionProperties;
+import com.shopjoy.dto.response.StockAlertResponse;
+import com.shopjoy.event.OrderStatusChangedEvent;
+import com.shopjoy.event.StockAlertEvent;
+import com.shopjoy.event.StockChangedEvent;
+import com.shopjoy.exception.InvalidOperationException;
+import com.shopjoy.graphql.type.OrderStatusUpdate;
+import com.shopjoy.graphql.type.StockLevelUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans order and stock events out to GraphQL subscribers.
+ *
+ * Events are taken after their transaction commits, so subscribers never see a change that rolls
+ * back. Publishing never blocks on subscribers: each one has its own bounded buffer that drops
+ * its oldest events when the client falls behind, and each connection may only hold a limited
+ * number of subscriptions, which bounds the memory one connection can pin.
+ */
+@Component
+public class SubscriptionHub {
+
+    private final GraphQLSubscriptionProperties properties;
+    private final KeyedTopics<Integer, OrderStatusUpdate> orderStatusTopics = new KeyedTopics<>();
+    private final KeyedTopics<Integer, StockLevelUpdate> stockLevelTopics = new KeyedTopics<>();
+    private final Sinks.Many<StockAlertResponse> stockAlerts = Sinks.many().multicast().directBestEffort();
+    private final Map<String, AtomicInteger> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter dropped;
+
+    public SubscriptionHub(GraphQLSubscriptionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        Gauge.builder("graphql.subscriptions.active", active, AtomicInteger::get)
+                .description("Active GraphQL subscriptions")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("graphql.subscriptions.dropped")
+                .description("Subscription events dropped for subscribers that fell behind")
+                .register(meterRegistry);
+    }
+
+    public Flux<OrderStatusUpdate> orderStatusChanged(String connectionId, Integer orderId) {
+        return bounded(connectionId, orderStatusTopics.subscribe(orderId));
+    }
+
+    public Flux<StockLevelUpdate> stockLevelChanged(String connectionId, Integer productId) {
+        return bounded(connectionId, stockLevelTopics.subscribe(productId));
+    }
+
+    public Flux<StockAlertResponse> stockAlerts(String connectionId) {
+        return bounded(connectionId, stockAlerts.asFlux());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        orderStatusTopics.publish(event.orderId(), new OrderStatusUpdate(event.orderId(),
+                event.previousStatus().name(), event.status().name(), LocalDateTime.now()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        stockLevelTopics.publish(event.productId(), new StockLevelUpdate(event.productId(), event.previousQuantity(),
+                event.quantity(), event.reorderLevel(), event.quantity() <= event.reorderLevel(), LocalDateTime.now()));
+    }
+
+    /**
+     * Stock alerts are published by the stock level registry, which already runs after commit.
+     */
+    @EventListener
+    public void onStockAlert(StockAlertEvent event) {
+        stockAlerts.emitNext(event.alert(), Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    /**
+     * Takes a subscription slot of the connection right away and gives it back when the
+     * subscription ends, and puts a bounded buffer in front of the subscriber.
+     */
+    private <T> Flux<T> bounded(String connectionId, Flux<T> events) {
+        int held = connections.compute(connectionId, (_, existing) -> {
+            AtomicInteger count = existing != null ? existing : new AtomicInteger();
+            count.incrementAndGet();
+            return count;
+        }).get();
+        if (held > properties.getMaxPerConnection()) {
+            release(connectionId);
+            throw new InvalidOperationException("A connection can hold at most "
+                    + properties.getMaxPerConnection() + " subscriptions");
+        }
+        active.incrementAndGet();
+        return events
+                .onBackpressureBuffer(properties.getBufferSize(), _ -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST)
+                .doFinally(_ -> {
+                    active.decrementAndGet();
+                    release(connectionId);
+                });
+    }
+
+    private void release(String connectionId) {
+        connections.computeIfPresent(connectionId, (_, count) -> count.decrementAndGet() == 0 ? null : count);
+    }
+}
@@ -0,0 +1,8 @@
+package com.shopjoy.graphql.type;
+
+import java.util.List;
+
+public record CategoryProductConnection(
+        List<ProductEdge> edges,
+        CursorPageInfo pageInfo
+) {}
@@ -0,0 +1,6 @@
+package com.shopjoy.graphql.type;
+
+public record CursorPageInfo(
+        boolean hasNextPage,
+        String endCursor
+) {}
@@ -0,0 +1,10 @@
+package com.shopjoy.graphql.type;
+
+import java.time.LocalDateTime;
+
+public record OrderStatusUpdate(
+        Integer orderId,
+        String previousStatus,
+        String status,
+        LocalDateTime changedAt
+) {}
@@ -0,0 +1,8 @@
+package com.shopjoy.graphql.type;
+
+import com.shopjoy.dto.response.ProductResponse;
+
+public record ProductEdge(
+        String cursor,
+        ProductResponse node
+) {}
@@ -0,0 +1,12 @@
+package com.shopjoy.graphql.type;
+
+import java.time.LocalDateTime;
+
+public record StockLevelUpdate(
+        Integer productId,
+        int previousQuantity,
+        int quantity,
+        int reorderLevel,
+        boolean lowStock,
+        LocalDateTime changedAt
+) {}
@@ -0,0 +1,46 @@
+package com.shopjoy.inventory;
+
+import com.shopjoy.config.StockHoldProperties;
+import com.shopjoy.service.StockHoldService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically expires stock holds whose checkout was abandoned.
+ *
+ * Each batch runs in its own transaction and locks expired holds with FOR UPDATE SKIP LOCKED,
+ * so several application instances can sweep concurrently without waiting on each other. Holds
+ * a checkout has locked are skipped; a checkout that reaches holds the sweeper has locked waits
+ * for it and then no longer sees them as active. Either way a hold is finished, and its stock
+ * released, exactly once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockHoldSweeper {
+
+    private final StockHoldService stockHoldService;
+    private final StockHoldProperties properties;
+
+    @Scheduled(fixedDelayString = "${app.inventory.holds.sweep-interval:30s}",
+            initialDelayString = "${app.inventory.holds.sweep-interval:30s}")
+    public void sweep() {
+        int batchSize = properties.getSweepBatchSize();
+        int total = 0;
+        try {
+            int expired;
+            do {
+                expired = stockHoldService.expireHolds(batchSize);
+                total += expired;
+            } while (expired == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Stock hold sweep failed after expiring {} holds: {}", total, e.getMessage());
+            return;
+        }
+        if (total > 0) {
+            log.info("Expired {} stock holds", total);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.shopjoy.inventory;
+
+import com.shopjoy.dto.mapper.InventoryMapperStruct;
+import com.shopjoy.dto.response.InventoryResponse;
+import com.shopjoy.dto.response.StockAlertResponse;
+import com.shopjoy.event.ProductChangedEvent;
+import com.shopjoy.event.StockAlertEvent;
+import com.shopjoy.event.StockChangedEvent;
+import com.shopjoy.repository.InventoryRepository;
+import com.shopjoy.repository.InventoryRepository.StockVersion;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory low-stock and out-of-stock product sets, kept current from {@link StockChangedEvent}.
+ *
+ * The sets are loaded once when the application is ready and then updated after each stock
+ * write commits. Events can arrive out of order, so each level is kept with the stock version it
+ * was read at and an event that is not newer is ignored. Writes committed on other instances
+ * publish no event here; they are picked up by a periodic reconcile against the database
+ * (app.inventory.stock-levels.reconcile-interval), which raises the same alerts as an event.
+ * Readers get a prebuilt immutable list, so dashboard reads cost nothing. Whenever
+ * a product enters or leaves one of the sets, an alert is pushed to every Server-Sent Events
+ * subscriber; alerts are sent from a dedicated thread so slow clients never hold up stock writes.
+ * Each alert is also published as a {@link StockAlertEvent} for the GraphQL subscriptions.
+ */
+@Slf4j
+@Component
+public class StockLevelRegistry {
+
+    /**
+     * Threshold crossings pushed to subscribers.
+     */
+    public enum AlertType { LOW_STOCK, STOCK_RECOVERED, OUT_OF_STOCK, BACK_IN_STOCK }
+
+    private static final long SUBSCRIPTION_TIMEOUT_MS = Duration.ofMinutes(30).toMillis();
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryMapperStruct inventoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Integer, InventoryResponse> levels = new HashMap<>();
+    private final Map<Integer, Long> versions = new HashMap<>();
+    private final Map<Integer, InventoryResponse> lowStock = new TreeMap<>();
+    private final Map<Integer, InventoryResponse> outOfStock = new TreeMap<>();
+    private volatile List<InventoryResponse> lowStockView;
+    private volatile List<InventoryResponse> outOfStockView;
+
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("stock-alerts").daemon().factory());
+
+    /**
+     * Stock levels read in one snapshot, with the stock version of each product.
+     */
+    private record Snapshot(List<InventoryResponse> levels, Map<Integer, Long> versions) {
+    }
+
+    public StockLevelRegistry(InventoryRepository inventoryRepository,
+                              InventoryMapperStruct inventoryMapper,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryMapper = inventoryMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Loads the stock levels once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Failed to load stock levels, low-stock queries will use the database: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reloads all stock levels from the database.
+     */
+    public void rebuild() {
+        Snapshot snapshot = load();
+        synchronized (this) {
+            levels.clear();
+            versions.clear();
+            lowStock.clear();
+            outOfStock.clear();
+            for (InventoryResponse level : snapshot.levels()) {
+                levels.put(level.getProductId(), level);
+                versions.put(level.getProductId(), snapshot.versions().getOrDefault(level.getProductId(), 0L));
+                classify(level);
+            }
+            publishViews();
+            log.info("Loaded stock levels for {} products: {} low, {} out of stock",
+                    levels.size(), lowStock.size(), outOfStock.size());
+        }
+    }
+
+    /**
+     * Applies the levels committed since they were loaded, including writes made on other
+     * instances, and raises the alerts for any threshold they crossed.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.stock-levels.reconcile-interval:1m}",
+            initialDelayString = "${app.inventory.stock-levels.reconcile-interval:1m}")
+    public void reconcile() {
+        if (lowStockView == null) {
+            return;
+        }
+        Snapshot snapshot;
+        try {
+            snapshot = load();
+        } catch (RuntimeException e) {
+            log.warn("Failed to reconcile stock levels: {}", e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            Map<Integer, InventoryResponse> loaded = new HashMap<>();
+            snapshot.levels().forEach(level -> loaded.put(level.getProductId(), level));
+
+            boolean changed = false;
+            for (Integer productId : List.copyOf(levels.keySet())) {
+                if (!loaded.containsKey(productId)) {
+                    changed |= remove(productId);
+                }
+            }
+            for (InventoryResponse level : loaded.values()) {
+                InventoryResponse current = levels.get(level.getProductId());
+                long version = snapshot.versions().getOrDefault(level.getProductId(), 0L);
+                if (current != null && version <= versions.getOrDefault(level.getProductId(), 0L)) {
+                    if (!level.getProductName().equals(current.getProductName())) {
+                        changed |= rename(current, level.getProductName());
+                    }
+                    continue;
+                }
+                changed |= apply(level, version, current != null ? current.getStockQuantity() : level.getStockQuantity());
+            }
+            if (changed) {
+                publishViews();
+            }
+        }
+    }
+
+    /**
+     * Gets the products at or below their reorder level, or empty until loaded.
+     */
+    public Optional<List<InventoryResponse>> getLowStock() {
+        return Optional.ofNullable(lowStockView);
+    }
+
+    /**
+     * Gets the products with no stock, or empty until loaded.
+     */
+    public Optional<List<InventoryResponse>> getOutOfStock() {
+        return Optional.ofNullable(outOfStockView);
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of threshold crossings. The first event, "snapshot",
+     * carries the current low-stock and out-of-stock lists.
+     *
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT_MS);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(_ -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+
+        Map<String, List<InventoryResponse>> snapshot = Map.of(
+                "lowStock", getLowStock().orElse(List.of()),
+                "outOfStock", getOutOfStock().orElse(List.of()));
+        dispatcher.execute(() -> send(emitter, SseEmitter.event().name("snapshot").data(snapshot)));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        if (lowStockView == null) {
+            return;
+        }
+        Long held = versions.get(event.productId());
+        if (held != null && event.version() <= held) {
+            return;
+        }
+        InventoryResponse current = levels.get(event.productId());
+        if (current == null) {
+            current = inventoryRepository.findWithProductByProductId(event.productId())
+                    .map(inventoryMapper::toInventoryResponse)
+                    .orElse(null);
+            if (current == null) {
+                return;
+            }
+        }
+        InventoryResponse updated = new InventoryResponse(current.getId(), current.getProductId(),
+                current.getProductName(), event.quantity(), current.getReservedQuantity(),
+                event.reorderLevel(), current.getLastRestocked());
+        if (apply(updated, event.version(), event.previousQuantity())) {
+            publishViews();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (lowStockView == null) {
+            return;
+        }
+        if (event.isDeleted()) {
+            if (remove(event.productId())) {
+                publishViews();
+            }
+            return;
+        }
+        InventoryResponse current = levels.get(event.productId());
+        String name = event.product().getProductName();
+        if (current != null && !name.equals(current.getProductName()) && rename(current, name)) {
+            publishViews();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(SseEmitter::complete);
+    }
+
+    private Snapshot load() {
+        return transactionTemplate.execute(_ -> {
+            Map<Integer, Long> loadedVersions = new HashMap<>();
+            for (StockVersion version : inventoryRepository.findStockVersions()) {
+                loadedVersions.put(version.getProductId(), version.getVersion());
+            }
+            List<InventoryResponse> loadedLevels = inventoryRepository.findAllWithProduct().stream()
+                    .map(inventoryMapper::toInventoryResponse)
+                    .toList();
+            return new Snapshot(loadedLevels, loadedVersions);
+        });
+    }
+
+    /**
+     * Stores a newer level of a product and alerts on the thresholds it crossed.
+     *
+     * @return true when the views need to be published again
+     */
+    private boolean apply(InventoryResponse updated, long version, int previousQuantity) {
+        levels.put(updated.getProductId(), updated);
+        versions.put(updated.getProductId(), version);
+
+        boolean wasLow = lowStock.containsKey(updated.getProductId());
+        boolean wasOut = outOfStock.containsKey(updated.getProductId());
+        boolean changed = classify(updated) || wasLow || wasOut;
+        boolean isLow = lowStock.containsKey(updated.getProductId());
+        boolean isOut = outOfStock.containsKey(updated.getProductId());
+
+        if (isLow != wasLow) {
+            broadcast(alert(isLow ? AlertType.LOW_STOCK : AlertType.STOCK_RECOVERED, updated, previousQuantity));
+        }
+        if (isOut != wasOut) {
+            broadcast(alert(isOut ? AlertType.OUT_OF_STOCK : AlertType.BACK_IN_STOCK, updated, previousQuantity));
+        }
+        return changed;
+    }
+
+    /**
+     * @return true when the views need to be published again
+     */
+    private boolean rename(InventoryResponse current, String name) {
+        InventoryResponse renamed = new InventoryResponse(current.getId(), current.getProductId(), name,
+                current.getStockQuantity(), current.getReservedQuantity(), current.getReorderLevel(),
+                current.getLastRestocked());
+        levels.put(renamed.getProductId(), renamed);
+        return classify(renamed);
+    }
+
+    /**
+     * @return true when the product was listed in one of the sets
+     */
+    private boolean remove(Integer productId) {
+        levels.remove(productId);
+        versions.remove(productId);
+        boolean listed = lowStock.remove(productId) != null;
+        listed |= outOfStock.remove(productId) != null;
+        return listed;
+    }
+
+    /**
+     * Places a level in or removes it from the low-stock and out-of-stock sets.
+     *
+     * @return true when either set now holds the level
+     */
+    private boolean classify(InventoryResponse level) {
+        Integer productId = level.getProductId();
+        boolean low = level.getStockQuantity() <= level.getReorderLevel();
+        boolean out = level.getStockQuantity() == 0;
+        if (low) {
+            lowStock.put(productId, level);
+        } else {
+            lowStock.remove(productId);
+        }
+        if (out) {
+            outOfStock.put(productId, level);
+        } else {
+            outOfStock.remove(productId);
+        }
+        return low || out;
+    }
+
+    private void publishViews() {
+        lowStockView = List.copyOf(lowStock.values());
+        outOfStockView = List.copyOf(outOfStock.values());
+    }
+
+    private StockAlertResponse alert(AlertType type, InventoryResponse level, int previousQuantity) {
+        return new StockAlertResponse(type.name(), level.getProductId(), level.getProductName(),
+                previousQuantity, level.getStockQuantity(), level.getReorderLevel(), LocalDateTime.now());
+    }
+
+    private void broadcast(StockAlertResponse alert) {
+        eventPublisher.publishEvent(new StockAlertEvent(alert));
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        dispatcher.execute(() -> {
+            for (SseEmitter emitter : subscribers) {
+                send(emitter, SseEmitter.event().name(alert.getAlert()).data(alert));
+            }
+        });
+    }
+
+    private void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(emitter);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.shopjoy.inventory;
+
+import com.shopjoy.event.StockChangedEvent;
+import com.shopjoy.event.StripedStockChangedEvent;
+import com.shopjoy.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Turns single-stripe stock changes into {@link StockChangedEvent}s once they have committed.
+ *
+ * The level is read again after commit, so it includes every stripe change committed so far
+ * rather than the reserving transaction's own view of the stripes. The stock version read in the
+ * same statement lets listeners drop levels that reach them after a newer one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StripedStockPublisher {
+
+    private final InventoryRepository inventoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStripedStockChanged(StripedStockChangedEvent event) {
+        try {
+            inventoryRepository.findStockLevelByProductId(event.productId())
+                    .ifPresent(level -> eventPublisher.publishEvent(new StockChangedEvent(
+                            event.productId(),
+                            level.getQuantity() - event.delta(),
+                            level.getQuantity(),
+                            level.getReorderLevel(),
+                            level.getVersion())));
+        } catch (RuntimeException e) {
+            log.warn("Failed to read stock level of product {} after a stripe change: {}",
+                    event.productId(), e.getMessage());
+        }
+    }
+}
@@ -2,8 +2,13 @@ package com.shopjoy.repository;
 
 import com.shopjoy.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +19,61 @@ public interface CartItemRepository extends JpaRepository<CartItem, Integer> {
     Optional<CartItem> findByUserIdAndProductId(int userId, int productId);
     
     void deleteByUserId(int userId);
+
+    /**
+     * A cart line with its product and stock, read without loading entities.
+     */
+    interface CartLine {
+        Integer getCartItemId();
+        Integer getProductId();
+        String getProductName();
+        BigDecimal getPrice();
+        int getQuantity();
+        LocalDateTime getAddedAt();
+        int getAvailableQuantity();
+    }
+
+    /**
+     * The quantity and unit price of one cart line.
+     */
+    interface CartLineQuantity {
+        Integer getProductId();
+        int getQuantity();
+        BigDecimal getPrice();
+    }
+
+    /**
+     * Reads a user's cart lines joined with product and inventory in one query. Available
+     * quantity is stock on hand (the stripe sum for striped products) minus checkout holds.
+     */
+    @Query("SELECT c.id AS cartItemId, p.id AS productId, p.productName AS productName, p.price AS price, "
+            + "c.quantity AS quantity, c.addedAt AS addedAt, "
+            + "COALESCE((CASE WHEN i.stripeCount > 0 THEN i.stripedQuantity ELSE i.quantityInStock END) "
+            + "- i.reservedQuantity, 0) AS availableQuantity "
+            + "FROM CartItem c JOIN c.product p LEFT JOIN Inventory i ON i.product = p "
+            + "WHERE c.user.id = :userId ORDER BY c.addedAt, c.id")
+    List<CartLine> findCartLinesByUserId(@Param("userId") int userId);
+
+    @Query("SELECT p.id AS productId, c.quantity AS quantity, p.price AS price "
+            + "FROM CartItem c JOIN c.product p WHERE c.user.id = :userId")
+    List<CartLineQuantity> findLineQuantitiesByUserId(@Param("userId") int userId);
+
+    /**
+     * Sets the quantity of many products in a user's cart with one statement, inserting
+     * missing lines and overwriting the quantity of existing ones.
+     *
+     * @param userId     the cart owner
+     * @param productIds the products, without duplicates
+     * @param quantities the quantities, in the same order
+     * @return the number of inserted or updated rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            INSERT INTO cart_items (user_id, product_id, quantity)
+            SELECT :userId, t.product_id, t.quantity
+            FROM unnest(CAST(:productIds AS integer[]), CAST(:quantities AS integer[])) AS t(product_id, quantity)
+            ON CONFLICT (user_id, product_id) DO UPDATE SET quantity = EXCLUDED.quantity""", nativeQuery = true)
+    int upsertQuantities(@Param("userId") int userId,
+                         @Param("productIds") Integer[] productIds,
+                         @Param("quantities") Integer[] quantities);
 }
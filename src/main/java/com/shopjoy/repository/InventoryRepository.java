@@ -1,19 +1,161 @@
 package com.shopjoy.repository;
 
 import com.shopjoy.entity.Inventory;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Integer> {
     Optional<Inventory> findByProductId(int productId);
+
+    /**
+     * Find a product's inventory row and lock it for the rest of the transaction.
+     *
+     * @param productId the product id
+     * @return the locked inventory row
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.product.id = :productId")
+    Optional<Inventory> findByProductIdForUpdate(@Param("productId") int productId);
+
+    /**
+     * Reads how a product's stock is laid out without loading or locking the inventory row.
+     *
+     * @param productId the product id
+     * @return the inventory id, stripe count and reorder level
+     */
+    @Query("SELECT i.id AS inventoryId, i.stripeCount AS stripeCount, i.reorderLevel AS reorderLevel, "
+            + "i.reservedQuantity AS reservedQuantity FROM Inventory i WHERE i.product.id = :productId")
+    Optional<StockLayout> findStockLayoutByProductId(@Param("productId") int productId);
+
+    /**
+     * Reads a product's committed stock level and stock version in one snapshot.
+     *
+     * @param productId the product id
+     * @return the quantity in stock, reorder level and stock version
+     */
+    @Query(value = """
+            SELECT CASE WHEN i.stripe_count > 0 THEN COALESCE(SUM(s.quantity), 0)
+                        ELSE i.quantity_in_stock END AS "quantity",
+                   i.reorder_level AS "reorderLevel",
+                   i.stock_version + COALESCE(SUM(s.version), 0) AS "version"
+            FROM inventory i LEFT JOIN inventory_stripes s ON s.inventory_id = i.inventory_id
+            WHERE i.product_id = :productId
+            GROUP BY i.inventory_id""", nativeQuery = true)
+    Optional<StockLevel> findStockLevelByProductId(@Param("productId") int productId);
+
+    /**
+     * Reads the stock version of every product with inventory.
+     *
+     * @return the product ids with their stock versions
+     */
+    @Query(value = """
+            SELECT i.product_id AS "productId", i.stock_version + COALESCE(SUM(s.version), 0) AS "version"
+            FROM inventory i LEFT JOIN inventory_stripes s ON s.inventory_id = i.inventory_id
+            GROUP BY i.inventory_id""", nativeQuery = true)
+    List<StockVersion> findStockVersions();
+
+    /**
+     * Locks a product's inventory row without loading it.
+     *
+     * @param productId the product id
+     * @return the inventory id, empty when the product has no inventory
+     */
+    @Query(value = "SELECT inventory_id FROM inventory WHERE product_id = :productId FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockByProductId(@Param("productId") int productId);
+
+    /**
+     * Adds to a product's held quantity if enough stock is neither sold nor already held.
+     * Callers lock the row with {@link #lockByProductId} and flag the stripes with
+     * {@code InventoryStripeRepository.markHeld} first, so the stripe total is read after
+     * striped reservations already in flight have committed.
+     *
+     * @param productId the product id
+     * @param quantity  the quantity to hold
+     * @return 1 when the hold fits, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE inventory SET reserved_quantity = reserved_quantity + :quantity
+            WHERE product_id = :productId
+              AND (CASE WHEN stripe_count > 0
+                        THEN (SELECT COALESCE(SUM(s.quantity), 0) FROM inventory_stripes s
+                              WHERE s.inventory_id = inventory.inventory_id)
+                        ELSE quantity_in_stock END) - reserved_quantity >= :quantity""", nativeQuery = true)
+    int holdStock(@Param("productId") int productId, @Param("quantity") int quantity);
+
+    /**
+     * Returns held quantity of a product to available stock.
+     *
+     * @param productId the product id
+     * @param quantity  the quantity that was held
+     * @return the number of updated rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Inventory i SET i.reservedQuantity =
+                CASE WHEN i.reservedQuantity > :quantity THEN i.reservedQuantity - :quantity ELSE 0 END
+            WHERE i.product.id = :productId""")
+    int releaseHeldStock(@Param("productId") int productId, @Param("quantity") int quantity);
     
-    @Query("SELECT i FROM Inventory i WHERE i.quantityInStock <= i.reorderLevel")
+    @Query("SELECT i FROM Inventory i WHERE "
+            + "(CASE WHEN i.stripeCount > 0 THEN i.stripedQuantity ELSE i.quantityInStock END) <= i.reorderLevel")
     List<Inventory> findLowStock();
     
     List<Inventory> findByProductIdIn(List<Integer> productIds);
+
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product")
+    List<Inventory> findAllWithProduct();
+
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product WHERE i.product.id = :productId")
+    Optional<Inventory> findWithProductByProductId(@Param("productId") int productId);
+
+    @Query("SELECT MAX(i.updatedAt) FROM Inventory i")
+    LocalDateTime findLatestUpdatedAt();
+
+    /**
+     * Where a product's stock is held.
+     */
+    interface StockLayout {
+        Integer getInventoryId();
+
+        int getStripeCount();
+
+        int getReorderLevel();
+
+        int getReservedQuantity();
+
+        default boolean isStriped() {
+            return getStripeCount() > 0;
+        }
+    }
+
+    /**
+     * The stock version of a product.
+     */
+    interface StockVersion {
+        Integer getProductId();
+
+        long getVersion();
+    }
+
+    /**
+     * A product's stock level as committed.
+     */
+    interface StockLevel {
+        int getQuantity();
+
+        int getReorderLevel();
+
+        long getVersion();
+    }
 }
@@ -0,0 +1,105 @@
+package com.shopjoy.repository;
+
+import com.shopjoy.entity.InventoryStripe;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryStripeRepository extends JpaRepository<InventoryStripe, Integer> {
+
+    /**
+     * Locks all stripes of an inventory row, in stripe order so concurrent callers lock them
+     * in the same sequence.
+     *
+     * @param inventoryId the inventory id
+     * @return the stripes ordered by index
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InventoryStripe s WHERE s.inventory.id = :inventoryId ORDER BY s.stripeIndex")
+    List<InventoryStripe> findByInventoryIdForUpdate(@Param("inventoryId") Integer inventoryId);
+
+    /**
+     * Takes stock from one stripe if it holds enough and none of the product's stock is held
+     * for a checkout, locking only that stripe. Bumps the stripe's version and updated_at so
+     * the change is visible to the stock version and cache watermarks.
+     *
+     * The stripe's held flag is what keeps this path from selling held stock: a hold sets the
+     * flag on every stripe, so it waits for reservations that passed the check to commit, and
+     * reservations arriving after it see the flag.
+     *
+     * @return 1 when the stock was taken, 0 when the stripe holds too little or stock is held
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE inventory_stripes
+            SET quantity = quantity - :quantity, version = version + 1, updated_at = LOCALTIMESTAMP
+            WHERE inventory_id = :inventoryId AND stripe_index = :stripeIndex AND quantity >= :quantity
+              AND NOT held""", nativeQuery = true)
+    int decrementStripe(@Param("inventoryId") Integer inventoryId,
+                        @Param("stripeIndex") int stripeIndex,
+                        @Param("quantity") int quantity);
+
+    /**
+     * Returns stock to one stripe, bumping its version and updated_at.
+     *
+     * @return 1 when the stripe exists, otherwise 0
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE inventory_stripes
+            SET quantity = quantity + :quantity, version = version + 1, updated_at = LOCALTIMESTAMP
+            WHERE inventory_id = :inventoryId AND stripe_index = :stripeIndex""", nativeQuery = true)
+    int incrementStripe(@Param("inventoryId") Integer inventoryId,
+                        @Param("stripeIndex") int stripeIndex,
+                        @Param("quantity") int quantity);
+
+    /**
+     * Flags every stripe of a product as held, so single-stripe reservations take the locked
+     * path. Waits for reservations in flight on any of the stripes to commit. Callers lock the
+     * inventory row first.
+     *
+     * @param productId the product id
+     * @return the number of stripes that were not flagged yet
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE inventory_stripes s SET held = TRUE
+            FROM inventory i
+            WHERE i.inventory_id = s.inventory_id AND i.product_id = :productId AND NOT s.held""",
+            nativeQuery = true)
+    int markHeld(@Param("productId") int productId);
+
+    /**
+     * Sets the held flag of a product's stripes from its held quantity, clearing it once the
+     * last hold is gone.
+     *
+     * @param productId the product id
+     * @return the number of stripes whose flag changed
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE inventory_stripes s SET held = i.reserved_quantity > 0
+            FROM inventory i
+            WHERE i.inventory_id = s.inventory_id AND i.product_id = :productId
+              AND s.held <> (i.reserved_quantity > 0)""", nativeQuery = true)
+    int syncHeld(@Param("productId") int productId);
+
+    @Query(value = "SELECT COALESCE(SUM(version), 0) FROM inventory_stripes WHERE inventory_id = :inventoryId",
+            nativeQuery = true)
+    long sumVersion(@Param("inventoryId") Integer inventoryId);
+
+    @Query(value = "SELECT MAX(updated_at) FROM inventory_stripes", nativeQuery = true)
+    LocalDateTime findLatestUpdatedAt();
+
+    @Modifying
+    @Query("DELETE FROM InventoryStripe s WHERE s.inventory.id = :inventoryId")
+    int deleteByInventoryId(@Param("inventoryId") Integer inventoryId);
+}
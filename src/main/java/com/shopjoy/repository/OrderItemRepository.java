@@ -2,6 +2,7 @@ package com.shopjoy.repository;
 
 import com.shopjoy.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +10,25 @@ import java.util.List;
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
     List<OrderItem> findByOrderId(int orderId);
+
+    /**
+     * Units ordered per product, excluding cancelled orders.
+     *
+     * @return one row per product that has been ordered
+     */
+    @Query("""
+            SELECT oi.product.id AS productId, SUM(oi.quantity) AS quantity
+            FROM OrderItem oi
+            WHERE oi.order.status <> com.shopjoy.entity.OrderStatus.CANCELLED
+            GROUP BY oi.product.id""")
+    List<ProductSales> sumQuantityByProduct();
+
+    /**
+     * Units ordered for one product.
+     */
+    interface ProductSales {
+        Integer getProductId();
+
+        Long getQuantity();
+    }
 }
@@ -2,6 +2,7 @@ package com.shopjoy.repository;
 
 import com.shopjoy.entity.Order;
 import com.shopjoy.entity.OrderStatus;
+import com.shopjoy.entity.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Integer>, JpaSpecificationExecutor<Order> {
@@ -28,4 +30,21 @@ public interface OrderRepository extends JpaRepository<Order, Integer>, JpaSpeci
     @Query("SELECT CASE WHEN COUNT(oi) > 0 THEN true ELSE false END FROM OrderItem oi " +
            "JOIN oi.order o WHERE o.user.id = :userId AND oi.product.id = :productId AND o.status <> 'CANCELLED'")
     boolean hasUserPurchasedProduct(@Param("userId") int userId, @Param("productId") int productId);
+
+    @Query("SELECT MIN(o.orderDate) FROM Order o")
+    Optional<LocalDateTime> findFirstOrderDate();
+
+    /**
+     * The status fields of an order, read without loading the entity.
+     */
+    interface OrderState {
+        Integer getId();
+        OrderStatus getStatus();
+        PaymentStatus getPaymentStatus();
+        long getVersion();
+    }
+
+    @Query("SELECT o.id AS id, o.status AS status, o.paymentStatus AS paymentStatus, o.version AS version "
+            + "FROM Order o WHERE o.id = :orderId")
+    Optional<OrderState> findStateById(@Param("orderId") int orderId);
 }
@@ -0,0 +1,127 @@
+package com.shopjoy.repository;
+
+import com.shopjoy.entity.OrderStatus;
+import com.shopjoy.entity.PaymentStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Status updates written in plain SQL because JPQL bulk updates cannot report which rows they
+ * changed, nor the status a row had before.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderStatusBatchRepository {
+
+    private static final String TRANSITION_SQL =
+            "UPDATE orders SET status = ?, version = version + 1, updated_at = ? "
+                    + "WHERE order_id = ANY(?) AND status = ? RETURNING order_id";
+
+    private static final String TRANSITION_ONE_SQL =
+            "WITH prev AS (SELECT order_id, status FROM orders "
+                    + "WHERE order_id = ? AND status = ANY(?) FOR UPDATE) "
+                    + "UPDATE orders o SET status = ?, version = o.version + 1, updated_at = ? "
+                    + "FROM prev WHERE o.order_id = prev.order_id RETURNING prev.status";
+
+    private static final String PAY_AND_TRANSITION_SQL =
+            "WITH prev AS (SELECT order_id, status, payment_status FROM orders "
+                    + "WHERE order_id = ? AND status = ANY(?) AND payment_status <> 'PAID' FOR UPDATE) "
+                    + "UPDATE orders o SET status = ?, payment_status = 'PAID', version = o.version + 1, updated_at = ? "
+                    + "FROM prev WHERE o.order_id = prev.order_id RETURNING prev.status, prev.payment_status";
+
+    private static final String STATUS_SQL =
+            "SELECT order_id, status FROM orders WHERE order_id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The status and payment status an order had before it was updated.
+     */
+    public record PreviousState(OrderStatus status, PaymentStatus paymentStatus) {
+    }
+
+    /**
+     * Moves every given order that currently has the source status to the target status.
+     *
+     * @return the IDs of the orders that were moved
+     */
+    public List<Integer> transitionStatus(Collection<Integer> orderIds, OrderStatus source, OrderStatus target,
+                                          LocalDateTime now) {
+        return jdbcTemplate.query(connection -> {
+            var ps = connection.prepareStatement(TRANSITION_SQL);
+            ps.setString(1, target.name());
+            ps.setTimestamp(2, Timestamp.valueOf(now));
+            ps.setArray(3, connection.createArrayOf("integer", orderIds.toArray()));
+            ps.setString(4, source.name());
+            return ps;
+        }, (rs, _) -> rs.getInt(1));
+    }
+
+    /**
+     * Moves one order to the target status if it currently has one of the source statuses.
+     * <p>
+     * The row is locked and its status checked in the same statement as the update, so of two
+     * concurrent transitions only one can match.
+     *
+     * @return the status the order had before, or empty when it is missing or in another status
+     */
+    public Optional<OrderStatus> transitionStatus(int orderId, Collection<OrderStatus> sources, OrderStatus target,
+                                                  LocalDateTime now) {
+        List<OrderStatus> previous = jdbcTemplate.query(connection -> {
+            var ps = connection.prepareStatement(TRANSITION_ONE_SQL);
+            ps.setInt(1, orderId);
+            ps.setArray(2, connection.createArrayOf("varchar", names(sources)));
+            ps.setString(3, target.name());
+            ps.setTimestamp(4, Timestamp.valueOf(now));
+            return ps;
+        }, (rs, _) -> OrderStatus.valueOf(rs.getString(1)));
+        return previous.stream().findFirst();
+    }
+
+    /**
+     * Marks one unpaid order as paid and moves it to the target status if it currently has one of
+     * the source statuses, in a single statement.
+     *
+     * @return the state the order had before, or empty when it is missing, paid or in another status
+     */
+    public Optional<PreviousState> markPaidAndTransition(int orderId, Collection<OrderStatus> sources,
+                                                         OrderStatus target, LocalDateTime now) {
+        List<PreviousState> previous = jdbcTemplate.query(connection -> {
+            var ps = connection.prepareStatement(PAY_AND_TRANSITION_SQL);
+            ps.setInt(1, orderId);
+            ps.setArray(2, connection.createArrayOf("varchar", names(sources)));
+            ps.setString(3, target.name());
+            ps.setTimestamp(4, Timestamp.valueOf(now));
+            return ps;
+        }, (rs, _) -> new PreviousState(OrderStatus.valueOf(rs.getString(1)), PaymentStatus.valueOf(rs.getString(2))));
+        return previous.stream().findFirst();
+    }
+
+    /**
+     * Reads the current status of the given orders; missing orders are absent from the result.
+     */
+    public Map<Integer, OrderStatus> findStatuses(Collection<Integer> orderIds) {
+        Map<Integer, OrderStatus> statuses = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            var ps = connection.prepareStatement(STATUS_SQL);
+            ps.setArray(1, connection.createArrayOf("integer", orderIds.toArray()));
+            return ps;
+        }, rs -> {
+            statuses.put(rs.getInt(1), OrderStatus.valueOf(rs.getString(2)));
+        });
+        return statuses;
+    }
+
+    private static Object[] names(Collection<OrderStatus> statuses) {
+        return statuses.stream().map(OrderStatus::name).toArray();
+    }
+}
@@ -10,11 +10,19 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product> {
 
+    /**
+     * Stock on hand of the product joined as {@code i}, the same as {@code Inventory.getQuantityInStock()};
+     * 0 without inventory.
+     */
+    String STOCK = "(CASE WHEN i.stripeCount > 0 THEN i.stripedQuantity ELSE COALESCE(i.quantityInStock, 0) END)";
+
     /**
      * Find all products with inventory eagerly loaded using EntityGraph.
      * This avoids N+1 queries when accessing inventory data.
@@ -53,13 +61,16 @@ public interface ProductRepository extends JpaRepository<Product, Integer>, JpaS
     @Query("SELECT p FROM Product p WHERE p.active = true ORDER BY p.createdAt DESC")
     List<Product> findRecentlyAdded(Pageable pageable);
     
-    @Query("SELECT p FROM Product p WHERE " +
+    @Query("SELECT p FROM Product p LEFT JOIN p.inventory i WHERE " +
            "(COALESCE(:searchTerm, '') = '' OR LOWER(p.productName) LIKE LOWER(CONCAT('%', COALESCE(:searchTerm, ''), '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', COALESCE(:searchTerm, ''), '%'))) AND " +
            "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
            "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
            "(:brand IS NULL OR p.brand = :brand) AND " +
-           "(:active IS NULL OR p.active = :active)")
+           "(:active IS NULL OR p.active = :active) AND " +
+           "(:inStock IS NULL OR (:inStock = true AND " + STOCK + " > 0) OR (:inStock = false AND " + STOCK + " <= 0)) AND " +
+           "(:minStock IS NULL OR " + STOCK + " >= :minStock) AND " +
+           "(:maxStock IS NULL OR " + STOCK + " <= :maxStock)")
     Page<Product> findWithFilters(
             @Param("searchTerm") String searchTerm,
             @Param("categoryId") Integer categoryId,
@@ -67,6 +78,51 @@ public interface ProductRepository extends JpaRepository<Product, Integer>, JpaS
             @Param("maxPrice") Double maxPrice,
             @Param("brand") String brand,
             @Param("active") Boolean active,
+            @Param("inStock") Boolean inStock,
+            @Param("minStock") Integer minStock,
+            @Param("maxStock") Integer maxStock,
             Pageable pageable);
 
+    /**
+     * Product IDs of one page of several categories, in category and product ID order.
+     */
+    interface CategoryProductRow {
+        Integer getCategoryId();
+        Integer getProductId();
+    }
+
+    /**
+     * Finds the first products after a product ID in each of the given categories with one
+     * statement. ROW_NUMBER() numbers the products per category, so only the requested number of
+     * rows per category leaves the database, however large the categories are.
+     *
+     * @param categoryIds the category IDs
+     * @param afterId     only products with a greater ID are returned, 0 for the first page
+     * @param limit       maximum number of products per category
+     * @return the product IDs per category
+     */
+    @Query(value = """
+            SELECT ranked.category_id AS categoryId, ranked.product_id AS productId
+            FROM (SELECT p.category_id, p.product_id,
+                         ROW_NUMBER() OVER (PARTITION BY p.category_id ORDER BY p.product_id) AS rn
+                  FROM products p
+                  WHERE p.category_id = ANY(CAST(:categoryIds AS integer[])) AND p.product_id > :afterId) ranked
+            WHERE ranked.rn <= :limit
+            ORDER BY ranked.category_id, ranked.rn""", nativeQuery = true)
+    List<CategoryProductRow> findPageIdsByCategories(@Param("categoryIds") Integer[] categoryIds,
+                                                     @Param("afterId") int afterId,
+                                                     @Param("limit") int limit);
+
+    @EntityGraph(value = "Product.withInventoryAndCategory", type = EntityGraph.EntityGraphType.LOAD)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findAllWithInventoryByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Latest product modification timestamp, used as a catalogue watermark.
+     *
+     * @return the most recent updated_at value, or null when there are no products
+     */
+    @Query("SELECT MAX(p.updatedAt) FROM Product p")
+    LocalDateTime findLatestUpdatedAt();
+
 }
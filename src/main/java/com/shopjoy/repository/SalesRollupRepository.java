@@ -0,0 +1,188 @@
+package com.shopjoy.repository;
+
+import com.shopjoy.entity.RollupDimension;
+import com.shopjoy.entity.RollupGranularity;
+import com.shopjoy.entity.SalesRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads and maintains the sales rollups.
+ *
+ * Order writes append signed deltas for the hourly and the daily bucket to sales_rollup_deltas,
+ * which only ever receives inserts, so concurrent orders never update the same row. The deltas
+ * are merged into sales_rollups later by {@link #compactDeltas(int)}; applying an order and later
+ * removing it leaves the totals unchanged.
+ */
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollup.Key> {
+
+    /**
+     * The totals of one dimension value over a time range.
+     */
+    interface RollupTotal {
+        String getDimensionKey();
+        long getOrderCount();
+        long getUnitsSold();
+        BigDecimal getRevenue();
+    }
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.key.granularity = :granularity AND r.key.dimension = :dimension "
+            + "AND r.key.bucketStart >= :from AND r.key.bucketStart < :to "
+            + "AND (:dimensionKey IS NULL OR r.key.dimensionKey = :dimensionKey) "
+            + "ORDER BY r.key.bucketStart, r.key.dimensionKey")
+    List<SalesRollup> findBuckets(@Param("granularity") RollupGranularity granularity,
+                                  @Param("dimension") RollupDimension dimension,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to,
+                                  @Param("dimensionKey") String dimensionKey);
+
+    @Query("SELECT r.key.dimensionKey AS dimensionKey, SUM(r.orderCount) AS orderCount, "
+            + "SUM(r.unitsSold) AS unitsSold, SUM(r.revenue) AS revenue FROM SalesRollup r "
+            + "WHERE r.key.granularity = :granularity AND r.key.dimension = :dimension "
+            + "AND r.key.bucketStart >= :from AND r.key.bucketStart < :to "
+            + "GROUP BY r.key.dimensionKey ORDER BY SUM(r.revenue) DESC, r.key.dimensionKey")
+    List<RollupTotal> sumByKey(@Param("granularity") RollupGranularity granularity,
+                               @Param("dimension") RollupDimension dimension,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to,
+                               Pageable pageable);
+
+    /**
+     * Records the product and category sales of the given orders, multiplied by the sign, as deltas.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO sales_rollup_deltas (granularity, dimension, bucket_start, dimension_key, order_count, units_sold, revenue)
+            SELECT g.granularity, d.dimension, date_trunc(lower(g.granularity), o.order_date),
+                   CASE d.dimension WHEN 'PRODUCT' THEN CAST(oi.product_id AS varchar) ELSE CAST(p.category_id AS varchar) END,
+                   :sign * COUNT(DISTINCT o.order_id), :sign * SUM(oi.quantity), :sign * SUM(oi.subtotal)
+            FROM orders o
+            JOIN order_items oi ON oi.order_id = o.order_id
+            JOIN products p ON p.product_id = oi.product_id
+            CROSS JOIN (VALUES ('HOUR'), ('DAY')) AS g(granularity)
+            CROSS JOIN (VALUES ('PRODUCT'), ('CATEGORY')) AS d(dimension)
+            WHERE o.order_id = ANY(CAST(:orderIds AS integer[]))
+            GROUP BY 1, 2, 3, 4""", nativeQuery = true)
+    int addSales(@Param("orderIds") Integer[] orderIds, @Param("sign") int sign);
+
+    /**
+     * Records the given orders under their current status and payment status, multiplied by the
+     * sign, as deltas.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO sales_rollup_deltas (granularity, dimension, bucket_start, dimension_key, order_count, units_sold, revenue)
+            SELECT g.granularity, d.dimension, date_trunc(lower(g.granularity), o.order_date),
+                   CASE d.dimension WHEN 'STATUS' THEN o.status ELSE o.payment_status END,
+                   :sign * COUNT(*), :sign * SUM(COALESCE(u.units, 0)), :sign * SUM(o.total_amount)
+            FROM orders o
+            LEFT JOIN (SELECT order_id, SUM(quantity) AS units FROM order_items
+                       WHERE order_id = ANY(CAST(:orderIds AS integer[])) GROUP BY order_id) u ON u.order_id = o.order_id
+            CROSS JOIN (VALUES ('HOUR'), ('DAY')) AS g(granularity)
+            CROSS JOIN (VALUES ('STATUS'), ('PAYMENT_STATUS')) AS d(dimension)
+            WHERE o.order_id = ANY(CAST(:orderIds AS integer[]))
+            GROUP BY 1, 2, 3, 4""", nativeQuery = true)
+    int addStatuses(@Param("orderIds") Integer[] orderIds, @Param("sign") int sign);
+
+    /**
+     * Records a move of the given orders from one value of a status dimension to another as deltas.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO sales_rollup_deltas (granularity, dimension, bucket_start, dimension_key, order_count, units_sold, revenue)
+            SELECT g.granularity, CAST(:dimension AS varchar), date_trunc(lower(g.granularity), o.order_date), k.dimension_key,
+                   SUM(k.sign), SUM(k.sign * COALESCE(u.units, 0)), SUM(k.sign * o.total_amount)
+            FROM orders o
+            LEFT JOIN (SELECT order_id, SUM(quantity) AS units FROM order_items
+                       WHERE order_id = ANY(CAST(:orderIds AS integer[])) GROUP BY order_id) u ON u.order_id = o.order_id
+            CROSS JOIN (VALUES ('HOUR'), ('DAY')) AS g(granularity)
+            CROSS JOIN (VALUES (CAST(:fromKey AS varchar), -1), (CAST(:toKey AS varchar), 1)) AS k(dimension_key, sign)
+            WHERE o.order_id = ANY(CAST(:orderIds AS integer[])) AND k.dimension_key IS NOT NULL
+            GROUP BY 1, 2, 3, 4""", nativeQuery = true)
+    int moveOrders(@Param("orderIds") Integer[] orderIds,
+                   @Param("dimension") String dimension,
+                   @Param("fromKey") String fromKey,
+                   @Param("toKey") String toKey);
+
+    /**
+     * Merges the oldest recorded deltas into the rollups and deletes them.
+     *
+     * Deltas locked by another compaction are skipped, and rollup rows are upserted in key
+     * order, so several instances can compact at once without deadlocking.
+     *
+     * @param batchSize the most deltas to merge
+     * @return the number of rollup rows written, 0 when there were no deltas left
+     */
+    @Modifying
+    @Query(value = """
+            WITH batch AS (
+                DELETE FROM sales_rollup_deltas
+                WHERE delta_id IN (SELECT delta_id FROM sales_rollup_deltas ORDER BY delta_id
+                                   LIMIT :batchSize FOR UPDATE SKIP LOCKED)
+                RETURNING granularity, dimension, bucket_start, dimension_key, order_count, units_sold, revenue)
+            INSERT INTO sales_rollups (granularity, dimension, bucket_start, dimension_key, order_count, units_sold, revenue)
+            SELECT granularity, dimension, bucket_start, dimension_key, SUM(order_count), SUM(units_sold), SUM(revenue)
+            FROM batch
+            GROUP BY 1, 2, 3, 4
+            ORDER BY 1, 2, 3, 4
+            ON CONFLICT (granularity, dimension, bucket_start, dimension_key) DO UPDATE SET
+                order_count = sales_rollups.order_count + EXCLUDED.order_count,
+                units_sold = sales_rollups.units_sold + EXCLUDED.units_sold,
+                revenue = sales_rollups.revenue + EXCLUDED.revenue""", nativeQuery = true)
+    int compactDeltas(@Param("batchSize") int batchSize);
+
+    /**
+     * Blocks delta and rollup writes of other transactions until the current one ends, while
+     * reads continue. Waits for transactions that have already recorded deltas to finish.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE sales_rollup_deltas, sales_rollups IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM sales_rollups WHERE bucket_start >= :from AND bucket_start < :to", nativeQuery = true)
+    int deleteBuckets(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query(value = "DELETE FROM sales_rollup_deltas WHERE bucket_start >= :from AND bucket_start < :to", nativeQuery = true)
+    int deleteDeltas(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Recomputes all rollups of the orders placed in a time range that starts and ends on a day boundary.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO sales_rollups (granularity, dimension, bucket_start, dimension_key, order_count, units_sold, revenue)
+            SELECT g.granularity, d.dimension, date_trunc(lower(g.granularity), o.order_date),
+                   CASE d.dimension WHEN 'PRODUCT' THEN CAST(oi.product_id AS varchar) ELSE CAST(p.category_id AS varchar) END,
+                   COUNT(DISTINCT o.order_id), SUM(oi.quantity), SUM(oi.subtotal)
+            FROM orders o
+            JOIN order_items oi ON oi.order_id = o.order_id
+            JOIN products p ON p.product_id = oi.product_id
+            CROSS JOIN (VALUES ('HOUR'), ('DAY')) AS g(granularity)
+            CROSS JOIN (VALUES ('PRODUCT'), ('CATEGORY')) AS d(dimension)
+            WHERE o.order_date >= :from AND o.order_date < :to AND o.status <> 'CANCELLED'
+            GROUP BY 1, 2, 3, 4
+            UNION ALL
+            SELECT g.granularity, d.dimension, date_trunc(lower(g.granularity), o.order_date),
+                   CASE d.dimension WHEN 'STATUS' THEN o.status ELSE o.payment_status END,
+                   COUNT(*), SUM(COALESCE(u.units, 0)), SUM(o.total_amount)
+            FROM orders o
+            LEFT JOIN (SELECT oi.order_id, SUM(oi.quantity) AS units FROM order_items oi
+                       JOIN orders r ON r.order_id = oi.order_id
+                       WHERE r.order_date >= :from AND r.order_date < :to GROUP BY oi.order_id) u ON u.order_id = o.order_id
+            CROSS JOIN (VALUES ('HOUR'), ('DAY')) AS g(granularity)
+            CROSS JOIN (VALUES ('STATUS'), ('PAYMENT_STATUS')) AS d(dimension)
+            WHERE o.order_date >= :from AND o.order_date < :to
+            GROUP BY 1, 2, 3, 4""", nativeQuery = true)
+    int rebuildBuckets(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,58 @@
+package com.shopjoy.repository;
+
+import com.shopjoy.entity.StockHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockHoldRepository extends JpaRepository<StockHold, Integer> {
+
+    /**
+     * Locks the active holds of a user, waiting for a sweeper or checkout that has them locked.
+     * Holds that transaction finished are no longer active once the lock is granted and are
+     * not returned.
+     *
+     * @param userId the user ID
+     * @return the locked holds, in id order
+     */
+    @Query(value = """
+            SELECT * FROM stock_holds
+            WHERE user_id = :userId AND status = 'ACTIVE'
+            ORDER BY hold_id
+            FOR UPDATE""", nativeQuery = true)
+    List<StockHold> findActiveByUserIdForUpdate(@Param("userId") int userId);
+
+    /**
+     * Locks a batch of expired active holds, skipping holds another sweeper or checkout
+     * already has locked.
+     *
+     * @param now   the current time
+     * @param limit the batch size
+     * @return the locked holds, oldest first
+     */
+    @Query(value = """
+            SELECT * FROM stock_holds
+            WHERE status = 'ACTIVE' AND expires_at < :now
+            ORDER BY expires_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED""", nativeQuery = true)
+    List<StockHold> findExpiredForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Gives holds that are still active their final status.
+     *
+     * @param ids    the hold IDs
+     * @param status the final status name
+     * @return the IDs of the holds this statement changed; holds already finished are left out
+     */
+    @Query(value = """
+            UPDATE stock_holds SET status = :status
+            WHERE hold_id IN (:ids) AND status = 'ACTIVE'
+            RETURNING hold_id""", nativeQuery = true)
+    List<Integer> finishActive(@Param("ids") List<Integer> ids, @Param("status") String status);
+}
@@ -2,7 +2,10 @@ package com.shopjoy.repository;
 
 import com.shopjoy.entity.User;
 import com.shopjoy.entity.UserType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,4 +19,21 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
     List<User> findByUserType(UserType userType);
+
+    @Query("SELECT u.id FROM User u WHERE lower(u.email) = :email")
+    List<Integer> findIdsByLowerEmail(@Param("email") String email);
+
+    /**
+     * Finds users whose first name, last name or email contains a lower-case LIKE pattern
+     * escaped with a backslash.
+     */
+    @Query("SELECT u.id FROM User u WHERE lower(u.firstName) LIKE :pattern ESCAPE '\\' "
+            + "OR lower(u.lastName) LIKE :pattern ESCAPE '\\' OR lower(u.email) LIKE :pattern ESCAPE '\\'")
+    List<Integer> findIdsMatching(@Param("pattern") String pattern, Pageable pageable);
+
+    /**
+     * Locks the row of a user, so transactions working on the user's stock holds run one at a time.
+     */
+    @Query(value = "SELECT user_id FROM users WHERE user_id = :userId FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockById(@Param("userId") int userId);
 }
@@ -1,7 +1,9 @@
 package com.shopjoy.service;
 
 import com.shopjoy.dto.request.AddToCartRequest;
+import com.shopjoy.dto.request.BulkAddToCartRequest;
 import com.shopjoy.dto.response.CartItemResponse;
+import com.shopjoy.dto.response.CartSummaryResponse;
 import com.shopjoy.exception.InsufficientStockException;
 import com.shopjoy.exception.ResourceNotFoundException;
 import com.shopjoy.exception.ValidationException;
@@ -26,6 +28,18 @@ public interface CartService {
      */
     CartItemResponse addToCart(AddToCartRequest request);
     
+    /**
+     * Adds many products to the user's cart at once, validating all products and stock
+     * together and writing every line with a single upsert. Quantities are added to the
+     * quantities already in the cart unless the request asks to replace them.
+     * 
+     * @param request the bulk add to cart request
+     * @return the affected cart items
+     * @throws ResourceNotFoundException if a product is not found
+     * @throws InsufficientStockException if a resulting quantity exceeds available stock
+     */
+    List<CartItemResponse> addToCartBulk(BulkAddToCartRequest request);
+    
     /**
      * Updates the quantity of an item in the cart.
      * 
@@ -54,6 +68,15 @@ public interface CartService {
      */
     List<CartItemResponse> getCartItems(Integer userId);
     
+    /**
+     * Retrieves a user's cart with item count, subtotal and per-item stock status,
+     * read with a single query.
+     * 
+     * @param userId the user ID
+     * @return the cart summary
+     */
+    CartSummaryResponse getCartSummary(Integer userId);
+    
     /**
      * Clears all items from a user's cart.
      * Typically called after successful order creation.
@@ -77,4 +100,12 @@ public interface CartService {
      * @return the item count
      */
     int getCartItemCount(Integer userId);
+    
+    /**
+     * Makes sure the user's cart is saved to the database before code that reads
+     * cart_items directly, such as checkout. A no-op unless carts are written behind.
+     * 
+     * @param userId the user ID
+     */
+    void flushCart(Integer userId);
 }
@@ -1,11 +1,13 @@
 package com.shopjoy.service;
 
 import com.shopjoy.dto.response.InventoryResponse;
+import com.shopjoy.dto.response.StockAvailabilityResponse;
 import com.shopjoy.exception.DuplicateResourceException;
 import com.shopjoy.exception.ResourceNotFoundException;
 import com.shopjoy.exception.ValidationException;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service interface for Inventory management operations.
@@ -132,6 +134,38 @@ public interface InventoryService {
      */
     InventoryResponse updateReorderLevel(Integer productId, int reorderLevel);
 
+    /**
+     * Spreads a product's stock over several stripe rows so concurrent reservations for a
+     * hot product lock different rows. Re-striping an already striped product changes the
+     * number of stripes. Reported stock levels are unchanged.
+     * 
+     * @param productId the product ID
+     * @param stripes the number of stripes, between 2 and 64
+     * @return the inventory response
+     * @throws ResourceNotFoundException if inventory not found
+     * @throws ValidationException if the stripe count is invalid
+     */
+    InventoryResponse stripeInventory(Integer productId, int stripes);
+
+    /**
+     * Folds a striped product's stock back into its single inventory row.
+     * 
+     * @param productId the product ID
+     * @return the inventory response
+     * @throws ResourceNotFoundException if inventory not found
+     */
+    InventoryResponse unstripeInventory(Integer productId);
+
+    /**
+     * Checks whether the requested quantities of several products are available, with one
+     * inventory query for all of them. Stock held for other checkouts is not available.
+     * 
+     * @param quantities the requested quantity per product ID
+     * @return availability and shortfall per product
+     * @throws ValidationException if a quantity is invalid
+     */
+    StockAvailabilityResponse checkAvailability(Map<Integer, Integer> quantities);
+
     /**
      * Retrieves inventory for multiple products in a single batch.
      * 
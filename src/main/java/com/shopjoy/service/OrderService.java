@@ -1,8 +1,10 @@
 package com.shopjoy.service;
 
 import com.shopjoy.dto.filter.OrderFilter;
+import com.shopjoy.dto.request.BulkOrderStatusRequest;
 import com.shopjoy.dto.request.CreateOrderRequest;
 import com.shopjoy.dto.request.UpdateOrderRequest;
+import com.shopjoy.dto.response.BulkOrderStatusResponse;
 import com.shopjoy.dto.response.OrderResponse;
 import com.shopjoy.entity.OrderStatus;
 import com.shopjoy.exception.InsufficientStockException;
@@ -144,6 +146,17 @@ public interface OrderService {
      */
     OrderResponse updateOrderStatus(Integer orderId, OrderStatus newStatus);
 
+    /**
+     * Moves many orders to the same status, e.g. shipping a warehouse batch.
+     * Orders that are missing or cannot make the transition are reported per ID instead of
+     * failing the batch. Cancellation is not supported in bulk because it releases stock per order.
+     *
+     * @param request the order IDs and the target status
+     * @return the outcome per order
+     * @throws ValidationException if the target status cannot be reached in bulk or too many IDs are given
+     */
+    BulkOrderStatusResponse updateOrderStatusBulk(BulkOrderStatusRequest request);
+
     /**
      * Confirms a pending order (moves to CONFIRMED status).
      * 
@@ -0,0 +1,62 @@
+package com.shopjoy.service;
+
+import com.shopjoy.dto.response.ProductPageResponse;
+import com.shopjoy.exception.ResourceNotFoundException;
+import com.shopjoy.exception.ServiceTimeoutException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Service interface for assembling product detail pages.
+ * Loads the product together with its category, inventory and reviews in parallel.
+ */
+public interface ProductPageService {
+
+    /**
+     * The optional parts of a product page.
+     */
+    enum Part {
+        INVENTORY("inventory"),
+        REVIEWS("reviews"),
+        AVERAGE_RATING("averageRating");
+
+        private final String fieldName;
+
+        Part(String fieldName) {
+            this.fieldName = fieldName;
+        }
+
+        /**
+         * Gets the name of the part's field in the page.
+         */
+        public String fieldName() {
+            return fieldName;
+        }
+    }
+
+    /**
+     * Retrieves a product page with all its parts.
+     *
+     * @param productId the product ID
+     * @return the product page
+     * @throws ResourceNotFoundException if product not found
+     * @throws ServiceTimeoutException   if the product or its category could not be loaded in time
+     */
+    default ProductPageResponse getProductPage(Integer productId) {
+        return getProductPage(productId, EnumSet.allOf(Part.class));
+    }
+
+    /**
+     * Retrieves a product page, loading only the requested optional parts.
+     * Optional parts that fail or exceed their time budget are listed in missingParts
+     * instead of failing the page.
+     *
+     * @param productId the product ID
+     * @param parts     the optional parts to load
+     * @return the product page
+     * @throws ResourceNotFoundException if product not found
+     * @throws ServiceTimeoutException   if the product or its category could not be loaded in time
+     */
+    ProductPageResponse getProductPage(Integer productId, Set<Part> parts);
+}
@@ -3,12 +3,15 @@ package com.shopjoy.service;
 import com.shopjoy.dto.filter.ProductFilter;
 import com.shopjoy.dto.request.CreateProductRequest;
 import com.shopjoy.dto.request.UpdateProductRequest;
+import com.shopjoy.dto.response.AutocompleteSuggestionResponse;
+import com.shopjoy.dto.response.FacetedProductPageResponse;
 import com.shopjoy.dto.response.ProductResponse;
 import com.shopjoy.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * The interface Product service.
@@ -70,6 +73,17 @@ public interface ProductService {
      */
     List<ProductResponse> getProductsByCategories(List<Integer> categoryIds);
 
+    /**
+     * Retrieves one page of products for each of several categories in a single batch,
+     * ordered by product ID.
+     *
+     * @param categoryIds    list of category IDs
+     * @param afterProductId only products with a greater ID are returned, null for the first page
+     * @param limit          maximum number of products per category
+     * @return the products per category ID; categories without products are absent
+     */
+    Map<Integer, List<ProductResponse>> getProductPagesByCategories(List<Integer> categoryIds, Integer afterProductId, int limit);
+
     /**
      * Search products by name list.
      *
@@ -78,6 +92,16 @@ public interface ProductService {
      */
     List<ProductResponse> searchProductsByName(String keyword);
 
+    /**
+     * Gets typeahead suggestions for products, brands and categories from the in-memory
+     * autocomplete index, ranked by popularity.
+     *
+     * @param prefix the text typed so far
+     * @param limit  the maximum number of suggestions
+     * @return the suggestions
+     */
+    List<AutocompleteSuggestionResponse> autocomplete(String prefix, int limit);
+
     /**
      * Gets products by price range.
      *
@@ -174,6 +198,16 @@ public interface ProductService {
     Page<ProductResponse> getProductsWithFilters(ProductFilter filter, Pageable pageable, String sortBy,
             String sortDirection);
 
+    /**
+     * Gets a page of filtered products together with facet counts per category, brand,
+     * price range and stock status.
+     *
+     * @param filter   the filter
+     * @param pageable the pageable
+     * @return the page and its facet counts
+     */
+    FacetedProductPageResponse getProductsWithFacets(ProductFilter filter, Pageable pageable);
+
     Product searchById(Integer id);
 
     List<ProductResponse> getRecentlyAddedProducts(int limit);
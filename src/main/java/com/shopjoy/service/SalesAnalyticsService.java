@@ -0,0 +1,54 @@
+package com.shopjoy.service;
+
+import com.shopjoy.dto.response.SalesRollupResponse;
+import com.shopjoy.dto.response.SalesTotalResponse;
+import com.shopjoy.entity.RollupDimension;
+import com.shopjoy.entity.RollupGranularity;
+import com.shopjoy.exception.ValidationException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service interface for sales analytics read from the pre-aggregated rollups.
+ */
+public interface SalesAnalyticsService {
+
+    /**
+     * Gets the rollup buckets of one dimension in a time range.
+     *
+     * @param granularity  hourly or daily buckets
+     * @param dimension    the dimension to group by
+     * @param from         start of the range, inclusive
+     * @param to           end of the range, exclusive
+     * @param dimensionKey optional dimension value to filter by
+     * @return the buckets ordered by start time
+     * @throws ValidationException if the range is empty or too long for hourly buckets
+     */
+    List<SalesRollupResponse> getSalesRollups(RollupGranularity granularity, RollupDimension dimension,
+                                              LocalDateTime from, LocalDateTime to, String dimensionKey);
+
+    /**
+     * Gets the totals per dimension value over a time range, highest revenue first.
+     * Daily buckets are used when the range starts and ends at midnight, hourly buckets otherwise.
+     *
+     * @param dimension the dimension to group by
+     * @param from      start of the range, inclusive
+     * @param to        end of the range, exclusive
+     * @param limit     maximum number of values returned
+     * @return the totals per dimension value
+     * @throws ValidationException if the range is empty or too long for hourly buckets
+     */
+    List<SalesTotalResponse> getSalesTotals(RollupDimension dimension, LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Rebuilds the rollups of a date range from the orders.
+     *
+     * @param from the first day
+     * @param to   the last day, inclusive
+     * @return the number of rollup rows written
+     * @throws ValidationException if the range is empty
+     */
+    long backfillRollups(LocalDate from, LocalDate to);
+}
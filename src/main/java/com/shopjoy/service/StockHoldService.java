@@ -0,0 +1,47 @@
+package com.shopjoy.service;
+
+import com.shopjoy.dto.response.StockHoldResponse;
+import com.shopjoy.exception.InsufficientStockException;
+
+import java.util.List;
+
+/**
+ * Service interface for time-limited checkout stock holds.
+ */
+public interface StockHoldService {
+
+    /**
+     * Holds stock for every item in a user's cart when checkout begins.
+     * Replaces any holds the user already has.
+     *
+     * @param userId the user ID
+     * @return the created holds
+     * @throws InsufficientStockException if any item cannot be held
+     */
+    List<StockHoldResponse> holdCart(Integer userId);
+
+    /**
+     * Releases a user's active holds, e.g. when they leave checkout.
+     *
+     * @param userId the user ID
+     * @return the number of released holds
+     */
+    int releaseHolds(Integer userId);
+
+    /**
+     * Converts a user's active holds as their order is created, returning the held quantity
+     * to available stock so the order can take it. Must run in the order's transaction.
+     *
+     * @param userId the user ID
+     * @return the number of converted holds
+     */
+    int convertHolds(Integer userId);
+
+    /**
+     * Expires one batch of holds whose time has passed.
+     *
+     * @param batchSize the maximum number of holds to expire
+     * @return the number of expired holds
+     */
+    int expireHolds(int batchSize);
+}
@@ -1,14 +1,23 @@
 package com.shopjoy.service.impl;
 
+import com.shopjoy.cart.CartAggregateRegistry;
 import com.shopjoy.dto.mapper.CartItemMapperStruct;
 import com.shopjoy.dto.request.AddToCartRequest;
+import com.shopjoy.dto.request.BulkAddToCartRequest;
 import com.shopjoy.dto.response.CartItemResponse;
+import com.shopjoy.dto.response.CartSummaryResponse;
 import com.shopjoy.dto.response.ProductResponse;
+import com.shopjoy.dto.response.StockAvailabilityLineResponse;
+import com.shopjoy.dto.response.StockAvailabilityResponse;
 import com.shopjoy.entity.CartItem;
+import com.shopjoy.entity.Product;
+import com.shopjoy.event.CartChangedEvent;
 import com.shopjoy.exception.InsufficientStockException;
 import com.shopjoy.exception.ResourceNotFoundException;
 import com.shopjoy.exception.ValidationException;
 import com.shopjoy.repository.CartItemRepository;
+import com.shopjoy.repository.CartItemRepository.CartLine;
+import com.shopjoy.repository.CartItemRepository.CartLineQuantity;
 import com.shopjoy.repository.UserRepository;
 import com.shopjoy.repository.ProductRepository;
 import com.shopjoy.service.CartService;
@@ -18,13 +27,18 @@ import lombok.AllArgsConstructor;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -41,38 +55,38 @@ public class CartServiceImpl implements CartService {
     private final ProductService productService;
     private final InventoryService inventoryService;
     private final CartItemMapperStruct cartItemMapper;
+    private final CartAggregateRegistry cartAggregates;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional()
-    @Caching(evict = {
-        @CacheEvict(value = "cartItems", key = "#request.userId"),
-        @CacheEvict(value = "cartTotal", key = "#request.userId"),
-        @CacheEvict(value = "cartCount", key = "#request.userId")
-    })
+    @CacheEvict(value = "cartItems", key = "#request.userId", cacheManager = "shortCacheManager")
     public CartItemResponse addToCart(AddToCartRequest request) {
         if (request.getQuantity() <= 0) {
             throw new ValidationException("quantity", "must be positive");
         }
 
-        productService.getProductById(request.getProductId());
-
-        if (!inventoryService.hasAvailableStock(request.getProductId(), request.getQuantity())) {
-            throw new InsufficientStockException(request.getProductId(), request.getQuantity(), 0);
-        }
+        ProductResponse product = productService.getProductById(request.getProductId());
 
         Optional<CartItem> existingItem = cartItemRepository.findByUserIdAndProductId(request.getUserId(),
                 request.getProductId());
 
+        // One availability check for the quantity the cart line will end up with
+        int newQuantity = existingItem.map(CartItem::getQuantity).orElse(0) + request.getQuantity();
+        StockAvailabilityLineResponse availability = inventoryService
+                .checkAvailability(Map.of(request.getProductId(), newQuantity))
+                .lineFor(request.getProductId());
+        if (!availability.isAvailable()) {
+            throw new InsufficientStockException(request.getProductId(), newQuantity,
+                    availability.getAvailableQuantity());
+        }
+
         if (existingItem.isPresent()) {
             CartItem cartItem = existingItem.get();
-            int newQuantity = cartItem.getQuantity() + request.getQuantity();
-
-            if (!inventoryService.hasAvailableStock(request.getProductId(), newQuantity)) {
-                throw new InsufficientStockException(request.getProductId(), newQuantity, 0);
-            }
-
             cartItem.setQuantity(newQuantity);
             CartItem updatedItem = cartItemRepository.save(cartItem);
+            eventPublisher.publishEvent(CartChangedEvent.lineChanged(request.getUserId(), request.getProductId(),
+                    newQuantity, BigDecimal.valueOf(product.getPrice())));
             return cartItemMapper.toCartItemResponse(updatedItem);
         } else {
             CartItem cartItem = CartItem.builder()
@@ -82,17 +96,58 @@ public class CartServiceImpl implements CartService {
                     .build();
 
             CartItem savedItem = cartItemRepository.save(cartItem);
+            eventPublisher.publishEvent(CartChangedEvent.lineChanged(request.getUserId(), request.getProductId(),
+                    newQuantity, BigDecimal.valueOf(product.getPrice())));
             return cartItemMapper.toCartItemResponse(savedItem);
         }
     }
 
     @Override
     @Transactional()
-    @Caching(evict = {
-        @CacheEvict(value = "cartItems", allEntries = true),
-        @CacheEvict(value = "cartTotal", allEntries = true),
-        @CacheEvict(value = "cartCount", allEntries = true)
-    })
+    @CacheEvict(value = "cartItems", key = "#request.userId", cacheManager = "shortCacheManager")
+    public List<CartItemResponse> addToCartBulk(BulkAddToCartRequest request) {
+        Integer userId = request.getUserId();
+        Map<Integer, Integer> added = new TreeMap<>();
+        request.getItems().forEach(item -> added.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+
+        Map<Integer, Product> products = productRepository.findAllById(added.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        added.keySet().forEach(productId -> {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+        });
+
+        Map<Integer, Integer> targets = new TreeMap<>(added);
+        if (!request.isReplaceQuantities()) {
+            for (CartLineQuantity line : cartItemRepository.findLineQuantitiesByUserId(userId)) {
+                targets.computeIfPresent(line.getProductId(), (_, quantity) -> quantity + line.getQuantity());
+            }
+        }
+
+        StockAvailabilityResponse availability = inventoryService.checkAvailability(targets);
+        for (StockAvailabilityLineResponse line : availability.getLines()) {
+            if (!line.isAvailable()) {
+                throw new InsufficientStockException(line.getProductId(), line.getRequestedQuantity(),
+                        line.getAvailableQuantity());
+            }
+        }
+
+        cartItemRepository.upsertQuantities(userId,
+                targets.keySet().toArray(Integer[]::new),
+                targets.values().toArray(Integer[]::new));
+        targets.forEach((productId, quantity) -> eventPublisher.publishEvent(
+                CartChangedEvent.lineChanged(userId, productId, quantity, products.get(productId).getPrice())));
+
+        return cartItemRepository.findCartLinesByUserId(userId).stream()
+                .filter(line -> targets.containsKey(line.getProductId()))
+                .map(line -> toCartItemResponse(userId, line, availability.lineFor(line.getProductId()).getShortfall()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional()
+    @CacheEvict(value = "cartItems", allEntries = true, cacheManager = "shortCacheManager")
     public CartItemResponse updateCartItemQuantity(Integer cartItemId, int newQuantity) {
         if (newQuantity <= 0) {
             throw new ValidationException("quantity", "must be positive");
@@ -101,70 +156,105 @@ public class CartServiceImpl implements CartService {
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", cartItemId));
 
-        if (!inventoryService.hasAvailableStock(cartItem.getProduct().getId(), newQuantity)) {
-            throw new InsufficientStockException(cartItem.getProduct().getId(), newQuantity, 0);
+        Integer productId = cartItem.getProduct().getId();
+        StockAvailabilityLineResponse availability = inventoryService
+                .checkAvailability(Map.of(productId, newQuantity))
+                .lineFor(productId);
+        if (!availability.isAvailable()) {
+            throw new InsufficientStockException(productId, newQuantity, availability.getAvailableQuantity());
         }
 
         cartItem.setQuantity(newQuantity);
         CartItem updatedItem = cartItemRepository.save(cartItem);
+        eventPublisher.publishEvent(CartChangedEvent.lineChanged(cartItem.getUser().getId(), productId,
+                newQuantity, cartItem.getProduct().getPrice()));
         return cartItemMapper.toCartItemResponse(updatedItem);
     }
 
     @Override
     @Transactional()
-    @Caching(evict = {
-        @CacheEvict(value = "cartItems", allEntries = true),
-        @CacheEvict(value = "cartTotal", allEntries = true),
-        @CacheEvict(value = "cartCount", allEntries = true)
-    })
+    @CacheEvict(value = "cartItems", allEntries = true, cacheManager = "shortCacheManager")
     public void removeFromCart(Integer cartItemId) {
-        if (!cartItemRepository.existsById(cartItemId)) {
-            throw new ResourceNotFoundException("CartItem", "id", cartItemId);
-        }
+        CartItem cartItem = cartItemRepository.findById(cartItemId)
+                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", cartItemId));
 
-        cartItemRepository.deleteById(cartItemId);
+        cartItemRepository.delete(cartItem);
+        eventPublisher.publishEvent(CartChangedEvent.lineRemoved(cartItem.getUser().getId(),
+                cartItem.getProduct().getId()));
     }
 
     @Override
     @Cacheable(value = "cartItems", key = "#userId", cacheManager = "shortCacheManager")
     public List<CartItemResponse> getCartItems(Integer userId) {
         List<CartItem> items = cartItemRepository.findByUserId(userId);
-        return items.stream()
+        List<CartItemResponse> responses = items.stream()
                 .map(cartItemMapper::toCartItemResponse)
                 .collect(Collectors.toList());
+        if (responses.isEmpty()) {
+            return responses;
+        }
+
+        // Availability for the whole cart comes from one inventory query
+        Map<Integer, Integer> quantities = new HashMap<>();
+        responses.forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        StockAvailabilityResponse availability = inventoryService.checkAvailability(quantities);
+        responses.forEach(item -> {
+            StockAvailabilityLineResponse line = availability.lineFor(item.getProductId());
+            item.setAvailable(line.isAvailable());
+            item.setShortfall(line.getShortfall());
+        });
+        return responses;
     }
 
     @Override
     @Transactional()
-    @Caching(evict = {
-        @CacheEvict(value = "cartItems", key = "#userId"),
-        @CacheEvict(value = "cartTotal", key = "#userId"),
-        @CacheEvict(value = "cartCount", key = "#userId")
-    })
+    @CacheEvict(value = "cartItems", key = "#userId", cacheManager = "shortCacheManager")
     public void clearCart(Integer userId) {
         cartItemRepository.deleteByUserId(userId);
+        eventPublisher.publishEvent(CartChangedEvent.cleared(userId));
     }
 
     @Override
-    @Cacheable(value = "cartTotal", key = "#userId", cacheManager = "shortCacheManager")
-    public double getCartTotal(Integer userId) {
-        List<CartItem> items = cartItemRepository.findByUserId(userId);
+    public CartSummaryResponse getCartSummary(Integer userId) {
+        List<CartLine> lines = cartItemRepository.findCartLinesByUserId(userId);
 
-        return items.stream()
-                .mapToDouble(item -> {
-                    ProductResponse product = productService.getProductById(item.getProduct().getId());
-                    return product.getPrice() * item.getQuantity();
-                })
-                .sum();
+        // Several lines for one product share its stock
+        Map<Integer, Integer> requested = new HashMap<>();
+        lines.forEach(line -> requested.merge(line.getProductId(), line.getQuantity(), Integer::sum));
+
+        List<CartItemResponse> items = new ArrayList<>(lines.size());
+        int itemCount = 0;
+        BigDecimal subtotal = BigDecimal.ZERO;
+        boolean allAvailable = true;
+        for (CartLine line : lines) {
+            int available = Math.max(0, line.getAvailableQuantity());
+            int shortfall = Math.max(0, requested.get(line.getProductId()) - available);
+            items.add(toCartItemResponse(userId, line, shortfall));
+            itemCount += line.getQuantity();
+            subtotal = subtotal.add(line.getPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+            allAvailable &= shortfall == 0;
+        }
+        return new CartSummaryResponse(userId, items, itemCount, subtotal.doubleValue(), allAvailable);
+    }
+
+    @Override
+    public double getCartTotal(Integer userId) {
+        return cartAggregates.getSubtotal(userId).doubleValue();
     }
 
     @Override
-    @Cacheable(value = "cartCount", key = "#userId", cacheManager = "shortCacheManager")
     public int getCartItemCount(Integer userId) {
-        List<CartItem> items = cartItemRepository.findByUserId(userId);
-        return items.stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
+        return cartAggregates.getItemCount(userId);
+    }
+
+    @Override
+    public void flushCart(Integer userId) {
+        // Cart writes go straight to the database
+    }
+
+    private static CartItemResponse toCartItemResponse(Integer userId, CartLine line, int shortfall) {
+        return new CartItemResponse(line.getCartItemId(), userId, line.getProductId(), line.getProductName(),
+                line.getPrice().doubleValue(), line.getQuantity(), line.getAddedAt(), shortfall == 0, shortfall);
     }
 
 }
@@ -5,6 +5,7 @@ import com.shopjoy.dto.request.CreateCategoryRequest;
 import com.shopjoy.dto.request.UpdateCategoryRequest;
 import com.shopjoy.dto.response.CategoryResponse;
 import com.shopjoy.entity.Category;
+import com.shopjoy.event.CategoryChangedEvent;
 import com.shopjoy.exception.BusinessException;
 import com.shopjoy.exception.ResourceNotFoundException;
 import com.shopjoy.exception.ValidationException;
@@ -17,6 +18,7 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -35,6 +37,7 @@ public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final ProductService productService;
     private final CategoryMapperStruct categoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Override
     @Transactional()
@@ -46,6 +49,7 @@ public class CategoryServiceImpl implements CategoryService {
         
         category.setCreatedAt(LocalDateTime.now());
         Category createdCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(createdCategory.getId()));
         
         return categoryMapper.toCategoryResponse(createdCategory);
     }
@@ -99,6 +103,7 @@ public class CategoryServiceImpl implements CategoryService {
         validateCategoryData(category);
         
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
         
         return categoryMapper.toCategoryResponse(updatedCategory);
     }
@@ -121,6 +126,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
         
         categoryRepository.deleteById(categoryId);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
     }
     
     private void validateCategoryData(Category category) {
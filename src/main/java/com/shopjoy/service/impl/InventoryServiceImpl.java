@@ -2,12 +2,20 @@ package com.shopjoy.service.impl;
 
 import com.shopjoy.dto.mapper.InventoryMapperStruct;
 import com.shopjoy.dto.response.InventoryResponse;
+import com.shopjoy.dto.response.StockAvailabilityLineResponse;
+import com.shopjoy.dto.response.StockAvailabilityResponse;
 import com.shopjoy.entity.Inventory;
+import com.shopjoy.entity.InventoryStripe;
+import com.shopjoy.event.StockChangedEvent;
+import com.shopjoy.event.StripedStockChangedEvent;
 import com.shopjoy.exception.DuplicateResourceException;
 import com.shopjoy.exception.InsufficientStockException;
 import com.shopjoy.exception.ResourceNotFoundException;
 import com.shopjoy.exception.ValidationException;
+import com.shopjoy.inventory.StockLevelRegistry;
 import com.shopjoy.repository.InventoryRepository;
+import com.shopjoy.repository.InventoryRepository.StockLayout;
+import com.shopjoy.repository.InventoryStripeRepository;
 import com.shopjoy.repository.ProductRepository;
 import com.shopjoy.service.InventoryService;
 import lombok.AllArgsConstructor;
@@ -16,13 +24,19 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
@@ -33,17 +47,26 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class InventoryServiceImpl implements InventoryService {
 
+    private static final int MAX_STRIPES = 64;
+
+    /**
+     * A product's inventory row and, when striped, its stripes, all locked by the current transaction.
+     */
+    private record LockedStock(Inventory inventory, List<InventoryStripe> stripes, int total) {
+    }
+
     private final InventoryRepository inventoryRepository;
+    private final InventoryStripeRepository stripeRepository;
     private final ProductRepository productRepository;
     private final InventoryMapperStruct inventoryMapper;
+    private final StockLevelRegistry stockLevelRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
     @Caching(evict = {
-        @CacheEvict(value = "inventory", allEntries = true),
-        @CacheEvict(value = "inventoryByProduct", key = "#productId"),
-        @CacheEvict(value = "lowStock", allEntries = true),
-        @CacheEvict(value = "outOfStock", allEntries = true),
+        @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
+        @CacheEvict(value = "inventoryByProduct", key = "#productId", cacheManager = "shortCacheManager"),
         @CacheEvict(value = "products", allEntries = true)
     })
     public InventoryResponse createInventory(Integer productId, int initialStock, int reorderLevel) {
@@ -63,6 +86,7 @@ public class InventoryServiceImpl implements InventoryService {
         inventory.setUpdatedAt(LocalDateTime.now());
 
         Inventory createdInventory = inventoryRepository.save(inventory);
+        publishStockChange(createdInventory, 0);
 
         return inventoryMapper.toInventoryResponse(createdInventory);
     }
@@ -79,16 +103,45 @@ public class InventoryServiceImpl implements InventoryService {
     @Cacheable(value = "inventory", key = "'inStock-' + #productId", cacheManager = "shortCacheManager")
     public boolean isProductInStock(Integer productId) {
         return inventoryRepository.findByProductId(productId)
-                .map(inventory -> inventory.getQuantityInStock() > 0)
+                .map(inventory -> inventory.getAvailableQuantity() > 0)
                 .orElse(false);
     }
 
     @Override
-    @Cacheable(value = "inventory", key = "'available-' + #productId + '-' + #quantity", cacheManager = "shortCacheManager")
     public boolean hasAvailableStock(Integer productId, int quantity) {
-        return inventoryRepository.findByProductId(productId)
-                .map(inventory -> inventory.getQuantityInStock() >= quantity)
-                .orElse(false);
+        return checkAvailability(Map.of(productId, quantity)).isAllAvailable();
+    }
+
+    @Override
+    public StockAvailabilityResponse checkAvailability(Map<Integer, Integer> quantities) {
+        if (quantities == null || quantities.isEmpty()) {
+            return new StockAvailabilityResponse(true, List.of());
+        }
+        quantities.forEach((productId, quantity) -> {
+            if (productId == null) {
+                throw new ValidationException("productId", "is required");
+            }
+            if (quantity == null || quantity < 0) {
+                throw new ValidationException("quantity", "cannot be negative");
+            }
+        });
+
+        Map<Integer, Integer> availableByProduct = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findByProductIdIn(new ArrayList<>(quantities.keySet()))) {
+            availableByProduct.put(inventory.getProduct().getId(), inventory.getAvailableQuantity());
+        }
+
+        // Products without inventory have nothing available
+        boolean allAvailable = true;
+        List<StockAvailabilityLineResponse> lines = new ArrayList<>(quantities.size());
+        for (Map.Entry<Integer, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            int requested = entry.getValue();
+            int available = Math.max(0, availableByProduct.getOrDefault(entry.getKey(), 0));
+            int shortfall = Math.max(0, requested - available);
+            allAvailable &= shortfall == 0;
+            lines.add(new StockAvailabilityLineResponse(entry.getKey(), requested, available, shortfall == 0, shortfall));
+        }
+        return new StockAvailabilityResponse(allAvailable, lines);
     }
 
     @Override
@@ -96,9 +149,7 @@ public class InventoryServiceImpl implements InventoryService {
     @Caching(
         put = { @CachePut(value = "inventoryByProduct", key = "#productId", cacheManager = "shortCacheManager") },
         evict = {
-            @CacheEvict(value = "inventory", allEntries = true),
-            @CacheEvict(value = "lowStock", allEntries = true),
-            @CacheEvict(value = "outOfStock", allEntries = true),
+            @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
             @CacheEvict(value = "products", allEntries = true)
         }
     )
@@ -107,13 +158,13 @@ public class InventoryServiceImpl implements InventoryService {
             throw new ValidationException("quantityInStock", "cannot be negative");
         }
 
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
-
-        inventory.setQuantityInStock(newQuantity);
+        LockedStock stock = lockStock(productId);
+        Inventory inventory = stock.inventory();
+        setTotal(stock, newQuantity);
         inventory.setUpdatedAt(LocalDateTime.now());
         
         Inventory savedInventory = inventoryRepository.save(inventory);
+        publishStockChange(savedInventory, stock.total());
         return inventoryMapper.toInventoryResponse(savedInventory);
     }
 
@@ -122,9 +173,7 @@ public class InventoryServiceImpl implements InventoryService {
     @Caching(
         put = { @CachePut(value = "inventoryByProduct", key = "#productId", cacheManager = "shortCacheManager") },
         evict = {
-            @CacheEvict(value = "inventory", allEntries = true),
-            @CacheEvict(value = "lowStock", allEntries = true),
-            @CacheEvict(value = "outOfStock", allEntries = true),
+            @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
             @CacheEvict(value = "products", allEntries = true)
         }
     )
@@ -133,14 +182,14 @@ public class InventoryServiceImpl implements InventoryService {
             throw new ValidationException("quantity", "must be positive");
         }
 
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
-
-        inventory.setQuantityInStock(inventory.getQuantityInStock() + quantity);
+        LockedStock stock = lockStock(productId);
+        Inventory inventory = stock.inventory();
+        setTotal(stock, stock.total() + quantity);
         inventory.setLastRestocked(LocalDateTime.now());
         inventory.setUpdatedAt(LocalDateTime.now());
 
         Inventory savedInventory = inventoryRepository.save(inventory);
+        publishStockChange(savedInventory, stock.total());
         return inventoryMapper.toInventoryResponse(savedInventory);
     }
 
@@ -149,9 +198,7 @@ public class InventoryServiceImpl implements InventoryService {
     @Caching(
         put = { @CachePut(value = "inventoryByProduct", key = "#productId", cacheManager = "shortCacheManager") },
         evict = {
-            @CacheEvict(value = "inventory", allEntries = true),
-            @CacheEvict(value = "lowStock", allEntries = true),
-            @CacheEvict(value = "outOfStock", allEntries = true),
+            @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
             @CacheEvict(value = "products", allEntries = true)
         }
     )
@@ -160,20 +207,21 @@ public class InventoryServiceImpl implements InventoryService {
             throw new ValidationException("quantity", "must be positive");
         }
 
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
+        LockedStock stock = lockStock(productId);
+        Inventory inventory = stock.inventory();
 
-        if (inventory.getQuantityInStock() < quantity) {
+        if (stock.total() < quantity) {
             throw new InsufficientStockException(
                     productId,
                     quantity,
-                    inventory.getQuantityInStock());
+                    stock.total());
         }
 
-        inventory.setQuantityInStock(inventory.getQuantityInStock() - quantity);
+        setTotal(stock, stock.total() - quantity);
         inventory.setUpdatedAt(LocalDateTime.now());
 
         Inventory savedInventory = inventoryRepository.save(inventory);
+        publishStockChange(savedInventory, stock.total());
         return inventoryMapper.toInventoryResponse(savedInventory);
     }
 
@@ -183,14 +231,23 @@ public class InventoryServiceImpl implements InventoryService {
      * This method is designed to be called within an existing order transaction.
      * It uses REQUIRED propagation to join the caller's transaction context.
      * If the order creation fails later, this stock decrement will be rolled back.
+     * <p>
+     * Striped products take the quantity from one randomly chosen stripe, locking only that
+     * stripe row. When no single stripe holds enough, the inventory row and all stripes are
+     * locked and the remaining stock is spread evenly over the stripes again.
+     * <p>
+     * Stock held for other users' checkouts is not available. The stripe decrement only succeeds
+     * while the stripe is not flagged as held; while a product has active holds the reservation
+     * takes the locked path, since a single stripe cannot see them.
+     * <p>
+     * A stripe change does not touch the inventory row, so its stock level is published after
+     * commit by {@link com.shopjoy.inventory.StripedStockPublisher}, read from the committed stripes.
      */
     @Override
     @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
     @Caching(evict = {
-        @CacheEvict(value = "inventory", allEntries = true),
-        @CacheEvict(value = "inventoryByProduct", key = "#productId"),
-        @CacheEvict(value = "lowStock", allEntries = true),
-        @CacheEvict(value = "outOfStock", allEntries = true),
+        @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
+        @CacheEvict(value = "inventoryByProduct", key = "#productId", cacheManager = "shortCacheManager"),
         @CacheEvict(value = "products", allEntries = true)
     })
     public void reserveStock(Integer productId, int quantity) {
@@ -198,28 +255,33 @@ public class InventoryServiceImpl implements InventoryService {
             throw new ValidationException("quantity", "must be positive");
         }
 
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
+        StockLayout layout = findStockLayout(productId);
+        if (layout.isStriped() && layout.getReservedQuantity() == 0 && takeFromAnyStripe(layout, quantity)) {
+            eventPublisher.publishEvent(new StripedStockChangedEvent(productId, -quantity));
+            return;
+        }
 
-        if (inventory.getQuantityInStock() < quantity) {
+        LockedStock stock = lockStock(productId);
+        Inventory inventory = stock.inventory();
+
+        int available = stock.total() - inventory.getReservedQuantity();
+        if (available < quantity) {
             throw new InsufficientStockException(
                     productId,
                     quantity,
-                    inventory.getQuantityInStock());
+                    Math.max(0, available));
         }
 
-        inventory.setQuantityInStock(inventory.getQuantityInStock() - quantity);
+        setTotal(stock, stock.total() - quantity);
         inventory.setUpdatedAt(LocalDateTime.now());
-        inventoryRepository.save(inventory);
+        publishStockChange(inventoryRepository.save(inventory), stock.total());
     }
 
     @Override
     @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
     @Caching(evict = {
-        @CacheEvict(value = "inventory", allEntries = true),
-        @CacheEvict(value = "inventoryByProduct", key = "#productId"),
-        @CacheEvict(value = "lowStock", allEntries = true),
-        @CacheEvict(value = "outOfStock", allEntries = true),
+        @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
+        @CacheEvict(value = "inventoryByProduct", key = "#productId", cacheManager = "shortCacheManager"),
         @CacheEvict(value = "products", allEntries = true)
     })
     public void releaseStock(Integer productId, int quantity) {
@@ -227,29 +289,33 @@ public class InventoryServiceImpl implements InventoryService {
             throw new ValidationException("quantity", "must be positive");
         }
 
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
-                
-        inventory.setQuantityInStock(inventory.getQuantityInStock() + quantity);
+        StockLayout layout = findStockLayout(productId);
+        if (layout.isStriped() && stripeRepository.incrementStripe(layout.getInventoryId(),
+                ThreadLocalRandom.current().nextInt(layout.getStripeCount()), quantity) == 1) {
+            eventPublisher.publishEvent(new StripedStockChangedEvent(productId, quantity));
+            return;
+        }
+
+        LockedStock stock = lockStock(productId);
+        Inventory inventory = stock.inventory();
+        setTotal(stock, stock.total() + quantity);
         inventory.setUpdatedAt(LocalDateTime.now());
-        inventoryRepository.save(inventory);
+        publishStockChange(inventoryRepository.save(inventory), stock.total());
     }
 
     @Override
-    @Cacheable(value = "lowStock", cacheManager = "shortCacheManager")
     public List<InventoryResponse> getLowStockProducts() {
-        return inventoryRepository.findLowStock().stream()
+        return stockLevelRegistry.getLowStock().orElseGet(() -> inventoryRepository.findLowStock().stream()
                 .map(inventoryMapper::toInventoryResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
-    @Cacheable(value = "outOfStock", cacheManager = "shortCacheManager")
     public List<InventoryResponse> getOutOfStockProducts() {
-        return inventoryRepository.findAll().stream()
+        return stockLevelRegistry.getOutOfStock().orElseGet(() -> inventoryRepository.findAll().stream()
                 .filter(inventory -> inventory.getQuantityInStock() == 0)
                 .map(inventoryMapper::toInventoryResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
@@ -257,8 +323,7 @@ public class InventoryServiceImpl implements InventoryService {
     @Caching(
         put = { @CachePut(value = "inventoryByProduct", key = "#productId", cacheManager = "shortCacheManager") },
         evict = {
-            @CacheEvict(value = "inventory", allEntries = true),
-            @CacheEvict(value = "lowStock", allEntries = true),
+            @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
             @CacheEvict(value = "products", allEntries = true)
         }
     )
@@ -267,16 +332,81 @@ public class InventoryServiceImpl implements InventoryService {
             throw new ValidationException("reorderLevel", "cannot be negative");
         }
 
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
+        Inventory inventory = lockStock(productId).inventory();
         inventory.setReorderLevel(reorderLevel);
         inventory.setUpdatedAt(LocalDateTime.now());
 
         Inventory updatedInventory = inventoryRepository.save(inventory);
+        publishStockChange(updatedInventory, updatedInventory.getQuantityInStock());
 
         return inventoryMapper.toInventoryResponse(updatedInventory);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
+    @Caching(
+        put = { @CachePut(value = "inventoryByProduct", key = "#productId", cacheManager = "shortCacheManager") },
+        evict = {
+            @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
+            @CacheEvict(value = "products", allEntries = true)
+        }
+    )
+    public InventoryResponse stripeInventory(Integer productId, int stripes) {
+        if (stripes < 2 || stripes > MAX_STRIPES) {
+            throw new ValidationException("stripes", "must be between 2 and " + MAX_STRIPES);
+        }
+
+        LockedStock stock = lockStock(productId);
+        Inventory inventory = stock.inventory();
+        if (inventory.isStriped()) {
+            inventory.setStockVersion(inventory.getStockVersion() + stripeRepository.sumVersion(inventory.getId()));
+            stripeRepository.deleteAll(stock.stripes());
+            stripeRepository.flush();
+        }
+
+        List<InventoryStripe> created = new ArrayList<>(stripes);
+        for (int i = 0; i < stripes; i++) {
+            created.add(InventoryStripe.builder().inventory(inventory).stripeIndex(i).build());
+        }
+        inventory.setStripeCount(stripes);
+        inventory.setQuantityInStock(0);
+        spreadOverStripes(inventory, created, stock.total());
+        stripeRepository.syncHeld(productId);
+        inventory.setUpdatedAt(LocalDateTime.now());
+
+        Inventory savedInventory = inventoryRepository.save(inventory);
+        publishStockChange(savedInventory, stock.total());
+        return inventoryMapper.toInventoryResponse(savedInventory);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
+    @Caching(
+        put = { @CachePut(value = "inventoryByProduct", key = "#productId", cacheManager = "shortCacheManager") },
+        evict = {
+            @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
+            @CacheEvict(value = "products", allEntries = true)
+        }
+    )
+    public InventoryResponse unstripeInventory(Integer productId) {
+        LockedStock stock = lockStock(productId);
+        Inventory inventory = stock.inventory();
+        if (!inventory.isStriped()) {
+            return inventoryMapper.toInventoryResponse(inventory);
+        }
+
+        inventory.setStockVersion(inventory.getStockVersion() + stripeRepository.sumVersion(inventory.getId()));
+        stripeRepository.deleteAll(stock.stripes());
+        inventory.setStripeCount(0);
+        inventory.setStripedQuantity(0);
+        inventory.setQuantityInStock(stock.total());
+        inventory.setUpdatedAt(LocalDateTime.now());
+
+        Inventory savedInventory = inventoryRepository.save(inventory);
+        publishStockChange(savedInventory, stock.total());
+        return inventoryMapper.toInventoryResponse(savedInventory);
+    }
+
     @Override
     public List<InventoryResponse> getInventoryByProducts(List<Integer> productIds) {
         if (productIds == null || productIds.isEmpty()) {
@@ -287,6 +417,77 @@ public class InventoryServiceImpl implements InventoryService {
                 .collect(Collectors.toList());
     }
 
+    private StockLayout findStockLayout(Integer productId) {
+        return inventoryRepository.findStockLayoutByProductId(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
+    }
+
+    /**
+     * Locks the inventory row and, for striped products, all of its stripes, so no stripe
+     * changes under the stock version published by {@link #publishStockChange}.
+     */
+    private LockedStock lockStock(Integer productId) {
+        Inventory inventory = inventoryRepository.findByProductIdForUpdate(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
+        if (!inventory.isStriped()) {
+            return new LockedStock(inventory, List.of(), inventory.getQuantityInStock());
+        }
+        List<InventoryStripe> stripes = stripeRepository.findByInventoryIdForUpdate(inventory.getId());
+        int total = stripes.stream().mapToInt(InventoryStripe::getQuantity).sum();
+        return new LockedStock(inventory, stripes, total);
+    }
+
+    /**
+     * Replaces the total stock of locked inventory, spreading it evenly when striped.
+     */
+    private void setTotal(LockedStock stock, int total) {
+        if (stock.inventory().isStriped()) {
+            spreadOverStripes(stock.inventory(), stock.stripes(), total);
+        } else {
+            stock.inventory().setQuantityInStock(total);
+        }
+    }
+
+    private void spreadOverStripes(Inventory inventory, List<InventoryStripe> stripes, int total) {
+        int share = total / stripes.size();
+        int remainder = total % stripes.size();
+        for (InventoryStripe stripe : stripes) {
+            stripe.setQuantity(share + (stripe.getStripeIndex() < remainder ? 1 : 0));
+        }
+        stripeRepository.saveAll(stripes);
+        inventory.setStripedQuantity(total);
+    }
+
+    /**
+     * Takes stock from a random stripe, trying the others in turn; each attempt locks one stripe row at most.
+     */
+    private boolean takeFromAnyStripe(StockLayout layout, int quantity) {
+        int stripes = layout.getStripeCount();
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            if (stripeRepository.decrementStripe(layout.getInventoryId(), (start + i) % stripes, quantity) == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bumps the stock version of an inventory row locked or created by the current transaction
+     * and publishes the change.
+     */
+    private void publishStockChange(Inventory inventory, int previousQuantity) {
+        inventory.setStockVersion(inventory.getStockVersion() + 1);
+        long version = inventory.getStockVersion()
+                + (inventory.isStriped() ? stripeRepository.sumVersion(inventory.getId()) : 0);
+        eventPublisher.publishEvent(new StockChangedEvent(
+                inventory.getProduct().getId(),
+                previousQuantity,
+                inventory.getQuantityInStock(),
+                inventory.getReorderLevel(),
+                version));
+    }
+
     private void validateInventoryData(Inventory inventory) {
         if (inventory == null) {
             throw new ValidationException("Inventory data cannot be null");
@@ -1,47 +1,71 @@
 package com.shopjoy.service.impl;
 
 import com.shopjoy.dto.filter.OrderFilter;
+import com.shopjoy.config.OrderBulkProperties;
 import com.shopjoy.dto.mapper.OrderMapperStruct;
+import com.shopjoy.dto.request.BulkOrderStatusRequest;
 import com.shopjoy.dto.request.CreateOrderItemRequest;
 import com.shopjoy.dto.request.CreateOrderRequest;
 import com.shopjoy.dto.request.UpdateOrderItemRequest;
 import com.shopjoy.dto.request.UpdateOrderRequest;
+import com.shopjoy.dto.response.BulkOrderStatusResponse;
+import com.shopjoy.dto.response.BulkOrderStatusResultResponse;
+import com.shopjoy.dto.response.BulkOrderStatusResultResponse.Outcome;
 import com.shopjoy.dto.response.OrderResponse;
 import com.shopjoy.dto.response.ProductResponse;
+import com.shopjoy.dto.response.StockAvailabilityResponse;
 import com.shopjoy.entity.Order;
 import com.shopjoy.entity.OrderItem;
 import com.shopjoy.entity.OrderStatus;
 import com.shopjoy.entity.PaymentStatus;
+import com.shopjoy.event.OrderPaymentStatusChangedEvent;
+import com.shopjoy.event.OrderPlacedEvent;
+import com.shopjoy.event.OrderRemovedEvent;
+import com.shopjoy.event.OrderStatusChangedEvent;
 import com.shopjoy.exception.InvalidOrderStateException;
 import com.shopjoy.exception.ResourceNotFoundException;
 import com.shopjoy.exception.ValidationException;
 import com.shopjoy.repository.OrderItemRepository;
 import com.shopjoy.repository.OrderRepository;
+import com.shopjoy.repository.OrderRepository.OrderState;
+import com.shopjoy.repository.OrderStatusBatchRepository;
+import com.shopjoy.repository.OrderStatusBatchRepository.PreviousState;
 import com.shopjoy.repository.UserRepository;
 import com.shopjoy.repository.ProductRepository;
 import com.shopjoy.specification.OrderSpecification;
 import com.shopjoy.service.InventoryService;
 import com.shopjoy.service.OrderService;
 import com.shopjoy.service.ProductService;
+import com.shopjoy.service.StockHoldService;
 import com.shopjoy.service.UserService;
 import lombok.AllArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -53,24 +77,31 @@ import java.util.stream.Collectors;
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderStatusBatchRepository orderStatusBatchRepository;
     private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final InventoryService inventoryService;
+    private final StockHoldService stockHoldService;
     private final ProductService productService;
     private final UserService userService;
     private final OrderMapperStruct orderMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderBulkProperties bulkProperties;
 
     @Override
     @Transactional(isolation = Isolation.SERIALIZABLE, propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
     @Caching(evict = {
-        @CacheEvict(value = "orders", allEntries = true),
-        @CacheEvict(value = "ordersByUser", key = "#request.userId"),
-        @CacheEvict(value = "ordersByStatus", allEntries = true),
-        @CacheEvict(value = "pendingOrders", allEntries = true)
+        @CacheEvict(value = "orders", allEntries = true, cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "ordersByUser", key = "#request.userId", cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "ordersByStatus", allEntries = true, cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "pendingOrders", allEntries = true, cacheManager = "mediumCacheManager")
     })
     public OrderResponse createOrder(CreateOrderRequest request) {
         validateCreateOrderRequest(request);
+
+        // Held checkout stock goes back to available first, so this order can take it
+        stockHoldService.convertHolds(request.getUserId());
         
         Map<Integer, ProductResponse> productsById = fetchProducts(request.getOrderItems());
         
@@ -81,6 +112,7 @@ public class OrderServiceImpl implements OrderService {
         Order createdOrder = buildAndSaveOrder(request, totalAmount);
         
         createAndSaveOrderItems(createdOrder, request.getOrderItems(), productsById);
+        eventPublisher.publishEvent(new OrderPlacedEvent(createdOrder.getId()));
 
         return getOrderById(createdOrder.getId());
     }
@@ -88,7 +120,8 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Cacheable(value = "orders", cacheManager = "mediumCacheManager")
     public Page<OrderResponse> getOrders(Integer userId, OrderFilter filter, Pageable pageable) {
-        Specification<Order> spec = OrderSpecification.withFilters(userId, filter);
+        String searchTerm = filter != null && StringUtils.hasText(filter.getSearchTerm()) ? filter.getSearchTerm().strip() : null;
+        Specification<Order> spec = OrderSpecification.withFilters(userId, filter, findSearchUserIds(searchTerm));
         Page<Order> orderPage = orderRepository.findAll(spec, pageable);
 
         List<OrderResponse> content = orderPage.getContent().stream()
@@ -200,73 +233,134 @@ public class OrderServiceImpl implements OrderService {
     /**
      * STATE MACHINE PATTERN EXAMPLE
      * <p>
-     * Order status transitions follow a specific workflow:
+     * Order status transitions follow the table in {@link OrderStatus}:
      * PENDING -> PROCESSING -> SHIPPED -> DELIVERED
      * -> CANCELLED (from PENDING or PROCESSING only)
+     * <p>
+     * Each transition is a single conditional UPDATE, see {@link #transition}.
      */
     @Override
     @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
     @Caching(
         put = { @CachePut(value = "order", key = "#orderId", cacheManager = "mediumCacheManager") },
         evict = {
-            @CacheEvict(value = "orders", allEntries = true),
-            @CacheEvict(value = "ordersByUser", allEntries = true),
-            @CacheEvict(value = "ordersByStatus", allEntries = true),
-            @CacheEvict(value = "pendingOrders", allEntries = true)
+            @CacheEvict(value = "orders", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByUser", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByStatus", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "pendingOrders", allEntries = true, cacheManager = "mediumCacheManager")
         }
     )
     public OrderResponse updateOrderStatus(Integer orderId, OrderStatus newStatus) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
-        OrderStatus currentStatus = order.getStatus();
-
-        validateStatusTransition(currentStatus, newStatus);
-
-        order.setStatus(newStatus);
-        order.setUpdatedAt(LocalDateTime.now());
-
-        Order updatedOrder = orderRepository.save(order);
-
-        return orderMapper.toOrderResponse(updatedOrder);
+        if (newStatus == OrderStatus.CANCELLED) {
+            return cancel(orderId);
+        }
+        transition(orderId, newStatus, "move to " + newStatus + " (from " + newStatus.allowedSources() + " only)");
+        return findOrderResponse(orderId);
     }
 
+    /**
+     * Bulk transitions run one conditional UPDATE per chunk of IDs, so the orders are never loaded
+     * as entities. Only IDs the UPDATE did not return are looked up again, to tell missing orders
+     * from orders in the wrong status. The order caches are evicted once for the whole batch.
+     */
     @Override
     @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
-    public OrderResponse confirmOrder(Integer orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+    @Caching(evict = {
+        @CacheEvict(value = "order", allEntries = true, cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "orders", allEntries = true, cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "ordersByUser", allEntries = true, cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "ordersByStatus", allEntries = true, cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "ordersByStatusPaginated", allEntries = true, cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "pendingOrders", allEntries = true, cacheManager = "mediumCacheManager")
+    })
+    public BulkOrderStatusResponse updateOrderStatusBulk(BulkOrderStatusRequest request) {
+        OrderStatus target = request.getStatus();
+        if (target == OrderStatus.CANCELLED) {
+            throw new ValidationException("status", "orders cannot be cancelled in bulk");
+        }
+        if (target.allowedSources().size() != 1) {
+            throw new ValidationException("status", "orders cannot be moved to " + target + " in bulk");
+        }
+        Set<Integer> orderIds = new LinkedHashSet<>(request.getOrderIds());
+        if (orderIds.size() > bulkProperties.getMaxOrders()) {
+            throw new ValidationException("orderIds", "cannot contain more than " + bulkProperties.getMaxOrders() + " orders");
+        }
 
-        if (order.getStatus() != OrderStatus.PENDING) {
-            throw new InvalidOrderStateException(orderId, order.getStatus().toString(), "confirm");
+        OrderStatus source = target.allowedSources().iterator().next();
+        LocalDateTime now = LocalDateTime.now();
+        Set<Integer> updated = new HashSet<>();
+        Map<Integer, OrderStatus> unchanged = new HashMap<>();
+        List<Integer> ids = List.copyOf(orderIds);
+        for (int from = 0; from < ids.size(); from += bulkProperties.getChunkSize()) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + bulkProperties.getChunkSize(), ids.size()));
+            List<Integer> moved = orderStatusBatchRepository.transitionStatus(chunk, source, target, now);
+            updated.addAll(moved);
+            if (moved.size() < chunk.size()) {
+                List<Integer> rest = chunk.stream().filter(id -> !updated.contains(id)).toList();
+                unchanged.putAll(orderStatusBatchRepository.findStatuses(rest));
+            }
         }
 
-        return updateOrderStatus(orderId, OrderStatus.PROCESSING);
+        List<BulkOrderStatusResultResponse> results = new ArrayList<>(orderIds.size());
+        for (Integer orderId : orderIds) {
+            if (updated.contains(orderId)) {
+                eventPublisher.publishEvent(new OrderStatusChangedEvent(orderId, source, target));
+                results.add(new BulkOrderStatusResultResponse(orderId, Outcome.UPDATED, target));
+            } else if (unchanged.containsKey(orderId)) {
+                results.add(new BulkOrderStatusResultResponse(orderId, Outcome.INVALID_TRANSITION, unchanged.get(orderId)));
+            } else {
+                results.add(new BulkOrderStatusResultResponse(orderId, Outcome.NOT_FOUND, null));
+            }
+        }
+        return new BulkOrderStatusResponse(target, updated.size(), results);
     }
 
     @Override
     @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
-    public OrderResponse shipOrder(Integer orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
-
-        if (order.getStatus() != OrderStatus.PROCESSING) {
-            throw new InvalidOrderStateException(orderId, order.getStatus().toString(), "ship");
+    @Caching(
+        put = { @CachePut(value = "order", key = "#orderId", cacheManager = "mediumCacheManager") },
+        evict = {
+            @CacheEvict(value = "orders", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByUser", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByStatus", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "pendingOrders", allEntries = true, cacheManager = "mediumCacheManager")
         }
-
-        return updateOrderStatus(orderId, OrderStatus.SHIPPED);
+    )
+    public OrderResponse confirmOrder(Integer orderId) {
+        transition(orderId, OrderStatus.PROCESSING, "confirm");
+        return findOrderResponse(orderId);
     }
 
     @Override
     @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
-    public OrderResponse completeOrder(Integer orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
-
-        if (order.getStatus() != OrderStatus.SHIPPED) {
-            throw new InvalidOrderStateException(orderId, order.getStatus().toString(), "complete");
+    @Caching(
+        put = { @CachePut(value = "order", key = "#orderId", cacheManager = "mediumCacheManager") },
+        evict = {
+            @CacheEvict(value = "orders", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByUser", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByStatus", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "pendingOrders", allEntries = true, cacheManager = "mediumCacheManager")
         }
+    )
+    public OrderResponse shipOrder(Integer orderId) {
+        transition(orderId, OrderStatus.SHIPPED, "ship");
+        return findOrderResponse(orderId);
+    }
 
-        return updateOrderStatus(orderId, OrderStatus.DELIVERED);
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
+    @Caching(
+        put = { @CachePut(value = "order", key = "#orderId", cacheManager = "mediumCacheManager") },
+        evict = {
+            @CacheEvict(value = "orders", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByUser", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByStatus", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "pendingOrders", allEntries = true, cacheManager = "mediumCacheManager")
+        }
+    )
+    public OrderResponse completeOrder(Integer orderId) {
+        transition(orderId, OrderStatus.DELIVERED, "complete");
+        return findOrderResponse(orderId);
     }
 
 
@@ -275,36 +369,15 @@ public class OrderServiceImpl implements OrderService {
     @Caching(
         put = { @CachePut(value = "order", key = "#orderId", cacheManager = "mediumCacheManager") },
         evict = {
-            @CacheEvict(value = "orders", allEntries = true),
-            @CacheEvict(value = "ordersByUser", allEntries = true),
-            @CacheEvict(value = "ordersByStatus", allEntries = true),
-            @CacheEvict(value = "pendingOrders", allEntries = true),
-            @CacheEvict(value = "inventory", allEntries = true)
+            @CacheEvict(value = "orders", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByUser", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByStatus", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "pendingOrders", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager")
         }
     )
     public OrderResponse cancelOrder(Integer orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
-
-        if (order.getStatus() != OrderStatus.PENDING && order.getStatus() != OrderStatus.PROCESSING) {
-            throw new InvalidOrderStateException(
-                    orderId,
-                    order.getStatus().toString(),
-                    "cancel (can only cancel PENDING or PROCESSING orders)");
-        }
-
-        List<OrderItem> orderItems = orderItemRepository.findByOrderId(orderId);
-
-        orderItems.forEach(item -> 
-            inventoryService.releaseStock(item.getProduct().getId(), item.getQuantity())
-        );
-
-        order.setStatus(OrderStatus.CANCELLED);
-        order.setUpdatedAt(LocalDateTime.now());
-
-        Order cancelledOrder = orderRepository.save(order);
-
-        return orderMapper.toOrderResponse(cancelledOrder);
+        return cancel(orderId);
     }
 
     @Override
@@ -323,10 +396,10 @@ public class OrderServiceImpl implements OrderService {
 
     @Transactional(isolation = Isolation.SERIALIZABLE)
     @Caching(evict = {
-                @CacheEvict(value = "orders", allEntries = true),
-                @CacheEvict(value = "ordersByUser", allEntries = true),
-                @CacheEvict(value = "ordersByStatus", allEntries = true),
-                @CacheEvict(value = "pendingOrders", allEntries = true)
+                @CacheEvict(value = "orders", allEntries = true, cacheManager = "mediumCacheManager"),
+                @CacheEvict(value = "ordersByUser", allEntries = true, cacheManager = "mediumCacheManager"),
+                @CacheEvict(value = "ordersByStatus", allEntries = true, cacheManager = "mediumCacheManager"),
+                @CacheEvict(value = "pendingOrders", allEntries = true, cacheManager = "mediumCacheManager")
             },
             put = {
                 @CachePut(value = "order", key = "#orderId", cacheManager = "mediumCacheManager")
@@ -340,12 +413,17 @@ public class OrderServiceImpl implements OrderService {
 
         updateOrderFields(order, request);
 
-        if (request.getOrderItems() != null && !request.getOrderItems().isEmpty()) {
+        boolean itemsReplaced = request.getOrderItems() != null && !request.getOrderItems().isEmpty();
+        if (itemsReplaced) {
+            eventPublisher.publishEvent(new OrderRemovedEvent(orderId));
             updateOrderItems(order, request.getOrderItems());
         }
 
         order.setUpdatedAt(LocalDateTime.now());
         Order updatedOrder = orderRepository.save(order);
+        if (itemsReplaced) {
+            eventPublisher.publishEvent(new OrderPlacedEvent(orderId));
+        }
         
         return orderMapper.toOrderResponse(updatedOrder);
     }
@@ -354,12 +432,12 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional()
     @Caching(evict = {
-        @CacheEvict(value = "order", key = "#orderId"),
-        @CacheEvict(value = "orders", allEntries = true),
-        @CacheEvict(value = "ordersByUser", allEntries = true),
-        @CacheEvict(value = "ordersByStatus", allEntries = true),
-        @CacheEvict(value = "pendingOrders", allEntries = true),
-        @CacheEvict(value = "inventory", allEntries = true)
+        @CacheEvict(value = "order", key = "#orderId", cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "orders", allEntries = true, cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "ordersByUser", allEntries = true, cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "ordersByStatus", allEntries = true, cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "pendingOrders", allEntries = true, cacheManager = "mediumCacheManager"),
+        @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager")
     })
     public void deleteOrder(Integer orderId) {
         Order order = orderRepository.findById(orderId)
@@ -374,104 +452,156 @@ public class OrderServiceImpl implements OrderService {
             inventoryService.releaseStock(item.getProduct().getId(), item.getQuantity())
         );
 
+        eventPublisher.publishEvent(new OrderRemovedEvent(orderId));
         orderRepository.deleteById(orderId);
     }
 
-    private void validateStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
-        if (currentStatus == OrderStatus.CANCELLED || currentStatus == OrderStatus.DELIVERED) {
-            throw new InvalidOrderStateException(
-                    0,
-                    currentStatus.toString(),
-                    "Cannot change status of cancelled or delivered orders");
-        }
-
-        switch (newStatus) {
-            case PENDING:
-                // PENDING is the initial state, no validation needed
-                break;
-            case PROCESSING:
-                if (currentStatus != OrderStatus.PENDING) {
-                    throw new InvalidOrderStateException(
-                            0, currentStatus.toString(),
-                            "Can only process PENDING orders");
-                }
-                break;
-            case SHIPPED:
-                if (currentStatus != OrderStatus.PROCESSING) {
-                    throw new InvalidOrderStateException(
-                            0, currentStatus.toString(),
-                            "Can only ship PROCESSING orders");
-                }
-                break;
-            case DELIVERED:
-                if (currentStatus != OrderStatus.SHIPPED) {
-                    throw new InvalidOrderStateException(
-                            0, currentStatus.toString(),
-                            "Can only deliver SHIPPED orders");
-                }
-                break;
-            case CANCELLED:
-                if (currentStatus != OrderStatus.PENDING && currentStatus != OrderStatus.PROCESSING) {
-                    throw new InvalidOrderStateException(
-                            0, currentStatus.toString(),
-                            "Can only cancel PENDING or PROCESSING orders");
-                }
-                break;
-        }
-    }
-
-
     /**
      * PAYMENT WORKFLOW DEMONSTRATION
      * <p>
      * This method simulates a payment confirmation workflow.
      * 1. Updates payment status Atomically.
      * 2. Transitions order status to PROCESSING.
-     * 3. Uses REQUIRED propagation to ensure both updates happen in one transaction.
      * <p>
-     * If transitioning the order status fails (e.g., business rule violation), 
-     * the payment status update will also be rolled back.
+     * Both changes are made by one conditional UPDATE, so a concurrent payment or
+     * cancellation cannot slip in between them.
      */
     @Override
     @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
+    @Caching(
+        put = { @CachePut(value = "order", key = "#orderId", cacheManager = "mediumCacheManager") },
+        evict = {
+            @CacheEvict(value = "orders", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByUser", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByStatus", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "pendingOrders", allEntries = true, cacheManager = "mediumCacheManager")
+        }
+    )
     public OrderResponse processPayment(Integer orderId, String transactionId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        if (!payAndConfirm(orderId)) {
+            OrderState state = findState(orderId);
 
-        if (order.getPaymentStatus() == PaymentStatus.PAID) {
-            throw new ValidationException("Order is already paid");
-        }
+            if (state.getPaymentStatus() == PaymentStatus.PAID) {
+                throw new ValidationException("Order is already paid");
+            }
 
-        if (order.getStatus() == OrderStatus.CANCELLED) {
-            throw new InvalidOrderStateException(orderId, "CANCELLED", "process payment");
+            if (state.getStatus() == OrderStatus.CANCELLED) {
+                throw new InvalidOrderStateException(orderId, "CANCELLED", "process payment");
+            }
+            throw new InvalidOrderStateException(orderId, state.getStatus().toString(), "confirm");
         }
-
-        order.setPaymentStatus(PaymentStatus.PAID);
-        order.setUpdatedAt(LocalDateTime.now());
-        
-        orderRepository.save(order);
-
-        return confirmOrder(orderId);
+        return findOrderResponse(orderId);
     }
 
     @Override
     @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
+    @Caching(
+        put = { @CachePut(value = "order", key = "#orderId", cacheManager = "mediumCacheManager") },
+        evict = {
+            @CacheEvict(value = "orders", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByUser", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "ordersByStatus", allEntries = true, cacheManager = "mediumCacheManager"),
+            @CacheEvict(value = "pendingOrders", allEntries = true, cacheManager = "mediumCacheManager")
+        }
+    )
     public OrderResponse simulatePayment(Integer orderId, String transactionId) {
+        if (!payAndConfirm(orderId)) {
+            OrderState state = findState(orderId);
+
+            if (state.getPaymentStatus() == PaymentStatus.PAID) {
+                throw new ValidationException("Simulation: Order " + orderId + " is already paid.");
+            }
+            throw new InvalidOrderStateException(orderId, state.getStatus().toString(), "confirm");
+        }
+
+        if (transactionId != null && transactionId.startsWith("FAIL-")) {
+            throw new RuntimeException("Simulated payment gateway failure for order " + orderId);
+        }
+        return findOrderResponse(orderId);
+    }
+
+    /**
+     * Resolves the users an order search term refers to, so the order query can match them by ID.
+     *
+     * @return the matching user IDs, or null when there are too many to list
+     */
+    private List<Integer> findSearchUserIds(String searchTerm) {
+        if (searchTerm == null || OrderSpecification.isOrderIdTerm(searchTerm)) {
+            return List.of();
+        }
+        if (OrderSpecification.isEmailTerm(searchTerm)) {
+            return userRepository.findIdsByLowerEmail(searchTerm.toLowerCase(Locale.ROOT));
+        }
+        List<Integer> userIds = userRepository.findIdsMatching(OrderSpecification.containsPattern(searchTerm),
+                PageRequest.of(0, OrderSpecification.MAX_SEARCH_USER_IDS + 1));
+        return userIds.size() > OrderSpecification.MAX_SEARCH_USER_IDS ? null : userIds;
+    }
+
+    private OrderState findState(Integer orderId) {
+        return orderRepository.findStateById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+    }
+
+    private OrderResponse findOrderResponse(Integer orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        return orderMapper.toOrderResponse(order);
+    }
 
-        if (order.getPaymentStatus() == PaymentStatus.PAID) {
-            throw new ValidationException("Simulation: Order " + orderId + " is already paid.");
+    /**
+     * Moves an order to a new status with one conditional UPDATE.
+     * <p>
+     * The UPDATE only matches while the order has one of the statuses the table in
+     * {@link OrderStatus} allows the target to be reached from, so a concurrent change makes it
+     * match nothing instead of being overwritten. The order is read only when nothing matched,
+     * to tell a missing order from one in the wrong status.
+     *
+     * @return the status the order had before the transition
+     */
+    private OrderStatus transition(Integer orderId, OrderStatus target, String action) {
+        OrderStatus previous = orderStatusBatchRepository.transitionStatus(orderId, target.allowedSources(), target,
+                LocalDateTime.now()).orElse(null);
+        if (previous == null) {
+            OrderState state = findState(orderId);
+            throw new InvalidOrderStateException(orderId, state.getStatus().toString(), action);
         }
 
-        order.setPaymentStatus(PaymentStatus.PAID);
-        order.setUpdatedAt(LocalDateTime.now());
-        orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(orderId, previous, target));
+        return previous;
+    }
 
-        if (transactionId != null && transactionId.startsWith("FAIL-")) {
-            throw new RuntimeException("Simulated payment gateway failure for order " + orderId);
+    /**
+     * Marks an unpaid order as paid and confirms it with one conditional UPDATE.
+     *
+     * @return false when the order is missing, already paid or cannot be confirmed; the caller
+     * reads its state to report why
+     */
+    private boolean payAndConfirm(Integer orderId) {
+        Optional<PreviousState> previous = orderStatusBatchRepository.markPaidAndTransition(orderId,
+                OrderStatus.PROCESSING.allowedSources(), OrderStatus.PROCESSING, LocalDateTime.now());
+        if (previous.isEmpty()) {
+            return false;
         }
-        return confirmOrder(orderId);
+
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(orderId, previous.get().status(), OrderStatus.PROCESSING));
+        eventPublisher.publishEvent(new OrderPaymentStatusChangedEvent(orderId, previous.get().paymentStatus(), PaymentStatus.PAID));
+        return true;
+    }
+
+    /**
+     * Cancels an order and returns its stock. Stock is only released by the caller whose
+     * transition succeeded, so concurrent cancellations cannot release it twice.
+     */
+    private OrderResponse cancel(Integer orderId) {
+        transition(orderId, OrderStatus.CANCELLED, "cancel (can only cancel PENDING or PROCESSING orders)");
+
+        List<OrderItem> orderItems = orderItemRepository.findByOrderId(orderId);
+
+        orderItems.forEach(item ->
+            inventoryService.releaseStock(item.getProduct().getId(), item.getQuantity())
+        );
+
+        return findOrderResponse(orderId);
     }
 
     private void validateCreateOrderRequest(CreateOrderRequest request) {
@@ -509,13 +639,18 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private BigDecimal validateStockAndCalculateTotal(List<CreateOrderItemRequest> items, Map<Integer, ProductResponse> productsById) {
+        // One availability query for the whole order, summing lines that repeat a product
+        Map<Integer, Integer> requested = new HashMap<>();
+        items.forEach(itemReq -> requested.merge(itemReq.getProductId(), itemReq.getQuantity(), Integer::sum));
+        StockAvailabilityResponse availability = inventoryService.checkAvailability(requested);
+
         return items.stream()
                 .map(itemReq -> {
                     ProductResponse product = productsById.get(itemReq.getProductId());
                     if (!product.isActive()) {
                         throw new ValidationException("Product " + product.getProductName() + " is not active");
                     }
-                    if (!inventoryService.hasAvailableStock(itemReq.getProductId(), itemReq.getQuantity())) {
+                    if (!availability.lineFor(itemReq.getProductId()).isAvailable()) {
                         throw new ValidationException("Insufficient stock for product: " + product.getProductName());
                     }
                     return BigDecimal.valueOf(product.getPrice())
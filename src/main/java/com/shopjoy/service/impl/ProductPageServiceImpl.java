@@ -0,0 +1,135 @@
+package com.shopjoy.service.impl;
+
+import com.shopjoy.config.ProductPageProperties;
+import com.shopjoy.dto.response.CategoryResponse;
+import com.shopjoy.dto.response.InventoryResponse;
+import com.shopjoy.dto.response.ProductPageResponse;
+import com.shopjoy.dto.response.ProductResponse;
+import com.shopjoy.dto.response.ReviewResponse;
+import com.shopjoy.exception.ServiceTimeoutException;
+import com.shopjoy.service.CategoryService;
+import com.shopjoy.service.InventoryService;
+import com.shopjoy.service.ProductPageService;
+import com.shopjoy.service.ProductService;
+import com.shopjoy.service.ReviewService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Joiner;
+import java.util.concurrent.StructuredTaskScope.Subtask;
+
+/**
+ * Assembles product pages with structured concurrency: every part is loaded on its own virtual
+ * thread, each through its service and so from the caches when they are warm.
+ *
+ * The product and its category are required. When either fails the scope cancels the other
+ * parts and the failure propagates, and when they are not loaded by the page deadline the page
+ * fails with {@link ServiceTimeoutException}. The optional parts run in nested scopes bounded by
+ * their own budget, so a slow or failing one is reported in missingParts without holding up or
+ * failing the page.
+ *
+ * Not transactional on purpose: each part runs in the read-only transaction of the service it
+ * calls, on its own connection, rather than all of them waiting on one.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class ProductPageServiceImpl implements ProductPageService {
+
+    /**
+     * The required parts, loaded together because the category is known only from the product.
+     */
+    private record Listing(ProductResponse product, CategoryResponse category) {
+    }
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final ReviewService reviewService;
+    private final InventoryService inventoryService;
+    private final ProductPageProperties properties;
+
+    @Override
+    public ProductPageResponse getProductPage(Integer productId, Set<Part> parts) {
+        Duration budget = properties.getOptionalPartBudget();
+        try (var scope = StructuredTaskScope.open(Joiner.<Object>awaitAllSuccessfulOrThrow(),
+                config -> config.withTimeout(properties.getTimeout()))) {
+            Subtask<Listing> listing = scope.fork(() -> listing(productId));
+            Subtask<Optional<InventoryResponse>> inventory = scope.fork(() -> parts.contains(Part.INVENTORY)
+                    ? withinBudget(Part.INVENTORY, productId, budget, () -> inventoryService.getInventoryByProduct(productId))
+                    : Optional.empty());
+            Subtask<Optional<List<ReviewResponse>>> reviews = scope.fork(() -> parts.contains(Part.REVIEWS)
+                    ? withinBudget(Part.REVIEWS, productId, budget, () -> reviewService.getReviewsByProduct(productId))
+                    : Optional.empty());
+            Subtask<Optional<Double>> averageRating = scope.fork(() -> parts.contains(Part.AVERAGE_RATING)
+                    ? withinBudget(Part.AVERAGE_RATING, productId, budget, () -> reviewService.getAverageRating(productId))
+                    : Optional.empty());
+
+            scope.join();
+
+            List<String> missingParts = new ArrayList<>();
+            for (Part part : parts) {
+                Subtask<? extends Optional<?>> subtask = switch (part) {
+                    case INVENTORY -> inventory;
+                    case REVIEWS -> reviews;
+                    case AVERAGE_RATING -> averageRating;
+                };
+                if (subtask.get().isEmpty()) {
+                    missingParts.add(part.fieldName());
+                }
+            }
+            return new ProductPageResponse(
+                    listing.get().product(),
+                    listing.get().category(),
+                    inventory.get().orElse(null),
+                    reviews.get().orElse(null),
+                    averageRating.get().orElse(null),
+                    missingParts);
+        } catch (StructuredTaskScope.FailedException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to load product page " + productId, e.getCause());
+        } catch (StructuredTaskScope.TimeoutException e) {
+            throw new ServiceTimeoutException("Product " + productId + " could not be loaded within "
+                    + properties.getTimeout().toMillis() + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceTimeoutException("Interrupted while loading product page " + productId, e);
+        }
+    }
+
+    private Listing listing(Integer productId) {
+        ProductResponse product = productService.getProductById(productId);
+        CategoryResponse category = product.getCategoryId() != null
+                ? categoryService.getCategoryById(product.getCategoryId())
+                : null;
+        return new Listing(product, category);
+    }
+
+    /**
+     * Runs an optional part in a scope of its own bounded by the budget. Empty when the part
+     * fails or runs out of time; its thread is then interrupted and the page goes on without it.
+     */
+    private <T> Optional<T> withinBudget(Part part, Integer productId, Duration budget, Callable<T> task)
+            throws InterruptedException {
+        try (var scope = StructuredTaskScope.open(Joiner.<T>anySuccessfulResultOrThrow(),
+                config -> config.withTimeout(budget))) {
+            scope.fork(task);
+            return Optional.ofNullable(scope.join());
+        } catch (StructuredTaskScope.TimeoutException e) {
+            log.warn("Product page {}: {} exceeded its {} ms budget", productId, part.fieldName(), budget.toMillis());
+            return Optional.empty();
+        } catch (StructuredTaskScope.FailedException e) {
+            log.warn("Product page {}: {} failed: {}", productId, part.fieldName(), e.getCause().getMessage());
+            return Optional.empty();
+        }
+    }
+}
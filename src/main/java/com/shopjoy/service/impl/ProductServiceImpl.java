@@ -1,12 +1,22 @@
 package com.shopjoy.service.impl;
 
 import com.shopjoy.aspect.Auditable;
+import com.shopjoy.catalog.AutocompleteIndex.Suggestion;
+import com.shopjoy.catalog.AutocompleteIndex.SuggestionType;
+import com.shopjoy.catalog.AutocompleteIndexManager;
+import com.shopjoy.catalog.CatalogSnapshot;
+import com.shopjoy.catalog.CatalogSnapshotManager;
 import com.shopjoy.dto.filter.ProductFilter;
 import com.shopjoy.dto.mapper.ProductMapperStruct;
 import com.shopjoy.dto.request.CreateProductRequest;
 import com.shopjoy.dto.request.UpdateProductRequest;
+import com.shopjoy.dto.response.AutocompleteSuggestionResponse;
+import com.shopjoy.dto.response.FacetedProductPageResponse;
+import com.shopjoy.dto.response.ProductFacetsResponse;
 import com.shopjoy.dto.response.ProductResponse;
+import com.shopjoy.entity.Inventory;
 import com.shopjoy.entity.Product;
+import com.shopjoy.event.ProductChangedEvent;
 import com.shopjoy.exception.ResourceNotFoundException;
 import com.shopjoy.exception.ValidationException;
 import com.shopjoy.repository.CategoryRepository;
@@ -18,18 +28,25 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -44,10 +61,13 @@ public class ProductServiceImpl implements ProductService {
     private final InventoryRepository inventoryRepository;
     private final CategoryRepository categoryRepository;
     private final ProductMapperStruct productMapper;
+    private final CatalogSnapshotManager catalogSnapshotManager;
+    private final AutocompleteIndexManager autocompleteIndexManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
-    @CacheEvict(value = {"products", "activeProducts", "productsByCategory"}, allEntries = true)
+    @CacheEvict(value = {"products", "productsByCategory"}, allEntries = true)
     public ProductResponse createProduct(CreateProductRequest request) {
         Product product = productMapper.toProduct(request);
         if (request.getCategoryId() != null) {
@@ -61,15 +81,15 @@ public class ProductServiceImpl implements ProductService {
 
         Product createdProduct = productRepository.save(product);
 
-        com.shopjoy.entity.Inventory inventory = new com.shopjoy.entity.Inventory();
+        Inventory inventory = new Inventory();
         inventory.setProduct(createdProduct);
         inventory.setQuantityInStock(request.getInitialStock() != null ? request.getInitialStock() : 0);
         inventory.setReorderLevel(5);
         inventory.setLastRestocked(LocalDateTime.now());
         inventory.setUpdatedAt(LocalDateTime.now());
-        inventoryRepository.save(inventory);
+        createdProduct.setInventory(inventoryRepository.save(inventory));
 
-        return productMapper.toProductResponse(createdProduct);
+        return publishChange(productMapper.toProductResponse(createdProduct));
     }
 
     @Override
@@ -105,8 +125,11 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    @Cacheable(value = "activeProducts")
     public List<ProductResponse> getActiveProducts() {
+        Optional<CatalogSnapshot> snapshot = catalogSnapshotManager.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findActive();
+        }
         return productRepository.findAllWithInventory().stream()
                 .filter(Product::isActive)
                 .map(productMapper::toProductResponse)
@@ -114,11 +137,14 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    @Cacheable(value = "productsByCategory", key = "#categoryId")
     public List<ProductResponse> getProductsByCategory(Integer categoryId) {
         if (categoryId == null) {
             throw new ValidationException("Category ID cannot be null");
         }
+        Optional<CatalogSnapshot> snapshot = catalogSnapshotManager.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findByCategory(categoryId);
+        }
         return productRepository.findByCategoryId(categoryId).stream()
                 .map(productMapper::toProductResponse)
                 .collect(Collectors.toList());
@@ -135,6 +161,31 @@ public class ProductServiceImpl implements ProductService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Map<Integer, List<ProductResponse>> getProductPagesByCategories(List<Integer> categoryIds, Integer afterProductId, int limit) {
+        if (categoryIds == null || categoryIds.isEmpty() || limit <= 0) {
+            return Collections.emptyMap();
+        }
+        List<ProductRepository.CategoryProductRow> rows = productRepository.findPageIdsByCategories(
+                categoryIds.toArray(Integer[]::new), afterProductId == null ? 0 : afterProductId, limit);
+        if (rows.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Integer, ProductResponse> productsById = new HashMap<>();
+        productRepository.findAllWithInventoryByIdIn(rows.stream().map(ProductRepository.CategoryProductRow::getProductId).toList())
+                .forEach(product -> productsById.put(product.getId(), productMapper.toProductResponse(product)));
+
+        Map<Integer, List<ProductResponse>> pages = new LinkedHashMap<>();
+        for (ProductRepository.CategoryProductRow row : rows) {
+            ProductResponse product = productsById.get(row.getProductId());
+            if (product != null) {
+                pages.computeIfAbsent(row.getCategoryId(), _ -> new ArrayList<>()).add(product);
+            }
+        }
+        return pages;
+    }
+
     @Override
     public List<ProductResponse> searchProductsByName(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
@@ -145,6 +196,25 @@ public class ProductServiceImpl implements ProductService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // served from memory, no connection needed
+    public List<AutocompleteSuggestionResponse> autocomplete(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        List<Suggestion> suggestions = autocompleteIndexManager.suggest(prefix, limit);
+        List<AutocompleteSuggestionResponse> responses = new ArrayList<>(suggestions.size());
+        for (Suggestion suggestion : suggestions) {
+            responses.add(new AutocompleteSuggestionResponse(
+                    suggestion.label(),
+                    suggestion.type().name(),
+                    suggestion.type() == SuggestionType.PRODUCT ? suggestion.refId() : null,
+                    suggestion.type() == SuggestionType.CATEGORY ? suggestion.refId() : null,
+                    suggestion.weight()));
+        }
+        return responses;
+    }
+
     @Override
     public List<ProductResponse> getProductsByPriceRange(double minPrice, double maxPrice) {
         if (minPrice < 0) {
@@ -153,6 +223,10 @@ public class ProductServiceImpl implements ProductService {
         if (maxPrice < minPrice) {
             throw new ValidationException("Maximum price must be greater than or equal to minimum price");
         }
+        Optional<CatalogSnapshot> snapshot = catalogSnapshotManager.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findByPriceRange(minPrice, maxPrice);
+        }
         return productRepository.findByPriceBetween(minPrice, maxPrice).stream()
                 .map(productMapper::toProductResponse)
                 .collect(Collectors.toList());
@@ -162,7 +236,7 @@ public class ProductServiceImpl implements ProductService {
     @Transactional
     @Caching(
         put = { @CachePut(value = "product", key = "#productId") },
-        evict = { @CacheEvict(value = {"products", "activeProducts", "productsByCategory"}, allEntries = true) }
+        evict = { @CacheEvict(value = {"products", "productsByCategory"}, allEntries = true) }
     )
     public ProductResponse updateProduct(Integer productId, UpdateProductRequest request) {
         Product existingProduct = productRepository.findById(productId)
@@ -178,7 +252,7 @@ public class ProductServiceImpl implements ProductService {
 
         Product updatedProduct = productRepository.save(existingProduct);
 
-        return productMapper.toProductResponse(updatedProduct);
+        return publishChange(productMapper.toProductResponse(updatedProduct));
     }
 
     @Override
@@ -186,7 +260,7 @@ public class ProductServiceImpl implements ProductService {
     @Auditable(action = "UPDATE_PRICE", description = "Updating product price")
     @Caching(
         put = { @CachePut(value = "product", key = "#productId") },
-        evict = { @CacheEvict(value = {"products", "activeProducts", "productsByCategory"}, allEntries = true) }
+        evict = { @CacheEvict(value = {"products", "productsByCategory"}, allEntries = true) }
     )
     public ProductResponse updateProductPrice(Integer productId, double newPrice) {
         if (newPrice < 0) {
@@ -200,14 +274,14 @@ public class ProductServiceImpl implements ProductService {
 
         Product updatedProduct = productRepository.save(product);
 
-        return productMapper.toProductResponse(updatedProduct);
+        return publishChange(productMapper.toProductResponse(updatedProduct));
     }
 
     @Override
     @Transactional
     @Caching(
         put = { @CachePut(value = "product", key = "#productId") },
-        evict = { @CacheEvict(value = {"products", "activeProducts", "productsByCategory"}, allEntries = true) }
+        evict = { @CacheEvict(value = {"products", "productsByCategory"}, allEntries = true) }
     )
     public ProductResponse activateProduct(Integer productId) {
         Product product = productRepository.findById(productId)
@@ -215,14 +289,14 @@ public class ProductServiceImpl implements ProductService {
         product.setActive(true);
         product.setUpdatedAt(LocalDateTime.now());
 
-        return productMapper.toProductResponse(productRepository.save(product));
+        return publishChange(productMapper.toProductResponse(productRepository.save(product)));
     }
 
     @Override
     @Transactional
     @Caching(
         put = { @CachePut(value = "product", key = "#productId") },
-        evict = { @CacheEvict(value = {"products", "activeProducts", "productsByCategory"}, allEntries = true) }
+        evict = { @CacheEvict(value = {"products", "productsByCategory"}, allEntries = true) }
     )
     public ProductResponse deactivateProduct(Integer productId) {
         Product product = productRepository.findById(productId)
@@ -230,14 +304,14 @@ public class ProductServiceImpl implements ProductService {
         product.setActive(false);
         product.setUpdatedAt(LocalDateTime.now());
 
-        return productMapper.toProductResponse(productRepository.save(product));
+        return publishChange(productMapper.toProductResponse(productRepository.save(product)));
     }
 
     @Override
     @Transactional
     @Caching(evict = {
         @CacheEvict(value = "product", key = "#productId"),
-        @CacheEvict(value = {"products", "activeProducts", "productsByCategory"}, allEntries = true)
+        @CacheEvict(value = {"products", "productsByCategory"}, allEntries = true)
     })
     public void deleteProduct(Integer productId) {
         if (!productRepository.existsById(productId)) {
@@ -245,6 +319,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         productRepository.deleteById(productId);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(productId));
     }
 
     @Override
@@ -298,6 +373,14 @@ public class ProductServiceImpl implements ProductService {
             throw new ValidationException("minPrice", "must be less than or equal to maxPrice");
         }
 
+        Optional<CatalogSnapshot> snapshot = catalogSnapshotManager.current();
+        if (snapshot.isPresent()) {
+            Optional<Page<ProductResponse>> page = snapshot.get().query(filter, pageable);
+            if (page.isPresent()) {
+                return page.get();
+            }
+        }
+
         Page<Product> productPage = productRepository.findWithFilters(
                 filter.getSearchTerm(),
                 filter.getCategoryId(),
@@ -305,6 +388,9 @@ public class ProductServiceImpl implements ProductService {
                 filter.getMaxPrice(),
                 filter.getBrand(),
                 filter.getActive(),
+                filter.getInStock(),
+                filter.getMinStock(),
+                filter.getMaxStock(),
                 pageable);
 
         List<ProductResponse> responseList = productPage.getContent().stream()
@@ -314,6 +400,20 @@ public class ProductServiceImpl implements ProductService {
         return new PageImpl<>(responseList, pageable, productPage.getTotalElements());
     }
 
+    @Override
+    public FacetedProductPageResponse getProductsWithFacets(ProductFilter filter, Pageable pageable) {
+        ProductFilter activeFilter = filter != null ? filter : ProductFilter.builder().build();
+        Optional<CatalogSnapshot> snapshot = catalogSnapshotManager.current();
+        if (snapshot.isEmpty()) {
+            return new FacetedProductPageResponse(
+                    getProductsWithFilters(activeFilter, pageable, null, null), ProductFacetsResponse.empty());
+        }
+
+        Page<ProductResponse> page = snapshot.get().query(activeFilter, pageable)
+                .orElseGet(() -> getProductsWithFilters(activeFilter, pageable, null, null));
+        return new FacetedProductPageResponse(page, snapshot.get().facets(activeFilter));
+    }
+
     @Override
     public Product searchById(Integer id) {
         return productRepository.findById(id).orElse(null);
@@ -326,6 +426,11 @@ public class ProductServiceImpl implements ProductService {
                 .collect(Collectors.toList());
     }
 
+    private ProductResponse publishChange(ProductResponse product) {
+        eventPublisher.publishEvent(ProductChangedEvent.updated(product));
+        return product;
+    }
+
     private void validateProductData(Product product) {
         if (product == null) {
             throw new ValidationException("Product data cannot be null");
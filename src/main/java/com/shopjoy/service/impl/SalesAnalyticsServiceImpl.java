@@ -0,0 +1,86 @@
+package com.shopjoy.service.impl;
+
+import com.shopjoy.analytics.SalesRollupBackfill;
+import com.shopjoy.config.SalesRollupProperties;
+import com.shopjoy.dto.response.SalesRollupResponse;
+import com.shopjoy.dto.response.SalesTotalResponse;
+import com.shopjoy.entity.RollupDimension;
+import com.shopjoy.entity.RollupGranularity;
+import com.shopjoy.entity.SalesRollup;
+import com.shopjoy.exception.ValidationException;
+import com.shopjoy.repository.SalesRollupRepository;
+import com.shopjoy.service.SalesAnalyticsService;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Analytics reads only touch the rollup table, whose primary key starts with granularity,
+ * dimension and bucket start, so their cost depends on the range and not on the number of orders.
+ */
+@Service
+@Transactional(readOnly = true)
+@AllArgsConstructor
+public class SalesAnalyticsServiceImpl implements SalesAnalyticsService {
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final SalesRollupBackfill salesRollupBackfill;
+    private final SalesRollupProperties properties;
+
+    @Override
+    public List<SalesRollupResponse> getSalesRollups(RollupGranularity granularity, RollupDimension dimension,
+                                                     LocalDateTime from, LocalDateTime to, String dimensionKey) {
+        validateRange(granularity, from, to);
+        return salesRollupRepository.findBuckets(granularity, dimension, from, to, dimensionKey).stream()
+                .map(SalesAnalyticsServiceImpl::toResponse)
+                .toList();
+    }
+
+    @Override
+    public List<SalesTotalResponse> getSalesTotals(RollupDimension dimension, LocalDateTime from, LocalDateTime to,
+                                                   int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("limit", "must be positive");
+        }
+        RollupGranularity granularity = from.toLocalTime().equals(LocalTime.MIDNIGHT)
+                && to.toLocalTime().equals(LocalTime.MIDNIGHT) ? RollupGranularity.DAY : RollupGranularity.HOUR;
+        validateRange(granularity, from, to);
+        return salesRollupRepository.sumByKey(granularity, dimension, from, to, PageRequest.of(0, limit)).stream()
+                .map(total -> new SalesTotalResponse(dimension, total.getDimensionKey(), total.getOrderCount(),
+                        total.getUnitsSold(), total.getRevenue().doubleValue()))
+                .toList();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long backfillRollups(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ValidationException("from", "must not be after to");
+        }
+        return salesRollupBackfill.backfill(from, to);
+    }
+
+    private void validateRange(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("from", "must be before to");
+        }
+        if (granularity == RollupGranularity.HOUR && Duration.between(from, to).compareTo(properties.getMaxHourlyRange()) > 0) {
+            throw new ValidationException("to", "hourly ranges cannot be longer than " + properties.getMaxHourlyRange().toDays()
+                    + " days, use daily buckets or whole days");
+        }
+    }
+
+    private static SalesRollupResponse toResponse(SalesRollup rollup) {
+        SalesRollup.Key key = rollup.getKey();
+        return new SalesRollupResponse(key.getGranularity(), key.getBucketStart(), key.getDimension(),
+                key.getDimensionKey(), rollup.getOrderCount(), rollup.getUnitsSold(), rollup.getRevenue().doubleValue());
+    }
+}
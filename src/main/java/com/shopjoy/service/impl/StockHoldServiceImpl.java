@@ -0,0 +1,176 @@
+package com.shopjoy.service.impl;
+
+import com.shopjoy.config.StockHoldProperties;
+import com.shopjoy.dto.response.StockHoldResponse;
+import com.shopjoy.entity.CartItem;
+import com.shopjoy.entity.Inventory;
+import com.shopjoy.entity.StockHold;
+import com.shopjoy.entity.StockHoldStatus;
+import com.shopjoy.exception.InsufficientStockException;
+import com.shopjoy.exception.ValidationException;
+import com.shopjoy.repository.CartItemRepository;
+import com.shopjoy.repository.InventoryRepository;
+import com.shopjoy.repository.InventoryStripeRepository;
+import com.shopjoy.repository.ProductRepository;
+import com.shopjoy.repository.StockHoldRepository;
+import com.shopjoy.repository.UserRepository;
+import com.shopjoy.service.CartService;
+import com.shopjoy.service.StockHoldService;
+import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The type Stock hold service.
+ *
+ * Held quantities are kept in inventory.reserved_quantity, which is adjusted by the same amount
+ * whenever a hold is created, converted, released or expired, so available stock never needs
+ * to be summed over the holds. Inventory rows are always updated in product id order to keep
+ * concurrent checkouts from deadlocking. A user's holds are locked before they are finished,
+ * so two checkouts of the same user, or a checkout and the sweeper, never release the same hold.
+ */
+@Service
+@Transactional(readOnly = true)
+@AllArgsConstructor
+public class StockHoldServiceImpl implements StockHoldService {
+
+    private final StockHoldRepository stockHoldRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryStripeRepository stripeRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final StockHoldProperties properties;
+    private final CartService cartService;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
+    @Caching(evict = {
+        @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
+        @CacheEvict(value = "inventoryByProduct", allEntries = true, cacheManager = "shortCacheManager")
+    })
+    public List<StockHoldResponse> holdCart(Integer userId) {
+        cartService.flushCart(userId);
+
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        for (CartItem item : cartItemRepository.findByUserId(userId)) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        if (quantities.isEmpty()) {
+            throw new ValidationException("Cart is empty");
+        }
+
+        finish(lockActiveHolds(userId), StockHoldStatus.RELEASED);
+
+        LocalDateTime expiresAt = LocalDateTime.now().plus(properties.getTtl());
+        List<StockHold> holds = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            inventoryRepository.lockByProductId(productId);
+            stripeRepository.markHeld(productId);
+            if (inventoryRepository.holdStock(productId, quantity) == 0) {
+                int available = inventoryRepository.findByProductId(productId)
+                        .map(Inventory::getAvailableQuantity)
+                        .orElse(0);
+                throw new InsufficientStockException(productId, quantity, available);
+            }
+            holds.add(StockHold.builder()
+                    .product(productRepository.getReferenceById(productId))
+                    .user(userRepository.getReferenceById(userId))
+                    .quantity(quantity)
+                    .status(StockHoldStatus.ACTIVE)
+                    .expiresAt(expiresAt)
+                    .build());
+        });
+
+        return stockHoldRepository.saveAll(holds).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
+    @Caching(evict = {
+        @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
+        @CacheEvict(value = "inventoryByProduct", allEntries = true, cacheManager = "shortCacheManager")
+    })
+    public int releaseHolds(Integer userId) {
+        return finish(lockActiveHolds(userId), StockHoldStatus.RELEASED);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
+    @Caching(evict = {
+        @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
+        @CacheEvict(value = "inventoryByProduct", allEntries = true, cacheManager = "shortCacheManager")
+    })
+    public int convertHolds(Integer userId) {
+        return finish(lockActiveHolds(userId), StockHoldStatus.CONVERTED);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
+    @Caching(evict = {
+        @CacheEvict(value = "inventory", allEntries = true, cacheManager = "shortCacheManager"),
+        @CacheEvict(value = "inventoryByProduct", allEntries = true, cacheManager = "shortCacheManager")
+    })
+    public int expireHolds(int batchSize) {
+        return finish(stockHoldRepository.findExpiredForUpdate(LocalDateTime.now(), batchSize), StockHoldStatus.EXPIRED);
+    }
+
+    /**
+     * Locks the user, then the user's active holds. The user lock makes a second checkout of the
+     * same user wait and then see the holds the first one created, rather than only the ones it
+     * released.
+     */
+    private List<StockHold> lockActiveHolds(Integer userId) {
+        userRepository.lockById(userId);
+        return stockHoldRepository.findActiveByUserIdForUpdate(userId);
+    }
+
+    /**
+     * Marks the holds that are still active with their final status and returns their held
+     * quantities to available stock. Callers lock the holds first; the status guard makes sure
+     * a hold another transaction already finished is never released a second time.
+     */
+    private int finish(List<StockHold> holds, StockHoldStatus status) {
+        if (holds.isEmpty()) {
+            return 0;
+        }
+        List<Integer> ids = new ArrayList<>(holds.size());
+        for (StockHold hold : holds) {
+            ids.add(hold.getId());
+        }
+        Set<Integer> finished = new HashSet<>(stockHoldRepository.finishActive(ids, status.name()));
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        for (StockHold hold : holds) {
+            if (finished.contains(hold.getId())) {
+                quantities.merge(hold.getProduct().getId(), hold.getQuantity(), Integer::sum);
+            }
+        }
+        quantities.forEach((productId, quantity) -> {
+            inventoryRepository.releaseHeldStock(productId, quantity);
+            stripeRepository.syncHeld(productId);
+        });
+        return finished.size();
+    }
+
+    private StockHoldResponse toResponse(StockHold hold) {
+        return new StockHoldResponse(
+                hold.getId(),
+                hold.getProduct().getId(),
+                hold.getQuantity(),
+                hold.getStatus().name(),
+                hold.getExpiresAt());
+    }
+}
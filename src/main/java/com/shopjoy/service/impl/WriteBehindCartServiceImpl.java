@@ -0,0 +1,185 @@
+package com.shopjoy.service.impl;
+
+import com.shopjoy.cart.WriteBehindCartStore;
+import com.shopjoy.cart.WriteBehindCartStore.CartLine;
+import com.shopjoy.dto.request.AddToCartRequest;
+import com.shopjoy.dto.request.BulkAddToCartRequest;
+import com.shopjoy.dto.response.CartItemResponse;
+import com.shopjoy.dto.response.CartSummaryResponse;
+import com.shopjoy.dto.response.InventoryResponse;
+import com.shopjoy.dto.response.ProductResponse;
+import com.shopjoy.dto.response.StockAvailabilityLineResponse;
+import com.shopjoy.dto.response.StockAvailabilityResponse;
+import com.shopjoy.exception.InsufficientStockException;
+import com.shopjoy.exception.ResourceNotFoundException;
+import com.shopjoy.exception.ValidationException;
+import com.shopjoy.service.CartService;
+import com.shopjoy.service.InventoryService;
+import com.shopjoy.service.ProductService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cart service backed by the in-memory {@link WriteBehindCartStore}, used instead of
+ * {@link CartServiceImpl} when app.cart.write-behind.enabled is true.
+ *
+ * Cart writes never open a database transaction: product details and the stock check come from
+ * the product and inventory caches, and the cart change itself is a memory update plus one
+ * journal line. Checkout re-validates stock under row locks, so the cached stock check only has
+ * to be close.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "app.cart.write-behind", name = "enabled", havingValue = "true")
+@AllArgsConstructor
+public class WriteBehindCartServiceImpl implements CartService {
+
+    private final WriteBehindCartStore cartStore;
+    private final ProductService productService;
+    private final InventoryService inventoryService;
+
+    @Override
+    public CartItemResponse addToCart(AddToCartRequest request) {
+        if (request.getQuantity() <= 0) {
+            throw new ValidationException("quantity", "must be positive");
+        }
+
+        ProductResponse product = productService.getProductById(request.getProductId());
+
+        int newQuantity = cartStore.findLine(request.getUserId(), request.getProductId())
+                .map(CartLine::quantity)
+                .orElse(0) + request.getQuantity();
+        checkStock(request.getProductId(), newQuantity);
+
+        CartLine line = cartStore.setQuantity(request.getUserId(), request.getProductId(), newQuantity);
+        return toCartItemResponse(line, product);
+    }
+
+    @Override
+    public List<CartItemResponse> addToCartBulk(BulkAddToCartRequest request) {
+        Integer userId = request.getUserId();
+        Map<Integer, Integer> targets = new TreeMap<>();
+        request.getItems().forEach(item -> targets.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+
+        Map<Integer, ProductResponse> products = new HashMap<>();
+        targets.keySet().forEach(productId -> products.put(productId, productService.getProductById(productId)));
+
+        if (!request.isReplaceQuantities()) {
+            for (CartLine line : cartStore.getLines(userId)) {
+                targets.computeIfPresent(line.productId(), (_, quantity) -> quantity + line.quantity());
+            }
+        }
+        targets.forEach(this::checkStock);
+
+        List<CartItemResponse> responses = new ArrayList<>(targets.size());
+        targets.forEach((productId, quantity) -> responses.add(
+                toCartItemResponse(cartStore.setQuantity(userId, productId, quantity), products.get(productId))));
+        return responses;
+    }
+
+    @Override
+    public CartItemResponse updateCartItemQuantity(Integer cartItemId, int newQuantity) {
+        if (newQuantity <= 0) {
+            throw new ValidationException("quantity", "must be positive");
+        }
+
+        CartLine line = cartStore.findLine(cartItemId)
+                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", cartItemId));
+        checkStock(line.productId(), newQuantity);
+
+        CartLine updated = cartStore.setQuantity(line.userId(), line.productId(), newQuantity);
+        return toCartItemResponse(updated, productService.getProductById(line.productId()));
+    }
+
+    @Override
+    public void removeFromCart(Integer cartItemId) {
+        cartStore.removeLine(cartItemId)
+                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", cartItemId));
+    }
+
+    @Override
+    public List<CartItemResponse> getCartItems(Integer userId) {
+        return getCartSummary(userId).getItems();
+    }
+
+    @Override
+    public CartSummaryResponse getCartSummary(Integer userId) {
+        List<CartLine> lines = cartStore.getLines(userId);
+
+        Map<Integer, Integer> requested = new HashMap<>();
+        lines.forEach(line -> requested.merge(line.productId(), line.quantity(), Integer::sum));
+        StockAvailabilityResponse availability = inventoryService.checkAvailability(requested);
+
+        List<CartItemResponse> items = new ArrayList<>(lines.size());
+        int itemCount = 0;
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (CartLine line : lines) {
+            ProductResponse product = productService.getProductById(line.productId());
+            CartItemResponse item = toCartItemResponse(line, product);
+            StockAvailabilityLineResponse stock = availability.lineFor(line.productId());
+            item.setAvailable(stock.isAvailable());
+            item.setShortfall(stock.getShortfall());
+            items.add(item);
+            itemCount += line.quantity();
+            subtotal = subtotal.add(BigDecimal.valueOf(product.getPrice()).multiply(BigDecimal.valueOf(line.quantity())));
+        }
+        return new CartSummaryResponse(userId, items, itemCount, subtotal.doubleValue(), availability.isAllAvailable());
+    }
+
+    @Override
+    public void clearCart(Integer userId) {
+        cartStore.clear(userId);
+    }
+
+    @Override
+    public double getCartTotal(Integer userId) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (CartLine line : cartStore.getLines(userId)) {
+            ProductResponse product = productService.getProductById(line.productId());
+            total = total.add(BigDecimal.valueOf(product.getPrice()).multiply(BigDecimal.valueOf(line.quantity())));
+        }
+        return total.doubleValue();
+    }
+
+    @Override
+    public int getCartItemCount(Integer userId) {
+        return cartStore.getLines(userId).stream()
+                .mapToInt(CartLine::quantity)
+                .sum();
+    }
+
+    @Override
+    public void flushCart(Integer userId) {
+        cartStore.flush(userId);
+    }
+
+    /**
+     * Checks a cart quantity against the cached inventory of the product.
+     */
+    private void checkStock(Integer productId, int quantity) {
+        int available;
+        try {
+            InventoryResponse inventory = inventoryService.getInventoryByProduct(productId);
+            available = Math.max(0, inventory.getStockQuantity() - inventory.getReservedQuantity());
+        } catch (ResourceNotFoundException e) {
+            available = 0;
+        }
+        if (quantity > available) {
+            throw new InsufficientStockException(productId, quantity, available);
+        }
+    }
+
+    private static CartItemResponse toCartItemResponse(CartLine line, ProductResponse product) {
+        return new CartItemResponse(line.cartItemId(), line.userId(), line.productId(), product.getProductName(),
+                product.getPrice(), line.quantity(), line.addedAt(), null, null);
+    }
+}
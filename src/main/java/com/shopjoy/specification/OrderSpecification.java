@@ -5,18 +5,55 @@ import com.shopjoy.entity.Order;
 import com.shopjoy.entity.User;
 import com.shopjoy.entity.OrderStatus;
 import com.shopjoy.entity.PaymentStatus;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
 public class OrderSpecification {
 
+    /**
+     * Maximum number of user IDs passed inline to the search predicate.
+     */
+    public static final int MAX_SEARCH_USER_IDS = 500;
+
+    private static final Pattern ORDER_ID = Pattern.compile("\\d{1,9}");
+    private static final Pattern EMAIL = Pattern.compile("[^\\s@]+@[^\\s@]+\\.[^\\s@]+");
+    private static final char LIKE_ESCAPE = '\\';
+
     public static Specification<Order> withFilters(Integer userId, OrderFilter filter) {
+        return withFilters(userId, filter, null);
+    }
+
+    /**
+     * Builds the order filter, with the users matching the search term resolved up front.
+     * <p>
+     * The search term takes one of three paths: a number is an exact order ID lookup, a full
+     * email address is an exact lookup of its user's orders, and anything else is a
+     * case-insensitive substring match on the shipping address, the notes and the ordering user.
+     * The substring match compares {@code lower(column)} against a lower-case pattern, which
+     * the pg_trgm expression indexes can serve even with a leading wildcard. Matching users are
+     * given as an ID list, so every branch of the OR is an index condition on {@code orders} and
+     * no join to {@code users} is needed.
+     *
+     * @param userId        optional user ID to filter by
+     * @param filter        the filter criteria
+     * @param searchUserIds the IDs of users matching the search term, or null to match users with
+     *                      a subquery when there were too many to list
+     * @return the specification
+     */
+    public static Specification<Order> withFilters(Integer userId, OrderFilter filter, Collection<Integer> searchUserIds) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
@@ -54,28 +91,73 @@ public class OrderSpecification {
                 }
 
                 if (StringUtils.hasText(filter.getSearchTerm())) {
-                    String pattern = "%" + filter.getSearchTerm() + "%";
-                    List<Predicate> searchPredicates = new ArrayList<>();
-                    
-                    searchPredicates.add(cb.like(root.get("shippingAddress"), pattern));
-                    searchPredicates.add(cb.like(root.get("notes"), pattern));
-                    
-                    Join<Order, User> userJoin = root.join("user", JoinType.LEFT);
-                    searchPredicates.add(cb.like(userJoin.get("firstName"), pattern));
-                    searchPredicates.add(cb.like(userJoin.get("lastName"), pattern));
-                    searchPredicates.add(cb.like(userJoin.get("email"), pattern));
-                    
-                    if (filter.getSearchTerm().matches("\\d+")) {
-                        searchPredicates.add(cb.equal(root.get("id"), Integer.parseInt(filter.getSearchTerm())));
-                    }
-                    
-                    searchPredicates.add(cb.like(cb.function("CONCAT", String.class, root.get("id"), cb.literal("")), pattern));
-                    
-                    predicates.add(cb.or(searchPredicates.toArray(new Predicate[0])));
+                    predicates.add(searchPredicate(filter.getSearchTerm().strip(), searchUserIds, root, query, cb));
                 }
             }
 
             return cb.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    /**
+     * Whether a search term is looked up as an order ID.
+     */
+    public static boolean isOrderIdTerm(String term) {
+        return ORDER_ID.matcher(term).matches();
+    }
+
+    /**
+     * Whether a search term is looked up as a full email address.
+     */
+    public static boolean isEmailTerm(String term) {
+        return EMAIL.matcher(term).matches();
+    }
+
+    /**
+     * Builds a lower-case LIKE pattern matching the term anywhere, with wildcards in the term escaped.
+     */
+    public static String containsPattern(String term) {
+        String escaped = term.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static Predicate searchPredicate(String term, Collection<Integer> searchUserIds,
+                                             Root<Order> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        if (isOrderIdTerm(term)) {
+            return cb.equal(root.get("id"), Integer.parseInt(term));
+        }
+
+        Path<Integer> orderUserId = root.get("user").get("id");
+        if (isEmailTerm(term)) {
+            if (searchUserIds != null) {
+                return searchUserIds.isEmpty() ? cb.disjunction() : orderUserId.in(searchUserIds);
+            }
+            return orderUserId.in(userSubquery(query, cb,
+                    user -> cb.equal(cb.lower(user.get("email")), term.toLowerCase(Locale.ROOT))));
+        }
+
+        String pattern = containsPattern(term);
+        List<Predicate> searchPredicates = new ArrayList<>();
+        searchPredicates.add(cb.like(cb.lower(root.get("shippingAddress")), pattern, LIKE_ESCAPE));
+        searchPredicates.add(cb.like(cb.lower(root.get("notes")), pattern, LIKE_ESCAPE));
+        if (searchUserIds == null) {
+            searchPredicates.add(orderUserId.in(userSubquery(query, cb, user -> cb.or(
+                    cb.like(cb.lower(user.get("firstName")), pattern, LIKE_ESCAPE),
+                    cb.like(cb.lower(user.get("lastName")), pattern, LIKE_ESCAPE),
+                    cb.like(cb.lower(user.get("email")), pattern, LIKE_ESCAPE)))));
+        } else if (!searchUserIds.isEmpty()) {
+            searchPredicates.add(orderUserId.in(searchUserIds));
+        }
+        return cb.or(searchPredicates.toArray(new Predicate[0]));
+    }
+
+    private static Subquery<Integer> userSubquery(CriteriaQuery<?> query, CriteriaBuilder cb,
+                                                  Function<Root<User>, Predicate> condition) {
+        Subquery<Integer> users = query.subquery(Integer.class);
+        Root<User> user = users.from(User.class);
+        return users.select(user.get("id")).where(condition.apply(user));
+    }
 }
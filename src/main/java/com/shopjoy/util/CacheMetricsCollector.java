@@ -1,6 +1,8 @@
 package com.shopjoy.util;
 
+import com.github.benmanes.caffeine.cache.Policy;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.shopjoy.config.CacheBudgetProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -21,11 +23,16 @@ public class CacheMetricsCollector {
     public CacheMetricsCollector(
             CacheManager cacheManager, // Primary
             CacheManager mediumCacheManager,
-            CacheManager shortCacheManager) {
+            CacheManager shortCacheManager,
+            CacheBudgetProperties budgetProperties) {
         this.cacheManagers = new LinkedHashMap<>();
-        this.cacheManagers.put("Primary (30m)", cacheManager);
-        this.cacheManagers.put("Medium (10m)", mediumCacheManager);
-        this.cacheManagers.put("Short (2m)", shortCacheManager);
+        this.cacheManagers.put(label("Primary", budgetProperties.manager("primary")), cacheManager);
+        this.cacheManagers.put(label("Medium", budgetProperties.manager("medium")), mediumCacheManager);
+        this.cacheManagers.put(label("Short", budgetProperties.manager("short")), shortCacheManager);
+    }
+
+    private static String label(String name, CacheBudgetProperties.ManagerBudget budget) {
+        return String.format("%s (%dm, %dMB)", name, budget.getTtl().toMinutes(), budget.getMaxSize().toMegabytes());
     }
 
     /**
@@ -45,7 +52,9 @@ public class CacheMetricsCollector {
                 for (String cacheName : cacheNames) {
                     CaffeineCache cache = (CaffeineCache) manager.getCache(cacheName);
                     if (cache != null) {
-                        managerStats.put(cacheName, formatStats(cache.getNativeCache().stats()));
+                        Map<String, Object> cacheStats = formatStats(cache.getNativeCache().stats());
+                        cacheStats.putAll(formatSize(cache));
+                        managerStats.put(cacheName, cacheStats);
                     }
                 }
                 allStats.put(managerName, managerStats);
@@ -63,6 +72,7 @@ public class CacheMetricsCollector {
         long totalMissCount = 0;
         long totalRequestCount = 0;
         long totalEvictionCount = 0;
+        long totalEstimatedBytes = 0;
 
         for (CacheManager manager : cacheManagers.values()) {
             if (manager instanceof CaffeineCacheManager caffeineManager) {
@@ -74,6 +84,7 @@ public class CacheMetricsCollector {
                         totalMissCount += stats.missCount();
                         totalRequestCount += stats.requestCount();
                         totalEvictionCount += stats.evictionCount();
+                        totalEstimatedBytes += estimatedBytes(cache);
                     }
                 }
             }
@@ -87,6 +98,7 @@ public class CacheMetricsCollector {
         summary.put("totalMisses", totalMissCount);
         summary.put("totalRequests", totalRequestCount);
         summary.put("totalEvictions", totalEvictionCount);
+        summary.put("totalEstimatedBytes", totalEstimatedBytes);
 
         return summary;
     }
@@ -101,4 +113,23 @@ public class CacheMetricsCollector {
         map.put("averageLoadPenaltyMs", String.format("%.2f", stats.averageLoadPenalty() / 1_000_000.0));
         return map;
     }
+
+    private Map<String, Object> formatSize(CaffeineCache cache) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("entries", cache.getNativeCache().estimatedSize());
+        map.put("estimatedBytes", estimatedBytes(cache));
+        map.put("maxBytes", cache.getNativeCache().policy().eviction()
+                .map(Policy.Eviction::getMaximum)
+                .orElse(0L));
+        return map;
+    }
+
+    /**
+     * Estimated retained bytes of a cache, as computed by its weigher.
+     */
+    private long estimatedBytes(CaffeineCache cache) {
+        return cache.getNativeCache().policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
 }
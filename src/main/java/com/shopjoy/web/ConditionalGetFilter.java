@@ -0,0 +1,162 @@
+package com.shopjoy.web;
+
+import com.shopjoy.config.ConditionalGetProperties;
+import com.shopjoy.web.ResourceVersionRegistry.Resource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Adds strong ETags, Last-Modified and Cache-Control to the catalogue list endpoints, and
+ * answers conditional GETs with 304 before the controller, service or serializer runs.
+ *
+ * The ETag is built from the {@link ResourceVersionRegistry} versions of the resources an
+ * endpoint returns. The version is read before the request is handled, so a response is at
+ * least as new as its tag: a write committing meanwhile bumps the version and the next request
+ * downloads again.
+ *
+ * Outcomes are counted in {@code http.conditional.requests}, tagged with the endpoint and
+ * whether the response was {@code not_modified} or {@code full}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+public class ConditionalGetFilter extends OncePerRequestFilter {
+
+    /**
+     * Appended inside the quotes of an ETag for the gzip-coded form of a response, since a strong
+     * validator must differ between content codings.
+     */
+    private static final String GZIP_SUFFIX = "-gz";
+
+    private final ResourceVersionRegistry versionRegistry;
+    private final ConditionalGetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public ConditionalGetFilter(ResourceVersionRegistry versionRegistry,
+                                ConditionalGetProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.versionRegistry = versionRegistry;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !properties.isEnabled()
+                || !(HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method))
+                || !ResourceVersionRegistry.VERSIONED_ENDPOINTS.containsKey(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String endpoint = path(request);
+        List<Resource> resources = ResourceVersionRegistry.VERSIONED_ENDPOINTS.get(endpoint);
+        Instant lastModified = versionRegistry.lastModified(resources);
+        String etag = "\"" + versionRegistry.versionTag(resources) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, httpDate(lastModified).toEpochMilli());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl().getHeaderValue());
+
+        String matched = matchedTag(request, etag, lastModified);
+        if (matched != null) {
+            count(endpoint, "not_modified");
+            response.setHeader(HttpHeaders.ETAG, matched);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        count(endpoint, "full");
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Gets the ETag of the gzip-coded form of a response, e.g. {@code "k3x9p2-14-gz"}.
+     */
+    public static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * Truncates a change time to the seconds of an HTTP date. A change made in the current second
+     * is dated a second earlier: another change later in that second would otherwise leave the
+     * date unchanged, and a client revalidating with it would be told nothing changed.
+     */
+    private static Instant httpDate(Instant lastModified) {
+        Instant truncated = lastModified.truncatedTo(ChronoUnit.SECONDS);
+        return Instant.now().truncatedTo(ChronoUnit.SECONDS).isAfter(truncated)
+                ? truncated
+                : truncated.minusSeconds(1);
+    }
+
+    /**
+     * Checks If-None-Match, or If-Modified-Since when no entity tag was sent, as RFC 9110
+     * prescribes. Either coding's tag matches, since the client holds whichever one it was sent.
+     *
+     * @return the ETag to send with the 304, or null when the response was modified
+     */
+    private static String matchedTag(HttpServletRequest request, String etag, Instant lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String gzipEtag = gzipEtag(etag);
+            for (String candidate : ifNoneMatch.split(",")) {
+                String trimmed = candidate.strip();
+                if (trimmed.startsWith("W/")) {
+                    trimmed = trimmed.substring(2);
+                }
+                if (trimmed.equals("*") || trimmed.equals(etag)) {
+                    return etag;
+                }
+                if (trimmed.equals(gzipEtag)) {
+                    return gzipEtag;
+                }
+            }
+            return null;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return ifModifiedSince >= 0 && lastModified.truncatedTo(ChronoUnit.SECONDS).toEpochMilli() <= ifModifiedSince
+                ? etag
+                : null;
+    }
+
+    private CacheControl cacheControl() {
+        if (properties.getMaxAge().isZero()) {
+            return CacheControl.noCache();
+        }
+        return CacheControl.maxAge(properties.getMaxAge()).mustRevalidate();
+    }
+
+    private void count(String endpoint, String result) {
+        Counter.builder("http.conditional.requests")
+                .description("Conditional GET outcomes of versioned endpoints")
+                .tag("endpoint", endpoint)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
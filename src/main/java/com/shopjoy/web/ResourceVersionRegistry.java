@@ -0,0 +1,170 @@
+package com.shopjoy.web;
+
+import com.shopjoy.entity.Category;
+import com.shopjoy.event.CategoryChangedEvent;
+import com.shopjoy.event.ProductChangedEvent;
+import com.shopjoy.event.StockChangedEvent;
+import com.shopjoy.repository.CategoryRepository;
+import com.shopjoy.repository.InventoryRepository;
+import com.shopjoy.repository.InventoryStripeRepository;
+import com.shopjoy.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version counters for the catalogue resources, bumped by their write paths after commit.
+ *
+ * A version identifies the state of a resource for ETags without hashing any response body.
+ * Versions are prefixed with a random instance id, so a counter that restarts from zero, or the
+ * counter of another instance, never produces an ETag a client already holds.
+ *
+ * Events only report writes committed on this instance. Writes committed on other instances are
+ * picked up by a periodic check of a database fingerprint of each resource (latest updated_at,
+ * row count, category names), so a tag outlives the data it stands for by at most
+ * app.http.conditional-get.version-refresh.
+ */
+@Slf4j
+@Component
+public class ResourceVersionRegistry {
+
+    /**
+     * The resources whose representations are versioned.
+     */
+    public enum Resource { PRODUCTS, CATEGORIES }
+
+    /**
+     * The current version of one resource and when it last changed.
+     */
+    private record Version(long counter, Instant lastModified) {
+    }
+
+    /**
+     * The GET endpoints whose responses are identified by resource versions, with the resources
+     * each one returns.
+     */
+    public static final Map<String, List<Resource>> VERSIONED_ENDPOINTS = Map.of(
+            "/api/v1/products", List.of(Resource.PRODUCTS),
+            "/api/v1/products/active", List.of(Resource.PRODUCTS),
+            "/api/v1/categories", List.of(Resource.CATEGORIES));
+
+    private final String instanceId = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final Map<Resource, Version> versions = new EnumMap<>(Resource.class);
+    private final Map<Resource, Integer> fingerprints = new EnumMap<>(Resource.class);
+
+    private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryStripeRepository stripeRepository;
+    private final CategoryRepository categoryRepository;
+
+    public ResourceVersionRegistry(ProductRepository productRepository,
+                                   InventoryRepository inventoryRepository,
+                                   InventoryStripeRepository stripeRepository,
+                                   CategoryRepository categoryRepository) {
+        this.productRepository = productRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.stripeRepository = stripeRepository;
+        this.categoryRepository = categoryRepository;
+        Instant now = Instant.now();
+        for (Resource resource : Resource.values()) {
+            versions.put(resource, new Version(0, now));
+        }
+    }
+
+    /**
+     * Builds a tag that changes whenever one of the resources changes, e.g. {@code k3x9p2-14}.
+     */
+    public synchronized String versionTag(List<Resource> resources) {
+        StringBuilder tag = new StringBuilder(instanceId);
+        for (Resource resource : resources) {
+            tag.append('-').append(versions.get(resource).counter());
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Gets when the last of the resources changed, with full precision.
+     */
+    public synchronized Instant lastModified(List<Resource> resources) {
+        Instant lastModified = Instant.EPOCH;
+        for (Resource resource : resources) {
+            Instant changed = versions.get(resource).lastModified();
+            if (changed.isAfter(lastModified)) {
+                lastModified = changed;
+            }
+        }
+        return lastModified;
+    }
+
+    public synchronized void bump(Resource resource) {
+        Version previous = versions.get(resource);
+        versions.put(resource, new Version(previous.counter() + 1, Instant.now()));
+    }
+
+    /**
+     * Bumps every resource whose database fingerprint changed since the last check. The first
+     * check only records the fingerprints.
+     */
+    @Scheduled(fixedDelayString = "${app.http.conditional-get.version-refresh:10s}")
+    public void refresh() {
+        Map<Resource, Integer> current;
+        try {
+            current = readFingerprints();
+        } catch (RuntimeException e) {
+            log.warn("Failed to check catalogue versions: {}", e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            current.forEach((resource, fingerprint) -> {
+                Integer previous = fingerprints.put(resource, fingerprint);
+                if (previous != null && !previous.equals(fingerprint)) {
+                    bump(resource);
+                }
+            });
+        }
+    }
+
+    private Map<Resource, Integer> readFingerprints() {
+        int categories = 1;
+        for (Category category : categoryRepository.findAll()) {
+            categories = 31 * categories
+                    + Objects.hash(category.getId(), category.getCategoryName(), category.getDescription());
+        }
+        Map<Resource, Integer> current = new EnumMap<>(Resource.class);
+        current.put(Resource.CATEGORIES, categories);
+        current.put(Resource.PRODUCTS, Objects.hash(productRepository.findLatestUpdatedAt(),
+                inventoryRepository.findLatestUpdatedAt(), stripeRepository.findLatestUpdatedAt(),
+                productRepository.count(), categories));
+        return current;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        bump(Resource.PRODUCTS);
+    }
+
+    /**
+     * Product representations carry the stock quantity.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        bump(Resource.PRODUCTS);
+    }
+
+    /**
+     * Product representations carry the category name.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        bump(Resource.CATEGORIES);
+        bump(Resource.PRODUCTS);
+    }
+}
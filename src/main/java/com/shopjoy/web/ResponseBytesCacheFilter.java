@@ -0,0 +1,159 @@
+package com.shopjoy.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shopjoy.config.CacheBudgetProperties;
+import com.shopjoy.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the final JSON bytes of the catalogue list endpoints, in identity and gzip form, and
+ * writes them straight to the response on a hit, so neither the controller nor Jackson runs.
+ *
+ * Entries are stamped with the {@link ResourceVersionRegistry} version tag read before the
+ * request was handled. The write paths that evict the product and category caches also bump
+ * those versions, which makes the entry stale; the next request serializes once and replaces it.
+ * Only successful responses are cached. Runs after {@link ConditionalGetFilter}, so revalidations
+ * are answered with 304 before reaching this cache.
+ *
+ * Entries also expire after the shortest TTL of the product and category caches whose data they
+ * hold, so a response is never served for longer than those caches would have served its data,
+ * even when a write on another instance has not been noticed yet.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 5)
+public class ResponseBytesCacheFilter extends OncePerRequestFilter {
+
+    /**
+     * The Spring caches, all of the primary manager, whose data the cached responses contain.
+     */
+    private static final List<String> SOURCE_CACHES = List.of("products", "categories");
+
+    /**
+     * A serialized response of one version of an endpoint.
+     */
+    private record CachedResponse(String versionTag, String contentType, byte[] identity, byte[] gzip) {
+    }
+
+    private final ResourceVersionRegistry versionRegistry;
+    private final ResponseCacheProperties properties;
+    private final Cache<String, CachedResponse> responses;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ResponseBytesCacheFilter(ResourceVersionRegistry versionRegistry,
+                                    ResponseCacheProperties properties,
+                                    CacheBudgetProperties cacheBudgetProperties,
+                                    MeterRegistry meterRegistry) {
+        this.versionRegistry = versionRegistry;
+        this.properties = properties;
+        CacheBudgetProperties.ManagerBudget primary = cacheBudgetProperties.manager("primary");
+        Duration ttl = SOURCE_CACHES.stream().map(primary::ttl).min(Duration::compareTo).orElseThrow();
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String _, CachedResponse response) -> response.identity().length + response.gzip().length)
+                .build();
+        this.hits = Counter.builder("http.response.bytes.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("http.response.bytes.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !HttpMethod.GET.matches(request.getMethod())
+                || !ResourceVersionRegistry.VERSIONED_ENDPOINTS.containsKey(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String endpoint = path(request);
+        String versionTag = versionRegistry.versionTag(ResourceVersionRegistry.VERSIONED_ENDPOINTS.get(endpoint));
+
+        CachedResponse cached = responses.getIfPresent(endpoint);
+        if (cached != null && cached.versionTag().equals(versionTag)) {
+            hits.increment();
+            write(request, response, cached);
+            return;
+        }
+        misses.increment();
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || wrapper.getContentType() == null
+                || request.isAsyncStarted()) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        byte[] identity = wrapper.getContentAsByteArray();
+        CachedResponse serialized = new CachedResponse(versionTag, wrapper.getContentType(), identity, gzip(identity));
+        responses.put(endpoint, serialized);
+        write(request, response, serialized);
+    }
+
+    /**
+     * Writes the form the client accepts, with its length, in one write to the servlet stream.
+     * The gzip form gets its own ETag, as strong validators differ between content codings.
+     */
+    private static void write(HttpServletRequest request, HttpServletResponse response, CachedResponse cached)
+            throws IOException {
+        byte[] body = cached.identity();
+        if (acceptsGzip(request)) {
+            body = cached.gzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            String etag = response.getHeader(HttpHeaders.ETAG);
+            if (etag != null) {
+                response.setHeader(HttpHeaders.ETAG, ConditionalGetFilter.gzipEtag(etag));
+            }
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setContentType(cached.contentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (headers != null && headers.hasMoreElements()) {
+            for (String coding : headers.nextElement().split(",")) {
+                String[] parts = coding.strip().split(";");
+                if (parts[0].strip().equalsIgnoreCase("gzip")) {
+                    return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] identity) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(identity.length / 4, 64));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(identity);
+        }
+        return out.toByteArray();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
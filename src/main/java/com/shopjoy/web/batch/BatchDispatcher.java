@@ -0,0 +1,243 @@
+package com.shopjoy.web.batch;
+
+import com.shopjoy.config.BatchProperties;
+import com.shopjoy.dto.request.BatchOperationRequest;
+import com.shopjoy.dto.response.BatchOperationResponse;
+import com.shopjoy.dto.response.BatchResponse;
+import com.shopjoy.exception.ValidationException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.web.servlet.DispatcherServlet;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.StringNode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executes the operations of a batch through the DispatcherServlet directly, without going back
+ * through the servlet container or the network.
+ *
+ * Consecutive GETs do not depend on each other and run concurrently on virtual threads, at most
+ * {@link BatchProperties#getMaxConcurrency()} at a time. Every other operation runs on its own
+ * after the operations before it have finished, so a batch that creates something and then reads
+ * it sees its own write. Servlet filters do not run for operations; interceptors, advice and
+ * aspects do.
+ *
+ * The batch timeout only applies to GETs and to operations that have not started. A write that has
+ * started is waited for and never interrupted, since it could still commit after being reported
+ * as timed out; the operations after it are reported as 504 without running once the deadline
+ * has passed.
+ */
+@Slf4j
+@Component
+public class BatchDispatcher {
+
+    /**
+     * Request attribute present on every batch operation, so the batch endpoint can refuse to be
+     * called from inside a batch however its path is spelled.
+     */
+    public static final String BATCH_OPERATION_ATTRIBUTE = BatchDispatcher.class.getName() + ".OPERATION";
+
+    /**
+     * Headers of the batch request that describe its own body or caching and must not leak into
+     * the operations.
+     */
+    private static final Set<String> EXCLUDED_HEADERS = Set.of(
+            "content-type", "content-length", "content-encoding", "transfer-encoding", "accept-encoding",
+            "if-none-match", "if-modified-since");
+
+    private final DispatcherServlet dispatcherServlet;
+    private final JsonMapper jsonMapper;
+    private final BatchProperties properties;
+
+    public BatchDispatcher(DispatcherServlet dispatcherServlet, JsonMapper jsonMapper, BatchProperties properties) {
+        this.dispatcherServlet = dispatcherServlet;
+        this.jsonMapper = jsonMapper;
+        this.properties = properties;
+    }
+
+    public BatchResponse execute(List<BatchOperationRequest> operations,
+                                 HttpServletRequest batchRequest, HttpServletResponse batchResponse) {
+        if (operations.size() > properties.getMaxOperations()) {
+            throw new ValidationException("operations", "must contain at most " + properties.getMaxOperations() + " entries");
+        }
+
+        long start = System.nanoTime();
+        Map<String, List<String>> baseHeaders = baseHeaders(batchRequest);
+        List<BatchSubRequest> requests = new ArrayList<>(operations.size());
+        for (BatchOperationRequest operation : operations) {
+            requests.add(new BatchSubRequest(batchRequest, baseHeaders, operation.getMethod(), operation.getPath(),
+                    operation.getHeaders(), body(operation.getBody())));
+        }
+
+        BatchOperationResponse[] results = new BatchOperationResponse[operations.size()];
+        long deadline = start + properties.getTimeout().toNanos();
+        Semaphore permits = new Semaphore(Math.max(1, properties.getMaxConcurrency()));
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            int index = 0;
+            while (index < operations.size()) {
+                int end = index + 1;
+                if (HttpMethod.GET.matches(operations.get(index).getMethod())) {
+                    while (end < operations.size() && HttpMethod.GET.matches(operations.get(end).getMethod())) {
+                        end++;
+                    }
+                }
+                runGroup(operations, requests, batchResponse, index, end, results, permits, executor, deadline);
+                index = end;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new BatchResponse(List.of(results), millis(System.nanoTime() - start));
+    }
+
+    /**
+     * Runs operations {@code from} to {@code to} concurrently and waits for them. GETs are waited
+     * for up to the deadline and cancelled when not finished in time; a started write is waited
+     * for until it completes. Operations not started because the deadline passed, and GETs not
+     * finished in time, are reported as 504.
+     */
+    private void runGroup(List<BatchOperationRequest> operations, List<BatchSubRequest> requests,
+                          HttpServletResponse batchResponse, int from, int to, BatchOperationResponse[] results,
+                          Semaphore permits, ExecutorService executor, long deadline) {
+        List<Future<BatchOperationResponse>> futures = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            String id = id(operations.get(i), i);
+            BatchSubRequest request = requests.get(i);
+            futures.add(System.nanoTime() < deadline
+                    ? executor.submit(() -> dispatch(id, request, batchResponse, permits, deadline))
+                    : null);
+        }
+        for (int i = from; i < to; i++) {
+            String id = id(operations.get(i), i);
+            Future<BatchOperationResponse> future = futures.get(i - from);
+            if (future == null) {
+                results[i] = timedOut(id, 0);
+                continue;
+            }
+            try {
+                results[i] = HttpMethod.GET.matches(operations.get(i).getMethod())
+                        ? future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                        : getUninterruptibly(future);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                results[i] = timedOut(id, properties.getTimeout().toNanos());
+            } catch (ExecutionException e) {
+                log.error("Batch operation {} {} failed", operations.get(i).getMethod(), operations.get(i).getPath(),
+                        e.getCause());
+                results[i] = new BatchOperationResponse(id, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, 0, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                results[i] = timedOut(id, 0);
+            }
+        }
+    }
+
+    /**
+     * Waits for a write to complete, even when the batch thread is interrupted, and restores the
+     * interrupt afterwards.
+     */
+    private static <T> T getUninterruptibly(Future<T> future) throws ExecutionException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private BatchOperationResponse dispatch(String id, BatchSubRequest request, HttpServletResponse batchResponse,
+                                            Semaphore permits, long deadline) throws Exception {
+        if (!permits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            return timedOut(id, 0);
+        }
+        try {
+            BatchSubResponse response = new BatchSubResponse(batchResponse);
+            long start = System.nanoTime();
+            dispatcherServlet.service(request, response);
+            double durationMs = millis(System.nanoTime() - start);
+            return new BatchOperationResponse(id, response.getStatus(), durationMs, body(response));
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Reads the body of an operation as JSON when it is JSON, as a string otherwise.
+     */
+    private JsonNode body(BatchSubResponse response) {
+        byte[] content = response.getContentAsByteArray();
+        if (content.length == 0) {
+            return null;
+        }
+        String contentType = response.getContentType();
+        if (contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            try {
+                return jsonMapper.readTree(content);
+            } catch (JacksonException e) {
+                log.warn("Batch operation returned malformed JSON: {}", e.getOriginalMessage());
+            }
+        }
+        return StringNode.valueOf(new String(content, StandardCharsets.UTF_8));
+    }
+
+    private byte[] body(JsonNode body) {
+        return body == null || body.isNull() ? new byte[0] : jsonMapper.writeValueAsBytes(body);
+    }
+
+    /**
+     * Copies the headers of the batch request, such as Authorization and Accept-Language, which
+     * every operation inherits.
+     */
+    private static Map<String, List<String>> baseHeaders(HttpServletRequest request) {
+        Map<String, List<String>> headers = new LinkedCaseInsensitiveMap<>();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!EXCLUDED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.put(name, Collections.list(request.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+
+    private static BatchOperationResponse timedOut(String id, long nanos) {
+        return new BatchOperationResponse(id, HttpServletResponse.SC_GATEWAY_TIMEOUT, millis(nanos), null);
+    }
+
+    private static String id(BatchOperationRequest operation, int index) {
+        return operation.getId() != null ? operation.getId() : Integer.toString(index);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.shopjoy.cart;
+
+import com.shopjoy.cart.CartJournal.Entry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private Path active;
+    private Path pending;
+    private CartJournal journal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        active = dir.resolve("cart-journal.log");
+        pending = dir.resolve("cart-journal.log.pending");
+        journal = new CartJournal(active);
+        journal.reset();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    @Test
+    void readAllReturnsAppendedEntriesInOrder() throws IOException {
+        journal.appendLine(1, 10, 2, 1000L);
+        journal.appendClear(1);
+        journal.appendLine(2, 20, 0, 2000L);
+
+        assertThat(reopen().readAll()).containsExactly(
+                new Entry(1, 10, 2, 1000L),
+                new Entry(1, null, 0, 0),
+                new Entry(2, 20, 0, 2000L));
+    }
+
+    @Test
+    void rotateMovesEntriesToPendingAndKeepsThemUntilCommit() throws IOException {
+        journal.appendLine(1, 10, 2, 1000L);
+        journal.rotate();
+        journal.appendLine(1, 11, 1, 1001L);
+
+        assertThat(pending).exists();
+        assertThat(reopen().readAll()).containsExactly(
+                new Entry(1, 10, 2, 1000L),
+                new Entry(1, 11, 1, 1001L));
+
+        journal.commit();
+
+        assertThat(pending).doesNotExist();
+        assertThat(reopen().readAll()).containsExactly(new Entry(1, 11, 1, 1001L));
+    }
+
+    @Test
+    void rotateWithoutCommitAppendsToPending() throws IOException {
+        journal.appendLine(1, 10, 2, 1000L);
+        journal.rotate();
+        journal.appendLine(2, 20, 3, 2000L);
+        journal.rotate();
+
+        assertThat(Files.size(active)).isZero();
+        assertThat(reopen().readAll()).containsExactly(
+                new Entry(1, 10, 2, 1000L),
+                new Entry(2, 20, 3, 2000L));
+    }
+
+    @Test
+    void readAllIgnoresTornFinalLine() throws IOException {
+        journal.appendLine(1, 10, 2, 1000L);
+        journal.close();
+        // A crash in the middle of a write leaves a prefix that would still parse as a line
+        Files.writeString(active, "L,1,11,5,17", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        assertThat(reopen().readAll()).containsExactly(new Entry(1, 10, 2, 1000L));
+    }
+
+    @Test
+    void readAllSkipsMalformedLines() throws IOException {
+        journal.close();
+        Files.writeString(active, "L,1,x,2,1000\nQ,1\nC\nL,1,10,2,1000\n", StandardCharsets.UTF_8);
+
+        assertThat(reopen().readAll()).containsExactly(new Entry(1, 10, 2, 1000L));
+    }
+
+    @Test
+    void resetDropsActiveAndPendingEntries() throws IOException {
+        journal.appendLine(1, 10, 2, 1000L);
+        journal.rotate();
+        journal.appendLine(1, 11, 1, 1001L);
+
+        journal.reset();
+
+        assertThat(pending).doesNotExist();
+        assertThat(journal.readAll()).isEmpty();
+    }
+
+    private CartJournal reopen() {
+        return new CartJournal(active);
+    }
+}
@@ -0,0 +1,256 @@
+package com.shopjoy.catalog;
+
+import com.shopjoy.dto.filter.ProductFilter;
+import com.shopjoy.dto.response.FacetCountResponse;
+import com.shopjoy.dto.response.ProductFacetsResponse;
+import com.shopjoy.dto.response.ProductResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTest {
+
+    private static final String[] BRANDS = {"Acme", "acme", "Globex", "Initech", null};
+    private static final String[] WORDS = {"Laptop", "Phone", "Desk Lamp", "Coffee Mug", "Headphones", "Chair"};
+
+    private List<ProductResponse> products;
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        products = new ArrayList<>();
+        for (int id = 1; id <= 300; id++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            Integer categoryId = random.nextInt(10) == 0 ? null : 1 + random.nextInt(4);
+            String description = random.nextInt(5) == 0
+                    ? null
+                    : "A fine " + WORDS[random.nextInt(WORDS.length)].toLowerCase(Locale.ROOT);
+            double price = BigDecimal.valueOf(random.nextInt(120_000), 2).doubleValue();
+            products.add(product(id, word + " " + id, description, categoryId,
+                    BRANDS[random.nextInt(BRANDS.length)], price, random.nextInt(4) == 0 ? 0 : random.nextInt(50),
+                    random.nextInt(6) != 0, LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(random.nextInt(5_000))));
+        }
+        snapshot = CatalogSnapshot.of(1, products);
+    }
+
+    @Test
+    void queryMatchesFindWithFiltersSemantics() {
+        List<ProductFilter> filters = List.of(
+                ProductFilter.builder().build(),
+                ProductFilter.builder().categoryId(2).build(),
+                ProductFilter.builder().categoryId(99).build(),
+                ProductFilter.builder().minPrice(100.0).build(),
+                ProductFilter.builder().maxPrice(49.99).build(),
+                ProductFilter.builder().minPrice(25.0).maxPrice(250.005).build(),
+                ProductFilter.builder().brand("Acme").build(),
+                ProductFilter.builder().brand("ACME").build(),
+                ProductFilter.builder().active(true).build(),
+                ProductFilter.builder().active(false).build(),
+                ProductFilter.builder().searchTerm("LAPTOP").build(),
+                ProductFilter.builder().searchTerm("FINE COFFEE").build(),
+                ProductFilter.builder().searchTerm("").build(),
+                ProductFilter.builder().searchTerm(" ").build(),
+                ProductFilter.builder().inStock(true).build(),
+                ProductFilter.builder().inStock(false).build(),
+                ProductFilter.builder().minStock(10).maxStock(30).build(),
+                ProductFilter.builder().maxStock(0).active(true).build(),
+                ProductFilter.builder().searchTerm("lamp").categoryId(3).minPrice(10.0).maxPrice(900.0)
+                        .brand("Globex").active(true).build());
+
+        for (ProductFilter filter : filters) {
+            Page<ProductResponse> page = snapshot.query(filter, Pageable.unpaged()).orElseThrow();
+
+            List<Integer> expected = products.stream().filter(findWithFilters(filter))
+                    .map(ProductResponse::getId)
+                    .toList();
+            assertThat(ids(page.getContent())).as(describe(filter)).isEqualTo(expected);
+            assertThat(page.getTotalElements()).as(describe(filter)).isEqualTo(expected.size());
+        }
+    }
+
+    @Test
+    void priceBoundsAreInclusiveToTheCent() {
+        CatalogSnapshot prices = CatalogSnapshot.of(1, List.of(
+                product(1, "a", null, 1, null, 19.99, 1, true, null),
+                product(2, "b", null, 1, null, 20.00, 1, true, null),
+                product(3, "c", null, 1, null, 20.01, 1, true, null)));
+
+        ProductFilter exact = ProductFilter.builder().minPrice(19.99).maxPrice(20.0).build();
+        ProductFilter fractional = ProductFilter.builder().minPrice(19.995).maxPrice(20.009).build();
+
+        assertThat(ids(prices.query(exact, Pageable.unpaged()).orElseThrow().getContent())).containsExactly(1, 2);
+        assertThat(ids(prices.query(fractional, Pageable.unpaged()).orElseThrow().getContent())).containsExactly(2);
+        assertThat(ids(prices.findByPriceRange(19.991, 20.01))).containsExactly(2, 3);
+    }
+
+    @Test
+    void pagesFollowTheRequestedSortOrder() {
+        ProductFilter filter = ProductFilter.builder().active(true).build();
+        Pageable pageable = PageRequest.of(2, 7, Sort.by(Sort.Direction.DESC, "price"));
+
+        Page<ProductResponse> page = snapshot.query(filter, pageable).orElseThrow();
+
+        List<Double> expected = products.stream().filter(findWithFilters(filter))
+                .map(ProductResponse::getPrice)
+                .sorted(Comparator.reverseOrder())
+                .skip(14).limit(7).toList();
+        assertThat(page.getContent()).extracting(ProductResponse::getPrice).isEqualTo(expected);
+        assertThat(page.getTotalElements()).isEqualTo(products.stream().filter(findWithFilters(filter)).count());
+    }
+
+    @Test
+    void unsupportedSortOrdersAreLeftToTheDatabase() {
+        ProductFilter filter = ProductFilter.builder().build();
+
+        assertThat(snapshot.query(filter, PageRequest.of(0, 10, Sort.by("sku")))).isEmpty();
+        assertThat(snapshot.query(filter, PageRequest.of(0, 10, Sort.by("price", "productName")))).isEmpty();
+        assertThat(snapshot.query(filter, PageRequest.of(0, 10, Sort.by("createdAt")))).isPresent();
+    }
+
+    @Test
+    void facetsCountEachDimensionAgainstTheOtherFilters() {
+        ProductFilter filter = ProductFilter.builder().categoryId(2).brand("Globex").maxPrice(500.0)
+                .inStock(true).active(true).build();
+
+        ProductFacetsResponse facets = snapshot.facets(filter);
+
+        Predicate<ProductResponse> active = ProductResponse::isActive;
+        Predicate<ProductResponse> category = p -> Objects.equals(p.getCategoryId(), 2);
+        Predicate<ProductResponse> brand = p -> "Globex".equals(p.getBrand());
+        Predicate<ProductResponse> price = p -> p.getPrice() <= 500.0;
+        Predicate<ProductResponse> inStock = p -> p.getStockQuantity() > 0;
+
+        assertThat(counts(facets.getCategories())).isEqualTo(products.stream()
+                .filter(active.and(brand).and(price).and(inStock))
+                .filter(p -> p.getCategoryId() != null)
+                .collect(Collectors.groupingBy(p -> String.valueOf(p.getCategoryId()), Collectors.counting())));
+        assertThat(counts(facets.getBrands())).isEqualTo(products.stream()
+                .filter(active.and(category).and(price).and(inStock))
+                .filter(p -> p.getBrand() != null)
+                .collect(Collectors.groupingBy(ProductResponse::getBrand, Collectors.counting())));
+        assertThat(facets.getPriceRanges().stream().mapToLong(FacetCountResponse::getCount).sum())
+                .isEqualTo(products.stream().filter(active.and(category).and(brand).and(inStock)).count());
+        Predicate<ProductResponse> others = active.and(category).and(brand).and(price);
+        assertThat(counts(facets.getAvailability())).isEqualTo(Map.of(
+                "true", products.stream().filter(others.and(inStock)).count(),
+                "false", products.stream().filter(others.and(inStock.negate())).count()));
+    }
+
+    @Test
+    void facetCountsAreOrderedByCount() {
+        ProductFacetsResponse facets = snapshot.facets(ProductFilter.builder().build());
+
+        assertThat(facets.getCategories()).extracting(FacetCountResponse::getCount)
+                .isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(facets.getBrands()).extracting(FacetCountResponse::getCount)
+                .isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void withStockMovesAProductBetweenAvailabilityCounts() {
+        ProductResponse soldOut = products.stream().filter(p -> p.getStockQuantity() == 0).findFirst().orElseThrow();
+        ProductFilter inStock = ProductFilter.builder().inStock(true).build();
+        long before = snapshot.query(inStock, Pageable.unpaged()).orElseThrow().getTotalElements();
+
+        CatalogSnapshot restocked = snapshot.withStock(soldOut.getId(), 5, 2);
+
+        assertThat(restocked.getVersion()).isEqualTo(snapshot.getVersion() + 1);
+        assertThat(restocked.query(inStock, Pageable.unpaged()).orElseThrow().getTotalElements()).isEqualTo(before + 1);
+        assertThat(counts(restocked.facets(ProductFilter.builder().build()).getAvailability()).get("true"))
+                .isEqualTo(before + 1);
+        assertThat(snapshot.query(inStock, Pageable.unpaged()).orElseThrow().getTotalElements()).isEqualTo(before);
+        assertThat(soldOut.getStockQuantity()).isZero();
+    }
+
+    @Test
+    void withProductAndWithoutProductProduceNewVersions() {
+        ProductResponse added = product(1_000, "Standing Desk", "adjustable", 1, "Initech", 399.0, 3, true, null);
+
+        CatalogSnapshot withAdded = snapshot.withProduct(added);
+        CatalogSnapshot withoutAdded = withAdded.withoutProduct(1_000);
+
+        assertThat(withAdded.size()).isEqualTo(products.size() + 1);
+        assertThat(ids(withAdded.query(ProductFilter.builder().searchTerm("standing").build(), Pageable.unpaged())
+                .orElseThrow().getContent())).containsExactly(1_000);
+        assertThat(withoutAdded.size()).isEqualTo(products.size());
+        assertThat(withoutAdded.getVersion()).isEqualTo(snapshot.getVersion() + 2);
+        assertThat(withoutAdded.withoutProduct(1_000)).isSameAs(withoutAdded);
+    }
+
+    /**
+     * The WHERE clause of ProductRepository.findWithFilters, evaluated in memory.
+     */
+    private static Predicate<ProductResponse> findWithFilters(ProductFilter filter) {
+        return p -> {
+            String term = filter.getSearchTerm() != null ? filter.getSearchTerm().toLowerCase(Locale.ROOT) : "";
+            if (!term.isEmpty()
+                    && !p.getProductName().toLowerCase(Locale.ROOT).contains(term)
+                    && (p.getDescription() == null || !p.getDescription().toLowerCase(Locale.ROOT).contains(term))) {
+                return false;
+            }
+            if (filter.getCategoryId() != null && !filter.getCategoryId().equals(p.getCategoryId())) {
+                return false;
+            }
+            BigDecimal price = BigDecimal.valueOf(p.getPrice());
+            if (filter.getMinPrice() != null && price.compareTo(BigDecimal.valueOf(filter.getMinPrice())) < 0) {
+                return false;
+            }
+            if (filter.getMaxPrice() != null && price.compareTo(BigDecimal.valueOf(filter.getMaxPrice())) > 0) {
+                return false;
+            }
+            if (filter.getBrand() != null && !filter.getBrand().equals(p.getBrand())) {
+                return false;
+            }
+            if (filter.getActive() != null && filter.getActive() != p.isActive()) {
+                return false;
+            }
+            if (filter.getInStock() != null && filter.getInStock() != (p.getStockQuantity() > 0)) {
+                return false;
+            }
+            if (filter.getMinStock() != null && p.getStockQuantity() < filter.getMinStock()) {
+                return false;
+            }
+            return filter.getMaxStock() == null || p.getStockQuantity() <= filter.getMaxStock();
+        };
+    }
+
+    private static ProductResponse product(int id, String name, String description, Integer categoryId, String brand,
+                                           double price, int stock, boolean active, LocalDateTime createdAt) {
+        String categoryName = categoryId != null ? "Category " + categoryId : null;
+        return new ProductResponse(id, name, description, categoryId, categoryName, stock, 5,
+                price, price / 2, "SKU-" + id, brand, null, active, createdAt, createdAt);
+    }
+
+    private static List<Integer> ids(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::getId).toList();
+    }
+
+    private static Map<String, Long> counts(List<FacetCountResponse> facets) {
+        return facets.stream().collect(Collectors.toMap(FacetCountResponse::getValue, FacetCountResponse::getCount));
+    }
+
+    private static String describe(ProductFilter filter) {
+        return "search=" + filter.getSearchTerm() + " category=" + filter.getCategoryId()
+                + " min=" + filter.getMinPrice() + " max=" + filter.getMaxPrice()
+                + " brand=" + filter.getBrand() + " active=" + filter.getActive()
+                + " inStock=" + filter.getInStock() + " stock=" + filter.getMinStock() + ".." + filter.getMaxStock();
+    }
+}